@@ -97,6 +97,11 @@ public class Activity extends ModelEntityBase implements Serializable {
 
     private int wordCount;
 
+    // time of the last event of a new activity, if it is saved after several
+    // events have been added up
+    @Transient
+    private Date lastEventTime;
+
     public Activity(HPerson actor, IsEntityWithType context,
             IsEntityWithType target, ActivityType activityType, int wordCount) {
         this.actor = actor;
@@ -108,15 +113,39 @@ public class Activity extends ModelEntityBase implements Serializable {
         this.wordCount = wordCount;
     }
 
+    /**
+     * Creates an activity which already covers several events, eg when
+     * events have been aggregated in memory before being saved.
+     */
+    public Activity(HPerson actor, IsEntityWithType context,
+            IsEntityWithType target, ActivityType activityType, int wordCount,
+            int eventCount) {
+        this(actor, context, target, activityType, wordCount);
+        this.eventCount = eventCount;
+    }
+
     public void updateActivity(Date currentTime, IsEntityWithType target,
             int wordCount) {
+        updateActivity(currentTime, target, wordCount, 1);
+    }
+
+    public void updateActivity(Date currentTime, IsEntityWithType target,
+            int wordCount, int eventCount) {
         this.endOffsetMillis = currentTime.getTime() - approxTime.getTime();
         this.wordCount += wordCount;
-        this.eventCount++;
+        this.eventCount += eventCount;
         this.lastTargetType = target.getEntityType();
         this.lastTargetId = target.getId();
     }
 
+    /**
+     * Sets the time of the last event of a new activity which stands for
+     * several events. Otherwise the activity ends when it is created.
+     */
+    public void setLastEventTime(Date lastEventTime) {
+        this.lastEventTime = lastEventTime;
+    }
+
     @Transient
     public Date getEndDate() {
         return DateUtils.addMilliseconds(approxTime, (int) endOffsetMillis);
@@ -127,7 +156,10 @@ public class Activity extends ModelEntityBase implements Serializable {
         private void onPrePersist(Activity activity) {
             activity.approxTime = DateUtils.truncate(activity.getCreationDate(), Calendar.HOUR);
             activity.startOffsetMillis = activity.getCreationDate().getTime() - activity.approxTime.getTime();
-            activity.endOffsetMillis = activity.startOffsetMillis;
+            activity.endOffsetMillis =
+                    activity.lastEventTime == null ? activity.startOffsetMillis
+                            : activity.lastEventTime.getTime()
+                                    - activity.approxTime.getTime();
         }
 
     }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+
+import org.hibernate.annotations.Immutable;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counts the changes to the translations of a document in one locale, so that
+ * the state of a translated document can be checked (eg for an ETag) without
+ * looking at every one of its targets.
+ * <p>
+ * Rows are written by
+ * {@code org.zanata.dao.DocumentLocaleStateListener} with plain SQL when a
+ * session is flushed, never through this entity. A document and locale
+ * without a row have had no translation changes since the table was added,
+ * and are treated as revision 0.
+ */
+@Entity
+@Immutable
+@IdClass(HDocumentLocaleState.HDocumentLocaleStatePK.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class HDocumentLocaleState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Id
+    @Column(name = "locale_id", nullable = false)
+    private Long localeId;
+
+    /**
+     * Incremented whenever a target, target comment or target PO header of
+     * the document changes in this locale.
+     */
+    @Column(nullable = false)
+    private long revision;
+
+    @NotNull
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date lastChanged;
+
+    /**
+     * Used as IdClass for {@link HDocumentLocaleState}.
+     */
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class HDocumentLocaleStatePK implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        // These properties *must* have the same type and name as in the class
+        // that uses this in @IdClass.
+        private Long documentId;
+        private Long localeId;
+    }
+}
@@ -21,23 +21,25 @@
 package org.zanata.model;
 
 import java.io.Serializable;
-import java.sql.Blob;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
-import javax.validation.constraints.NotNull;
 
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * One part of a chunked {@link HDocumentUpload}. The content of the parts is
+ * kept in a file, outside the database; this records how much of it the part
+ * provided.
+ */
 @Entity
 @NoArgsConstructor
-// is this necessary?
 public class HDocumentUploadPart implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -47,7 +49,7 @@ public class HDocumentUploadPart implements Serializable {
     @Setter
     private HDocumentUpload upload;
     @Setter
-    private Blob content;
+    private long contentLength;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -62,10 +64,12 @@ public class HDocumentUploadPart implements Serializable {
         return upload;
     }
 
-    @NotNull
-    @Lob
-    public Blob getContent() {
-        return content;
+    /**
+     * @return number of bytes in this part
+     */
+    @Column(nullable = false)
+    public long getContentLength() {
+        return contentLength;
     }
 
     @Override
@@ -99,7 +99,7 @@ import org.zanata.model.type.TranslationSourceTypeType;
     @TypeDef(name = "sourceType", typeClass = TranslationSourceTypeType.class),
     @TypeDef(name = "entityType", typeClass = EntityTypeType.class)
 })
-@Indexed
+@Indexed(interceptor = HTextFlowTargetIndexingInterceptor.class)
 @Setter
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.model;
+
+import java.util.Set;
+
+import org.hibernate.search.indexes.interceptor.EntityIndexingInterceptor;
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Skips automatic indexing of translations written by a thread which is
+ * pushing translations in bulk, and remembers which ones were skipped. The
+ * push indexes them after it has finished, instead of on every commit while
+ * it holds the document lock.
+ * <p>
+ * Only the pushing thread is affected, so translations saved concurrently
+ * (eg in the editor) are still indexed as usual.
+ */
+public class HTextFlowTargetIndexingInterceptor implements
+        EntityIndexingInterceptor<HTextFlowTarget> {
+    private static final ThreadLocal<Set<Long>> skippedTargetIds =
+            new ThreadLocal<Set<Long>>();
+
+    /**
+     * Stops automatic indexing of targets written by the current thread until
+     * {@link #resumeIndexing()} is called.
+     */
+    public static void deferIndexing() {
+        skippedTargetIds.set(Sets.<Long> newHashSet());
+    }
+
+    /**
+     * Resumes automatic indexing for the current thread.
+     *
+     * @return ids of the targets whose indexing was skipped since
+     *         {@link #deferIndexing()}
+     */
+    public static Set<Long> resumeIndexing() {
+        Set<Long> skipped = skippedTargetIds.get();
+        skippedTargetIds.remove();
+        return skipped == null ? Sets.<Long> newHashSet() : skipped;
+    }
+
+    @Override
+    public IndexingOverride onAdd(HTextFlowTarget entity) {
+        return overrideFor(entity);
+    }
+
+    @Override
+    public IndexingOverride onUpdate(HTextFlowTarget entity) {
+        return overrideFor(entity);
+    }
+
+    @Override
+    public IndexingOverride onDelete(HTextFlowTarget entity) {
+        return IndexingOverride.APPLY_DEFAULT;
+    }
+
+    @Override
+    public IndexingOverride onCollectionUpdate(HTextFlowTarget entity) {
+        return overrideFor(entity);
+    }
+
+    private static IndexingOverride overrideFor(HTextFlowTarget entity) {
+        Set<Long> skipped = skippedTargetIds.get();
+        if (skipped != null && entity.getId() != null) {
+            skipped.add(entity.getId());
+            return IndexingOverride.SKIP;
+        }
+        return IndexingOverride.APPLY_DEFAULT;
+    }
+}
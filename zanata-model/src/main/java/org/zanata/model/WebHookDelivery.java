@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.model;
+
+import java.util.Date;
+
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Lob;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A webhook event which could not be delivered straight away, waiting to be
+ * retried. Refers to its {@link WebHook} by id only, so that removing the
+ * webhook isn't blocked by its pending deliveries; those are discarded
+ * instead.
+ */
+@Entity
+@Access(AccessType.FIELD)
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class WebHookDelivery extends ModelEntityBase {
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long webHookId;
+
+    /**
+     * The JSON body of the event.
+     */
+    @NotNull
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    /**
+     * Number of failed attempts so far.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    @NotNull
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date nextAttempt;
+
+    public WebHookDelivery(Long webHookId, String payload, int attempts,
+            Date nextAttempt) {
+        this.webHookId = webHookId;
+        this.payload = payload;
+        this.attempts = attempts;
+        this.nextAttempt = nextAttempt;
+    }
+}
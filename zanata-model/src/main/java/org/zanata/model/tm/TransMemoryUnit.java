@@ -62,7 +62,7 @@ import com.google.common.collect.Maps;
 @Data
 @NoArgsConstructor
 @Access(AccessType.FIELD)
-@Indexed
+@Indexed(interceptor = TransMemoryUnitIndexingInterceptor.class)
 public class TransMemoryUnit extends ModelEntityBase implements HasTMMetadata {
     private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.model.tm;
+
+import java.util.Set;
+
+import org.hibernate.search.indexes.interceptor.EntityIndexingInterceptor;
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Skips automatic indexing of translation units which belong to a translation
+ * memory being bulk imported. The importer indexes those units itself once
+ * the import has finished, which is much cheaper than indexing them on every
+ * commit.
+ */
+public class TransMemoryUnitIndexingInterceptor implements
+        EntityIndexingInterceptor<TransMemoryUnit> {
+    private static final Set<Long> deferredTransMemoryIds = Sets
+            .newConcurrentHashSet();
+
+    /**
+     * Stops automatic indexing of the units of a translation memory (on this
+     * node) until {@link #resumeIndexing(Long)} is called.
+     */
+    public static void deferIndexing(Long transMemoryId) {
+        deferredTransMemoryIds.add(transMemoryId);
+    }
+
+    public static void resumeIndexing(Long transMemoryId) {
+        deferredTransMemoryIds.remove(transMemoryId);
+    }
+
+    @Override
+    public IndexingOverride onAdd(TransMemoryUnit entity) {
+        return overrideFor(entity);
+    }
+
+    @Override
+    public IndexingOverride onUpdate(TransMemoryUnit entity) {
+        return overrideFor(entity);
+    }
+
+    @Override
+    public IndexingOverride onDelete(TransMemoryUnit entity) {
+        return IndexingOverride.APPLY_DEFAULT;
+    }
+
+    @Override
+    public IndexingOverride onCollectionUpdate(TransMemoryUnit entity) {
+        return overrideFor(entity);
+    }
+
+    private static IndexingOverride overrideFor(TransMemoryUnit entity) {
+        TransMemory tm = entity.getTranslationMemory();
+        if (tm != null && !deferredTransMemoryIds.isEmpty()
+                && deferredTransMemoryIds.contains(tm.getId())) {
+            return IndexingOverride.SKIP;
+        }
+        return IndexingOverride.APPLY_DEFAULT;
+    }
+}
@@ -28,6 +28,7 @@ import org.zanata.model.HAccountActivationKey;
 import org.zanata.model.HAccountResetPasswordKey;
 import org.zanata.model.HDocument;
 import org.zanata.model.HDocumentHistory;
+import org.zanata.model.HDocumentLocaleState;
 import org.zanata.model.HGlossaryEntry;
 import org.zanata.model.HGlossaryTerm;
 import org.zanata.model.HIterationGroup;
@@ -43,6 +44,7 @@ import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.HTextFlowTargetHistory;
 import org.zanata.model.HTextFlowTargetReviewComment;
 import org.zanata.model.WebHook;
+import org.zanata.model.WebHookDelivery;
 import org.zanata.model.po.HPoHeader;
 import org.zanata.model.po.HPoTargetHeader;
 import org.zanata.model.po.HPotEntryData;
@@ -85,14 +87,16 @@ public class ZanataEntities {
                 HTextFlow.class);
         builder.add(HPotEntryData.class);
         // documents
-        builder.add(HDocumentHistory.class, HDocument.class);
+        builder.add(HDocumentHistory.class, HDocumentLocaleState.class,
+                HDocument.class);
         builder.add(HPoHeader.class);
         // iteration group (references locales)
         builder.add(HIterationGroup.class);
         // locales
         builder.add(HLocaleMember.class, HLocale.class);
         // project
-        builder.add(HProjectIteration.class, WebHook.class, HProject.class);
+        builder.add(HProjectIteration.class, WebHookDelivery.class,
+                WebHook.class, HProject.class);
         // account
         builder.add(HAccountActivationKey.class, HCredentials.class,
                 HPersonEmailValidationKey.class,
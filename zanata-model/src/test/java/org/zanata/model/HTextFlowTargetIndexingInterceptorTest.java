@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+import org.junit.After;
+import org.junit.Test;
+
+public class HTextFlowTargetIndexingInterceptorTest {
+    private HTextFlowTargetIndexingInterceptor interceptor =
+            new HTextFlowTargetIndexingInterceptor();
+
+    @After
+    public void tearDown() {
+        HTextFlowTargetIndexingInterceptor.resumeIndexing();
+    }
+
+    private static HTextFlowTarget target(long id) {
+        HTextFlowTarget target = new HTextFlowTarget();
+        target.setId(id);
+        return target;
+    }
+
+    @Test
+    public void indexesImmediatelyByDefault() {
+        assertThat(interceptor.onAdd(target(1L)),
+                is(IndexingOverride.APPLY_DEFAULT));
+        assertThat(interceptor.onUpdate(target(1L)),
+                is(IndexingOverride.APPLY_DEFAULT));
+        assertThat(HTextFlowTargetIndexingInterceptor.resumeIndexing(),
+                is(empty()));
+    }
+
+    @Test
+    public void deferredTargetsAreReturnedForIndexingAfterThePush() {
+        HTextFlowTargetIndexingInterceptor.deferIndexing();
+
+        assertThat(interceptor.onAdd(target(1L)), is(IndexingOverride.SKIP));
+        assertThat(interceptor.onUpdate(target(2L)),
+                is(IndexingOverride.SKIP));
+        assertThat(interceptor.onUpdate(target(1L)),
+                is(IndexingOverride.SKIP));
+        // deletions must still remove the target from the index
+        assertThat(interceptor.onDelete(target(3L)),
+                is(IndexingOverride.APPLY_DEFAULT));
+
+        Set<Long> skipped = HTextFlowTargetIndexingInterceptor.resumeIndexing();
+        assertThat(skipped, containsInAnyOrder(1L, 2L));
+
+        // later commits are indexed as usual again
+        assertThat(interceptor.onUpdate(target(1L)),
+                is(IndexingOverride.APPLY_DEFAULT));
+    }
+
+    @Test
+    public void otherThreadsAreIndexedImmediately() throws Exception {
+        HTextFlowTargetIndexingInterceptor.deferIndexing();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            IndexingOverride override =
+                    executor.submit(() -> interceptor.onUpdate(target(1L)))
+                            .get();
+            assertThat(override, is(IndexingOverride.APPLY_DEFAULT));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(HTextFlowTargetIndexingInterceptor.resumeIndexing(),
+                is(empty()));
+    }
+}
@@ -954,8 +954,13 @@ public class VersionHomeAction extends AbstractSortAction implements
             }
             filePersistService.persistRawDocumentContentFromFile(rawDocument,
                     tempFile, FilenameUtils.getExtension(fileName));
+            HRawDocument oldRawDocument = document.getRawDocument();
             documentDAO.addRawDocument(document, rawDocument);
             documentDAO.flush();
+            if (oldRawDocument != null && oldRawDocument.getFileId() != null) {
+                filePersistService.releaseRawDocumentContent(oldRawDocument
+                        .getFileId());
+            }
         }
 
         translationFileServiceImpl.removeTempFile(tempFile);
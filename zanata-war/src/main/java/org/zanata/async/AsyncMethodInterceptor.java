@@ -29,6 +29,7 @@ import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.Future;
 
 /**
@@ -102,8 +103,17 @@ public class AsyncMethodInterceptor {
                 }
             };
 
-            ListenableFuture<Object> futureResult =
-                    taskManager.startTask(asyncTask);
+            ListenableFuture<Object> futureResult;
+            try {
+                futureResult =
+                        taskManager.startTask(asyncTask,
+                                getTaskType(ctx.getMethod()));
+            } catch (AsyncTaskRejectedException e) {
+                if (handle.isPresent()) {
+                    taskHandleManager.taskFinished(handle.get());
+                }
+                throw e;
+            }
             if (handle.isPresent()) {
                 handle.get().setFutureResult(futureResult);
             }
@@ -114,6 +124,14 @@ public class AsyncMethodInterceptor {
         }
     }
 
+    private static AsyncTaskType getTaskType(Method method) {
+        Async async = method.getAnnotation(Async.class);
+        if (async == null) {
+            async = method.getDeclaringClass().getAnnotation(Async.class);
+        }
+        return async != null ? async.value() : AsyncTaskType.DEFAULT;
+    }
+
     private AsyncTaskHandle findHandleIfPresent(Object[] params) {
         for (Object param : params) {
             if (param instanceof AsyncTaskHandle) {
@@ -61,7 +61,7 @@ public class AsyncTaskHandle<V> {
     @Getter
     private long finishTime = -1;
 
-    public int increaseProgress(int increaseBy) {
+    public synchronized int increaseProgress(int increaseBy) {
         currentProgress += increaseBy;
         return currentProgress;
     }
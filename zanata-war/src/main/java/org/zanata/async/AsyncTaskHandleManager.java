@@ -22,6 +22,7 @@ package org.zanata.async;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +45,9 @@ public class AsyncTaskHandleManager {
     private Map<Serializable, AsyncTaskHandle> handlesByKey = Maps
             .newConcurrentMap();
 
+    private final Map<AsyncTaskType, AsyncTaskLane> lanes = Maps
+            .newConcurrentMap();
+
     // Cache of recently completed tasks
     private Cache<Serializable, AsyncTaskHandle> finishedTasks = CacheBuilder
             .newBuilder().expireAfterWrite(10, TimeUnit.MINUTES)
@@ -82,6 +86,17 @@ public class AsyncTaskHandleManager {
         }
     }
 
+    void registerLane(AsyncTaskLane lane) {
+        lanes.put(lane.getTaskType(), lane);
+    }
+
+    /**
+     * @return queue depth, wait time and run time metrics of every task lane
+     */
+    public Collection<AsyncTaskLane> getLanes() {
+        return Collections.unmodifiableCollection(lanes.values());
+    }
+
     public AsyncTaskHandle getHandleByKey(Serializable key) {
         if (handlesByKey.containsKey(key)) {
             return handlesByKey.get(key);
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A fixed size thread pool with an optionally bounded queue, running one
+ * {@link AsyncTaskType} of task, along with its metrics.
+ */
+public class AsyncTaskLane {
+    private final AsyncTaskType taskType;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+
+    /**
+     * @param queueSize
+     *            maximum number of waiting tasks, or 0 for no limit
+     */
+    AsyncTaskLane(AsyncTaskType taskType, int threads, int queueSize) {
+        this.taskType = taskType;
+        BlockingQueue<Runnable> queue =
+                queueSize > 0 ? new ArrayBlockingQueue<>(queueSize)
+                        : new LinkedBlockingQueue<>();
+        executor =
+                new ThreadPoolExecutor(threads, threads, 0L,
+                        TimeUnit.MILLISECONDS, queue,
+                        new ThreadFactoryBuilder().setNameFormat(
+                                "async-" + taskType.getPropertyName() + "-%d")
+                                .build());
+    }
+
+    /**
+     * @throws AsyncTaskRejectedException
+     *             if the lane's queue is full
+     */
+    void execute(Runnable command) {
+        final long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                totalWaitNanos.add(started - submitted);
+                try {
+                    command.run();
+                } finally {
+                    totalRunNanos.add(System.nanoTime() - started);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AsyncTaskRejectedException(taskType);
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @VisibleForTesting
+    boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    public AsyncTaskType getTaskType() {
+        return taskType;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return average time completed tasks spent in the queue (milliseconds)
+     */
+    public long getAverageWaitMillis() {
+        return averageMillis(totalWaitNanos.sum());
+    }
+
+    /**
+     * @return average time completed tasks spent running (milliseconds)
+     */
+    public long getAverageRunMillis() {
+        return averageMillis(totalRunNanos.sum());
+    }
+
+    private long averageMillis(long totalNanos) {
+        long count = completed.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos
+                / count);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("taskType", taskType)
+                .add("queueDepth", getQueueDepth())
+                .add("active", getActiveCount())
+                .add("completed", getCompletedCount())
+                .add("rejected", getRejectedCount())
+                .add("avgWaitMillis", getAverageWaitMillis())
+                .add("avgRunMillis", getAverageRunMillis())
+                .toString();
+    }
+}
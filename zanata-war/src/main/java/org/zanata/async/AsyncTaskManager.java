@@ -21,9 +21,11 @@
 package org.zanata.async;
 
 import java.security.Principal;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -49,6 +51,10 @@ import org.zanata.util.ServiceLocator;
 import com.google.common.util.concurrent.ListenableFuture;
 
 /**
+ * Runs asynchronous tasks. Each {@link AsyncTaskType} has its own lane (thread
+ * pool and bounded queue), and a task whose lane is full is rejected rather
+ * than queued without limit.
+ *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
  */
@@ -59,20 +65,42 @@ import com.google.common.util.concurrent.ListenableFuture;
 public class AsyncTaskManager {
 
     // TODO use ManagedExecutorService on Java EE 7, so that we can eg inject UserTransaction
-    private ExecutorService scheduler;
+    private final Map<AsyncTaskType, AsyncTaskLane> lanes =
+            new EnumMap<>(AsyncTaskType.class);
 
     @Inject
     private AsyncConfig asyncConfig;
 
+    @Inject
+    private AsyncTaskHandleManager asyncTaskHandleManager;
+
     @PostConstruct
     public void init() {
-        scheduler =
-                Executors.newFixedThreadPool(asyncConfig.getThreadPoolSize());
+        for (AsyncTaskType taskType : AsyncTaskType.values()) {
+            AsyncTaskLane lane =
+                    new AsyncTaskLane(taskType,
+                            asyncConfig.getLaneThreads(taskType),
+                            asyncConfig.getLaneQueueSize(taskType));
+            lanes.put(taskType, lane);
+            asyncTaskHandleManager.registerLane(lane);
+        }
     }
 
     @PreDestroy
     public void cleanup() {
-        scheduler.shutdown();
+        for (AsyncTaskLane lane : lanes.values()) {
+            lane.shutdown();
+        }
+    }
+
+    /**
+     * Starts a task asynchronously in the default lane.
+     *
+     * @see #startTask(AsyncTask, AsyncTaskType)
+     */
+    public <V> ListenableFuture<V> startTask(
+            final @Nonnull AsyncTask<Future<V>> task) {
+        return startTask(task, AsyncTaskType.DEFAULT);
     }
 
     /**
@@ -80,11 +108,14 @@ public class AsyncTaskManager {
      * In its present implementation can only run tasks which expect a
      * {@code Future} result.
      * @param task The task to run.
+     * @param taskType The lane to run the task in.
      * @param <V> The type of result expected.
      * @return A listenable future for the expected result.
+     * @throws AsyncTaskRejectedException if the lane's queue is full
      */
     public <V> ListenableFuture<V> startTask(
-            final @Nonnull AsyncTask<Future<V>> task) {
+            final @Nonnull AsyncTask<Future<V>> task,
+            @Nonnull AsyncTaskType taskType) {
         HAccount taskOwner = ServiceLocator.instance()
                 .getInstance(HAccount.class, new AuthenticatedLiteral());
         ZanataIdentity ownerIdentity = ZanataIdentity.instance();
@@ -127,10 +158,30 @@ public class AsyncTaskManager {
             }
         };
 
-        scheduler.execute(executableCommand);
+        lanes.get(taskType).execute(executableCommand);
         return taskFuture;
     }
 
+    /**
+     * Returns an Executor which runs each command as a task in the given
+     * lane. Lets code written against plain executors use the lanes.
+     *
+     * @return an Executor which throws RejectedExecutionException when the
+     *         lane's queue is full
+     */
+    public Executor laneExecutor(@Nonnull AsyncTaskType taskType) {
+        return command -> {
+            try {
+                startTask(() -> {
+                    command.run();
+                    return AsyncTaskResult.<Void>taskResult();
+                }, taskType);
+            } catch (AsyncTaskRejectedException e) {
+                throw new RejectedExecutionException(e);
+            }
+        };
+    }
+
     private static <V> V getReturnValue(Future<V> asyncTaskFuture)
             throws Exception {
         // If the async method returns void
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import org.zanata.exception.ZanataServiceException;
+
+/**
+ * Thrown when an asynchronous task can't be started because its lane's queue
+ * is full. Maps to 503 (Service Unavailable) in REST responses, so that
+ * clients know to try again later.
+ */
+public class AsyncTaskRejectedException extends ZanataServiceException {
+    private static final long serialVersionUID = 1L;
+
+    public AsyncTaskRejectedException(AsyncTaskType taskType) {
+        super("Too many " + taskType.getPropertyName()
+                + " tasks are waiting to run. Please try again later.", 503);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+/**
+ * Kinds of asynchronous task. Each kind runs in its own lane (thread pool and
+ * bounded queue), so that a burst of long running tasks of one kind can't
+ * starve the others. See {@link Async#value()}.
+ *
+ * @see org.zanata.config.AsyncConfig
+ */
+public enum AsyncTaskType {
+    /**
+     * Everything not assigned to a specific lane. Sized by
+     * {@link org.zanata.config.AsyncConfig#THREAD_POOL_SIZE}.
+     */
+    DEFAULT(0, 0),
+    COPY_TRANS(2, 100),
+    COPY_VERSION(2, 50),
+    MERGE(2, 50),
+    TM_IMPORT(4, 20),
+    /**
+     * Interactive: users wait for these (eg document download archives), so
+     * this lane has the most threads of the non-default lanes.
+     */
+    FILE_GENERATION(4, 100),
+    /**
+     * Background reloads of near-cached entries (see
+     * {@link org.zanata.cache.InfinispanCacheWrapper}). When the queue is
+     * full, the stale value is served until a later refresh gets through.
+     */
+    CACHE_REFRESH(2, 200),
+    /**
+     * Workers of a partitioned search reindex (see
+     * {@link org.zanata.config.ReindexConfig#WORKERS}). The task which starts
+     * the reindex runs elsewhere, so it can wait for these without holding
+     * one of their threads. Also indexes the targets saved by a translation
+     * push (see {@link org.zanata.service.impl.TranslationServiceImpl}) once
+     * the push has finished.
+     */
+    REINDEX(4, 20),
+    /**
+     * Workers rendering the files of a translation archive (see
+     * {@link org.zanata.service.impl.TranslationArchiveServiceImpl}). The
+     * task which builds the archive runs in {@link #FILE_GENERATION}, so it
+     * can wait for these without holding one of their threads.
+     */
+    FILE_RENDER(4, 100),
+    /**
+     * Posts webhook events (see
+     * {@link org.zanata.webhook.WebhookDispatcher}). Each task drains the
+     * queue of a single webhook URL, so a slow receiver holds at most one
+     * thread.
+     */
+    WEBHOOK(4, 100),
+    /**
+     * Generates translated files after a push, so that later downloads are
+     * served from {@link org.zanata.file.TranslatedFileCache}. When the queue
+     * is full, the file is generated by the first download instead.
+     */
+    FILE_CACHE_WARMING(1, 50);
+
+    private final int defaultThreads;
+    private final int defaultQueueSize;
+
+    AsyncTaskType(int defaultThreads, int defaultQueueSize) {
+        this.defaultThreads = defaultThreads;
+        this.defaultQueueSize = defaultQueueSize;
+    }
+
+    public int getDefaultThreads() {
+        return defaultThreads;
+    }
+
+    /**
+     * @return default maximum number of waiting tasks, or 0 for no limit
+     */
+    public int getDefaultQueueSize() {
+        return defaultQueueSize;
+    }
+
+    /**
+     * @return name used in configuration properties, eg "copy-version"
+     */
+    public String getPropertyName() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
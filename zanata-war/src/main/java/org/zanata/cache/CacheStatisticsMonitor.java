@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.zanata.util.Introspectable;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Publishes the near-cache statistics of each named
+ * {@link InfinispanCacheWrapper} through the monitoring REST API.
+ */
+public class CacheStatisticsMonitor implements Introspectable {
+    public static final String INTROSPECTABLE_FIELD_NEAR_CACHE_STATISTICS =
+            "NearCacheStatistics";
+
+    private static final CacheStatisticsMonitor INSTANCE =
+            new CacheStatisticsMonitor();
+
+    // sorted by cache name, for stable output
+    private final ConcurrentMap<String, InfinispanCacheWrapper<?, ?>> wrappers =
+            new ConcurrentSkipListMap<>();
+
+    public static CacheStatisticsMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a wrapper, replacing any earlier wrapper of the same cache.
+     */
+    void register(String cacheName, InfinispanCacheWrapper<?, ?> wrapper) {
+        wrappers.put(cacheName, wrapper);
+    }
+
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public Collection<String> getIntrospectableFieldNames() {
+        return Collections
+                .singletonList(INTROSPECTABLE_FIELD_NEAR_CACHE_STATISTICS);
+    }
+
+    @Override
+    public String getFieldValueAsString(String fieldName) {
+        if (INTROSPECTABLE_FIELD_NEAR_CACHE_STATISTICS.equals(fieldName)) {
+            return summarizeStats();
+        }
+        throw new IllegalArgumentException("unknown field:" + fieldName);
+    }
+
+    private String summarizeStats() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, InfinispanCacheWrapper<?, ?>> entry : wrappers
+                .entrySet()) {
+            CacheStats stats = entry.getValue().getStats();
+            summary.append(Objects.toStringHelper(entry.getKey())
+                    .add("hits", stats.hitCount())
+                    .add("misses", stats.missCount())
+                    .add("hitRate", String.format("%.3f", stats.hitRate()))
+                    .add("loads", stats.loadCount())
+                    .add("loadFailures", stats.loadExceptionCount())
+                    .add("avgLoadMillis", TimeUnit.NANOSECONDS
+                            .toMillis((long) stats.averageLoadPenalty()))
+                    .add("evictions", stats.evictionCount())
+                    .toString());
+            summary.append('\n');
+        }
+        return summary.toString();
+    }
+}
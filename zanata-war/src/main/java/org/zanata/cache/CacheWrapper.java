@@ -8,4 +8,11 @@ public interface CacheWrapper<K, V> {
     V getWithLoader(K key);
 
     boolean remove(K key);
+
+    /**
+     * Replaces the entry for key only if it is currently equal to oldValue.
+     *
+     * @return true if the entry was replaced
+     */
+    boolean replace(K key, V oldValue, V newValue);
 }
@@ -20,18 +20,74 @@
  */
 package org.zanata.cache;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.extern.slf4j.Slf4j;
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ExpirationConfiguration;
 import org.infinispan.manager.CacheContainer;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.zanata.async.AsyncTaskManager;
+import org.zanata.async.AsyncTaskType;
+import org.zanata.util.ServiceLocator;
+import org.zanata.util.SysProperties;
 
 /**
+ * Wraps an Infinispan cache. If the wrapper has a loader, reads go through a
+ * local near-cache first:
+ * <ul>
+ * <li>concurrent misses on the same key share a single load, instead of
+ * each running the (often expensive) loader;</li>
+ * <li>entries older than {@link SysProperties#NEAR_CACHE_REFRESH_SECONDS}
+ * are reloaded in the background on their next read, while the old value
+ * keeps being served;</li>
+ * <li>entries expire with the lifespan and max idle time of the Infinispan
+ * cache, so they are not served for longer than Infinispan would;</li>
+ * <li>hit, miss and load time statistics are kept per cache and published
+ * through {@link CacheStatisticsMonitor}.</li>
+ * </ul>
+ * Writes go to both caches. If the Infinispan cache is clustered, changes
+ * made on other nodes invalidate the near-cached entry. Loaded values are
+ * only stored if the Infinispan entry was not changed while loading, so a
+ * slow load never overwrites a newer value.
+ *
  * @author Carlos Munoz <a href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
  */
+@Slf4j
 public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
 
+    /**
+     * Runs background refreshes in the cache refresh lane of the async task
+     * manager, which gives the loaders a request context to work in.
+     */
+    private static final Executor REFRESH_EXECUTOR =
+            command -> ServiceLocator.instance()
+                    .getInstance(AsyncTaskManager.class)
+                    .laneExecutor(AsyncTaskType.CACHE_REFRESH)
+                    .execute(command);
+
     private final String cacheName;
     private final CacheContainer cacheContainer;
     private CacheLoader<K, V> cacheLoader;
+    private Executor refreshExecutor;
+    // null if there is no cache loader
+    private LoadingCache<K, V> nearCache;
 
     public InfinispanCacheWrapper(String cacheName,
             CacheContainer cacheContainer) {
@@ -42,45 +98,152 @@ public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
     public InfinispanCacheWrapper(String cacheName,
             CacheContainer cacheContainer,
             CacheLoader<K, V> cacheLoader) {
+        this(cacheName, cacheContainer, cacheLoader,
+                SysProperties.getLong(SysProperties.NEAR_CACHE_MAX_SIZE,
+                        10000),
+                SysProperties.getLong(
+                        SysProperties.NEAR_CACHE_REFRESH_SECONDS, 300),
+                REFRESH_EXECUTOR, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    InfinispanCacheWrapper(String cacheName, CacheContainer cacheContainer,
+            CacheLoader<K, V> cacheLoader, long nearCacheMaxSize,
+            long refreshSeconds, Executor refreshExecutor, Ticker ticker) {
         this(cacheName, cacheContainer);
         this.cacheLoader = cacheLoader;
+        this.refreshExecutor = refreshExecutor;
+        CacheBuilder<Object, Object> builder =
+                CacheBuilder.newBuilder().maximumSize(nearCacheMaxSize)
+                        .ticker(ticker).recordStats();
+        if (refreshSeconds > 0) {
+            builder.refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS);
+        }
+        ExpirationConfiguration expiration =
+                getCache().getCacheConfiguration().expiration();
+        if (expiration.lifespan() > 0) {
+            builder.expireAfterWrite(expiration.lifespan(),
+                    TimeUnit.MILLISECONDS);
+        }
+        if (expiration.maxIdle() > 0) {
+            builder.expireAfterAccess(expiration.maxIdle(),
+                    TimeUnit.MILLISECONDS);
+        }
+        this.nearCache = builder.build(new NearCacheLoader());
+        CacheStatisticsMonitor.getInstance().register(cacheName, this);
+        listenForRemoteChanges();
     }
 
     @Override
     public void put(K key, V value) {
         getCache().put(key, value);
+        if (nearCache != null) {
+            nearCache.put(key, value);
+        }
     }
 
     @Override
     public V get(K key) {
+        if (nearCache != null) {
+            V nearValue = nearCache.getIfPresent(key);
+            if (nearValue != null) {
+                return nearValue;
+            }
+        }
         return getCache().get(key);
     }
 
     @Override
-    public synchronized V getWithLoader(K key) {
-        // NB: Need to manually implement the cache loader feature
-        V cachedValue = getCache().get(key);
-        if(cachedValue == null && cacheLoader != null) {
-            try {
-                cachedValue = cacheLoader.load(key);
-            } catch (Exception e) {
-                throw new RuntimeException(
-                        "Unable to load entry with cache loader ", e);
-            }
-            getCache().put(key, cachedValue);
+    public V getWithLoader(K key) {
+        if (nearCache == null) {
+            return getCache().get(key);
+        }
+        try {
+            return nearCache.getUnchecked(key);
+        } catch (InvalidCacheLoadException e) {
+            // the loader returned null, which is not cached
+            return null;
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            throw new RuntimeException(
+                    "Unable to load entry with cache loader ", e.getCause());
         }
-        return cachedValue;
     }
 
     @Override
     public boolean remove(K key) {
-        return getCache().remove(key) != null;
+        boolean removed = getCache().remove(key) != null;
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        boolean replaced = getCache().replace(key, oldValue, newValue);
+        if (nearCache != null) {
+            if (replaced) {
+                nearCache.put(key, newValue);
+            } else {
+                // the near-cached value may be the stale one
+                nearCache.invalidate(key);
+            }
+        }
+        return replaced;
     }
 
     public Cache<K, V> getCache() {
         return cacheContainer.getCache(cacheName);
     }
 
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * @return near-cache statistics, or empty statistics if this wrapper has
+     *         no loader
+     */
+    public CacheStats getStats() {
+        return nearCache != null ? nearCache.stats() : new CacheStats(0, 0,
+                0, 0, 0, 0);
+    }
+
+    /**
+     * Runs the loader and stores its result in the Infinispan cache, unless
+     * the entry has been changed since the load started (eg by an
+     * incremental update), in which case the newer value is returned
+     * instead.
+     *
+     * @param expected
+     *            the Infinispan entry before loading, or null if there was
+     *            none
+     */
+    private V loadAndStore(K key, V expected) throws Exception {
+        V loaded = cacheLoader.load(key);
+        if (loaded == null) {
+            return null;
+        }
+        Cache<K, V> cache = getCache();
+        V current;
+        if (expected == null) {
+            current = cache.putIfAbsent(key, loaded);
+        } else if (cache.replace(key, expected, loaded)) {
+            current = null;
+        } else {
+            current = cache.get(key);
+        }
+        return current != null ? current : loaded;
+    }
+
+    private void listenForRemoteChanges() {
+        Cache<K, V> cache = getCache();
+        if (cache.getCacheConfiguration().clustering().cacheMode()
+                .isClustered()) {
+            cache.addListener(new RemoteChangeListener(nearCache));
+        }
+    }
+
     public static <K, V> InfinispanCacheWrapper<K, V> create(
             final String cacheName,
             final CacheContainer cacheManager) {
@@ -94,4 +257,53 @@ public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
         cacheManager.getCache(cacheName);
         return new InfinispanCacheWrapper<K, V>(cacheName, cacheManager, loader);
     }
+
+    private class NearCacheLoader extends CacheLoader<K, V> {
+        @Override
+        public V load(K key) throws Exception {
+            V cached = getCache().get(key);
+            if (cached != null) {
+                return cached;
+            }
+            return loadAndStore(key, null);
+        }
+
+        @Override
+        public ListenableFuture<V> reload(K key, V oldValue) {
+            // a null result or failure leaves the old value in place
+            ListenableFutureTask<V> task =
+                    ListenableFutureTask.create(
+                            () -> loadAndStore(key, getCache().get(key)));
+            refreshExecutor.execute(task);
+            return task;
+        }
+    }
+
+    /**
+     * Invalidates near-cached entries which have been changed or removed on
+     * another node.
+     */
+    @Listener
+    public static class RemoteChangeListener {
+        private final LoadingCache<?, ?> nearCache;
+
+        RemoteChangeListener(LoadingCache<?, ?> nearCache) {
+            this.nearCache = nearCache;
+        }
+
+        @CacheEntryModified
+        @CacheEntryRemoved
+        public void entryChanged(CacheEntryEvent<?, ?> event) {
+            if (!event.isPre() && !event.isOriginLocal()) {
+                nearCache.invalidate(event.getKey());
+            }
+        }
+
+        @CacheEntryInvalidated
+        public void entryInvalidated(CacheEntryEvent<?, ?> event) {
+            if (!event.isPre()) {
+                nearCache.invalidate(event.getKey());
+            }
+        }
+    }
 }
@@ -22,6 +22,7 @@ package org.zanata.config;
 
 import com.google.common.annotations.VisibleForTesting;
 import lombok.NoArgsConstructor;
+import org.zanata.async.AsyncTaskType;
 import javax.inject.Inject;
 import javax.inject.Named;
 
@@ -40,6 +41,13 @@ public class AsyncConfig {
 
     public static final String THREAD_POOL_SIZE = "async.threadpool.size";
 
+    /**
+     * Prefix of the per-lane properties, eg
+     * "async.lane.copy-version.threads" and "async.lane.copy-version.queue".
+     * See {@link AsyncTaskType}.
+     */
+    public static final String LANE_PREFIX = "async.lane.";
+
     @Inject
     private SystemPropertyConfigStore systemPropertyConfigStore;
 
@@ -50,4 +58,21 @@ public class AsyncConfig {
     public int getThreadPoolSize() {
         return systemPropertyConfigStore.get(THREAD_POOL_SIZE, 10);
     }
+
+    public int getLaneThreads(AsyncTaskType taskType) {
+        int defaultThreads =
+                taskType == AsyncTaskType.DEFAULT ? getThreadPoolSize()
+                        : taskType.getDefaultThreads();
+        return Math.max(1, systemPropertyConfigStore.get(LANE_PREFIX
+                + taskType.getPropertyName() + ".threads", defaultThreads));
+    }
+
+    /**
+     * @return maximum number of tasks waiting in the lane, or 0 for no limit
+     */
+    public int getLaneQueueSize(AsyncTaskType taskType) {
+        return Math.max(0, systemPropertyConfigStore.get(LANE_PREFIX
+                + taskType.getPropertyName() + ".queue",
+                taskType.getDefaultQueueSize()));
+    }
 }
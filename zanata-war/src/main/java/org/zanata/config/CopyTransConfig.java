@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for copy trans.
+ */
+@Named("copyTransConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class CopyTransConfig {
+
+    /**
+     * Number of text flows whose matches are resolved with a single query
+     * (and saved in a single transaction).
+     */
+    public static final String BATCH_SIZE = "zanata.copytrans.batch.size";
+
+    /**
+     * Maximum number of locales of a document to process at the same time.
+     * Locales beyond the first are processed on the async task pool.
+     */
+    public static final String LOCALE_PARALLELISM =
+            "zanata.copytrans.locale.parallelism";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public CopyTransConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, systemPropertyConfigStore.get(BATCH_SIZE, 100));
+    }
+
+    public int getLocaleParallelism() {
+        return Math.max(1,
+                systemPropertyConfigStore.get(LOCALE_PARALLELISM, 1));
+    }
+}
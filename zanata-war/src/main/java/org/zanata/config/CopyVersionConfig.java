@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for copy version.
+ */
+@Named("copyVersionConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class CopyVersionConfig {
+
+    /**
+     * Whether to copy the translations of each document with set-wise SQL
+     * (the default), rather than entity by entity. Set to false to always
+     * use the entity copy, which is also used when the bulk copy of a
+     * document fails.
+     */
+    public static final String BULK_COPY = "zanata.copyversion.bulk";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public CopyVersionConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public boolean isBulkCopy() {
+        String value = systemPropertyConfigStore.get(BULK_COPY);
+        return value == null || Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for generating translation file downloads.
+ */
+@Named("downloadConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class DownloadConfig {
+
+    /**
+     * Memory in megabytes for keeping rendered translation files, so that
+     * unchanged documents are not rendered again for the next archive
+     * download. Zero disables the cache.
+     */
+    public static final String FILE_CACHE_SIZE =
+            "zanata.download.cache.size";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public DownloadConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public int getFileCacheSizeMB() {
+        return Math.max(0, systemPropertyConfigStore.get(FILE_CACHE_SIZE, 64));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for application locks (see
+ * {@link org.zanata.service.LockManagerService}).
+ */
+@Named("lockConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class LockConfig {
+
+    /**
+     * Set to true when several Zanata nodes share a database, so that locks
+     * are kept in the shared Infinispan cache container instead of in memory.
+     */
+    public static final String CLUSTERED = "zanata.lock.clustered";
+
+    /**
+     * How long a shared lock is held without being renewed before it can be
+     * taken over, in seconds (at least {@value #MIN_LEASE_SECONDS}). Nodes
+     * renew their locks every {@value #RENEWAL_SECONDS} seconds, so this only
+     * frees locks left behind by a node which died or stalled.
+     */
+    public static final String LEASE_SECONDS = "zanata.lock.lease.seconds";
+
+    public static final int RENEWAL_SECONDS = 15;
+    static final int MIN_LEASE_SECONDS = RENEWAL_SECONDS * 4;
+    private static final int DEFAULT_LEASE_SECONDS = 300;
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public LockConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public boolean isClustered() {
+        return Boolean.parseBoolean(systemPropertyConfigStore.get(CLUSTERED));
+    }
+
+    public long getLeaseMillis() {
+        return TimeUnit.SECONDS.toMillis(Math.max(MIN_LEASE_SECONDS,
+                systemPropertyConfigStore.get(LEASE_SECONDS,
+                        DEFAULT_LEASE_SECONDS)));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for rebuilding the search indexes.
+ */
+@Named("reindexConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class ReindexConfig {
+
+    /**
+     * Number of workers which reindex a single entity class at the same time,
+     * each with its own session. With one worker (the default) each class is
+     * reindexed by a single scroll over the whole table. Workers run in the
+     * reindex lane of the async task manager, so the lane should have at
+     * least this many threads.
+     */
+    public static final String WORKERS = "zanata.reindex.workers";
+
+    /**
+     * Span of entity ids read by a worker in one query, when reindexing with
+     * more than one worker.
+     */
+    public static final String PARTITION_SIZE =
+            "zanata.reindex.partition.size";
+
+    /**
+     * Number of entities whose index documents are built and flushed
+     * together, when reindexing with more than one worker.
+     */
+    public static final String BATCH_SIZE = "zanata.reindex.batch.size";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public ReindexConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public int getWorkers() {
+        return Math.max(1, systemPropertyConfigStore.get(WORKERS, 1));
+    }
+
+    public long getPartitionSize() {
+        return Math.max(1,
+                systemPropertyConfigStore.get(PARTITION_SIZE, 50000));
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, systemPropertyConfigStore.get(BATCH_SIZE, 1000));
+    }
+}
@@ -60,6 +60,9 @@ public class SystemPropertyConfigStore implements ConfigStore {
     @Override
     public int get(String propertyName, int defaultValue) {
         String value = get(propertyName);
+        if (value == null) {
+            return defaultValue;
+        }
         try {
             return Integer.valueOf(value);
         } catch (NumberFormatException e) {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for importing and exporting TMX files.
+ */
+@Named("tmxConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class TMXConfig {
+
+    /**
+     * Number of translation units saved in a single transaction.
+     */
+    public static final String BATCH_SIZE = "zanata.tmx.import.batch.size";
+
+    /**
+     * Number of batches saved at the same time. With more than one writer,
+     * batches are saved in the TM import lane of the async task manager and
+     * search indexing is done in bulk once the whole file has been saved.
+     */
+    public static final String WRITERS = "zanata.tmx.import.writers";
+
+    /**
+     * Number of export chunks generated at the same time for a full TMX
+     * export.
+     */
+    public static final String EXPORT_PARALLELISM =
+            "zanata.tmx.export.parallelism";
+
+    /**
+     * Span of entity ids covered by one export chunk. Each chunk is read by
+     * its own database cursor.
+     */
+    public static final String EXPORT_CHUNK_SIZE =
+            "zanata.tmx.export.chunk.size";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public TMXConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, systemPropertyConfigStore.get(BATCH_SIZE, 100));
+    }
+
+    public int getWriters() {
+        return Math.max(1, systemPropertyConfigStore.get(WRITERS, 1));
+    }
+
+    public int getExportParallelism() {
+        return Math.max(1,
+                systemPropertyConfigStore.get(EXPORT_PARALLELISM, 4));
+    }
+
+    public long getExportChunkSize() {
+        return Math.max(1,
+                systemPropertyConfigStore.get(EXPORT_CHUNK_SIZE, 10000));
+    }
+}
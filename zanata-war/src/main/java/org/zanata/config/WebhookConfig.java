@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.config;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Holds configuration values for delivering webhook events.
+ */
+@Named("webhookConfig")
+@javax.enterprise.context.Dependent
+@NoArgsConstructor
+public class WebhookConfig {
+
+    /**
+     * Number of events which may wait to be posted to a single webhook URL.
+     * Events beyond this are saved to the database and posted by the retry
+     * job instead.
+     */
+    public static final String QUEUE_SIZE = "zanata.webhook.queue.size";
+
+    /**
+     * Seconds to wait for a webhook receiver to accept a connection, and
+     * again to respond, before the post counts as failed.
+     */
+    public static final String TIMEOUT_SECONDS =
+            "zanata.webhook.timeout.seconds";
+
+    /**
+     * Number of times an event is posted before it is given up on. The delay
+     * between attempts doubles each time, starting at 30 seconds.
+     */
+    public static final String MAX_ATTEMPTS = "zanata.webhook.max.attempts";
+
+    @Inject
+    private SystemPropertyConfigStore systemPropertyConfigStore;
+
+    public WebhookConfig(SystemPropertyConfigStore systemPropertyConfigStore) {
+        this.systemPropertyConfigStore = systemPropertyConfigStore;
+    }
+
+    public int getQueueSize() {
+        return Math.max(1, systemPropertyConfigStore.get(QUEUE_SIZE, 100));
+    }
+
+    public int getTimeoutSeconds() {
+        return Math.max(1,
+                systemPropertyConfigStore.get(TIMEOUT_SECONDS, 10));
+    }
+
+    public int getMaxAttempts() {
+        return Math.max(1, systemPropertyConfigStore.get(MAX_ATTEMPTS, 8));
+    }
+}
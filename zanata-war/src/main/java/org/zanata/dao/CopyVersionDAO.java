@@ -0,0 +1,289 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Named;
+
+import org.hibernate.SQLQuery;
+import org.hibernate.Session;
+import org.zanata.model.HDocumentLocaleState;
+import org.zanata.model.HSimpleComment;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.model.HTextFlowTargetHistory;
+import org.zanata.model.HTextFlowTargetReviewComment;
+import org.zanata.model.type.EntityType;
+import org.zanata.model.type.TranslationSourceType;
+
+/**
+ * Copies the translations of a document into a copy of the document with
+ * INSERT ... SELECT statements, instead of loading and saving each entity.
+ * The text flows must already have been copied: old and new rows are paired
+ * up through their natural keys (text flow resId, target locale, history
+ * versionNum), so no id mapping has to be kept in memory.
+ * <p>
+ * The statements bypass Hibernate Search, so the caller must reindex the new
+ * targets. They also bypass {@link DocumentLocaleStateListener}, so the
+ * {@link HDocumentLocaleState} of each locale copied is updated here.
+ *
+ * @see org.zanata.service.impl.CopyVersionServiceImpl
+ */
+@Named("copyVersionDAO")
+@RequestScoped
+public class CopyVersionDAO extends AbstractDAOImpl<HTextFlowTarget, Long> {
+    private static final long serialVersionUID = 1L;
+
+    // targets of the old document, with the copies of their text flows
+    private static final String FROM_TARGETS =
+            " from HTextFlowTarget t"
+                    + " join HTextFlow tf on tf.id = t.tf_id"
+                    + " join HTextFlow newTf on newTf.resId = tf.resId"
+                    + " and newTf.document_id = :newDocumentId";
+
+    // as above, also with the copies of the targets
+    private static final String FROM_TARGET_PAIRS =
+            FROM_TARGETS
+                    + " join HTextFlowTarget newT on newT.tf_id = newTf.id"
+                    + " and newT.locale = t.locale";
+
+    private static final String WHERE_DOCUMENT =
+            " where tf.document_id = :documentId";
+
+    public CopyVersionDAO() {
+        super(HTextFlowTarget.class);
+    }
+
+    public CopyVersionDAO(Session session) {
+        super(HTextFlowTarget.class, session);
+    }
+
+    /**
+     * Copies the targets of every text flow in a document, along with their
+     * history, review comments and comments. Must be run in a transaction.
+     *
+     * @param revisionComment
+     *            revision comment for the new targets, to be followed by
+     *            the author of each target as in
+     *            {@link org.zanata.util.TranslationUtil#getCopyVersionMessage(org.zanata.model.HDocument)}
+     * @return the number of targets copied
+     */
+    public int copyTargets(Long documentId, Long newDocumentId,
+            String revisionComment) {
+        Date now = new Date();
+        int targets = insertTargets(documentId, newDocumentId,
+                revisionComment, now);
+        if (targets == 0) {
+            return 0;
+        }
+        insertHistory(documentId, newDocumentId);
+        insertContentHistory(documentId, newDocumentId);
+        insertReviewComments(documentId, newDocumentId, now);
+        copyComments(documentId, newDocumentId);
+        incrementRevisions(newDocumentId, now);
+        return targets;
+    }
+
+    private int insertTargets(Long documentId, Long newDocumentId,
+            String revisionComment, Date now) {
+        String sql =
+                "insert into HTextFlowTarget (versionNum, creationDate,"
+                        + " lastChanged, content0, content1, content2,"
+                        + " content3, content4, content5, state,"
+                        + " tf_revision, last_modified_by_id,"
+                        + " translated_by_id, reviewed_by_id, tf_id, locale,"
+                        + " revisionComment, copiedEntityType,"
+                        + " copiedEntityId, sourceType, automatedEntry)"
+                        + " select t.versionNum, :now, t.lastChanged,"
+                        + " t.content0, t.content1, t.content2, t.content3,"
+                        + " t.content4, t.content5, t.state,"
+                        + " newTf.revision, t.last_modified_by_id,"
+                        + " t.translated_by_id, t.reviewed_by_id, newTf.id,"
+                        + " t.locale,"
+                        + " case when p.name is null or p.name = ''"
+                        + " then :revisionComment"
+                        + " else concat(:revisionComment, ', author ''',"
+                        + " p.name, '''') end,"
+                        + " coalesce(t.copiedEntityType, :targetType),"
+                        + " coalesce(t.copiedEntityId, t.id),"
+                        + " :sourceType, :automated"
+                        + FROM_TARGETS
+                        + " left join HPerson p"
+                        + " on p.id = t.last_modified_by_id"
+                        + WHERE_DOCUMENT;
+        return createUpdate(sql, HTextFlowTarget.class, documentId,
+                newDocumentId)
+                .setTimestamp("now", now)
+                .setParameter("revisionComment", revisionComment)
+                .setParameter("targetType",
+                        EntityType.HTexFlowTarget.getAbbr())
+                .setParameter("sourceType",
+                        TranslationSourceType.COPY_VERSION.getAbbr())
+                .setParameter("automated",
+                        TranslationSourceType.COPY_VERSION.isAutomatedEntry())
+                .executeUpdate();
+    }
+
+    private int insertHistory(Long documentId, Long newDocumentId) {
+        String sql =
+                "insert into HTextFlowTargetHistory (target_id,"
+                        + " versionNum, lastChanged, last_modified_by_id,"
+                        + " state, tf_revision, translated_by_id,"
+                        + " reviewed_by_id, revisionComment,"
+                        + " copiedEntityType, copiedEntityId, sourceType,"
+                        + " automatedEntry)"
+                        + " select newT.id, h.versionNum, h.lastChanged,"
+                        + " h.last_modified_by_id, h.state, h.tf_revision,"
+                        + " h.translated_by_id, h.reviewed_by_id,"
+                        + " h.revisionComment,"
+                        + " coalesce(h.copiedEntityType, :historyType),"
+                        + " coalesce(h.copiedEntityId, h.id),"
+                        + " :sourceType, :automated"
+                        + FROM_TARGET_PAIRS
+                        + " join HTextFlowTargetHistory h"
+                        + " on h.target_id = t.id"
+                        + WHERE_DOCUMENT;
+        return createUpdate(sql, HTextFlowTargetHistory.class, documentId,
+                newDocumentId)
+                .setParameter("historyType",
+                        EntityType.HTextFlowTargetHistory.getAbbr())
+                .setParameter("sourceType",
+                        TranslationSourceType.COPY_VERSION.getAbbr())
+                .setParameter("automated",
+                        TranslationSourceType.COPY_VERSION.isAutomatedEntry())
+                .executeUpdate();
+    }
+
+    private int insertContentHistory(Long documentId, Long newDocumentId) {
+        String sql =
+                "insert into HTextFlowTargetContentHistory"
+                        + " (text_flow_target_history_id, pos, content)"
+                        + " select newH.id, c.pos, c.content"
+                        + FROM_TARGET_PAIRS
+                        + " join HTextFlowTargetHistory h"
+                        + " on h.target_id = t.id"
+                        + " join HTextFlowTargetHistory newH"
+                        + " on newH.target_id = newT.id"
+                        + " and newH.versionNum = h.versionNum"
+                        + " join HTextFlowTargetContentHistory c"
+                        + " on c.text_flow_target_history_id = h.id"
+                        + WHERE_DOCUMENT;
+        return createUpdate(sql, HTextFlowTargetHistory.class, documentId,
+                newDocumentId).executeUpdate();
+    }
+
+    private int insertReviewComments(Long documentId, Long newDocumentId,
+            Date now) {
+        String sql =
+                "insert into HTextFlowTargetReviewComment (versionNum,"
+                        + " creationDate, lastChanged, commenter_id,"
+                        + " target_id, comment, targetVersion)"
+                        + " select 0, :now, :now, rc.commenter_id, newT.id,"
+                        + " rc.comment, newT.versionNum"
+                        + FROM_TARGET_PAIRS
+                        + " join HTextFlowTargetReviewComment rc"
+                        + " on rc.target_id = t.id"
+                        + WHERE_DOCUMENT
+                        // keeps the comments in the same order when loaded
+                        + " order by rc.id";
+        return createUpdate(sql, HTextFlowTargetReviewComment.class,
+                documentId, newDocumentId)
+                .setTimestamp("now", now)
+                .executeUpdate();
+    }
+
+    /**
+     * Comments have no natural key to pair old and new rows with, but few
+     * targets have one, so they are copied one at a time.
+     */
+    private void copyComments(Long documentId, Long newDocumentId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows =
+                getSession()
+                        .createSQLQuery(
+                                "select newT.id, c.comment"
+                                        + FROM_TARGET_PAIRS
+                                        + " join HSimpleComment c"
+                                        + " on c.id = t.comment_id"
+                                        + WHERE_DOCUMENT)
+                        .setParameter("documentId", documentId)
+                        .setParameter("newDocumentId", newDocumentId)
+                        .list();
+        for (Object[] row : rows) {
+            HSimpleComment comment = new HSimpleComment((String) row[1]);
+            getSession().save(comment);
+            createUpdate("update HTextFlowTarget set comment_id = :commentId"
+                    + " where id = :targetId", HTextFlowTarget.class)
+                    .setParameter("commentId", comment.getId())
+                    .setParameter("targetId", ((Number) row[0]).longValue())
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Increments the revision of the new document in each locale it now has
+     * targets in, as {@link DocumentLocaleStateListener} does for targets
+     * saved through Hibernate, so that cached copies of the document are not
+     * reused.
+     */
+    private void incrementRevisions(Long newDocumentId, Date now) {
+        String locales =
+                " select distinct t.locale from HTextFlowTarget t"
+                        + " join HTextFlow tf on tf.id = t.tf_id"
+                        + " where tf.document_id = :newDocumentId";
+        // the document may already have states, e.g. from the PO target
+        // headers which were copied with it
+        createUpdate("update HDocumentLocaleState"
+                + " set revision = revision + 1, lastChanged = :now"
+                + " where document_id = :newDocumentId"
+                + " and locale_id in (" + locales + ")",
+                HDocumentLocaleState.class)
+                .setParameter("newDocumentId", newDocumentId)
+                .setTimestamp("now", now)
+                .executeUpdate();
+        createUpdate("insert into HDocumentLocaleState"
+                + " (document_id, locale_id, revision, lastChanged)"
+                + " select :newDocumentId, l.locale, 1, :now"
+                + " from (" + locales + ") l"
+                + " where not exists (select 1 from HDocumentLocaleState s"
+                + " where s.document_id = :newDocumentId"
+                + " and s.locale_id = l.locale)",
+                HDocumentLocaleState.class)
+                .setParameter("newDocumentId", newDocumentId)
+                .setTimestamp("now", now)
+                .executeUpdate();
+    }
+
+    private SQLQuery createUpdate(String sql, Class<?> entityClass,
+            Long documentId, Long newDocumentId) {
+        return (SQLQuery) createUpdate(sql, entityClass)
+                .setParameter("documentId", documentId)
+                .setParameter("newDocumentId", newDocumentId);
+    }
+
+    private SQLQuery createUpdate(String sql, Class<?> entityClass) {
+        // limits second level cache invalidation to the affected entities
+        return getSession().createSQLQuery(sql)
+                .addSynchronizedEntityClass(entityClass);
+    }
+}
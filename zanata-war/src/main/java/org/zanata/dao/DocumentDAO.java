@@ -1,6 +1,6 @@
 package org.zanata.dao;
 
-import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -11,7 +11,6 @@ import javax.annotation.Nullable;
 import org.hibernate.LobHelper;
 import org.hibernate.Query;
 import org.hibernate.Session;
-import org.hibernate.type.TimestampType;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Named;
@@ -21,6 +20,7 @@ import org.zanata.common.TransUnitCount;
 import org.zanata.common.TransUnitWords;
 import org.zanata.file.GlobalDocumentId;
 import org.zanata.model.HDocument;
+import org.zanata.model.HDocumentLocaleState;
 import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HRawDocument;
@@ -294,6 +294,112 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
         return result;
     }
 
+    /**
+     * Returns message and word statistics for every document in a version
+     * which has text flows, for each of the given locales. Unlike calling
+     * {@link #getStatistics(long, LocaleId)} for each document and locale,
+     * this needs only two grouped queries.
+     *
+     * @param iterationId
+     *            id of the version
+     * @param localeIds
+     *            locales to include
+     * @return statistics indexed by document id, then by locale. Every
+     *         document with text flows has an entry for every locale.
+     */
+    public Map<Long, Map<LocaleId, ContainerTranslationStatistics>>
+            getStatisticsForIteration(Long iterationId,
+                    Collection<LocaleId> localeIds) {
+        Map<Long, Map<LocaleId, ContainerTranslationStatistics>> result =
+                new HashMap<>();
+        if (localeIds.isEmpty()) {
+            return result;
+        }
+        Session session = getSession();
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> totals =
+                session.createQuery(
+                        "select tf.document.id, count(tf), sum(tf.wordCount) "
+                                + "from HTextFlow tf "
+                                + "where tf.document.projectIteration.id = :id "
+                                + "  and tf.document.obsolete = false "
+                                + "  and tf.obsolete = false "
+                                + "group by tf.document.id")
+                        .setParameter("id", iterationId)
+                        .setComment(
+                                "DocumentDAO.getStatisticsForIteration-totals")
+                        .list();
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> counts =
+                session.createQuery(
+                        "select tf.document.id, tft.locale.localeId, "
+                                + "tft.state, count(tft), sum(tf.wordCount) "
+                                + "from HTextFlowTarget tft "
+                                + "join tft.textFlow tf "
+                                + "where tf.document.projectIteration.id = :id "
+                                + "  and tf.document.obsolete = false "
+                                + "  and tf.obsolete = false "
+                                + "  and tft.locale.localeId in (:locales) "
+                                + "group by tf.document.id, "
+                                + "  tft.locale.localeId, tft.state")
+                        .setParameter("id", iterationId)
+                        .setParameterList("locales", localeIds)
+                        .setComment(
+                                "DocumentDAO.getStatisticsForIteration-counts")
+                        .list();
+
+        Map<Long, Map<LocaleId, TransUnitCount>> unitCounts = new HashMap<>();
+        Map<Long, Map<LocaleId, TransUnitWords>> wordCounts = new HashMap<>();
+        for (Object[] total : totals) {
+            Long docId = (Long) total[0];
+            Map<LocaleId, TransUnitCount> docUnits = new HashMap<>();
+            Map<LocaleId, TransUnitWords> docWords = new HashMap<>();
+            for (LocaleId localeId : localeIds) {
+                docUnits.put(localeId, new TransUnitCount());
+                docWords.put(localeId, new TransUnitWords());
+            }
+            unitCounts.put(docId, docUnits);
+            wordCounts.put(docId, docWords);
+        }
+        for (Object[] count : counts) {
+            Long docId = (Long) count[0];
+            LocaleId localeId = (LocaleId) count[1];
+            ContentState state = (ContentState) count[2];
+            unitCounts.get(docId).get(localeId)
+                    .set(state, ((Long) count[3]).intValue());
+            wordCounts.get(docId).get(localeId)
+                    .set(state, ((Long) count[4]).intValue());
+        }
+
+        for (Object[] total : totals) {
+            Long docId = (Long) total[0];
+            Long totalCount = (Long) total[1];
+            Long totalWordCount = total[2] == null ? 0L : (Long) total[2];
+            Map<LocaleId, ContainerTranslationStatistics> docStats =
+                    new HashMap<>();
+            for (LocaleId localeId : localeIds) {
+                TransUnitCount unitCount = unitCounts.get(docId).get(localeId);
+                unitCount.set(ContentState.New, StatisticsUtil
+                        .calculateUntranslated(totalCount, unitCount));
+                TransUnitWords wordCount = wordCounts.get(docId).get(localeId);
+                wordCount.set(ContentState.New, StatisticsUtil
+                        .calculateUntranslated(totalWordCount, wordCount));
+
+                ContainerTranslationStatistics stats =
+                        new ContainerTranslationStatistics();
+                stats.addStats(new TranslationStatistics(unitCount, localeId
+                        .toString()));
+                stats.addStats(new TranslationStatistics(wordCount, localeId
+                        .toString()));
+                docStats.put(localeId, stats);
+            }
+            result.put(docId, docStats);
+        }
+        return result;
+    }
+
     /**
      *
      * This method is currently returning wrong statistics -
@@ -498,7 +604,10 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
     }
 
     /**
-     * Calculates a translated document's hash.
+     * Calculates a translated document's hash. This is a single row lookup:
+     * translation changes are counted in {@link HDocumentLocaleState} as they
+     * are flushed (see {@link DocumentLocaleStateListener}), and document
+     * changes update the document's lastChanged.
      *
      * @param projectSlug
      *            Project identifier
@@ -510,7 +619,6 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
      *            Translated document's locale.
      * @return A Hash string (checksum) for a translated document.
      */
-    @NativeQuery
     public String
             getTranslatedDocumentStateHash(final String projectSlug,
                     final String iterationSlug, final String docId,
@@ -520,33 +628,56 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
         if (doc == null) {
             return "";
         }
-        // NB: This method uses a native SQL query tested on mysql and h2
-        // databases.
-        String sql =
-                "select greatest(\n" + "  d.lastChanged,\n"
-                        + "  max(ifnull(tft.lastChanged, {d '1753-01-01'})),\n"
-                        + "  max(ifnull(c.lastChanged, {d '1753-01-01'})),\n"
-                        + "  max(ifnull(poth.lastChanged, {d '1753-01-01'}))\n"
-                        + ") as latest\n" + "from HDocument d\n"
-                        + "  left outer join HTextFlow tf\n"
-                        + "    on d.id = tf.document_id\n"
-                        + "  left outer join HTextFlowTarget tft\n"
-                        + "    on tft.tf_id = tf.id and tft.locale = :locale\n"
-                        + "  left outer join HSimpleComment c\n"
-                        + "    on c.id = tft.comment_id\n"
-                        + "  left outer join HPoTargetHeader poth\n"
-                        + "    on poth.document_id = d.id\n"
-                        + "    and poth.targetLanguage = :locale\n"
-                        + "where d.id = :doc\n" + "group by d.lastChanged";
-
-        Query query =
-                getSession().createSQLQuery(sql)
-                        // ensure that mysql driver doesn't return byte[] :
-                        .addScalar("latest", TimestampType.INSTANCE)
-                        .setParameter("locale", locale)
-                        .setParameter("doc", doc);
-        Timestamp timestamp = (Timestamp) query.uniqueResult();
-        return timestamp.toString();
+        // a scalar query, so that the revision is read from the database even
+        // if this session has already loaded the row
+        Long revision =
+                (Long) getSession()
+                        .createQuery(
+                                "select s.revision from HDocumentLocaleState s "
+                                        + "where s.documentId = :docId "
+                                        + "and s.localeId = :localeId")
+                        .setParameter("docId", doc.getId())
+                        .setParameter("localeId", locale.getId())
+                        .setComment(
+                                "DocumentDAO.getTranslatedDocumentStateHash")
+                        .uniqueResult();
+        return doc.getLastChanged().getTime() + ":"
+                + (revision == null ? 0 : revision);
+    }
+
+    /**
+     * Gets the translation revisions (see {@link HDocumentLocaleState}) of all
+     * the non-obsolete documents in a project iteration, for one locale.
+     * Documents without translation changes in the locale are not included,
+     * and are at revision 0.
+     *
+     * @return revisions by document id
+     */
+    public Map<Long, Long> getTranslationRevisions(final String projectSlug,
+            final String iterationSlug, final HLocale locale) {
+        // scalar rows, so that revisions are read from the database even if
+        // this session has already loaded some of the states
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows =
+                getSession()
+                        .createQuery(
+                                "select s.documentId, s.revision "
+                                        + "from HDocumentLocaleState s, HDocument d "
+                                        + "where d.id = s.documentId "
+                                        + "and d.projectIteration.slug = :iterationSlug "
+                                        + "and d.projectIteration.project.slug = :projectSlug "
+                                        + "and d.obsolete = false "
+                                        + "and s.localeId = :localeId")
+                        .setParameter("iterationSlug", iterationSlug)
+                        .setParameter("projectSlug", projectSlug)
+                        .setParameter("localeId", locale.getId())
+                        .setComment("DocumentDAO.getTranslationRevisions")
+                        .list();
+        Map<Long, Long> revisions = new HashMap<>();
+        for (Object[] row : rows) {
+            revisions.put((Long) row[0], (Long) row[1]);
+        }
+        return revisions;
     }
 
     /**
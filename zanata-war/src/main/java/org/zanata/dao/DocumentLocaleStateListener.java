@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.zanata.model.HDocument;
+import org.zanata.model.HDocumentLocaleState;
+import org.zanata.model.HLocale;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.model.po.HPoTargetHeader;
+
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+
+import lombok.Value;
+
+/**
+ * This class is a hibernate event listener which keeps
+ * {@link HDocumentLocaleState} up to date. It remembers which documents and
+ * locales had a target or target PO header inserted, updated or deleted, and
+ * increments their revision once the session has been flushed, in the same
+ * transaction.
+ * <p>
+ * Listeners are created separately for each event type when registered
+ * through persistence.xml, so the pending changes are kept in a static map.
+ *
+ * @see org.zanata.webtrans.server.HibernateIntegrator
+ * @see DocumentDAO#getTranslatedDocumentStateHash
+ */
+public class DocumentLocaleStateListener implements PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener, FlushEventListener,
+        AutoFlushEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private static final String UPDATE_SQL =
+            "update HDocumentLocaleState"
+                    + " set revision = revision + 1, lastChanged = ?"
+                    + " where document_id = ? and locale_id = ?";
+    // selects from HDocument so that nothing is inserted for a document
+    // which has been deleted in the meantime
+    private static final String INSERT_SQL =
+            "insert into HDocumentLocaleState"
+                    + " (document_id, locale_id, revision, lastChanged)"
+                    + " select id, ?, 1, ? from HDocument where id = ?";
+
+    // a session is only used by one thread at a time, so the sets don't need
+    // to be thread safe
+    private static final ConcurrentMap<EventSource, Set<DocumentLocale>>
+            pendingChanges = new MapMaker().weakKeys().makeMap();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        recordChange(event.getSession(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        recordChange(event.getSession(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        recordChange(event.getSession(), event.getEntity());
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        writeChanges(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        writeChanges(event.getSession());
+    }
+
+    private static void recordChange(EventSource session, Object entity) {
+        DocumentLocale change = DocumentLocale.of(entity);
+        if (change != null) {
+            pendingChanges.computeIfAbsent(session, s -> Sets.newHashSet())
+                    .add(change);
+        }
+    }
+
+    private static void writeChanges(EventSource session) {
+        Set<DocumentLocale> changes = pendingChanges.remove(session);
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        // always lock the rows in the same order, so that two sessions
+        // changing the same documents can't deadlock
+        List<DocumentLocale> sorted = Ordering.natural().sortedCopy(changes);
+        session.doWork(connection -> incrementRevisions(connection, sorted));
+    }
+
+    private static void incrementRevisions(Connection connection,
+            List<DocumentLocale> changes) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL);
+                PreparedStatement insert =
+                        connection.prepareStatement(INSERT_SQL)) {
+            for (DocumentLocale change : changes) {
+                if (execute(update, now, change.getDocumentId(),
+                        change.getLocaleId()) > 0) {
+                    continue;
+                }
+                try {
+                    execute(insert, change.getLocaleId(), now,
+                            change.getDocumentId());
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    // another transaction inserted the row first
+                    execute(update, now, change.getDocumentId(),
+                            change.getLocaleId());
+                }
+            }
+        }
+    }
+
+    private static int execute(PreparedStatement statement, Object... params)
+            throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+        return statement.executeUpdate();
+    }
+
+    private static boolean isConstraintViolation(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || (e.getSQLState() != null && e.getSQLState()
+                        .startsWith("23"));
+    }
+
+    @Value
+    static class DocumentLocale implements Comparable<DocumentLocale> {
+        Long documentId;
+        Long localeId;
+
+        static DocumentLocale of(Object entity) {
+            if (entity instanceof HTextFlowTarget) {
+                HTextFlowTarget target = (HTextFlowTarget) entity;
+                if (target.getTextFlow() == null) {
+                    return null;
+                }
+                return of(target.getTextFlow().getDocument(),
+                        target.getLocale());
+            }
+            if (entity instanceof HPoTargetHeader) {
+                HPoTargetHeader header = (HPoTargetHeader) entity;
+                return of(header.getDocument(), header.getTargetLanguage());
+            }
+            return null;
+        }
+
+        private static DocumentLocale of(HDocument document, HLocale locale) {
+            if (document == null || document.getId() == null
+                    || locale == null || locale.getId() == null) {
+                return null;
+            }
+            return new DocumentLocale(document.getId(), locale.getId());
+        }
+
+        @Override
+        public int compareTo(DocumentLocale o) {
+            return ComparisonChain.start()
+                    .compare(documentId, o.documentId)
+                    .compare(localeId, o.localeId).result();
+        }
+    }
+}
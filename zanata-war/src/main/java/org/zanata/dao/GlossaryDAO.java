@@ -233,6 +233,29 @@ public class GlossaryDAO extends AbstractDAOImpl<HGlossaryEntry, Long> {
         return (String) query.uniqueResult();
     }
 
+    /**
+     * Gets every glossary term in the source locale which has a translation
+     * in the target locale.
+     *
+     * @return rows of [source term id, source content, target content]
+     */
+    public List<Object[]> getTermPairs(LocaleId srcLocale,
+            LocaleId targetLocale) {
+        Query query =
+                getSession()
+                        .createQuery(
+                                "select src.id, src.content, target.content from HGlossaryTerm src, HGlossaryTerm target "
+                                        + "where target.glossaryEntry = src.glossaryEntry "
+                                        + "and src.locale.localeId = :srcLocale "
+                                        + "and target.locale.localeId = :targetLocale");
+        query.setParameter("srcLocale", srcLocale)
+                .setParameter("targetLocale", targetLocale)
+                .setComment("GlossaryDAO.getTermPairs");
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = query.list();
+        return results;
+    }
+
     public List<Object[]> getSearchResult(String searchText,
             SearchType searchType, LocaleId srcLocale, final int maxResult)
             throws ParseException {
@@ -20,6 +20,8 @@
  */
 package org.zanata.dao;
 
+import java.util.Collection;
+
 import lombok.extern.slf4j.Slf4j;
 
 import org.hibernate.Query;
@@ -130,4 +132,53 @@ public class HTextFlowTargetStreamingDAO extends
                 .setParameter("iteration", iteration)
                 .scroll(ScrollMode.FORWARD_ONLY);
     }
+
+    /**
+     *
+     * @return scrollable result set of HTextFlowTarget in a document, with all
+     *         of its fields(locale, textflow, document, document locale,
+     *         project iteration and project) eagerly fetched.
+     */
+    public ScrollableResults
+            getTargetsWithAllFieldsEagerlyFetchedForDocument(Long documentId) {
+        Query query =
+                getSession()
+                        .createQuery(
+                                "from HTextFlowTarget tft "
+                                        + "join fetch tft.locale "
+                                        + "join fetch tft.textFlow tf "
+                                        + "join fetch tf.document doc "
+                                        + "join fetch doc.locale "
+                                        + "join fetch doc.projectIteration "
+                                        + "join fetch doc.projectIteration.project "
+                                        + "where doc.id = :documentId");
+        // a single document is small enough not to need a streaming result
+        // set, which lets it be read within a session that is still in use
+        return query.setParameter("documentId", documentId)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /**
+     *
+     * @return scrollable result set of the HTextFlowTargets with the given
+     *         ids, with all of their fields(locale, textflow, document,
+     *         document locale, project iteration and project) eagerly
+     *         fetched.
+     */
+    public ScrollableResults getTargetsWithAllFieldsEagerlyFetchedForIds(
+            Collection<Long> targetIds) {
+        Query query =
+                getSession()
+                        .createQuery(
+                                "from HTextFlowTarget tft "
+                                        + "join fetch tft.locale "
+                                        + "join fetch tft.textFlow tf "
+                                        + "join fetch tf.document doc "
+                                        + "join fetch doc.locale "
+                                        + "join fetch doc.projectIteration "
+                                        + "join fetch doc.projectIteration.project "
+                                        + "where tft.id in (:targetIds)");
+        return query.setParameterList("targetIds", targetIds)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
 }
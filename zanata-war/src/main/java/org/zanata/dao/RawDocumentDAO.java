@@ -35,4 +35,18 @@ public class RawDocumentDAO extends AbstractDAOImpl<HRawDocument, Long> {
 
         return (HRawDocument) q.uniqueResult();
     }
+
+    /**
+     * @return number of raw documents which share the stored content with
+     *         the given file id
+     */
+    public long countByFileId(String fileId) {
+        Query q =
+                getSession()
+                        .createQuery(
+                                "select count(*) from HRawDocument rawDoc where rawDoc.fileId = :fileId");
+        q.setParameter("fileId", fileId);
+        q.setComment("RawDocumentDAO.countByFileId");
+        return (Long) q.uniqueResult();
+    }
 }
@@ -21,16 +21,22 @@
 
 package org.zanata.dao;
 
+import java.util.function.Function;
+
 import javax.annotation.Nonnull;
 
 import lombok.NoArgsConstructor;
 
+import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.ejb.HibernateEntityManagerFactory;
 import org.zanata.util.Zanata;
 
 import javax.inject.Inject;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.Range;
+
 /**
  * This class uses Hibernate's StatelessSession to iterate over large query
  * results using mysql streaming ResultSets.
@@ -67,4 +73,29 @@ public abstract class StreamingDAO<T> {
         }
     }
 
+    /**
+     * Runs a query selecting the smallest and largest matching ids, in a
+     * short-lived session. Callers use the result to split a large stream into
+     * id ranges which can be read independently.
+     *
+     * @param queryBuilder
+     *            creates a query which returns {@code min(id), max(id)}
+     * @return the closed range of ids, or absent if nothing matched
+     */
+    Optional<Range<Long>> findIdRange(Function<Session, Query> queryBuilder) {
+        Session session =
+                entityManagerFactory.getSessionFactory().openSession();
+        try {
+            Object[] bounds = (Object[]) queryBuilder.apply(session)
+                    .uniqueResult();
+            if (bounds == null || bounds[0] == null) {
+                return Optional.absent();
+            }
+            return Optional.of(Range.closed(((Number) bounds[0]).longValue(),
+                    ((Number) bounds[1]).longValue()));
+        } finally {
+            session.close();
+        }
+    }
+
 }
@@ -41,6 +41,7 @@ import org.zanata.model.HTextFlow;
 import org.zanata.search.FilterConstraintToQuery;
 import org.zanata.search.FilterConstraints;
 import org.zanata.webtrans.shared.model.DocumentId;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -191,6 +192,75 @@ public class TextFlowDAO extends AbstractDAOImpl<HTextFlow, Long> {
         return q.list();
     }
 
+    /**
+     * Finds the position of an active text flow in a document, to start a page
+     * of {@link #getTextFlowsByDocumentIdFromPos} or
+     * {@link #getTextFlowByDocumentIdWithConstraintsFromPos} there. This is a
+     * primary key lookup, however deep into the document the page is.
+     *
+     * @return the position, or absent if the text flow is not an active text
+     *         flow of the document
+     */
+    public Optional<Integer> getActiveTextFlowPos(Long documentId,
+            Long textFlowId) {
+        Query q =
+                getSession()
+                        .createQuery(
+                                "select tf.pos from HTextFlow tf where tf.id = :id and tf.obsolete=0 and tf.document.id = :documentId");
+        q.setParameter("id", textFlowId)
+                .setParameter("documentId", documentId);
+        q.setComment("TextFlowDAO.getActiveTextFlowPos");
+        return Optional.fromNullable((Integer) q.uniqueResult());
+    }
+
+    /**
+     * Finds the position of the active text flow at an offset in a document,
+     * to start a page of {@link #getTextFlowsByDocumentIdFromPos} there, when
+     * the caller doesn't know the first text flow of the page (see
+     * {@link #getActiveTextFlowPos}). This still skips offset entries of the
+     * (document, obsolete, pos) index, but not the rows themselves.
+     *
+     * @return the position, or absent if the document has no more than offset
+     *         active text flows
+     */
+    public Optional<Integer> getActiveTextFlowPosAtOffset(Long documentId,
+            int offset) {
+        Query q =
+                getSession()
+                        .createQuery(
+                                "select tf.pos from HTextFlow tf where tf.obsolete=0 and tf.document.id = :documentId order by tf.pos");
+        q.setParameter("documentId", documentId);
+        q.setFirstResult(offset).setMaxResults(1);
+        q.setComment("TextFlowDAO.getActiveTextFlowPosAtOffset");
+        return Optional.fromNullable((Integer) q.uniqueResult());
+    }
+
+    /**
+     * Gets a page of active text flows in a document, starting at a position
+     * rather than an offset so that the database doesn't read every earlier
+     * row. Potentially lazy loaded fields shown in the editor are fetched
+     * too.
+     *
+     * @param firstPos
+     *            position of the first text flow in the page
+     */
+    public List<HTextFlow> getTextFlowsByDocumentIdFromPos(Long documentId,
+            int firstPos, int maxResults) {
+        Query q =
+                getSession()
+                        .createQuery(
+                                "from HTextFlow tf "
+                                        + "left join fetch tf.potEntryData "
+                                        + "left join fetch tf.comment "
+                                        + "where tf.obsolete=0 and tf.document.id = :documentId "
+                                        + "and tf.pos >= :firstPos order by tf.pos");
+        q.setParameter("documentId", documentId)
+                .setParameter("firstPos", firstPos);
+        q.setMaxResults(maxResults);
+        q.setComment("TextFlowDAO.getTextFlowsByDocumentIdFromPos");
+        return q.list();
+    }
+
     /**
      * for a given locale, we can filter it by content state or search in source
      * and target.
@@ -232,6 +302,37 @@ public class TextFlowDAO extends AbstractDAOImpl<HTextFlow, Long> {
         return result;
     }
 
+    /**
+     * Gets a page of text flows that match the constraints, starting at a
+     * position rather than an offset so that the database doesn't read every
+     * earlier match.
+     *
+     * @param firstPos
+     *            position of the first text flow in the page
+     * @see #getTextFlowByDocumentIdWithConstraints
+     */
+    public List<HTextFlow> getTextFlowByDocumentIdWithConstraintsFromPos(
+            DocumentId documentId, HLocale hLocale,
+            FilterConstraints constraints, int firstPos, int maxResult) {
+        FilterConstraintToQuery constraintToQuery =
+                FilterConstraintToQuery.filterInSingleDocument(constraints,
+                        documentId).startingAtPos(firstPos);
+        String queryString = constraintToQuery.toEntityQuery();
+        log.debug("\n query {}\n", queryString);
+
+        Query textFlowQuery = getSession().createQuery(queryString);
+        constraintToQuery.setQueryParameters(textFlowQuery, hLocale);
+        textFlowQuery.setMaxResults(maxResult);
+        textFlowQuery.setComment(
+                "TextFlowDAO.getTextFlowByDocumentIdWithConstraintsFromPos");
+
+        @SuppressWarnings("unchecked")
+        List<HTextFlow> result = textFlowQuery.list();
+        log.debug("{} textFlow for locale {} filter by {} from pos {}",
+                result.size(), hLocale.getLocaleId(), constraints, firstPos);
+        return result;
+    }
+
     public List<HTextFlow> getAllTextFlowByDocumentIdWithConstraints(
             DocumentId documentId, HLocale hLocale,
             FilterConstraints constraints) {
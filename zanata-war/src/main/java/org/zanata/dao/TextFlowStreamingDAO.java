@@ -36,6 +36,9 @@ import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
 import org.zanata.util.CloseableIterator;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.Range;
+
 /**
  * This class uses Hibernate's StatelessSession to iterate over large queries
  * returning HTextFlow. Each of the public methods should have a variant which
@@ -56,6 +59,17 @@ import org.zanata.util.CloseableIterator;
  * may leak.
  */
 public class TextFlowStreamingDAO extends StreamingDAO<HTextFlow> {
+    private static final String ALL_TEXT_FLOWS_HQL = "from HTextFlow tf "
+            + "inner join fetch tf.targets target "
+            + "inner join fetch target.locale "
+            + "inner join fetch tf.document "
+            + "inner join fetch tf.document.locale "
+            + "inner join fetch tf.document.projectIteration "
+            + "inner join fetch tf.document.projectIteration.project "
+            + "where tf.document.projectIteration.project.status<>:OBSOLETE "
+            + "and tf.document.projectIteration.status<>:OBSOLETE "
+            + "and tf.document.obsolete=0 "
+            + "and tf.obsolete=0 ";
 
     public TextFlowStreamingDAO(HibernateEntityManagerFactory emf) {
         super(emf);
@@ -75,20 +89,7 @@ public class TextFlowStreamingDAO extends StreamingDAO<HTextFlow> {
     CloseableIterator<HTextFlow> findTextFlows() {
         StreamingEntityIterator<HTextFlow> iter = createIterator();
         try {
-            Query q =
-                    iter.getSession()
-                            .createQuery(
-                                    "from HTextFlow tf "
-                                            + "inner join fetch tf.targets target "
-                                            + "inner join fetch target.locale "
-                                            + "inner join fetch tf.document "
-                                            + "inner join fetch tf.document.locale "
-                                            + "inner join fetch tf.document.projectIteration "
-                                            + "inner join fetch tf.document.projectIteration.project "
-                                            + "where tf.document.projectIteration.project.status<>:OBSOLETE "
-                                            + "and tf.document.projectIteration.status<>:OBSOLETE "
-                                            + "and tf.document.obsolete=0 "
-                                            + "and tf.obsolete=0 ");
+            Query q = iter.getSession().createQuery(ALL_TEXT_FLOWS_HQL);
             q.setParameter("OBSOLETE", EntityStatus.OBSOLETE);
             q.setComment("TextFlowStreamDAO.findTextFlows");
             iter.initQuery(q);
@@ -99,6 +100,45 @@ public class TextFlowStreamingDAO extends StreamingDAO<HTextFlow> {
         }
     }
 
+    /**
+     * Returns the range of ids of all HTextFlows, for use with
+     * {@link #findTextFlows(Range)}. Obsolete entities are not excluded, so
+     * the range may be wider than needed.
+     */
+    public Optional<Range<Long>> findTextFlowIdRange() {
+        return findIdRange(session -> session.createQuery(
+                "select min(tf.id), max(tf.id) from HTextFlow tf")
+                .setComment("TextFlowStreamDAO.findTextFlowIdRange"));
+    }
+
+    /**
+     * Like {@link #findTextFlows()}, but only returns HTextFlows whose id is in
+     * the given half-open range, ordered by id.
+     * <p>
+     * NB: caller must close the iterator, or call next() until the iterator is
+     * exhausted, or else a database connection will be leaked.
+     */
+    public @Nonnull
+    CloseableIterator<HTextFlow> findTextFlows(Range<Long> idRange) {
+        StreamingEntityIterator<HTextFlow> iter = createIterator();
+        try {
+            Query q =
+                    iter.getSession().createQuery(
+                            ALL_TEXT_FLOWS_HQL
+                                    + "and tf.id >= :minId and tf.id < :maxId "
+                                    + "order by tf.id");
+            q.setParameter("OBSOLETE", EntityStatus.OBSOLETE);
+            q.setParameter("minId", idRange.lowerEndpoint());
+            q.setParameter("maxId", idRange.upperEndpoint());
+            q.setComment("TextFlowStreamDAO.findTextFlowsInRange");
+            iter.initQuery(q);
+            return iter;
+        } catch (Throwable e) {
+            iter.close();
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Returns all HTextFlows in project, eagerly fetches targets, document,
      * iteration and project. Obsolete iterations, documents and textflows are
@@ -1,7 +1,10 @@
 package org.zanata.dao;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
@@ -21,6 +24,9 @@ import org.zanata.model.HTextFlowTarget;
 import org.zanata.service.TranslationFinder;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 @Named("textFlowTargetDAO")
 @RequestScoped
@@ -274,6 +280,289 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         return Optional.fromNullable((HTextFlowTarget) sqlQuery.uniqueResult());
     }
 
+    /**
+     * Finds all the translated or approved targets whose source has exactly
+     * the same contents as textFlow, most recently changed first. Like
+     * {@link #searchBestMatchTransMemory(HTextFlow, LocaleId, LocaleId, boolean, boolean, boolean)}
+     * this uses the content hash index rather than the search index, so TM
+     * searches can look for 100% matches before running a fuzzy search.
+     *
+     * @param textFlow
+     *            The text flow for which to find matching translations.
+     * @param targetLocaleId
+     *            The locale in which to find matches.
+     * @param checkContext
+     *            Whether to check for a matching context
+     * @param checkDocument
+     *            Whether to check for a matching document id
+     * @param checkProject
+     *            Whether to check for a matching project
+     * @param maxResults
+     *            maximum number of targets to return
+     */
+    @SuppressWarnings("unchecked")
+    public List<HTextFlowTarget> findExactMatches(HTextFlow textFlow,
+            LocaleId targetLocaleId, boolean checkContext,
+            boolean checkDocument, boolean checkProject, int maxResults) {
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder
+                .append("select tft from HTextFlowTarget tft ")
+                .append("join tft.textFlow tf ")
+                .append("join tf.document doc ")
+                .append("join doc.projectIteration iter ")
+                .append("join iter.project project ")
+                .append("where tf.contentHash = :contentHash ")
+                .append("and tft.locale.localeId = :localeId ")
+                .append("and tft.state in (:states) ")
+                .append("and iter.status <> :obsolete ")
+                .append("and project.status <> :obsolete ");
+        if (checkContext) {
+            queryBuilder.append("and tf.resId = :resId ");
+        }
+        if (checkDocument) {
+            queryBuilder.append("and doc.docId = :docId ");
+        }
+        if (checkProject) {
+            queryBuilder.append("and project.id = :projectId ");
+        }
+        queryBuilder.append("order by tft.lastChanged desc");
+
+        Query query = getSession().createQuery(queryBuilder.toString());
+        query.setParameter("contentHash", textFlow.getContentHash());
+        query.setParameter("localeId", targetLocaleId);
+        query.setParameterList("states", Lists.newArrayList(
+                ContentState.Translated, ContentState.Approved));
+        query.setParameter("obsolete", EntityStatus.OBSOLETE);
+        if (checkContext) {
+            query.setParameter("resId", textFlow.getResId());
+        }
+        if (checkDocument) {
+            query.setParameter("docId", textFlow.getDocument().getDocId());
+        }
+        if (checkProject) {
+            query.setParameter("projectId", textFlow.getDocument()
+                    .getProjectIteration().getProject().getId());
+        }
+        query.setMaxResults(maxResults);
+        query.setCacheable(false).setComment(
+                "TextFlowTargetDAO.findExactMatches");
+        return query.list();
+    }
+
+    /**
+     * Batched version of
+     * {@link #searchBestMatchTransMemory(HTextFlow, LocaleId, LocaleId, boolean, boolean, boolean)}
+     * for text flows which all belong to the same document. All the content
+     * hashes are resolved with a single query, and the candidates are ranked
+     * in memory with the same precedence rules (matching context, then
+     * document id, then project, then most recently changed).
+     * <p>
+     * Common strings can have thousands of translations, so the query only
+     * returns the most recently changed candidates of each content hash and
+     * rank (context, document and project match), found by grouping. The
+     * final ranking, which depends on each text flow's context, is done
+     * here. Translations of the given text flows themselves are all
+     * returned, because a text flow's own translation must not be its match
+     * but may match the others. Only the columns needed for ranking are
+     * fetched for the candidates; the winning targets are then loaded by id.
+     *
+     * @param textFlows
+     *            text flows of a single document
+     * @param targetLocaleId
+     *            The locale in which to find matches.
+     * @param checkContext
+     *            Whether to check for a matching context
+     * @param checkDocument
+     *            Whether to check for a matching document id
+     * @param checkProject
+     *            Whether to check for a matching project
+     * @return map of text flow id to the best match for that text flow (text
+     *         flows without a match are absent)
+     */
+    @NativeQuery
+    @SuppressWarnings("unchecked")
+    public Map<Long, HTextFlowTarget> searchBestMatchesTransMemory(
+            List<HTextFlow> textFlows, LocaleId targetLocaleId,
+            boolean checkContext, boolean checkDocument, boolean checkProject) {
+        if (textFlows.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        HDocument document = textFlows.get(0).getDocument();
+        String docId = document.getDocId();
+        Long projectId = document.getProjectIteration().getProject().getId();
+
+        Collection<String> contentHashes = Sets.newHashSet();
+        Collection<String> resIds = Sets.newHashSet();
+        Collection<Long> textFlowIds = Sets.newHashSet();
+        for (HTextFlow textFlow : textFlows) {
+            contentHashes.add(textFlow.getContentHash());
+            resIds.add(textFlow.getResId());
+            textFlowIds.add(textFlow.getId());
+        }
+
+        // the resId when it is one of the batch's, since only those can
+        // match a text flow's context
+        String contextRank =
+                "CASE WHEN tf.resId IN (:resIds) THEN CONCAT('=', tf.resId) ELSE '' END";
+        String documentRank =
+                "CASE WHEN hDoc.docId = :docId THEN 0 ELSE 1 END";
+        String projectRank =
+                "CASE WHEN iter.project_id = :projectId THEN 0 ELSE 1 END";
+        String joins =
+                "FROM HTextFlowTarget tft "
+                        + "JOIN HTextFlow tf ON tf.id = tft.tf_id "
+                        + "JOIN HLocale locale ON locale.id = tft.locale "
+                        + "JOIN HDocument hDoc ON hDoc.id = tf.document_id "
+                        + "JOIN HProjectIteration iter ON iter.id = hDoc.project_iteration_id "
+                        + "JOIN HProject project ON project.id = iter.project_id ";
+        StringBuilder conditions = new StringBuilder();
+        conditions
+                .append("WHERE tf.contentHash IN (:contentHashes) AND locale.localeId = :localeId ")
+                .append("AND tft.state in (2, 3) AND iter.status <> 'O' AND project.status <> 'O' ");
+        if (checkContext) {
+            conditions.append("AND tf.resId IN (:resIds) ");
+        }
+        if (checkDocument) {
+            conditions.append("AND hDoc.docId = :docId ");
+        }
+        if (checkProject) {
+            conditions.append("AND project.id = :projectId ");
+        }
+
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder
+                .append("SELECT tft.id, tf.id, tf.contentHash, tf.resId, ")
+                .append(documentRank).append(", ")
+                .append(projectRank).append(", ")
+                .append(" tft.lastChanged ")
+                .append(joins)
+                // the newest candidates of each hash and rank
+                .append("LEFT JOIN (")
+                .append(" SELECT tf.contentHash AS contentHash, ")
+                .append(contextRank).append(" AS contextRank, ")
+                .append(documentRank).append(" AS documentRank, ")
+                .append(projectRank).append(" AS projectRank, ")
+                .append(" MAX(tft.lastChanged) AS lastChanged ")
+                .append(joins).append(conditions)
+                .append(" AND tf.id NOT IN (:textFlowIds) ")
+                .append(" GROUP BY tf.contentHash, ").append(contextRank)
+                .append(", ").append(documentRank)
+                .append(", ").append(projectRank)
+                .append(") newest ")
+                .append("ON newest.contentHash = tf.contentHash ")
+                .append("AND newest.contextRank = ").append(contextRank)
+                .append(" AND newest.documentRank = ").append(documentRank)
+                .append(" AND newest.projectRank = ").append(projectRank)
+                .append(" AND newest.lastChanged = tft.lastChanged ")
+                .append(conditions)
+                .append("AND (tf.id IN (:textFlowIds) ")
+                .append("OR newest.contentHash IS NOT NULL)");
+
+        SQLQuery sqlQuery =
+                getSession().createSQLQuery(queryBuilder.toString());
+        sqlQuery.setParameterList("contentHashes", contentHashes);
+        sqlQuery.setParameterList("resIds", resIds);
+        sqlQuery.setParameterList("textFlowIds", textFlowIds);
+        sqlQuery.setParameter("docId", docId);
+        sqlQuery.setParameter("projectId", projectId);
+        sqlQuery.setParameter("localeId", targetLocaleId.getId());
+        sqlQuery.setComment("TextFlowTargetDAO.searchBestMatchesTransMemory");
+        List<Object[]> candidates = sqlQuery.list();
+
+        Map<String, List<Object[]>> candidatesByHash = Maps.newHashMap();
+        for (Object[] candidate : candidates) {
+            String contentHash = (String) candidate[2];
+            List<Object[]> forHash = candidatesByHash.get(contentHash);
+            if (forHash == null) {
+                forHash = Lists.newArrayList();
+                candidatesByHash.put(contentHash, forHash);
+            }
+            forHash.add(candidate);
+        }
+
+        Map<Long, Long> bestTargetIdByTextFlowId = Maps.newHashMap();
+        for (HTextFlow textFlow : textFlows) {
+            List<Object[]> forHash =
+                    candidatesByHash.get(textFlow.getContentHash());
+            if (forHash == null) {
+                continue;
+            }
+            Object[] best = null;
+            for (Object[] candidate : forHash) {
+                long candidateTextFlowId = ((Number) candidate[1]).longValue();
+                if (candidateTextFlowId == textFlow.getId()) {
+                    // never copy a text flow's translation to itself
+                    continue;
+                }
+                if (checkContext && !textFlow.getResId().equals(candidate[3])) {
+                    continue;
+                }
+                if (best == null
+                        || compareMatches(textFlow, candidate, best) < 0) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                bestTargetIdByTextFlowId.put(textFlow.getId(),
+                        ((Number) best[0]).longValue());
+            }
+        }
+        if (bestTargetIdByTextFlowId.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, HTextFlowTarget> targetsById = Maps.newHashMap();
+        for (HTextFlowTarget target : findByIdList(Lists
+                .newArrayList(bestTargetIdByTextFlowId.values()))) {
+            targetsById.put(target.getId(), target);
+        }
+        Map<Long, HTextFlowTarget> result = Maps.newHashMap();
+        for (Map.Entry<Long, Long> entry : bestTargetIdByTextFlowId
+                .entrySet()) {
+            HTextFlowTarget target = targetsById.get(entry.getValue());
+            if (target != null) {
+                result.put(entry.getKey(), target);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Orders two candidate rows from
+     * {@link #searchBestMatchesTransMemory(List, LocaleId, boolean, boolean, boolean)}
+     * the same way as the ORDER BY clause of
+     * {@link #searchBestMatchTransMemory(HTextFlow, LocaleId, LocaleId, boolean, boolean, boolean)}.
+     * Negative means c1 is the better match.
+     */
+    private static int compareMatches(HTextFlow textFlow, Object[] c1,
+            Object[] c2) {
+        int result =
+                Integer.compare(textFlow.getResId().equals(c1[3]) ? 0 : 1,
+                        textFlow.getResId().equals(c2[3]) ? 0 : 1);
+        if (result != 0) {
+            return result;
+        }
+        // document match
+        result = Integer.compare(((Number) c1[4]).intValue(),
+                ((Number) c2[4]).intValue());
+        if (result != 0) {
+            return result;
+        }
+        // project match
+        result = Integer.compare(((Number) c1[5]).intValue(),
+                ((Number) c2[5]).intValue());
+        if (result != 0) {
+            return result;
+        }
+        // most recently changed first
+        Date lastChanged1 = (Date) c1[6];
+        Date lastChanged2 = (Date) c2[6];
+        if (lastChanged1 == null || lastChanged2 == null) {
+            return lastChanged1 == null ? (lastChanged2 == null ? 0 : 1) : -1;
+        }
+        return lastChanged2.compareTo(lastChanged1);
+    }
+
     /**
      * Look up the {@link HTextFlowTarget} for the given hLocale in hTextFlow,
      * creating a new one if none is present.
@@ -338,6 +627,19 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         return hTextFlowTarget;
     }
 
+    @SuppressWarnings("unchecked")
+    public List<HTextFlowTarget> findByIdList(List<Long> idList) {
+        if (idList == null || idList.isEmpty()) {
+            return Collections.EMPTY_LIST;
+        }
+        Query query =
+                getSession().createQuery(
+                        "from HTextFlowTarget tft where tft.id in (:idList)");
+        query.setParameterList("idList", idList);
+        query.setCacheable(false).setComment("TextFlowTargetDAO.findByIdList");
+        return query.list();
+    }
+
     @SuppressWarnings("unchecked")
     public List<HTextFlowTarget> findByTextFlowIdList(List<Long> idList,
             LocaleId localeId) {
@@ -348,6 +650,8 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
                 getSession()
                         .createQuery(
                                 "select tft from HTextFlowTarget tft "
+                                        + "left join fetch tft.lastModifiedBy "
+                                        + "left join fetch tft.comment "
                                         + "where tft.textFlow.id in (:idList) "
                                         + "and tft.locale.localeId = :localeId");
 
@@ -358,6 +662,73 @@ public class TextFlowTargetDAO extends AbstractDAOImpl<HTextFlowTarget, Long>
         return query.list();
     }
 
+    /**
+     * Gets the targets of some text flows in a single locale, with their
+     * history loaded, so that saving a new version of each target doesn't
+     * need another query to add the old version to its history.
+     *
+     * @return map of text flow id to its target
+     */
+    public Map<Long, HTextFlowTarget> getTargetsWithHistory(
+            Collection<HTextFlow> textFlows, HLocale locale) {
+        if (textFlows.isEmpty()) {
+            return Maps.newHashMap();
+        }
+        Query query =
+                getSession()
+                        .createQuery(
+                                "select distinct tft from HTextFlowTarget tft "
+                                        + "left join fetch tft.history "
+                                        + "where tft.textFlow in (:textFlows) "
+                                        + "and tft.locale = :locale");
+        query.setParameterList("textFlows", textFlows)
+                .setParameter("locale", locale)
+                .setComment("TextFlowTargetDAO.getTargetsWithHistory");
+        @SuppressWarnings("unchecked")
+        List<HTextFlowTarget> targets = query.list();
+        Map<Long, HTextFlowTarget> result =
+                Maps.newHashMapWithExpectedSize(targets.size());
+        for (HTextFlowTarget target : targets) {
+            result.put(target.getTextFlow().getId(), target);
+        }
+        return result;
+    }
+
+    /**
+     * Saves a new target without adding it to its text flow's targets, which
+     * would load the text flow's targets in every locale. The text flow's
+     * cached targets are evicted instead, so that they are reloaded with the
+     * new target.
+     */
+    public HTextFlowTarget makePersistentNew(HTextFlowTarget target) {
+        HTextFlowTarget persisted = makePersistent(target);
+        getSession().getSessionFactory().getCache().evictCollection(
+                HTextFlow.class.getName() + ".targets",
+                target.getTextFlow().getId());
+        return persisted;
+    }
+
+    /**
+     * @return ids of the targets of the active text flows of a document in a
+     *         single locale
+     */
+    public List<Long> getTargetIdsByDocumentAndLocale(HDocument document,
+            HLocale locale) {
+        Query query =
+                getSession()
+                        .createQuery(
+                                "select tft.id from HTextFlowTarget tft "
+                                        + "where tft.textFlow.document = :document "
+                                        + "and tft.textFlow.obsolete = false "
+                                        + "and tft.locale = :locale");
+        query.setParameter("document", document)
+                .setParameter("locale", locale)
+                .setComment("TextFlowTargetDAO.getTargetIdsByDocumentAndLocale");
+        @SuppressWarnings("unchecked")
+        List<Long> ids = query.list();
+        return ids;
+    }
+
     public HTextFlowTarget getTextFlowTarget(HTextFlow hTextFlow,
             LocaleId localeId) {
         HTextFlowTarget hTextFlowTarget =
@@ -32,6 +32,9 @@ import org.zanata.model.tm.TransMemoryUnit;
 import org.zanata.model.tm.TransMemory;
 import org.zanata.util.CloseableIterator;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.Range;
+
 /**
  * This class uses Hibernate's StatelessSession to iterate over large queries
  * returning TransMemoryUnit.
@@ -85,6 +88,51 @@ public class TransMemoryStreamingDAO extends StreamingDAO<TransMemoryUnit> {
 
     }
 
+    /**
+     * Returns the range of ids of the TransMemoryUnits in a TransMemory, for
+     * use with {@link #findTransUnitsByTM(TransMemory, Range)}.
+     */
+    public Optional<Range<Long>> findTransUnitIdRange(
+            TransMemory transMemory) {
+        return findIdRange(session -> session.createQuery(
+                "select min(tu.id), max(tu.id) FROM TransMemoryUnit tu "
+                        + "WHERE tu.translationMemory = :transMemory")
+                .setParameter("transMemory", transMemory)
+                .setComment("TransMemoryStreamingDAO.findTransUnitIdRange"));
+    }
+
+    /**
+     * Finds the TransMemoryUnits for a given TransMemory whose id is in the
+     * given range, ordered by id.
+     * <p>
+     * NB: caller must close the iterator, or call next() until the iterator is
+     * exhausted, or else a database connection will be leaked.
+     */
+    public CloseableIterator<TransMemoryUnit> findTransUnitsByTM(
+            TransMemory transMemory, Range<Long> idRange) {
+        StreamingEntityIterator<TransMemoryUnit> iter = createIterator();
+        try {
+            Query q =
+                    iter.getSession()
+                            .createQuery(
+                                    "FROM TransMemoryUnit tu FETCH ALL PROPERTIES "
+                                            + "JOIN FETCH tu.transUnitVariants tuv FETCH ALL PROPERTIES "
+                                            + "WHERE tu.translationMemory = :transMemory "
+                                            + "AND tu.id >= :minId AND tu.id < :maxId "
+                                            + "ORDER BY tu.id");
+            q.setParameter("transMemory", transMemory);
+            q.setParameter("minId", idRange.lowerEndpoint());
+            q.setParameter("maxId", idRange.upperEndpoint());
+            q.setComment("TransMemoryStreamingDAO.findTransUnitsByTMInRange");
+
+            iter.initQuery(q);
+            return iter;
+        } catch (Throwable e) {
+            iter.close();
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Finds all TransMemoryUnits.
      * <p>
@@ -20,8 +20,13 @@
  */
 package org.zanata.dao;
 
+import java.util.List;
+
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Named;
+
+import org.hibernate.Query;
+import org.zanata.common.LocaleId;
 import org.zanata.model.tm.TransMemoryUnit;
 
 /**
@@ -36,4 +41,36 @@ public class TransMemoryUnitDAO extends AbstractDAOImpl<TransMemoryUnit, Long> {
         super(TransMemoryUnit.class);
     }
 
+    /**
+     * Finds translation units with a source variant whose plain text has the
+     * given hash, and which have a variant in the target locale. Uses the
+     * database rather than the search index, so TM searches can look for 100%
+     * matches before running a fuzzy search.
+     *
+     * @param plainTextHash
+     *            hash of the source text, as in
+     *            {@link org.zanata.model.tm.TransMemoryUnitVariant#getPlainTextSegmentHash()}
+     * @param maxResults
+     *            maximum number of units to return
+     */
+    @SuppressWarnings("unchecked")
+    public List<TransMemoryUnit> findExactMatches(String plainTextHash,
+            LocaleId sourceLocaleId, LocaleId targetLocaleId, int maxResults) {
+        Query query =
+                getSession().createQuery(
+                        "select tu from TransMemoryUnit tu "
+                                + "join tu.transUnitVariants source "
+                                + "join tu.transUnitVariants target "
+                                + "where source.language = :sourceLocale "
+                                + "and source.plainTextSegmentHash = :hash "
+                                + "and target.language = :targetLocale "
+                                + "order by tu.id desc");
+        query.setParameter("sourceLocale", sourceLocaleId.getId());
+        query.setParameter("hash", plainTextHash);
+        query.setParameter("targetLocale", targetLocaleId.getId());
+        query.setMaxResults(maxResults);
+        query.setComment("TransMemoryUnitDAO.findExactMatches");
+        return query.list();
+    }
+
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Named;
+
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.zanata.model.WebHookDelivery;
+
+@Named("webHookDeliveryDAO")
+@RequestScoped
+public class WebHookDeliveryDAO extends AbstractDAOImpl<WebHookDelivery, Long> {
+
+    public WebHookDeliveryDAO() {
+        super(WebHookDelivery.class);
+    }
+
+    public WebHookDeliveryDAO(Session session) {
+        super(WebHookDelivery.class, session);
+    }
+
+    /**
+     * @return deliveries due to be attempted by the given time, the most
+     *         overdue first
+     */
+    public List<WebHookDelivery> getDue(Date now, int maxResults) {
+        Query query = getSession().createQuery(
+                "from WebHookDelivery where nextAttempt <= :now "
+                        + "order by nextAttempt");
+        query.setTimestamp("now", now)
+                .setMaxResults(maxResults)
+                .setComment("WebHookDeliveryDAO.getDue");
+        @SuppressWarnings("unchecked")
+        List<WebHookDelivery> results = query.list();
+        return results;
+    }
+
+    /**
+     * Deletes the deliveries of webhooks which have been removed.
+     *
+     * @return number of deliveries deleted
+     */
+    public int deleteOrphans() {
+        return getSession()
+                .createQuery("delete from WebHookDelivery d where not exists "
+                        + "(from WebHook w where w.id = d.webHookId)")
+                .setComment("WebHookDeliveryDAO.deleteOrphans")
+                .executeUpdate();
+    }
+}
@@ -15,7 +15,7 @@ import javax.annotation.Nonnull;
  */
 @AllArgsConstructor
 @Getter
-@EqualsAndHashCode
+@EqualsAndHashCode(exclude = "changedAt")
 public class DocStatsEvent {
     private final DocumentLocaleKey key;
 
@@ -28,6 +28,19 @@ public class DocStatsEvent {
 
     private final Long lastModifiedTargetId;
 
+    /**
+     * When the changes were made (in milliseconds). Events are created in the
+     * transaction making the changes, so this is before it committed.
+     */
+    private final long changedAt;
+
+    public DocStatsEvent(DocumentLocaleKey key, Long projectVersionId,
+            Map<ContentState, Long> wordDeltasByState,
+            Long lastModifiedTargetId) {
+        this(key, projectVersionId, wordDeltasByState, lastModifiedTargetId,
+                System.currentTimeMillis());
+    }
+
     public static void updateContentStateDeltas(
             @Nonnull Map<ContentState, Long> wordDeltasByState,
             ContentState newState, ContentState previousState, long wordCount) {
@@ -74,5 +74,10 @@ public final class TextFlowTargetStateEvent {
         private final Long textFlowTargetId;
         private final ContentState newState;
         private final ContentState previousState;
+        /**
+         * Word count of the text flow, so that listeners don't have to load
+         * it again.
+         */
+        private final long wordCount;
     }
 }
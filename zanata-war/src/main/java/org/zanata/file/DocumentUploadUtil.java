@@ -26,12 +26,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.sql.SQLException;
-import java.util.Vector;
 
 import javax.enterprise.context.Dependent;
 import javax.ws.rs.core.Response.Status;
@@ -47,7 +44,6 @@ import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.DocumentUploadDAO;
 import org.zanata.dao.ProjectIterationDAO;
 import org.zanata.exception.ChunkUploadException;
-import org.zanata.exception.HashMismatchException;
 import org.zanata.model.HDocumentUpload;
 import org.zanata.model.HDocumentUploadPart;
 import org.zanata.model.HLocale;
@@ -235,13 +231,14 @@ public class DocumentUploadUtil {
 
     private void saveUploadPart(DocumentFileUploadForm uploadForm,
             HDocumentUpload upload) {
+        // the part's content is stored by upload id
+        session.saveOrUpdate(upload);
         InputStream contentStream = uploadForm.getFileStream();
         int contentLength = uploadForm.getSize().intValue();
         HDocumentUploadPart newPart =
-                uploadPartPersistService.newUploadPartFromStream(contentStream,
-                        contentLength);
+                uploadPartPersistService.newUploadPartFromStream(upload,
+                        contentStream, contentLength);
         upload.getParts().add(newPart);
-        session.saveOrUpdate(upload);
         session.flush();
     }
 
@@ -249,52 +246,27 @@ public class DocumentUploadUtil {
         return uploadForm.getFirst() && uploadForm.getLast();
     }
 
+    /**
+     * Stores the final part of a chunked upload and returns the file with the
+     * whole content. The caller is responsible for removing the file.
+     */
     public File combineToTempFileAndDeleteUploadRecord(HDocumentUpload upload,
             DocumentFileUploadForm finalPart) {
-        File tempFile;
         try {
-            tempFile = combineToTempFile(upload, finalPart);
-        } catch (HashMismatchException e) {
-            throw new ChunkUploadException(Status.CONFLICT, "MD5 hash \""
-                    + e.getExpectedHash()
-                    + "\" sent with initial request does not match"
-                    + " server-generated hash of combined parts \""
-                    + e.getGeneratedHash()
-                    + "\". Upload aborted. Retry upload from first part.");
-        } catch (SQLException e) {
-            throw new ChunkUploadException(Status.INTERNAL_SERVER_ERROR,
-                    "Error while retrieving document upload part contents", e);
+            CombinedUpload combined =
+                    uploadPartPersistService.combineWithFinalPart(upload,
+                            finalPart.getFileStream());
+            checkAndUpdateHash(finalPart, combined.getMd5Hash(),
+                    upload.getContentHash());
+            return combined.getFile();
+        } catch (ChunkUploadException e) {
+            // removes the combined file too
+            uploadPartPersistService.discard(upload);
+            throw e;
         } finally {
             // no more need for upload
             session.delete(upload);
         }
-        return tempFile;
-    }
-
-    private File
-            combineToTempFile(HDocumentUpload upload, DocumentFileUploadForm finalPart)
-                    throws SQLException {
-        Vector<InputStream> partStreams = new Vector<InputStream>();
-        for (HDocumentUploadPart part : upload.getParts()) {
-            partStreams.add(part.getContent().getBinaryStream());
-        }
-        partStreams.add(finalPart.getFileStream());
-
-        MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            log.error("MD5 algorithm not available.", e);
-            throw new RuntimeException(e);
-        }
-        InputStream combinedParts =
-                new SequenceInputStream(partStreams.elements());
-        combinedParts = new DigestInputStream(combinedParts, md);
-        File tempFile =
-                translationFileServiceImpl.persistToTempFile(combinedParts);
-
-        checkAndUpdateHash(finalPart, md, upload.getContentHash());
-        return tempFile;
     }
 
     protected static InputStream getInputStream(Optional<File> tempFile,
@@ -322,7 +294,9 @@ public class DocumentUploadUtil {
             tempFile =
                     translationFileServiceImpl.persistToTempFile(fileContents);
             String providedHash = uploadForm.getHash();
-            checkAndUpdateHash(uploadForm, md, providedHash);
+            checkAndUpdateHash(uploadForm,
+                    new String(PasswordUtil.encodeHex(md.digest())),
+                    providedHash);
         } catch (NoSuchAlgorithmException e) {
             throw new ChunkUploadException(Status.INTERNAL_SERVER_ERROR,
                     "MD5 hash algorithm not available", e);
@@ -334,15 +308,13 @@ public class DocumentUploadUtil {
      * Makes sure any provided hash matches the calculated hash, and sets the
      * calculated hash into the given upload form for use in subsequent steps.
      *
-     * @param md an MD5 message digester that has had the contents of the file
-     *        streamed through it.
+     * @param md5hash MD5 hash of the contents of the file, as a hex string
      * @param providedHash provided by client, may be null or empty
      * @throws ChunkUploadException if a hash is provided and it does not match
      *         the hash of the file contents.
      */
     private void checkAndUpdateHash(DocumentFileUploadForm uploadForm,
-            MessageDigest md, String providedHash) {
-        String md5hash = new String(PasswordUtil.encodeHex(md.digest()));
+            String md5hash, String providedHash) {
         if (isNullOrEmpty(providedHash)) {
             // Web upload with no hash provided, use generated hash for metadata
             uploadForm.setHash(md5hash);
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.core.Response.Status;
+
+import org.zanata.ApplicationConfiguration;
+import org.zanata.exception.ChunkUploadException;
+import org.zanata.model.HDocumentUpload;
+import org.zanata.model.HDocumentUploadPart;
+import org.zanata.util.PasswordUtil;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the parts of each chunked upload in a file on local disk, written at
+ * the position where each part belongs, so that the completed file can be
+ * handed over without reading the parts back or copying them.
+ * <p>
+ * The MD5 hash of the parts stored so far is kept in memory between parts.
+ * If it has been lost (eg after a restart) the stored parts are read back
+ * from the file to hash them again.
+ */
+@Named("filePartPersistService")
+@ApplicationScoped
+@Slf4j
+public class FilePartPersistService implements UploadPartPersistService {
+
+    private static final String UPLOADS_SUBDIRECTORY = "uploads";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Inject
+    private ApplicationConfiguration appConfig;
+
+    private final Cache<Long, PartsDigest> digests = CacheBuilder
+            .newBuilder().expireAfterAccess(1, TimeUnit.DAYS).build();
+
+    @Override
+    public HDocumentUploadPart newUploadPartFromStream(HDocumentUpload upload,
+            InputStream partContentStream, int contentLength) {
+        long offset = storedLength(upload);
+        MessageDigest md = digestOfStoredParts(upload, offset);
+        long written = writePart(upload, offset, partContentStream, md);
+        if (written != contentLength) {
+            log.debug("upload {} part had {} bytes; {} were declared",
+                    upload.getId(), written, contentLength);
+        }
+        digests.put(upload.getId(), new PartsDigest(md, offset + written));
+        HDocumentUploadPart newPart = new HDocumentUploadPart();
+        newPart.setContentLength(written);
+        return newPart;
+    }
+
+    @Override
+    public CombinedUpload combineWithFinalPart(HDocumentUpload upload,
+            InputStream finalPartStream) {
+        long offset = storedLength(upload);
+        MessageDigest md = digestOfStoredParts(upload, offset);
+        writePart(upload, offset, finalPartStream, md);
+        digests.invalidate(upload.getId());
+        String md5Hash = new String(PasswordUtil.encodeHex(md.digest()));
+        return new CombinedUpload(getFileForUpload(upload), md5Hash);
+    }
+
+    @Override
+    public void discard(HDocumentUpload upload) {
+        digests.invalidate(upload.getId());
+        File file = getFileForUpload(upload);
+        if (file.exists() && !file.delete()) {
+            log.warn("unable to remove upload file {}",
+                    file.getAbsolutePath());
+        }
+    }
+
+    private static long storedLength(HDocumentUpload upload) {
+        long length = 0;
+        for (HDocumentUploadPart part : upload.getParts()) {
+            length += part.getContentLength();
+        }
+        return length;
+    }
+
+    /**
+     * Writes a part at the given position, replacing anything after it (eg
+     * left by an earlier attempt to send the same part).
+     *
+     * @return number of bytes written
+     */
+    private long writePart(HDocumentUpload upload, long offset,
+            InputStream content, MessageDigest md) {
+        File file = getFileForUpload(upload);
+        try (FileChannel channel =
+                FileChannel.open(file.toPath(), CREATE, WRITE)) {
+            if (channel.size() < offset) {
+                throw new ChunkUploadException(Status.CONFLICT,
+                        "Earlier parts of upload " + upload.getId()
+                                + " are no longer available."
+                                + " Retry upload from first part.");
+            }
+            channel.truncate(offset);
+            return write(channel, offset, content, md);
+        } catch (IOException e) {
+            throw new ChunkUploadException(Status.INTERNAL_SERVER_ERROR,
+                    "Error while storing document upload part contents", e);
+        }
+    }
+
+    private static long write(FileChannel channel, long offset,
+            InputStream content, MessageDigest md) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = offset;
+        int read;
+        while ((read = content.read(bytes)) != -1) {
+            md.update(bytes, 0, read);
+            buffer.clear();
+            buffer.limit(read);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * @return a digest which has been updated with the first {@code length}
+     *         bytes of the upload, and may be updated further
+     */
+    private MessageDigest digestOfStoredParts(HDocumentUpload upload,
+            long length) {
+        PartsDigest cached = digests.getIfPresent(upload.getId());
+        if (cached != null && cached.length == length) {
+            try {
+                // a copy, so that the cached digest stays usable if this
+                // part fails
+                return (MessageDigest) cached.md.clone();
+            } catch (CloneNotSupportedException e) {
+                log.debug("MD5 digest can't be cloned; rehashing upload {}",
+                        upload.getId());
+            }
+        }
+        MessageDigest md = newMD5Digest();
+        if (length == 0) {
+            return md;
+        }
+        File file = getFileForUpload(upload);
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = 0;
+            while (position < length) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, length - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                md.update(buffer);
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new ChunkUploadException(Status.CONFLICT,
+                    "Earlier parts of upload " + upload.getId()
+                            + " are no longer available."
+                            + " Retry upload from first part.", e);
+        }
+        return md;
+    }
+
+    private static MessageDigest newMD5Digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ChunkUploadException(Status.INTERNAL_SERVER_ERROR,
+                    "MD5 hash algorithm not available", e);
+        }
+    }
+
+    private File getFileForUpload(HDocumentUpload upload) {
+        return new File(ensureUploadsDirectory(), "upload" + upload.getId()
+                + ".tmp");
+    }
+
+    /**
+     * Uses the document storage location if there is one, so that completed
+     * uploads can be moved there as raw documents without copying.
+     */
+    private File ensureUploadsDirectory() {
+        String basePath = appConfig.getDocumentFileStorageLocation();
+        if (basePath == null) {
+            basePath = System.getProperty("java.io.tmpdir");
+        }
+        File uploadsDirectory = new File(basePath, UPLOADS_SUBDIRECTORY);
+        uploadsDirectory.mkdirs();
+        return uploadsDirectory;
+    }
+
+    private static class PartsDigest {
+        private final MessageDigest md;
+        private final long length;
+
+        private PartsDigest(MessageDigest md, long length) {
+            this.md = md;
+            this.length = length;
+        }
+    }
+}
@@ -22,6 +22,7 @@ package org.zanata.file;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 import org.zanata.model.HRawDocument;
 
@@ -32,9 +33,37 @@ public interface FilePersistService {
     public void persistRawDocumentContentFromFile(HRawDocument rawDocument,
             File rawFile, String extension);
 
+    /**
+     * Like {@link #persistRawDocumentContentFromFile}, but takes over the
+     * file instead of copying it, so it will no longer be at its old path.
+     */
+    void persistRawDocumentContentFromTempFile(HRawDocument rawDocument,
+            File tempFile, String extension);
+
+    /**
+     * Makes toDoc refer to the same stored content as fromDoc. The content is
+     * shared rather than copied.
+     */
     void copyAndPersistRawDocument(HRawDocument fromDoc,
             HRawDocument toDoc);
 
+    /**
+     * Marks stored content for deletion once the current transaction commits.
+     * It is deleted by {@link #deleteReleasedContent()} after a grace period,
+     * unless some raw document refers to it by then.
+     *
+     * @param fileId
+     *            file id of a raw document which has been removed or given
+     *            different content
+     */
+    void releaseRawDocumentContent(String fileId);
+
+    /**
+     * Deletes content which was released at least a grace period ago, and
+     * which has neither been referred to nor stored again since.
+     */
+    void deleteReleasedContent();
+
     // TODO damason: parsing code only needs a file URI for this. Change to
     // return
     // uri when files are persisted to server.
@@ -45,6 +74,13 @@ public interface FilePersistService {
     public InputStream getRawDocumentContentAsStream(HRawDocument document)
             throws RawDocumentContentAccessException;
 
+    /**
+     * Opens the stored content for reading, eg so that it can be sent with
+     * {@link FileChannel#transferTo}. The caller must close the channel.
+     */
+    FileChannel openRawDocumentContent(HRawDocument document)
+            throws RawDocumentContentAccessException;
+
     boolean hasPersistedDocument(GlobalDocumentId id);
 
 }
@@ -20,96 +20,287 @@
  */
 package org.zanata.file;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import lombok.extern.slf4j.Slf4j;
 
-import org.apache.commons.io.FilenameUtils;
-
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.ApplicationConfiguration;
 import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.RawDocumentDAO;
+import org.zanata.events.RawDocumentContentReleasedEvent;
 import org.zanata.model.HDocument;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HRawDocument;
 import org.zanata.rest.service.VirusScanner;
 
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 
+/**
+ * Stores raw document content in files named by the MD5 hash of the content,
+ * so that raw documents with the same content (eg in copied versions) share a
+ * single file.
+ * <p>
+ * A file which no raw document refers to any more is deleted after a grace
+ * period, rather than straight after the transaction which released it: by
+ * then another transaction may have stored the same content again, without
+ * having committed its raw document yet. Storing content touches the file,
+ * and a file used within the grace period is kept.
+ * <p>
+ * Content stored before this scheme was introduced is in files named by
+ * document id; these are still found through {@link HRawDocument#getFileId()}.
+ */
 @Named("filePersistService")
 @RequestScoped
 @Slf4j
 public class FileSystemPersistService implements FilePersistService {
 
     private static final String RAW_DOCUMENTS_SUBDIRECTORY = "documents";
+    // holds an empty marker file for each released file id
+    private static final String RELEASED_SUBDIRECTORY = "released-documents";
+    private static final long DELETE_GRACE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final Pattern MD5_HEX = Pattern.compile("[0-9a-f]{32}");
 
     @Inject
     private ApplicationConfiguration appConfig;
     @Inject
     private DocumentDAO documentDAO;
     @Inject
+    private RawDocumentDAO rawDocumentDAO;
+    @Inject
     private VirusScanner virusScanner;
+    @Inject
+    private Event<RawDocumentContentReleasedEvent> contentReleasedEvent;
 
     @Override
     public void persistRawDocumentContentFromFile(HRawDocument rawDocument,
             File fromFile, String extension) {
-        String fileName = generateFileNameFor(rawDocument, extension);
+        persistRawDocumentContent(rawDocument, fromFile, extension, false);
+    }
+
+    @Override
+    public void persistRawDocumentContentFromTempFile(
+            HRawDocument rawDocument, File tempFile, String extension) {
+        persistRawDocumentContent(rawDocument, tempFile, extension, true);
+    }
+
+    private void persistRawDocumentContent(HRawDocument rawDocument,
+            File fromFile, String extension, boolean move) {
+        String fileName =
+                generateFileNameFor(contentHashOf(rawDocument, fromFile),
+                        extension);
         rawDocument.setFileId(fileName);
 
         File newFile = getFileForName(fileName);
+        GlobalDocumentId globalId = getGlobalId(rawDocument);
         try {
-            Files.copy(fromFile, newFile);
+            if (move) {
+                // replaces any existing file (with the same content), in
+                // case it is being deleted for an earlier release
+                moveReplacing(fromFile, newFile);
+            } else if (newFile.setLastModified(System.currentTimeMillis())) {
+                // touched, so that it is kept if it was released meanwhile
+                log.info("Raw document {} shares existing file {}",
+                        globalId, newFile.getAbsolutePath());
+                return;
+            } else {
+                copyAtomically(fromFile, newFile);
+            }
         } catch (IOException e) {
             // FIXME damason: throw something more specific and handle at call
             // sites
             throw new RuntimeException(e);
         }
 
-        GlobalDocumentId globalId = getGlobalId(rawDocument);
         log.info("Persisted raw document {} to file {}", globalId,
                 newFile.getAbsolutePath());
         virusScanner.scan(newFile, globalId.toString());
     }
 
+    /**
+     * Uses the hash which was checked against the uploaded content if there
+     * is one, otherwise hashes the file.
+     */
+    private static String contentHashOf(HRawDocument rawDocument, File file) {
+        String hash = Strings.nullToEmpty(rawDocument.getContentHash());
+        if (MD5_HEX.matcher(hash).matches()) {
+            return hash;
+        }
+        try {
+            return Files.hash(file, Hashing.md5()).toString();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void moveReplacing(File fromFile, File toFile)
+            throws IOException {
+        try {
+            java.nio.file.Files.move(fromFile.toPath(), toFile.toPath(),
+                    ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // not on the same file system
+            copyAtomically(fromFile, toFile);
+            if (!fromFile.delete()) {
+                log.warn("unable to remove file {}",
+                        fromFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Copies to a temporary file next to the target first, so that a partly
+     * written file is never visible under the content name.
+     */
+    private static void copyAtomically(File fromFile, File toFile)
+            throws IOException {
+        File partFile =
+                File.createTempFile(toFile.getName(), ".part",
+                        toFile.getParentFile());
+        try {
+            Files.copy(fromFile, partFile);
+            java.nio.file.Files.move(partFile.toPath(), toFile.toPath(),
+                    ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+            partFile.delete();
+        }
+    }
+
     @Override
     public void copyAndPersistRawDocument(HRawDocument fromDoc,
             HRawDocument toDoc) {
-        File file = getFileForRawDocument(fromDoc);
-        persistRawDocumentContentFromFile(toDoc, file,
-                FilenameUtils.getExtension(file.getName()));
+        toDoc.setFileId(fromDoc.getFileId());
+    }
+
+    @Override
+    public void releaseRawDocumentContent(String fileId) {
+        if (rawDocumentDAO.countByFileId(fileId) == 0) {
+            contentReleasedEvent.fire(new RawDocumentContentReleasedEvent(
+                    fileId));
+        }
+    }
+
+    public void onContentReleased(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            RawDocumentContentReleasedEvent event) {
+        File marker = new File(ensureDirectory(RELEASED_SUBDIRECTORY),
+                event.getFileId());
+        try {
+            // restarts the grace period if it was released before
+            Files.touch(marker);
+        } catch (IOException e) {
+            log.warn("unable to mark raw document file {} as released",
+                    event.getFileId(), e);
+        }
+    }
+
+    @Override
+    public void deleteReleasedContent() {
+        File[] markers = ensureDirectory(RELEASED_SUBDIRECTORY).listFiles();
+        if (markers == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - DELETE_GRACE_MILLIS;
+        for (File marker : markers) {
+            if (marker.lastModified() > cutoff) {
+                continue;
+            }
+            String fileId = marker.getName();
+            boolean done =
+                    rawDocumentDAO.countByFileId(fileId) > 0
+                            || deleteUnlessUsedSince(getFileForName(fileId),
+                                    cutoff);
+            if (done) {
+                marker.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes a file unless it was stored or shared after the cutoff time.
+     * The file is renamed before its time is checked again: storing the same
+     * content either touched it before the rename, which shows in the time,
+     * or finds it gone and stores it afresh.
+     *
+     * @return false if the file has been kept
+     */
+    private static boolean deleteUnlessUsedSince(File file, long cutoff) {
+        if (file.lastModified() > cutoff) {
+            return false;
+        }
+        File doomed =
+                new File(file.getParentFile(), file.getName() + "."
+                        + UUID.randomUUID() + ".deleted");
+        try {
+            java.nio.file.Files.move(file.toPath(), doomed.toPath(),
+                    ATOMIC_MOVE);
+            if (doomed.lastModified() > cutoff) {
+                // used again just before the rename; any file stored since
+                // has the same content, so it can be replaced
+                java.nio.file.Files.move(doomed.toPath(), file.toPath(),
+                        ATOMIC_MOVE, REPLACE_EXISTING);
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            // already gone
+            return true;
+        } catch (IOException e) {
+            log.warn("unable to remove file {}", file.getAbsolutePath(), e);
+            return false;
+        }
+        if (doomed.delete()) {
+            log.info("Removed unused raw document file {}",
+                    file.getAbsolutePath());
+        }
+        return true;
     }
 
     private File getFileForName(String fileName) {
-        File docsPath = ensureDocsDirectory();
+        File docsPath = ensureDirectory(RAW_DOCUMENTS_SUBDIRECTORY);
         File newFile = new File(docsPath, fileName);
         return newFile;
     }
 
-    private File ensureDocsDirectory() {
+    private File ensureDirectory(String subdirectory) {
         String basePathStringOrNull =
                 appConfig.getDocumentFileStorageLocation();
         if (basePathStringOrNull == null) {
             throw new RuntimeException(
                     "Document storage location is not configured in JNDI.");
         }
-        File docsDirectory =
-                new File(basePathStringOrNull, RAW_DOCUMENTS_SUBDIRECTORY);
-        docsDirectory.mkdirs();
-        return docsDirectory;
+        File directory = new File(basePathStringOrNull, subdirectory);
+        directory.mkdirs();
+        return directory;
     }
 
-    private static String generateFileNameFor(HRawDocument rawDocument, String extension) {
-        // Could change to use id of rawDocument, and throw if rawDocument has
-        // no id yet.
-        String idAsString = rawDocument.getDocument().getId().toString();
-        return idAsString + "." + extension;
+    private static String generateFileNameFor(String contentHash,
+            String extension) {
+        if (Strings.isNullOrEmpty(extension)) {
+            return contentHash;
+        }
+        return contentHash + "." + extension;
     }
 
     // TODO damason: put this in a more appropriate location
@@ -138,6 +329,19 @@ public class FileSystemPersistService implements FilePersistService {
         }
     }
 
+    @Override
+    public FileChannel openRawDocumentContent(HRawDocument document)
+            throws RawDocumentContentAccessException {
+        File rawFile = getFileForRawDocument(document);
+        try {
+            return FileChannel.open(rawFile.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RawDocumentContentAccessException(
+                    "Unable to open raw document file "
+                            + rawFile.getAbsolutePath(), e);
+        }
+    }
+
     @Override
     public boolean hasPersistedDocument(GlobalDocumentId id) {
         HDocument doc = documentDAO.getByGlobalId(id);
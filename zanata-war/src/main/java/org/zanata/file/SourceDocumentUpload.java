@@ -310,10 +310,9 @@ public class SourceDocumentUpload {
         DocumentType documentType =
                 DocumentType.getByName(uploadForm.getFileType());
 
+        // takes over the temp file
         persistRawDocument(document, tempFile, contentHash, documentType,
                 params);
-
-        translationFileServiceImpl.removeTempFile(tempFile);
     }
 
     private void persistRawDocument(HDocument document, File rawFile,
@@ -324,13 +323,18 @@ public class SourceDocumentUpload {
         rawDocument.setContentHash(contentHash);
         rawDocument.setType(documentType);
         rawDocument.setUploadedBy(identity.getCredentials().getUsername());
-        filePersistService.persistRawDocumentContentFromFile(rawDocument,
+        filePersistService.persistRawDocumentContentFromTempFile(rawDocument,
                 rawFile, FilenameUtils.getExtension(rawFile.getName()));
         if (params.isPresent()) {
             rawDocument.setAdapterParameters(params.get());
         }
+        HRawDocument oldRawDocument = document.getRawDocument();
         documentDAO.addRawDocument(document, rawDocument);
         documentDAO.flush();
+        if (oldRawDocument != null && oldRawDocument.getFileId() != null) {
+            filePersistService.releaseRawDocumentContent(oldRawDocument
+                    .getFileId());
+        }
     }
 
     /**
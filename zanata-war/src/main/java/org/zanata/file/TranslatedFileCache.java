@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.locks.Lock;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Named;
+
+import org.apache.commons.io.FileUtils;
+import org.zanata.util.SysProperties;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.Striped;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps generated translated files on local disk, so that repeated downloads
+ * of an unchanged translation don't have to generate the file again. The
+ * least recently used files are deleted when the total size goes over
+ * {@link SysProperties#TRANSLATED_FILE_CACHE_MAX_MB}.
+ * <p>
+ * Callers build keys which change whenever the generated file would change.
+ * Only one file is generated at a time for any key. Files left by an earlier
+ * run of the server are deleted when the cache is first used.
+ * <p>
+ * The files are kept in the server's own temporary directory, never in the
+ * document storage, which may be shared by every node of a cluster.
+ */
+@Named("translatedFileCache")
+@ApplicationScoped
+@Slf4j
+public class TranslatedFileCache {
+
+    private static final String CACHE_SUBDIRECTORY = "zanata-translated";
+    private static final long DEFAULT_MAX_MB = 512;
+    /**
+     * Temporary directory of this server instance in WildFly/EAP, which unlike
+     * java.io.tmpdir is not shared with other servers on the same host.
+     */
+    private static final String SERVER_TEMP_DIR = "jboss.server.temp.dir";
+
+    private final Cache<String, File> files;
+    private final Striped<Lock> generationLocks = Striped.lazyWeakLock(64);
+    private volatile File cacheDirectory;
+
+    public TranslatedFileCache() {
+        this(null, SysProperties.getLong(
+                SysProperties.TRANSLATED_FILE_CACHE_MAX_MB, DEFAULT_MAX_MB)
+                * 1024);
+    }
+
+    @VisibleForTesting
+    TranslatedFileCache(File cacheDirectory, long maxKilobytes) {
+        this.cacheDirectory = cacheDirectory;
+        this.files = CacheBuilder.newBuilder()
+                // one segment, so that the whole size limit applies to
+                // every file instead of being divided between segments
+                .concurrencyLevel(1)
+                .maximumWeight(maxKilobytes)
+                .weigher((String key, File file) -> kilobytes(file))
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * Something which writes a generated file.
+     */
+    public interface Generator {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Opens the cached file for the key, generating it first if needed. The
+     * caller must close the channel.
+     */
+    public FileChannel open(String key, Generator generator)
+            throws IOException {
+        FileChannel cached = openCached(key);
+        if (cached != null) {
+            return cached;
+        }
+        Lock lock = generationLocks.get(key);
+        lock.lock();
+        try {
+            // it may have been generated while we waited
+            cached = openCached(key);
+            if (cached != null) {
+                return cached;
+            }
+            File file = generate(generator);
+            // open before caching, in case it is evicted straight away
+            FileChannel channel = FileChannel.open(file.toPath(), READ);
+            files.put(key, file);
+            return channel;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Generates the file for the key unless it is already cached.
+     */
+    public void warm(String key, Generator generator) throws IOException {
+        open(key, generator).close();
+    }
+
+    private FileChannel openCached(String key) throws IOException {
+        File file = files.getIfPresent(key);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return FileChannel.open(file.toPath(), READ);
+        } catch (NoSuchFileException e) {
+            log.debug("cached file {} has gone", file);
+            files.asMap().remove(key, file);
+            return null;
+        }
+    }
+
+    private File generate(Generator generator) throws IOException {
+        File file =
+                File.createTempFile("translated", ".tmp",
+                        ensureCacheDirectory());
+        boolean generated = false;
+        try {
+            try (OutputStream output =
+                    new BufferedOutputStream(new FileOutputStream(file))) {
+                generator.writeTo(output);
+            }
+            generated = true;
+            return file;
+        } finally {
+            if (!generated) {
+                file.delete();
+            }
+        }
+    }
+
+    private void onRemoval(RemovalNotification<String, File> notification) {
+        File file = notification.getValue();
+        if (file != null && !file.delete()) {
+            log.debug("unable to remove cached file {}", file);
+        }
+    }
+
+    private static int kilobytes(File file) {
+        return (int) Math.min(Integer.MAX_VALUE, file.length() / 1024 + 1);
+    }
+
+    private File ensureCacheDirectory() throws IOException {
+        File directory = cacheDirectory;
+        if (directory == null) {
+            synchronized (this) {
+                directory = cacheDirectory;
+                if (directory == null) {
+                    directory = new File(getBasePath(), CACHE_SUBDIRECTORY);
+                    if (directory.exists()) {
+                        // nothing refers to these any more
+                        FileUtils.cleanDirectory(directory);
+                    }
+                    cacheDirectory = directory;
+                }
+            }
+        }
+        directory.mkdirs();
+        return directory;
+    }
+
+    private static String getBasePath() {
+        return System.getProperty(SERVER_TEMP_DIR,
+                System.getProperty("java.io.tmpdir"));
+    }
+}
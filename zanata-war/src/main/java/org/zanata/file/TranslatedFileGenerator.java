@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.zanata.adapter.FileFormatAdapter;
+import org.zanata.async.Async;
+import org.zanata.async.AsyncTaskType;
+import org.zanata.common.ContentState;
+import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
+import org.zanata.model.HProjectIteration;
+import org.zanata.model.HRawDocument;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TextFlowTarget;
+import org.zanata.rest.dto.resource.TranslationsResource;
+import org.zanata.rest.service.ResourceUtils;
+import org.zanata.rest.service.VirusScanner;
+import org.zanata.service.LocaleService;
+import org.zanata.service.TranslationFileService;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates translated files for documents which were uploaded in an adapter
+ * format (ie which have a raw document), going through
+ * {@link TranslatedFileCache} so that an unchanged translation is only
+ * generated once. After a translation push the approved file is generated in
+ * the background, ready for the next download.
+ */
+@Named("translatedFileGenerator")
+@RequestScoped
+@Slf4j
+public class TranslatedFileGenerator {
+
+    @Inject
+    private DocumentDAO documentDAO;
+
+    @Inject
+    private TextFlowTargetDAO textFlowTargetDAO;
+
+    @Inject
+    private LocaleService localeServiceImpl;
+
+    @Inject
+    private ResourceUtils resourceUtils;
+
+    @Inject
+    private TranslationFileService translationFileServiceImpl;
+
+    @Inject
+    private FilePersistService filePersistService;
+
+    @Inject
+    private VirusScanner virusScanner;
+
+    @Inject
+    private TranslatedFileCache translatedFileCache;
+
+    /**
+     * Opens the translated file for a document, generating it if the cached
+     * copy is missing or out of date. The caller must close the channel.
+     *
+     * @param includeFuzzy
+     *            whether to include translations which need review, as well
+     *            as approved ones
+     */
+    public FileChannel openTranslatedFile(HDocument document, HLocale locale,
+            boolean includeFuzzy) throws IOException {
+        return translatedFileCache.open(
+                cacheKey(document, locale, includeFuzzy),
+                output -> writeTranslatedFile(document, locale, includeFuzzy,
+                        output));
+    }
+
+    @Async(AsyncTaskType.FILE_CACHE_WARMING)
+    public void warmCacheAfterPush(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            DocumentUploadedEvent event) {
+        if (event.isSourceDocument()) {
+            return;
+        }
+        HDocument document = documentDAO.findById(event.getDocumentId());
+        if (document == null || document.getRawDocument() == null) {
+            return;
+        }
+        HLocale locale = localeServiceImpl.getByLocaleId(event.getLocaleId());
+        if (locale == null) {
+            return;
+        }
+        try {
+            translatedFileCache.warm(cacheKey(document, locale, false),
+                    output -> writeTranslatedFile(document, locale, false,
+                            output));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to generate translated file for document {}"
+                    + " locale {}", document.getId(), event.getLocaleId(), e);
+        }
+    }
+
+    /**
+     * Everything the generated file depends on: the original file and the
+     * adapter parameters, the source text and the translations.
+     */
+    private String cacheKey(HDocument document, HLocale locale,
+            boolean includeFuzzy) {
+        HRawDocument rawDocument = document.getRawDocument();
+        HProjectIteration version = document.getProjectIteration();
+        String translationState =
+                documentDAO.getTranslatedDocumentStateHash(version
+                        .getProject().getSlug(), version.getSlug(), document
+                        .getDocId(), locale);
+        return Joiner.on('|').useForNull("").join(document.getId(),
+                rawDocument.getFileId(), rawDocument.getContentHash(),
+                rawDocument.getType(), rawDocument.getAdapterParameters(),
+                locale.getLocaleId(), translationState,
+                includeFuzzy ? "fuzzy" : "approved");
+    }
+
+    private void writeTranslatedFile(HDocument document, HLocale locale,
+            boolean includeFuzzy, OutputStream output) throws IOException {
+        Resource res = resourceUtils.buildResource(document);
+        TranslationsResource transRes = new TranslationsResource();
+        List<HTextFlowTarget> hTargets =
+                textFlowTargetDAO.findTranslations(document, locale);
+        resourceUtils.transferToTranslationsResource(transRes, document,
+                locale, Collections.<String> emptySet(), hTargets,
+                Optional.<String> absent());
+        // Filter to only provide translated targets. "Preview" downloads
+        // include fuzzy.
+        // New list is used as transRes list appears not to be a modifiable
+        // implementation.
+        List<TextFlowTarget> filteredTranslations = Lists.newArrayList();
+        for (TextFlowTarget target : transRes.getTextFlowTargets()) {
+            // TODO rhbz953734 - resourceUtils will map review content state
+            // to old state. For now this is acceptable. Once we have new REST
+            // options, we should review this
+            if (target.getState() == ContentState.Approved
+                    || (includeFuzzy
+                            && target.getState() == ContentState.NeedReview)) {
+                filteredTranslations.add(target);
+            }
+        }
+        transRes.getTextFlowTargets().clear();
+        transRes.getTextFlowTargets().addAll(filteredTranslations);
+
+        HRawDocument hRawDocument = document.getRawDocument();
+        File tempFile;
+        try (InputStream inputStream =
+                filePersistService
+                        .getRawDocumentContentAsStream(hRawDocument)) {
+            tempFile =
+                    translationFileServiceImpl.persistToTempFile(inputStream);
+        }
+        try {
+            HProjectIteration version = document.getProjectIteration();
+            String name = version.getProject().getSlug() + ":"
+                    + version.getSlug() + ":" + document.getDocId();
+            // TODO damason: this file is not transmitted, but used to
+            // generate a file later
+            // the generated file should be scanned instead
+            virusScanner.scan(tempFile, name);
+            FileFormatAdapter adapter =
+                    translationFileServiceImpl.getAdapterFor(hRawDocument
+                            .getType());
+            Optional<String> params =
+                    Optional.<String> fromNullable(Strings
+                            .emptyToNull(hRawDocument.getAdapterParameters()));
+            // FIXME should the generated file be virus scanned?
+            adapter.writeTranslatedFile(output, tempFile.toURI(), res,
+                    transRes, locale.getLocaleId().getId(), params);
+        } finally {
+            translationFileServiceImpl.removeTempFile(tempFile);
+        }
+    }
+}
@@ -22,11 +22,31 @@ package org.zanata.file;
 
 import java.io.InputStream;
 
+import org.zanata.model.HDocumentUpload;
 import org.zanata.model.HDocumentUploadPart;
 
 public interface UploadPartPersistService {
 
-    public HDocumentUploadPart newUploadPartFromStream(
+    /**
+     * Stores the content of the next part of an upload, after the parts it
+     * already has. The upload must have been saved, so that it has an id.
+     *
+     * @return the new part, to be added to the upload's parts
+     */
+    public HDocumentUploadPart newUploadPartFromStream(HDocumentUpload upload,
             InputStream partContentStream, int contentLength);
 
+    /**
+     * Stores the final part of an upload after its other parts, and hands
+     * over the file with the combined content. The caller is responsible for
+     * removing the file.
+     */
+    public CombinedUpload combineWithFinalPart(HDocumentUpload upload,
+            InputStream finalPartStream);
+
+    /**
+     * Removes any content stored for an upload which won't be completed.
+     */
+    public void discard(HDocumentUpload upload);
+
 }
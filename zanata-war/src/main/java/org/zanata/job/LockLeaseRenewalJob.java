@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.job;
+
+import java.io.Serializable;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.apache.deltaspike.scheduler.api.Scheduled;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.zanata.config.LockConfig;
+import org.zanata.service.impl.LockManagerServiceImpl;
+
+/**
+ * Renews the shared lock leases held by this node, so that they don't expire
+ * while the work they guard is still running.
+ */
+@Scheduled(cronExpression = LockLeaseRenewalJob.CRON_EXPRESSION,
+        startScopes = { RequestScoped.class },
+        description = LockLeaseRenewalJob.DESCRIPTION)
+@DisallowConcurrentExecution
+class LockLeaseRenewalJob implements Job, Serializable {
+    static final String DESCRIPTION = "Lock Lease Renewal";
+    // every LockConfig.RENEWAL_SECONDS seconds
+    static final String CRON_EXPRESSION =
+            "0/" + LockConfig.RENEWAL_SECONDS + " * * * * ? *";
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    private LockManagerServiceImpl lockManagerServiceImpl;
+
+    @Override
+    public void execute(JobExecutionContext context)
+            throws JobExecutionException {
+        lockManagerServiceImpl.renewLeases();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.job;
+
+import java.io.Serializable;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
+
+import org.apache.deltaspike.scheduler.api.Scheduled;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.zanata.webhook.WebhookDispatcher;
+
+/**
+ * Retries webhook posts which failed or didn't fit in their queue (see
+ * {@link WebhookDispatcher}).
+ */
+@Scheduled(cronExpression = WebhookRetryJob.CRON_EXPRESSION,
+        // the session scope is needed to start tasks in the webhook lane
+        startScopes = { RequestScoped.class, SessionScoped.class },
+        description = WebhookRetryJob.DESCRIPTION)
+@DisallowConcurrentExecution
+class WebhookRetryJob implements Job, Serializable {
+    static final String DESCRIPTION = "Webhook Retry";
+    // every 30 seconds
+    static final String CRON_EXPRESSION = "0/30 * * * * ? *";
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    private WebhookDispatcher webhookDispatcher;
+
+    @Override
+    public void execute(JobExecutionContext context)
+            throws JobExecutionException {
+        try {
+            webhookDispatcher.retryDueDeliveries();
+        } catch (Exception e) {
+            throw new JobExecutionException(e);
+        }
+    }
+}
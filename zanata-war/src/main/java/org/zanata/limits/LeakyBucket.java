@@ -1,24 +1,39 @@
 package org.zanata.limits;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Ticker;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 /**
+ * Lock-free token bucket. Start off with full permits, and add one permit
+ * every refill period, up to capacity.
+ * <p>
+ * The whole state lives in one {@link AtomicLong}: the low
+ * {@link #PERMIT_BITS} bits hold the available permits and the high bits hold
+ * the refill period (counted from the creation of the bucket) in which the
+ * permits were last refilled. Each acquire is a single compare-and-set, so
+ * callers never block each other.
+ *
  * @author Patrick Huang <a
  *         href="mailto:pahuang@redhat.com">pahuang@redhat.com</a>
  */
 @Slf4j
-@ToString
 public class LeakyBucket {
+    static final int PERMIT_BITS = 24;
+    static final long MAX_CAPACITY = (1L << PERMIT_BITS) - 1;
+    private static final long PERMIT_MASK = MAX_CAPACITY;
+    private static final long PERIOD_MASK = -1L >>> PERMIT_BITS;
+
     private final long refillPeriod;
     private final long capacity;
-    private final TimeTracker timeTracker;
-    private volatile long availablePermits;
-    private final long waitSleepTime;
+    private final Ticker ticker;
+    private final long origin;
+    private final AtomicLong state;
 
     /**
      * Simple form leaky bucket. Start off with full permits.
@@ -26,7 +41,7 @@ public class LeakyBucket {
      * after set time period.
      *
      * @param capacity
-     *            capacity
+     *            capacity (at most {@link #MAX_CAPACITY})
      * @param refillDuration
      *            refill duration
      * @param refillTimeUnit
@@ -34,21 +49,21 @@ public class LeakyBucket {
      */
     public LeakyBucket(long capacity, int refillDuration,
             TimeUnit refillTimeUnit) {
-        this(capacity, refillDuration, refillTimeUnit, new TimeTracker());
+        this(capacity, refillDuration, refillTimeUnit, Ticker.systemTicker());
     }
 
     @VisibleForTesting
     protected LeakyBucket(long capacity, int refillDuration,
-            TimeUnit refillTimeUnit, TimeTracker timeTracker) {
+            TimeUnit refillTimeUnit, Ticker ticker) {
+        Preconditions.checkArgument(capacity > 0 && capacity <= MAX_CAPACITY,
+                "capacity must be between 1 and %s", MAX_CAPACITY);
         this.capacity = capacity;
-        availablePermits = capacity;
-        this.timeTracker = timeTracker;
+        this.ticker = ticker;
         refillPeriod =
-                TimeUnit.NANOSECONDS.convert(refillDuration, refillTimeUnit);
-        long refillInMillis =
-                TimeUnit.MILLISECONDS.convert(refillDuration, refillTimeUnit);
-        // when blocking, the time we should sleep (minimum 1 ms)
-        waitSleepTime = Math.max(refillInMillis, 1);
+                Math.max(1, TimeUnit.NANOSECONDS.convert(refillDuration,
+                        refillTimeUnit));
+        origin = ticker.read();
+        state = new AtomicLong(pack(0, capacity));
     }
 
     /**
@@ -65,54 +80,59 @@ public class LeakyBucket {
      *
      * @return true if there is enough permits
      */
-    public synchronized boolean tryAcquire(final long requestPermits) {
-        onDemandRefill();
-        if (this.availablePermits >= requestPermits) {
-            timeTracker.recordCurrentTime();
-            this.availablePermits -= requestPermits;
-            log.debug(
-                    "deduct {} permits(s), current left permits {}, return true",
-                    requestPermits, this.availablePermits);
-            return true;
-        } else {
-            return false;
+    public boolean tryAcquire(final long requestPermits) {
+        while (true) {
+            long current = state.get();
+            long period = currentPeriod();
+            long permits = refill(current, period);
+            if (permits < requestPermits) {
+                return false;
+            }
+            long next = pack(period, permits - requestPermits);
+            if (state.compareAndSet(current, next)) {
+                log.debug(
+                        "deduct {} permits(s), current left permits {}, return true",
+                        requestPermits, permits - requestPermits);
+                return true;
+            }
+            // lost the race with another caller; re-read and try again
         }
     }
 
-    private synchronized void onDemandRefill() {
-        if (availablePermits == capacity) {
-            return;
-        }
-        long timePassed = timeTracker.timePassed();
-        log.debug("time passed: {}", timePassed);
-        long permitsShouldAdd = timePassed / refillPeriod;
-        log.debug("permits should add: {}", permitsShouldAdd);
-        if (timePassed >= refillPeriod) {
-            availablePermits = Math.min(capacity, availablePermits + permitsShouldAdd);
-            log.debug("refilled and now with {} permits", availablePermits);
-        }
+    /**
+     * @return the number of permits which could be acquired right now
+     */
+    public long availablePermits() {
+        return refill(state.get(), currentPeriod());
     }
 
-    @ToString
-    static class TimeTracker {
-        private final Ticker ticker;
-        private long lastRead;
+    private long currentPeriod() {
+        return ((ticker.read() - origin) / refillPeriod) & PERIOD_MASK;
+    }
 
-        TimeTracker() {
-            ticker = Ticker.systemTicker();
+    private long refill(long state, long period) {
+        long permits = state & PERMIT_MASK;
+        if (permits == capacity) {
+            return permits;
         }
-
-        @VisibleForTesting
-        TimeTracker(Ticker ticker) {
-            this.ticker = ticker;
+        // masked subtraction copes with the period counter wrapping around
+        long periodsPassed = (period - (state >>> PERMIT_BITS)) & PERIOD_MASK;
+        if (periodsPassed >= capacity - permits) {
+            return capacity;
         }
+        return permits + periodsPassed;
+    }
 
-        void recordCurrentTime() {
-            lastRead = ticker.read();
-        }
+    private static long pack(long period, long permits) {
+        return (period << PERMIT_BITS) | permits;
+    }
 
-        long timePassed() {
-            return ticker.read() - lastRead;
-        }
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("capacity", capacity)
+                .add("refillPeriod", refillPeriod)
+                .add("availablePermits", availablePermits())
+                .toString();
     }
 }
@@ -14,6 +14,7 @@ import org.zanata.ApplicationConfiguration;
 import org.zanata.events.ConfigurationChanged;
 import org.zanata.util.Introspectable;
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
@@ -37,8 +38,15 @@ public class RateLimitManager implements Introspectable {
 
     public static final String INTROSPECTABLE_FIELD_RATE_LIMITERS =
             "RateLimiters";
+    public static final String INTROSPECTABLE_FIELD_RATE_LIMITER_METRICS =
+            "RateLimiterMetrics";
+    // every REST call looks up its limiter here, so split the cache into
+    // enough segments that concurrent callers rarely share a segment lock
+    private static final int CONCURRENCY_LEVEL =
+            Runtime.getRuntime().availableProcessors() * 4;
     private final Cache<RateLimiterToken, RestCallLimiter> activeCallers = CacheBuilder
-            .newBuilder().maximumSize(100).build();
+            .newBuilder().concurrencyLevel(CONCURRENCY_LEVEL)
+            .maximumSize(100).build();
 
     @Getter(AccessLevel.PROTECTED)
     @VisibleForTesting
@@ -99,7 +107,8 @@ public class RateLimitManager implements Introspectable {
 
     @Override
     public Collection<String> getIntrospectableFieldNames() {
-        return Lists.newArrayList(INTROSPECTABLE_FIELD_RATE_LIMITERS);
+        return Lists.newArrayList(INTROSPECTABLE_FIELD_RATE_LIMITERS,
+                INTROSPECTABLE_FIELD_RATE_LIMITER_METRICS);
     }
 
     @Override
@@ -108,6 +117,9 @@ public class RateLimitManager implements Introspectable {
         if (INTROSPECTABLE_FIELD_RATE_LIMITERS.equals(fieldName)) {
             return Iterables.toString(peekCurrentBuckets());
         }
+        if (INTROSPECTABLE_FIELD_RATE_LIMITER_METRICS.equals(fieldName)) {
+            return summarizeMetrics();
+        }
         throw new IllegalArgumentException("unknown field:" + fieldName);
     }
 
@@ -126,6 +138,24 @@ public class RateLimitManager implements Introspectable {
                 });
     }
 
+    private String summarizeMetrics() {
+        long accepted = 0;
+        long rejected = 0;
+        long maxWaitMillis = 0;
+        Collection<RestCallLimiter> limiters = activeCallers.asMap().values();
+        for (RestCallLimiter limiter : limiters) {
+            accepted += limiter.getAcceptedCount();
+            rejected += limiter.getRejectedCount();
+            maxWaitMillis = Math.max(maxWaitMillis, limiter.getMaxWaitMillis());
+        }
+        return Objects.toStringHelper("RateLimiterMetrics")
+                .add("limiters", limiters.size())
+                .add("accepted", accepted)
+                .add("rejected", rejected)
+                .add("maxWaitMillis", maxWaitMillis)
+                .toString();
+    }
+
     /**
      * @param key - {@link RateLimiterToken.TYPE )
      */
@@ -138,6 +168,11 @@ public class RateLimitManager implements Introspectable {
             // short circuit if we don't want limiting
             return NoLimitLimiter.INSTANCE;
         }
+        // fast path: avoids allocating a loader for the common case
+        RestCallLimiter limiter = activeCallers.getIfPresent(key);
+        if (limiter != null) {
+            return limiter;
+        }
         try {
             return activeCallers.get(key, new Callable<RestCallLimiter>() {
                 @Override
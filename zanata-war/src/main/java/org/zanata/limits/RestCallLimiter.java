@@ -2,6 +2,8 @@ package org.zanata.limits;
 
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
@@ -19,6 +21,12 @@ class RestCallLimiter {
     private volatile Semaphore maxActiveSemaphore;
     private int maxConcurrent;
     private int maxActive;
+    // metrics, updated without locking so they don't add contention
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos =
+            new LongAccumulator(Math::max, 0);
 
     /**
      * Creates a limiter which limits maximum concurrent requests and maximum
@@ -74,6 +82,7 @@ class RestCallLimiter {
                 log.debug("released [concurrent] semaphore");
             }
         } else {
+            rejected.increment();
             log.debug("failed to acquire [concurrent] permit");
         }
         return gotConcurrentPermit;
@@ -86,8 +95,11 @@ class RestCallLimiter {
             // hang on to the semaphore, so that we can be certain of
             // releasing the same one we acquired
             final Semaphore activeSem = maxActiveSemaphore;
+            long start = System.nanoTime();
             boolean gotActivePermit = activeSem.tryAcquire(5, TimeUnit.MINUTES);
+            recordWait(System.nanoTime() - start);
             if (gotActivePermit) {
+                accepted.increment();
                 // if acquired, immediately enter try finally (release)
                 try {
                     log.debug("got [active] semaphore");
@@ -96,8 +108,10 @@ class RestCallLimiter {
                     activeSem.release();
                     log.debug("released [active] semaphore");
                 }
+                return true;
             }
-            return gotActivePermit;
+            rejected.increment();
+            return false;
         } catch (InterruptedException e) {
             throw Throwables.propagate(e);
         }
@@ -154,6 +168,41 @@ class RestCallLimiter {
         return maxActiveSemaphore.availablePermits();
     }
 
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    /**
+     * @return number of requests which got both permits and were run
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return number of requests turned away, either for lack of a concurrent
+     *         permit or because the active permit timed out
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return average time spent waiting for an active permit, in milliseconds
+     */
+    public long getAverageWaitMillis() {
+        long attempts = accepted.sum() + rejected.sum();
+        if (attempts == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / attempts);
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
     private static Semaphore makeSemaphore(int permit) {
         if (permit == 0) {
             return NoLimitSemaphore.INSTANCE;
@@ -172,6 +221,10 @@ class RestCallLimiter {
                 .add("maxActive(available)",
                         maxActiveSemaphore.availablePermits())
                 .add("maxActive(queue)", maxActiveSemaphore.getQueueLength())
+                .add("accepted", getAcceptedCount())
+                .add("rejected", getRejectedCount())
+                .add("avgWaitMillis", getAverageWaitMillis())
+                .add("maxWaitMillis", getMaxWaitMillis())
                 .toString();
     }
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.lock;
+
+import java.io.Serializable;
+
+import lombok.Value;
+
+/**
+ * The right to hold a {@link Lock} until a point in time. Every lease carries
+ * a fencing token which is greater than the token of any earlier lease, so
+ * work guarded by a lock can tell whether its lease has since been taken over.
+ * Renewing a lease keeps its token and moves its expiry time.
+ */
+@Value
+public class LockLease implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * username of the lock owner
+     */
+    String owner;
+    long fencingToken;
+    /**
+     * wall clock time (in milliseconds) after which the lease may be taken
+     * over by someone else
+     */
+    long expiresAt;
+
+    public boolean isExpiredAt(long timeMillis) {
+        return timeMillis >= expiresAt;
+    }
+
+    /**
+     * @return true if other is this lease, perhaps renewed since
+     */
+    public boolean isSameLease(LockLease other) {
+        return other != null && fencingToken == other.fencingToken;
+    }
+
+    public LockLease renewedUntil(long expiresAt) {
+        return new LockLease(owner, fencingToken, expiresAt);
+    }
+}
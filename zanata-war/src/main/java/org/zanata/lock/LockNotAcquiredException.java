@@ -28,6 +28,7 @@ package org.zanata.lock;
  */
 public class LockNotAcquiredException extends RuntimeException {
     private Lock lock;
+    private String owner;
 
     public LockNotAcquiredException(Lock l) {
         super();
@@ -39,7 +40,20 @@ public class LockNotAcquiredException extends RuntimeException {
         lock = l;
     }
 
+    public LockNotAcquiredException(Lock l, String owner, String message) {
+        super(message);
+        lock = l;
+        this.owner = owner;
+    }
+
     public Lock getLock() {
         return lock;
     }
+
+    /**
+     * @return username of the current lock owner, if known
+     */
+    public String getOwner() {
+        return owner;
+    }
 }
@@ -23,11 +23,11 @@ package org.zanata.rest.service;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
-import java.net.URI;
-import java.util.Collections;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -44,15 +44,14 @@ import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jboss.resteasy.util.GenericType;
 
 import lombok.extern.slf4j.Slf4j;
 import javax.inject.Inject;
 import javax.inject.Named;
-import org.zanata.adapter.FileFormatAdapter;
 import org.zanata.adapter.po.PoWriter2;
-import org.zanata.common.ContentState;
 import org.zanata.common.DocumentType;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
@@ -60,21 +59,19 @@ import org.zanata.file.FilePersistService;
 import org.zanata.file.GlobalDocumentId;
 import org.zanata.file.RawDocumentContentAccessException;
 import org.zanata.file.SourceDocumentUpload;
+import org.zanata.file.TranslatedFileGenerator;
 import org.zanata.file.TranslationDocumentUpload;
 import org.zanata.model.HDocument;
-import org.zanata.model.HRawDocument;
+import org.zanata.model.HLocale;
 import org.zanata.model.type.TranslationSourceType;
 import org.zanata.rest.DocumentFileUploadForm;
 import org.zanata.rest.StringSet;
 import org.zanata.rest.dto.resource.Resource;
-import org.zanata.rest.dto.resource.TextFlowTarget;
 import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.service.FileSystemService;
 import org.zanata.service.FileSystemService.DownloadDescriptorProperties;
 import org.zanata.service.TranslationFileService;
 
-import com.google.common.base.Optional;
-import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
 
@@ -101,9 +98,6 @@ public class FileService implements FileResource {
     @Inject
     private ResourceUtils resourceUtils;
 
-    @Inject
-    private VirusScanner virusScanner;
-
     @Inject
     private SourceDocumentUpload sourceUploader;
 
@@ -113,6 +107,12 @@ public class FileService implements FileResource {
     @Inject
     private FilePersistService filePersistService;
 
+    @Inject
+    private TranslatedFileGenerator translatedFileGenerator;
+
+    @Inject
+    private RestSlugValidator restSlugValidator;
+
     /**
      * Deprecated.
      * @see #acceptedFileTypeList
@@ -175,21 +175,24 @@ public class FileService implements FileResource {
             if (document.getRawDocument() == null) {
                 return Response.status(Status.NOT_FOUND).build();
             }
-            InputStream fileContents;
+            FileChannel fileContents = null;
+            long contentLength;
             try {
                 fileContents =
-                        filePersistService
-                                .getRawDocumentContentAsStream(document
-                                        .getRawDocument());
-            } catch (RawDocumentContentAccessException e) {
+                        filePersistService.openRawDocumentContent(document
+                                .getRawDocument());
+                contentLength = fileContents.size();
+            } catch (RawDocumentContentAccessException | IOException e) {
+                IOUtils.closeQuietly(fileContents);
                 log.error(e.toString(), e);
                 return Response.status(Status.INTERNAL_SERVER_ERROR).entity(e)
                         .build();
             }
             StreamingOutput output =
-                    new InputStreamStreamingOutput(fileContents);
+                    new FileChannelStreamingOutput(fileContents);
             return Response
                     .ok()
+                    .header("Content-Length", contentLength)
                     .header("Content-Disposition",
                             "attachment; filename=\"" + document.getName()
                                     + "\"").entity(output).build();
@@ -256,75 +259,34 @@ public class FileService implements FileResource {
             if (!filePersistService.hasPersistedDocument(id)) {
                 return Response.status(Status.NOT_FOUND).build();
             }
-            Resource res = this.resourceUtils.buildResource(document);
-
-            final Set<String> extensions = Collections.<String> emptySet();
-            TranslationsResource transRes =
-                    (TranslationsResource) this.translatedDocResourceService
-                            .getTranslations(docId, new LocaleId(locale),
-                                    extensions, true, null).getEntity();
-            // Filter to only provide translated targets. "Preview" downloads
-            // include fuzzy.
-            // New list is used as transRes list appears not to be a modifiable
-            // implementation.
-            List<TextFlowTarget> filteredTranslations = Lists.newArrayList();
-
+            HLocale hLocale =
+                    restSlugValidator.validateTargetLocale(new LocaleId(
+                            locale), projectSlug, iterationSlug);
             boolean useFuzzy =
                     FILETYPE_TRANSLATED_APPROVED_AND_FUZZY.equals(fileType);
-            for (TextFlowTarget target : transRes.getTextFlowTargets()) {
-                // TODO rhbz953734 - translatedDocResourceService will map
-                // review content state to old state. For now this is
-                // acceptable. Once we have new REST options, we should review
-                // this
-                if (target.getState() == ContentState.Approved
-                        || (useFuzzy && target.getState() == ContentState.NeedReview)) {
-                    filteredTranslations.add(target);
-                }
-            }
-
-            transRes.getTextFlowTargets().clear();
-            transRes.getTextFlowTargets().addAll(filteredTranslations);
-
-            InputStream inputStream;
+            FileChannel fileContents = null;
+            long contentLength;
             try {
-                inputStream =
-                        filePersistService
-                                .getRawDocumentContentAsStream(document
-                                        .getRawDocument());
-            } catch (RawDocumentContentAccessException e) {
+                fileContents =
+                        translatedFileGenerator.openTranslatedFile(document,
+                                hLocale, useFuzzy);
+                contentLength = fileContents.size();
+            } catch (RawDocumentContentAccessException | IOException e) {
+                IOUtils.closeQuietly(fileContents);
                 log.error(e.toString(), e);
                 return Response.status(Status.INTERNAL_SERVER_ERROR).entity(e)
                         .build();
             }
-            File tempFile =
-                    translationFileServiceImpl.persistToTempFile(inputStream);
-            String name = projectSlug + ":" + iterationSlug + ":" + docId;
-            // TODO damason: this file is not transmitted, but used to generate
-            // a file later
-            // the generated file should be scanned instead
-            virusScanner.scan(tempFile, name);
-            URI uri = tempFile.toURI();
-            HRawDocument hRawDocument = document.getRawDocument();
-            FileFormatAdapter adapter =
-                    translationFileServiceImpl.getAdapterFor(hRawDocument.getType());
-            String rawParamString = hRawDocument.getAdapterParameters();
-            Optional<String> params =
-                    Optional.<String> fromNullable(Strings
-                            .emptyToNull(rawParamString));
             StreamingOutput output =
-                    new FormatAdapterStreamingOutput(uri, res, transRes,
-                        locale, adapter, params);
+                    new FileChannelStreamingOutput(fileContents);
 
             response =
                     Response.ok()
+                            .header("Content-Length", contentLength)
                             .header("Content-Disposition",
                                     "attachment; filename=\""
                                             + generateTranslationFileName(document) + "\"")
                             .entity(output).build();
-         // TODO damason: remove more immediately, but make sure response has
-            // finished with the file
-            // Note: may not be necessary when file storage is on disk.
-            tempFile.deleteOnExit();
         } else {
             response = Response.status(Status.UNSUPPORTED_MEDIA_TYPE).build();
         }
@@ -437,54 +399,32 @@ public class FileService implements FileResource {
         }
     }
 
-    private class InputStreamStreamingOutput implements StreamingOutput {
-        private InputStream input;
+    /**
+     * Sends file contents with {@link FileChannel#transferTo}, so that the JDK
+     * can use the most direct transfer it has for the output channel.
+     */
+    private static class FileChannelStreamingOutput implements
+            StreamingOutput {
+        private final FileChannel channel;
 
-        public InputStreamStreamingOutput(InputStream input) {
-            this.input = input;
+        public FileChannelStreamingOutput(FileChannel channel) {
+            this.channel = channel;
         }
 
         @Override
         public void write(OutputStream output) throws IOException,
                 WebApplicationException {
-            byte[] buffer = new byte[4096]; // To hold file contents
-            int bytesRead; // How many bytes in buffer
-
-            while ((bytesRead = input.read(buffer)) != -1) {
-                output.write(buffer, 0, bytesRead);
+            try (FileChannel in = channel) {
+                WritableByteChannel out = Channels.newChannel(output);
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
             }
         }
     }
 
-    private class FormatAdapterStreamingOutput implements StreamingOutput {
-        private Resource resource;
-        private TranslationsResource translationsResource;
-        private String locale;
-        private URI original;
-        private FileFormatAdapter adapter;
-        private Optional<String> params;
-
-        public FormatAdapterStreamingOutput(URI originalDoc,
-            Resource resource, TranslationsResource translationsResource,
-                String locale, FileFormatAdapter adapter,
-                Optional<String> params) {
-            this.resource = resource;
-            this.translationsResource = translationsResource;
-            this.locale = locale;
-            this.original = originalDoc;
-            this.adapter = adapter;
-            this.params = params;
-        }
-
-        @Override
-        public void write(OutputStream output) throws IOException,
-                WebApplicationException {
-            // FIXME should the generated file be virus scanned?
-            adapter.writeTranslatedFile(output, original, resource,
-                translationsResource, locale, params);
-        }
-    }
-
     /*
      * Private class that implements downloading from a previously prepared
      * file.
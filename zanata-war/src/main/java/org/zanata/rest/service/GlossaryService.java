@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Event;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
@@ -21,6 +22,7 @@ import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
 import org.zanata.common.GlossarySortField;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.GlossaryDAO;
+import org.zanata.events.GlossaryChangedEvent;
 import org.zanata.exception.ZanataServiceException;
 import org.zanata.model.HGlossaryEntry;
 import org.zanata.model.HGlossaryTerm;
@@ -56,6 +58,9 @@ public class GlossaryService implements GlossaryResource {
     @Inject
     private LocaleService localeServiceImpl;
 
+    @Inject
+    private Event<GlossaryChangedEvent> glossaryChangedEvent;
+
     @Override
     public Response getInfo() {
         //set en-US as source, should get this from server settings.
@@ -230,6 +235,8 @@ public class GlossaryService implements GlossaryResource {
         if(entry != null) {
             glossaryDAO.makeTransient(entry);
             glossaryDAO.flush();
+            glossaryChangedEvent.fire(new GlossaryChangedEvent(
+                    entry.getSrcLocale().getLocaleId()));
             return Response.ok(deletedEntry).build();
         } else {
             return Response.status(Response.Status.NOT_FOUND)
@@ -243,6 +250,7 @@ public class GlossaryService implements GlossaryResource {
 
         int rowCount = glossaryDAO.deleteAllEntries();
         log.info("Glossary delete all: " + rowCount);
+        glossaryChangedEvent.fire(new GlossaryChangedEvent(null));
 
         return Response.ok().build();
     }
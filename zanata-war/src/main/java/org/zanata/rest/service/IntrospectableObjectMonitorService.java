@@ -27,8 +27,11 @@ import org.zanata.security.annotations.CheckRole;
 import org.zanata.common.Namespaces;
 import org.zanata.rest.MediaTypes;
 import org.zanata.rest.dto.Link;
+import org.zanata.cache.CacheStatisticsMonitor;
 import org.zanata.limits.RateLimitManager;
 import org.zanata.util.Introspectable;
+import org.zanata.webtrans.server.TranslationWorkspaceManagerImpl;
+import org.zanata.webhook.WebhookDispatcher;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -59,6 +62,9 @@ public class IntrospectableObjectMonitorService {
     private static List<Introspectable> introspectables = ImmutableList
             .<Introspectable> builder()
             .add(RateLimitManager.getInstance())
+            .add(CacheStatisticsMonitor.getInstance())
+            .add(WebhookDispatcher.getInstance())
+            .add(TranslationWorkspaceManagerImpl.getInstance())
             .build();
 
     /** Type of media requested. */
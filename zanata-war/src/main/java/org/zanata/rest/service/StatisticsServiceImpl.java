@@ -24,6 +24,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -217,11 +218,29 @@ public class StatisticsServiceImpl implements StatisticsResource {
             }
         }
 
-        // TODO Do in a single query
         if (includeDetails) {
-            for (String docId : iteration.getDocuments().keySet()) {
-                iterationStats.addDetailedStats(this.getStatistics(projectSlug,
-                        iterationSlug, docId, includeWordStats, locales));
+            // counts for all documents and locales at once
+            Map<Long, Map<LocaleId, ContainerTranslationStatistics>> allStats =
+                    documentDAO.getStatisticsForIteration(iteration.getId(),
+                            Arrays.asList(localeIds));
+            for (HDocument document : iteration.getDocuments().values()) {
+                Map<LocaleId, ContainerTranslationStatistics> docStats =
+                        allStats.get(document.getId());
+                ContainerTranslationStatistics docStatistics =
+                        newDocStatistics(document);
+                for (LocaleId localeId : localeIds) {
+                    ContainerTranslationStatistics stats;
+                    if (docStats != null) {
+                        stats = withRemainingHours(docStats.get(localeId),
+                                localeId);
+                    } else {
+                        // a document without text flows
+                        stats = getDocStatistics(document.getId(), localeId);
+                    }
+                    addDocStatistics(docStatistics, document.getId(),
+                            localeId, stats, includeWordStats);
+                }
+                iterationStats.addDetailedStats(docStatistics);
             }
         }
 
@@ -260,47 +279,62 @@ public class StatisticsServiceImpl implements StatisticsResource {
                     + "/" + docId);
         }
 
+        ContainerTranslationStatistics docStatistics =
+                newDocStatistics(document);
+        for (LocaleId localeId : localeIds) {
+            addDocStatistics(docStatistics, document.getId(), localeId,
+                    getDocStatistics(document.getId(), localeId),
+                    includeWordStats);
+        }
+        return docStatistics;
+    }
+
+    private ContainerTranslationStatistics newDocStatistics(
+            HDocument document) {
         ContainerTranslationStatistics docStatistics =
                 new ContainerTranslationStatistics();
-        docStatistics.setId(docId);
+        docStatistics.setId(document.getDocId());
         docStatistics.addRef(new Link(URI.create(zPathService
                 .generatePathForDocument(document)), "statSource", "DOC"));
+        return docStatistics;
+    }
 
-        for (LocaleId localeId : localeIds) {
-            ContainerTranslationStatistics docStats =
-                    getDocStatistics(document.getId(), localeId);
-
-            DocumentStatus docStatus =
-                    translationStateCacheImpl.getDocumentStatus(
-                            document.getId(), localeId);
-
-            TranslationStatistics docWordStatistic =
-                    docStats.getStats(localeId.getId(), StatUnit.WORD);
-            TranslationStatistics docMsgStatistic =
-                    docStats.getStats(localeId.getId(), StatUnit.MESSAGE);
-
-            docMsgStatistic
-                    .setLastTranslatedBy(docStatus.getLastTranslatedBy());
-            docMsgStatistic.setLastTranslatedDate(docStatus
+    /**
+     * Adds the statistics of one locale to the statistics of a document,
+     * along with who last translated the document.
+     */
+    private void addDocStatistics(
+            ContainerTranslationStatistics docStatistics, Long documentId,
+            LocaleId localeId, ContainerTranslationStatistics docStats,
+            boolean includeWordStats) {
+        DocumentStatus docStatus =
+                translationStateCacheImpl.getDocumentStatus(documentId,
+                        localeId);
+
+        TranslationStatistics docWordStatistic =
+                docStats.getStats(localeId.getId(), StatUnit.WORD);
+        TranslationStatistics docMsgStatistic =
+                docStats.getStats(localeId.getId(), StatUnit.MESSAGE);
+
+        docMsgStatistic.setLastTranslatedBy(docStatus.getLastTranslatedBy());
+        docMsgStatistic.setLastTranslatedDate(docStatus
+                .getLastTranslatedDate());
+        docMsgStatistic.setLastTranslated(getLastTranslated(
+                docStatus.getLastTranslatedDate(),
+                docStatus.getLastTranslatedBy()));
+        docStatistics.addStats(docMsgStatistic);
+
+        // word level stats
+        if (includeWordStats) {
+            docWordStatistic.setLastTranslatedBy(docStatus
+                    .getLastTranslatedBy());
+            docWordStatistic.setLastTranslatedDate(docStatus
                     .getLastTranslatedDate());
-            docMsgStatistic.setLastTranslated(getLastTranslated(
+            docWordStatistic.setLastTranslated(getLastTranslated(
                     docStatus.getLastTranslatedDate(),
                     docStatus.getLastTranslatedBy()));
-            docStatistics.addStats(docMsgStatistic);
-
-            // word level stats
-            if (includeWordStats) {
-                docWordStatistic.setLastTranslatedBy(docStatus
-                        .getLastTranslatedBy());
-                docWordStatistic.setLastTranslatedDate(docStatus
-                        .getLastTranslatedDate());
-                docWordStatistic.setLastTranslated(getLastTranslated(
-                        docStatus.getLastTranslatedDate(),
-                        docStatus.getLastTranslatedBy()));
-                docStatistics.addStats(docWordStatistic);
-            }
+            docStatistics.addStats(docWordStatistic);
         }
-        return docStatistics;
     }
 
     /**
@@ -451,9 +485,12 @@ public class StatisticsServiceImpl implements StatisticsResource {
 
     public ContainerTranslationStatistics getDocStatistics(Long documentId,
             LocaleId localeId) {
-        ContainerTranslationStatistics result =
-                documentDAO.getStatistics(documentId, localeId);
+        return withRemainingHours(
+                documentDAO.getStatistics(documentId, localeId), localeId);
+    }
 
+    private ContainerTranslationStatistics withRemainingHours(
+            ContainerTranslationStatistics result, LocaleId localeId) {
         TranslationStatistics wordStatistics =
                 extractStatistics(result, localeId, StatUnit.WORD);
 
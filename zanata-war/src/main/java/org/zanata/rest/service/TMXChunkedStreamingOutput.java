@@ -0,0 +1,301 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import lombok.extern.slf4j.Slf4j;
+import nu.xom.Comment;
+
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.zanata.util.CloseableIterator;
+import org.zanata.xml.StreamSerializer;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+
+/**
+ * Exports translation units to an OutputStream in TMX format, reading them in
+ * chunks of entity ids. Up to {@code parallelism} chunks are read and
+ * serialised at the same time (each with its own database cursor), but chunks
+ * are always written in id order. A serialised chunk is kept in memory up to
+ * {@link #SPOOL_THRESHOLD} bytes, and spooled to a temporary file beyond that,
+ * so that large chunks waiting to be written do not fill the heap.
+ * <p>
+ * Before each chunk a comment holding a resume token is written (see
+ * {@link #RESUME_TOKEN_PREFIX}). Every translation unit after the comment has
+ * an id greater than or equal to the token, so a client whose download was
+ * interrupted can ask for the export again starting from the last token it
+ * received, and append the result (which has no prolog) to the part of the
+ * file it already has, after discarding anything past that comment.
+ *
+ * @param <T>
+ *            type of translation unit
+ */
+@ParametersAreNonnullByDefault
+@Slf4j
+public class TMXChunkedStreamingOutput<T> implements StreamingOutput {
+    public static final String RESUME_TOKEN_PREFIX = " resume-token: ";
+
+    /**
+     * Size in bytes above which a serialised chunk is written to a temporary
+     * file instead of memory.
+     */
+    static final int SPOOL_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Opens an iterator over the translation units in a half-open range of
+     * ids, in id order. Called on the thread which writes the response.
+     */
+    interface ChunkSource<T> {
+        CloseableIterator<T> open(Range<Long> idRange);
+    }
+
+    private final String jobName;
+    private final List<Range<Long>> chunks;
+    private final ChunkSource<T> source;
+    private final TMXExportStrategy<T> exportStrategy;
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean resumed;
+
+    /**
+     * @param chunks
+     *            half-open id ranges to export, in ascending order
+     * @param executor
+     *            runs the chunk serialisation. If it rejects a chunk, the
+     *            chunk is serialised on the writing thread instead.
+     * @param resumed
+     *            true if this export continues an earlier one, in which case
+     *            the prolog and header are not written
+     */
+    TMXChunkedStreamingOutput(String jobName, List<Range<Long>> chunks,
+            ChunkSource<T> source, TMXExportStrategy<T> exportStrategy,
+            Executor executor, int parallelism, boolean resumed) {
+        this.jobName = jobName;
+        this.chunks = ImmutableList.copyOf(chunks);
+        this.source = source;
+        this.exportStrategy = exportStrategy;
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.resumed = resumed;
+    }
+
+    /**
+     * Splits a closed range of ids into half-open chunks of at most chunkSize
+     * ids, skipping ids below resumeFrom.
+     */
+    static List<Range<Long>> splitIds(Range<Long> ids, long resumeFrom,
+            long chunkSize) {
+        ImmutableList.Builder<Range<Long>> chunks = ImmutableList.builder();
+        long start = Math.max(ids.lowerEndpoint(), resumeFrom);
+        long end = ids.upperEndpoint() + 1;
+        while (start < end) {
+            long chunkEnd = Math.min(end, start + chunkSize);
+            chunks.add(Range.closedOpen(start, chunkEnd));
+            start = chunkEnd;
+        }
+        return chunks.build();
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException,
+            WebApplicationException {
+        log.info("chunked streaming output started for: {}, chunks={}",
+                jobName, chunks.size());
+        Deque<Chunk> pending = new ArrayDeque<>(parallelism);
+        int nextChunk = 0;
+        try {
+            StreamSerializer stream = new StreamSerializer(output);
+            if (!resumed) {
+                TMXStreamingOutput.writeProlog(stream, exportStrategy);
+            }
+            while (nextChunk < chunks.size() || !pending.isEmpty()) {
+                while (pending.size() < parallelism
+                        && nextChunk < chunks.size()) {
+                    pending.add(start(chunks.get(nextChunk++)));
+                }
+                Chunk chunk = pending.poll();
+                try {
+                    DeferredFileOutputStream bytes = chunk.get();
+                    if (bytes.getByteCount() > 0) {
+                        stream.write(new Comment(RESUME_TOKEN_PREFIX
+                                + chunk.idRange.lowerEndpoint() + " "));
+                        stream.writeNewLine();
+                        // the serializer buffers, so flush before writing the
+                        // chunk's bytes around it
+                        stream.flush();
+                        bytes.writeTo(output);
+                    }
+                } finally {
+                    chunk.cancel();
+                }
+            }
+            TMXStreamingOutput.writeEpilog(stream);
+            stream.flush();
+        } finally {
+            for (Chunk chunk : pending) {
+                chunk.cancel();
+            }
+            log.info("chunked streaming output stopped for: {}, chunks={}",
+                    jobName, nextChunk - pending.size());
+        }
+    }
+
+    private Chunk start(Range<Long> idRange) {
+        Chunk chunk = new Chunk(idRange, source.open(idRange));
+        try {
+            executor.execute(chunk.task);
+        } catch (RejectedExecutionException e) {
+            log.debug("serialising chunk {} on the writing thread", idRange);
+            chunk.task.run();
+        }
+        return chunk;
+    }
+
+    /**
+     * Serialises all the complete translation units in the iterator. Doesn't
+     * close the iterator.
+     *
+     * @return the closed output, which must be passed to
+     *         {@link #deleteSpoolFile} when it is no longer needed
+     */
+    private DeferredFileOutputStream serialise(CloseableIterator<T> iter)
+            throws IOException {
+        DeferredFileOutputStream bytes =
+                new DeferredFileOutputStream(SPOOL_THRESHOLD, "zanata-tmx-",
+                        ".part", null);
+        try {
+            StreamSerializer stream = new StreamSerializer(bytes);
+            while (iter.hasNext()) {
+                TMXStreamingOutput.writeIfComplete(stream, exportStrategy,
+                        iter.next());
+            }
+            stream.flush();
+            bytes.close();
+            return bytes;
+        } catch (IOException | RuntimeException e) {
+            bytes.close();
+            deleteSpoolFile(bytes);
+            throw e;
+        }
+    }
+
+    private static void deleteSpoolFile(DeferredFileOutputStream bytes) {
+        if (!bytes.isInMemory() && !bytes.getFile().delete()) {
+            log.warn("unable to delete export spool file {}",
+                    bytes.getFile());
+        }
+    }
+
+    private class Chunk {
+        private final Range<Long> idRange;
+        private final CloseableIterator<T> iter;
+        // whoever claims the chunk first (the task or cancel()) must close
+        // the iterator
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final FutureTask<DeferredFileOutputStream> task;
+        // guarded by this: the serialised chunk, until it is discarded
+        private DeferredFileOutputStream result;
+        private boolean discarded;
+
+        private Chunk(Range<Long> idRange, CloseableIterator<T> iter) {
+            this.idRange = idRange;
+            this.iter = iter;
+            this.task = new FutureTask<>(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    // cancelled, so the result will never be read
+                    return null;
+                }
+                DeferredFileOutputStream bytes;
+                try {
+                    bytes = serialise(iter);
+                } finally {
+                    iter.close();
+                }
+                keep(bytes);
+                return bytes;
+            });
+        }
+
+        /**
+         * Keeps the serialised chunk for writing, or deletes it straight away
+         * if the chunk was cancelled while it was being serialised.
+         */
+        private synchronized void keep(DeferredFileOutputStream bytes) {
+            if (discarded) {
+                deleteSpoolFile(bytes);
+            } else {
+                result = bytes;
+            }
+        }
+
+        private DeferredFileOutputStream get() throws IOException {
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while exporting "
+                        + jobName, e);
+            } catch (ExecutionException e) {
+                Throwables.propagateIfInstanceOf(e.getCause(),
+                        IOException.class);
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+
+        /**
+         * Stops the chunk if it has not been serialised yet, and deletes its
+         * spool file if it has. Called once the chunk is written, too.
+         */
+        private void cancel() {
+            task.cancel(false);
+            if (claimed.compareAndSet(false, true)) {
+                try {
+                    iter.close();
+                } catch (Exception e) {
+                    log.warn("error closing export chunk " + idRange, e);
+                }
+            }
+            synchronized (this) {
+                discarded = true;
+                if (result != null) {
+                    deleteSpoolFile(result);
+                    result = null;
+                }
+            }
+        }
+    }
+}
@@ -137,29 +137,14 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
                 iter.peek();
 
             StreamSerializer stream = new StreamSerializer(output);
-            stream.writeXMLDeclaration();
-            stream.write(new DocType("tmx", "http://www.lisa.org/tmx/tmx14.dtd"));
-            stream.writeNewLine();
-
-            Element tmx = new Element("tmx");
-            tmx.addAttribute(new Attribute("version", "1.4"));
-            startElem(stream, tmx);
-
-            indent(stream);
-            writeElem(stream, exportStrategy.buildHeader());
-
-            indent(stream);
-            Element body = new Element("body");
-            startElem(stream, body);
+            writeProlog(stream, exportStrategy);
 
             while (iter.hasNext()) {
                 T tu = iter.next();
-                writeIfComplete(stream, tu);
+                writeIfComplete(stream, exportStrategy, tu);
                 ++tuCount;
             }
-            indent(stream);
-            endElem(stream, body);
-            endElem(stream, tmx);
+            writeEpilog(stream);
             stream.flush();
         } finally {
             close();
@@ -168,30 +153,59 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
         }
     }
 
-    private void indent(StreamSerializer stream) throws IOException {
+    /**
+     * Writes everything up to and including the body start tag.
+     */
+    static void writeProlog(StreamSerializer stream,
+            TMXExportStrategy<?> exportStrategy) throws IOException {
+        stream.writeXMLDeclaration();
+        stream.write(new DocType("tmx", "http://www.lisa.org/tmx/tmx14.dtd"));
+        stream.writeNewLine();
+
+        Element tmx = new Element("tmx");
+        tmx.addAttribute(new Attribute("version", "1.4"));
+        startElem(stream, tmx);
+
+        indent(stream);
+        writeElem(stream, exportStrategy.buildHeader());
+
+        indent(stream);
+        startElem(stream, new Element("body"));
+    }
+
+    /**
+     * Writes the body and tmx end tags.
+     */
+    static void writeEpilog(StreamSerializer stream) throws IOException {
+        indent(stream);
+        endElem(stream, new Element("body"));
+        endElem(stream, new Element("tmx"));
+    }
+
+    private static void indent(StreamSerializer stream) throws IOException {
         stream.write(new Text("  "));
     }
 
-    private void startElem(StreamSerializer stream, Element elem)
+    private static void startElem(StreamSerializer stream, Element elem)
             throws IOException {
         stream.writeStartTag(elem);
         stream.writeNewLine();
     }
 
-    private void endElem(StreamSerializer stream, Element elem)
+    private static void endElem(StreamSerializer stream, Element elem)
             throws IOException {
         stream.writeEndTag(elem);
         stream.writeNewLine();
     }
 
-    private void writeElem(StreamSerializer stream, Element elem)
+    private static void writeElem(StreamSerializer stream, Element elem)
             throws IOException {
         stream.write(elem);
         stream.writeNewLine();
     }
 
-    private void writeIfComplete(StreamSerializer stream, T tu)
-            throws IOException {
+    static <T> void writeIfComplete(StreamSerializer stream,
+            TMXExportStrategy<T> exportStrategy, T tu) throws IOException {
         Optional<Element> textUnit = exportStrategy.buildTU(tu);
         // If there aren't any translations for this TU, we shouldn't include
         // it.
@@ -21,6 +21,8 @@
 package org.zanata.rest.service;
 
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
@@ -28,8 +30,11 @@ import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.enterprise.context.RequestScoped;
 import javax.ws.rs.Path;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,14 +45,19 @@ import org.zanata.security.annotations.CheckPermission;
 import org.zanata.security.annotations.CheckRole;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskManager;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.common.LocaleId;
+import org.zanata.config.TMXConfig;
 import org.zanata.dao.TextFlowStreamingDAO;
 import org.zanata.dao.TransMemoryDAO;
 import org.zanata.dao.TransMemoryStreamingDAO;
 import org.zanata.exception.EntityMissingException;
 import org.zanata.exception.ZanataServiceException;
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
+import org.zanata.lock.LockNotAcquiredException;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
@@ -61,6 +71,7 @@ import org.zanata.tmx.TMXParser;
 import org.zanata.util.CloseableIterator;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Range;
 
 @RequestScoped
 @Named("translationMemoryResource")
@@ -71,6 +82,14 @@ import com.google.common.base.Optional;
 // TODO options to export obsolete docs and textflows to TMX?
 public class TranslationMemoryResourceService implements
         TranslationMemoryResource {
+    /**
+     * Query parameter for resuming an interrupted full export, see
+     * {@link TMXChunkedStreamingOutput}.
+     */
+    public static final String RESUME_FROM_PARAM = "resumeFrom";
+
+    @Context
+    private UriInfo uri;
 
     @Inject
     private LocaleService localeServiceImpl;
@@ -88,6 +107,10 @@ public class TranslationMemoryResourceService implements
     private TMXParser tmxParser;
     @Inject
     private ZanataIdentity identity;
+    @Inject
+    private AsyncTaskManager asyncTaskManager;
+    @Inject
+    private TMXConfig tmxConfig;
 
     @Override
     @CheckRole("admin")
@@ -98,8 +121,13 @@ public class TranslationMemoryResourceService implements
             // TODO findTextFlowsByLocale
         }
         String filename = makeTMXFilename(null, null, locale);
-        CloseableIterator<HTextFlow> iter = textFlowStreamDAO.findTextFlows();
-        return buildTMX("getAllTranslationMemory", iter, locale, filename);
+        List<Range<Long>> chunks =
+                splitIds(textFlowStreamDAO.findTextFlowIdRange());
+        TMXChunkedStreamingOutput<HTextFlow> output =
+                buildChunkedTMX("getAllTranslationMemory", chunks,
+                        textFlowStreamDAO::findTextFlows,
+                        new TranslationsTMXExportStrategy(locale));
+        return okResponse(filename, output);
     }
 
     @Override
@@ -150,22 +178,28 @@ public class TranslationMemoryResourceService implements
         log.debug("exporting TMX for translation memory {}", slug);
         TransMemory tm = getTM(transMemoryDAO.getBySlug(slug), slug);
         String filename = makeTMXFilename(slug);
-        CloseableIterator<TransMemoryUnit> iter =
-                transMemoryStreamingDAO.findTransUnitsByTM(tm);
-        return buildTMX("getTranslationMemory-" + filename, tm, iter, filename);
+        List<Range<Long>> chunks =
+                splitIds(transMemoryStreamingDAO.findTransUnitIdRange(tm));
+        TMXChunkedStreamingOutput<TransMemoryUnit> output =
+                buildChunkedTMX("getTranslationMemory-" + filename, chunks,
+                        idRange -> transMemoryStreamingDAO.findTransUnitsByTM(
+                                tm, idRange),
+                        new TransMemoryTMXExportStrategy(tm));
+        return okResponse(filename, output);
     }
 
     @Override
     @CheckRole("admin")
     public Response updateTranslationMemory(String slug, InputStream input)
             throws Exception {
-        Lock tmLock = lockTM(slug);
+        Lock tmLock = new Lock("tm", slug);
+        LockLease lease = lockTM(tmLock, slug);
         try {
             Optional<TransMemory> tm = transMemoryDAO.getBySlug(slug);
             tmxParser.parseAndSaveTMX(input, getTM(tm, slug));
             return Response.ok().build();
         } finally {
-            lockManagerServiceImpl.release(tmLock);
+            lockManagerServiceImpl.release(tmLock, lease);
         }
     }
 
@@ -180,7 +214,8 @@ public class TranslationMemoryResourceService implements
     @CheckRole("admin")
     public Object deleteTranslationMemory(String slug)
             throws EntityMissingException {
-        Lock tmLock = lockTM(slug);
+        Lock tmLock = new Lock("tm", slug);
+        LockLease lease = lockTM(tmLock, slug);
         try {
             Optional<TransMemory> transMemory = transMemoryDAO.getBySlug(slug);
             if (transMemory.isPresent()) {
@@ -190,7 +225,7 @@ public class TranslationMemoryResourceService implements
                 throw new EntityMissingException(slug);
             }
         } finally {
-            lockManagerServiceImpl.release(tmLock);
+            lockManagerServiceImpl.release(tmLock, lease);
         }
     }
 
@@ -208,12 +243,13 @@ public class TranslationMemoryResourceService implements
      * @return
      */
     public Object deleteTranslationUnitsUnguarded(String slug) {
-        Lock tmLock = lockTM(slug);
+        Lock tmLock = new Lock("tm", slug);
+        LockLease lease = lockTM(tmLock, slug);
         try {
             int numDeleted = transMemoryDAO.deleteTransMemoryContents(slug);
             return numDeleted + " translation units deleted";
         } finally {
-            lockManagerServiceImpl.release(tmLock);
+            lockManagerServiceImpl.release(tmLock, lease);
         }
     }
 
@@ -223,7 +259,7 @@ public class TranslationMemoryResourceService implements
      * @param slug
      * @return
      */
-    @Async
+    @Async(AsyncTaskType.TM_IMPORT)
     public Future<Object> deleteTranslationUnitsUnguardedAsync(String slug,
             AsyncTaskHandle handle) {
         // TODO the handle is not being used for progress tracking in the
@@ -232,14 +268,13 @@ public class TranslationMemoryResourceService implements
                 .taskResult(deleteTranslationUnitsUnguarded(slug));
     }
 
-    private Lock lockTM(String slug) {
-        Lock tmLock = new Lock("tm", slug);
-        String owner = lockManagerServiceImpl.attainLockOrReturnOwner(tmLock);
-        if (owner != null) {
+    private LockLease lockTM(Lock tmLock, String slug) {
+        try {
+            return lockManagerServiceImpl.attain(tmLock);
+        } catch (LockNotAcquiredException e) {
             throw new ZanataServiceException("Translation Memory '" + slug
-                    + "' is locked by user: " + owner, 503);
+                    + "' is locked by user: " + e.getOwner(), 503);
         }
-        return tmLock;
     }
 
     private Response buildTMX(String jobName,
@@ -251,12 +286,43 @@ public class TranslationMemoryResourceService implements
         return okResponse(filename, output);
     }
 
-    private Response buildTMX(String jobName, TransMemory tm,
-            CloseableIterator<TransMemoryUnit> iter, String filename) {
-        TMXStreamingOutput<TransMemoryUnit> output =
-                new TMXStreamingOutput<TransMemoryUnit>(jobName, iter,
-                        new TransMemoryTMXExportStrategy(tm));
-        return okResponse(filename, output);
+    /**
+     * Splits the ids to export into chunks, skipping those before the resume
+     * token given in the request, if any.
+     */
+    private List<Range<Long>> splitIds(Optional<Range<Long>> ids) {
+        if (!ids.isPresent()) {
+            return Collections.emptyList();
+        }
+        Long resumeFrom = getResumeFrom();
+        return TMXChunkedStreamingOutput.splitIds(ids.get(),
+                resumeFrom != null ? resumeFrom : Long.MIN_VALUE,
+                tmxConfig.getExportChunkSize());
+    }
+
+    private @Nullable Long getResumeFrom() {
+        String token = uri.getQueryParameters().getFirst(RESUME_FROM_PARAM);
+        if (token == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            throw new WebApplicationException(Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity("invalid " + RESUME_FROM_PARAM + ": " + token)
+                    .build());
+        }
+    }
+
+    private <T> TMXChunkedStreamingOutput<T> buildChunkedTMX(String jobName,
+            List<Range<Long>> chunks,
+            TMXChunkedStreamingOutput.ChunkSource<T> source,
+            TMXExportStrategy<T> exportStrategy) {
+        return new TMXChunkedStreamingOutput<T>(jobName, chunks, source,
+                exportStrategy,
+                asyncTaskManager.laneExecutor(AsyncTaskType.FILE_GENERATION),
+                tmxConfig.getExportParallelism(), getResumeFrom() != null);
     }
 
     private Response okResponse(String filename, StreamingOutput output) {
@@ -1,11 +1,14 @@
 package org.zanata.search;
 
+import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.search.FullTextSession;
 
 import lombok.extern.slf4j.Slf4j;
 import org.zanata.async.AsyncTaskHandle;
 
+import com.google.common.collect.Range;
+
 /**
  * Base indexing strategy.
  *
@@ -59,6 +62,55 @@ public abstract class AbstractIndexingStrategy<T> {
         }
     }
 
+    /**
+     * Indexes the entities whose ids fall in the given range. Used by the
+     * workers of a partitioned reindex, so progress is reported once per
+     * batch instead of once per entity, to keep the workers from contending
+     * on the handle.
+     *
+     * @param idRange
+     *            half-open range of entity ids to index, eg
+     *            {@code Range.closedOpen(1L, 1001L)}
+     * @param batchSize
+     *            number of entities whose documents are built and flushed to
+     *            the indexes together
+     * @return the number of entities indexed
+     */
+    public int invoke(AsyncTaskHandle handle, FullTextSession session,
+            Range<Long> idRange, int batchSize) {
+        int rowNum = 0;
+        int unreported = 0;
+        scrollableResults = queryResults(idRange, session);
+        try {
+            while (scrollableResults.next()) {
+                if (handle != null && handle.isCancelled()) {
+                    break;
+                }
+                rowNum++;
+                unreported++;
+                T entity = (T) scrollableResults.get(0);
+                session.index(entity);
+
+                if (rowNum % batchSize == 0) {
+                    session.flushToIndexes();
+                    session.clear();
+                    if (handle != null) {
+                        handle.increaseProgress(unreported);
+                    }
+                    unreported = 0;
+                }
+            }
+        } finally {
+            scrollableResults.close();
+        }
+        session.flushToIndexes();
+        session.clear();
+        if (handle != null && unreported > 0) {
+            handle.increaseProgress(unreported);
+        }
+        return rowNum;
+    }
+
     /**
      * Callback method that is called every time an entity is indexed.
      *
@@ -75,6 +127,22 @@ public abstract class AbstractIndexingStrategy<T> {
      */
     protected abstract ScrollableResults queryResults(int offset, FullTextSession session);
 
+    /**
+     * Returns the Scrollable results for the instances of the entity type
+     * whose ids fall in the given half-open range.
+     */
+    protected ScrollableResults queryResults(Range<Long> idRange,
+            FullTextSession session) {
+        return session
+                .createQuery(
+                        "from " + entityType.getName()
+                                + " e where e.id >= :firstId"
+                                + " and e.id < :endId")
+                .setParameter("firstId", idRange.lowerEndpoint())
+                .setParameter("endId", idRange.upperEndpoint())
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
     Class<T> getEntityType() {
         return entityType;
     }
@@ -24,6 +24,7 @@ import static org.zanata.util.HqlCriterion.eq;
 import static org.zanata.util.HqlCriterion.ne;
 import static org.zanata.util.HqlCriterion.isNull;
 import static org.zanata.util.HqlCriterion.escapeWildcard;
+import static org.zanata.util.HqlCriterion.ge;
 import static org.zanata.util.HqlCriterion.ilike;
 import static org.zanata.util.HqlCriterion.match;
 import static org.zanata.util.QueryBuilder.and;
@@ -38,6 +39,7 @@ public class FilterConstraintToQuery {
     private String searchString;
     private DocumentId documentId;
     private Collection<Long> documentIds;
+    private Integer firstPos;
 
     @Setter(AccessLevel.PACKAGE)
     private ContentCriterion contentCriterion = new ContentCriterion();
@@ -82,6 +84,15 @@ public class FilterConstraintToQuery {
         return new FilterConstraintToQuery(constraints, documentIds);
     }
 
+    /**
+     * Only matches text flows at or after a position, so that a page of the
+     * entity query can start there rather than at an offset.
+     */
+    public FilterConstraintToQuery startingAtPos(int firstPos) {
+        this.firstPos = firstPos;
+        return this;
+    }
+
     /**
      * This builds a query for constructing TransUnit in editor.
      * Executing the query will returns a list of HTextFlow objects.
@@ -103,6 +114,8 @@ public class FilterConstraintToQuery {
     private String buildQuery(String selectStatement, String docIdCondition) {
 
         String obsoleteCondition = eq("tf.obsolete", "0");
+        String posCondition =
+                firstPos == null ? null : ge("tf.pos", FirstPos.placeHolder());
         String searchCondition = buildSearchCondition();
         String stateCondition = buildStateCondition();
         String otherSourceCondition = buildSourceConditionsOtherThanSearch();
@@ -115,7 +128,7 @@ public class FilterConstraintToQuery {
                         .leftJoin("tf.targets tfts")
                         .with(eq("tfts.index", Locale.placeHolder()))
                         .where(and(obsoleteCondition, docIdCondition,
-                                searchCondition, stateCondition,
+                                posCondition, searchCondition, stateCondition,
                                 otherSourceCondition, otherTargetCondition))
                         .orderBy("tf.pos");
         return query.toQueryString();
@@ -343,6 +356,9 @@ public class FilterConstraintToQuery {
                     documentIds);
         }
         textFlowQuery.setParameter(Locale.namedParam(), hLocale.getId());
+        if (firstPos != null) {
+            textFlowQuery.setParameter(FirstPos.namedParam(), firstPos);
+        }
         if (hasSearch) {
             textFlowQuery.setParameter(Parameters.SearchString.namedParam(),
                     searchString);
@@ -397,7 +413,7 @@ public class FilterConstraintToQuery {
     enum Parameters {
         SearchString, ContentStateList, Locale, DocumentId, DocumentIdList,
         ResId, SourceComment, MsgContext, TargetComment, LastModifiedBy,
-        LastChangedAfter, LastChangedBefore;
+        LastChangedAfter, LastChangedBefore, FirstPos;
 
         public String placeHolder() {
             return ":" + name();
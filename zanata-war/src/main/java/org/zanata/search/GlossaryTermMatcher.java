@@ -0,0 +1,325 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.lang.Character.UnicodeScript;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton which finds every glossary term occurring in a piece
+ * of text in a single pass over the text, however many terms it holds.
+ * <p>
+ * Terms and text are compared case-insensitively, with runs of whitespace
+ * treated as a single space. A term only matches on word boundaries, except
+ * in scripts which don't separate words with spaces (eg Chinese, Japanese,
+ * Thai), where any occurrence matches.
+ * <p>
+ * Instances are immutable and safe to share between threads. Use
+ * {@link #builder()} to create one.
+ *
+ * @param <T>
+ *            value associated with each term, returned when it matches
+ */
+public final class GlossaryTermMatcher<T> {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    // transitions, keyed by (node << 16 | char)
+    private final TransitionTable transitions;
+    // per node: failure link, nearest node on the failure chain which ends a
+    // term (or NONE), first term ending at this node (or NONE)
+    private final int[] fail;
+    private final int[] outputLink;
+    private final int[] firstTerm;
+    // per term: next term ending at the same node (or NONE), length in chars
+    private final int[] nextTerm;
+    private final int[] termLength;
+    private final List<T> values;
+
+    private GlossaryTermMatcher(TransitionTable transitions, int[] fail,
+            int[] outputLink, int[] firstTerm, int[] nextTerm,
+            int[] termLength, List<T> values) {
+        this.transitions = transitions;
+        this.fail = fail;
+        this.outputLink = outputLink;
+        this.firstTerm = firstTerm;
+        this.nextTerm = nextTerm;
+        this.termLength = termLength;
+        this.values = values;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<T>();
+    }
+
+    /**
+     * @return number of terms in the automaton
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Finds the values of all terms which occur in the text.
+     *
+     * @return distinct values, in order of the first occurrence of their term
+     */
+    public List<T> findAll(String text) {
+        if (values.isEmpty() || text == null) {
+            return new ArrayList<T>(0);
+        }
+        char[] chars = normalise(text).toCharArray();
+        Set<T> found = new LinkedHashSet<T>();
+        int state = ROOT;
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            int next = transitions.get(state, c);
+            while (next == NONE && state != ROOT) {
+                state = fail[state];
+                next = transitions.get(state, c);
+            }
+            state = next == NONE ? ROOT : next;
+            int node = firstTerm[state] != NONE ? state : outputLink[state];
+            while (node != NONE) {
+                for (int term = firstTerm[node]; term != NONE; term =
+                        nextTerm[term]) {
+                    int start = i + 1 - termLength[term];
+                    if (isWordBoundary(chars, start)
+                            && isWordBoundary(chars, i + 1)) {
+                        found.add(values.get(term));
+                    }
+                }
+                node = outputLink[node];
+            }
+        }
+        return new ArrayList<T>(found);
+    }
+
+    /**
+     * Folds case and collapses whitespace, one char at a time so that term
+     * lengths stay comparable with positions in the normalised text.
+     */
+    static String normalise(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Whether a match may start or end at the given position, ie it doesn't
+     * split a word.
+     */
+    private static boolean isWordBoundary(char[] chars, int pos) {
+        if (pos == 0 || pos == chars.length) {
+            return true;
+        }
+        return !(isSpacedWordChar(chars[pos - 1])
+                && isSpacedWordChar(chars[pos]));
+    }
+
+    private static boolean isSpacedWordChar(char c) {
+        if (!Character.isLetterOrDigit(c)) {
+            return false;
+        }
+        if (Character.isIdeographic(c)) {
+            return false;
+        }
+        switch (UnicodeScript.of(c)) {
+        case HIRAGANA:
+        case KATAKANA:
+        case THAI:
+        case LAO:
+        case KHMER:
+        case MYANMAR:
+            return false;
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * Collects terms for a {@link GlossaryTermMatcher}. Not thread safe.
+     */
+    public static final class Builder<T> {
+        private final List<String> terms = new ArrayList<String>();
+        private final List<T> values = new ArrayList<T>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a term. Blank terms are ignored. The same term may be added
+         * more than once with different values.
+         */
+        public Builder<T> add(String term, T value) {
+            String normalised = term == null ? "" : normalise(term);
+            if (!normalised.isEmpty()) {
+                terms.add(normalised);
+                values.add(value);
+            }
+            return this;
+        }
+
+        public GlossaryTermMatcher<T> build() {
+            int maxNodes = 1;
+            for (String term : terms) {
+                maxNodes += term.length();
+            }
+            TransitionTable transitions = new TransitionTable(maxNodes);
+            int[] parent = new int[maxNodes];
+            char[] nodeChar = new char[maxNodes];
+            int[] depth = new int[maxNodes];
+            int[] firstTerm = new int[maxNodes];
+            Arrays.fill(firstTerm, NONE);
+            int[] nextTerm = new int[terms.size()];
+            int[] termLength = new int[terms.size()];
+            int nodeCount = 1;
+            int maxDepth = 0;
+
+            // build the trie
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                int node = ROOT;
+                for (int i = 0; i < term.length(); i++) {
+                    char c = term.charAt(i);
+                    int child = transitions.get(node, c);
+                    if (child == NONE) {
+                        child = nodeCount++;
+                        transitions.put(node, c, child);
+                        parent[child] = node;
+                        nodeChar[child] = c;
+                        depth[child] = depth[node] + 1;
+                        maxDepth = Math.max(maxDepth, depth[child]);
+                    }
+                    node = child;
+                }
+                nextTerm[t] = firstTerm[node];
+                firstTerm[node] = t;
+                termLength[t] = term.length();
+            }
+
+            // order nodes breadth first (counting sort by depth), so that
+            // every node's failure link is known before its children's
+            int[] depthStart = new int[maxDepth + 2];
+            for (int n = 0; n < nodeCount; n++) {
+                depthStart[depth[n] + 1]++;
+            }
+            for (int d = 1; d < depthStart.length; d++) {
+                depthStart[d] += depthStart[d - 1];
+            }
+            int[] bfsOrder = new int[nodeCount];
+            for (int n = 0; n < nodeCount; n++) {
+                bfsOrder[depthStart[depth[n]]++] = n;
+            }
+
+            int[] fail = new int[nodeCount];
+            int[] outputLink = new int[nodeCount];
+            outputLink[ROOT] = NONE;
+            for (int i = 1; i < nodeCount; i++) {
+                int node = bfsOrder[i];
+                int p = parent[node];
+                char c = nodeChar[node];
+                int f = ROOT;
+                if (p != ROOT) {
+                    f = fail[p];
+                    int next = transitions.get(f, c);
+                    while (next == NONE && f != ROOT) {
+                        f = fail[f];
+                        next = transitions.get(f, c);
+                    }
+                    f = next == NONE ? ROOT : next;
+                }
+                fail[node] = f;
+                outputLink[node] =
+                        firstTerm[f] != NONE ? f : outputLink[f];
+            }
+            return new GlossaryTermMatcher<T>(transitions, fail, outputLink,
+                    Arrays.copyOf(firstTerm, nodeCount), nextTerm,
+                    termLength, new ArrayList<T>(values));
+        }
+    }
+
+    /**
+     * Open addressing hash table of trie transitions. Much smaller than a map
+     * per node, which matters for glossaries with tens of thousands of terms.
+     */
+    private static final class TransitionTable {
+        private final long[] keys;
+        private final int[] targets;
+        private final int mask;
+
+        TransitionTable(int expectedEntries) {
+            // at most half full
+            int capacity =
+                    Integer.highestOneBit(Math.max(expectedEntries, 2)) * 4;
+            keys = new long[capacity];
+            targets = new int[capacity];
+            Arrays.fill(targets, NONE);
+            mask = capacity - 1;
+        }
+
+        int get(int node, char c) {
+            long key = key(node, c);
+            for (int slot = slot(key); targets[slot] != NONE; slot =
+                    (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return targets[slot];
+                }
+            }
+            return NONE;
+        }
+
+        void put(int node, char c, int target) {
+            long key = key(node, c);
+            int slot = slot(key);
+            while (targets[slot] != NONE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            targets[slot] = target;
+        }
+
+        private static long key(int node, char c) {
+            return ((long) node << 16) | c;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -20,6 +20,9 @@
  */
 package org.zanata.search;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.hibernate.CacheMode;
 import org.hibernate.FlushMode;
 import org.hibernate.Query;
@@ -33,6 +36,9 @@ import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlowTarget;
 import lombok.extern.slf4j.Slf4j;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+
 /**
  * Indexing strategy specific to HTextFlowTargets. This indexing strategy
  * eagerly loads all of HTextFlowTarget's indexable relationships and fetches
@@ -44,6 +50,8 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class HTextFlowTargetIndexingStrategy extends
         AbstractIndexingStrategy<HTextFlowTarget> {
+    private static final int REINDEX_IDS_PER_QUERY = 500;
+
     public HTextFlowTargetIndexingStrategy() {
         super(HTextFlowTarget.class);
     }
@@ -69,6 +77,25 @@ public class HTextFlowTargetIndexingStrategy extends
         return query.scroll(ScrollMode.FORWARD_ONLY);
     }
 
+    @Override
+    protected ScrollableResults queryResults(Range<Long> idRange,
+            FullTextSession session) {
+        Query query =
+                session.createQuery(
+                                "from HTextFlowTarget tft "
+                                        + "join fetch tft.locale "
+                                        + "join fetch tft.textFlow "
+                                        + "join fetch tft.textFlow.document "
+                                        + "join fetch tft.textFlow.document.locale "
+                                        + "join fetch tft.textFlow.document.projectIteration "
+                                        + "join fetch tft.textFlow.document.projectIteration.project "
+                                        + "where tft.id >= :firstId and tft.id < :endId")
+                        .setParameter("firstId", idRange.lowerEndpoint())
+                        .setParameter("endId", idRange.upperEndpoint());
+        query.setFetchSize(Integer.MIN_VALUE);
+        return query.scroll(ScrollMode.FORWARD_ONLY);
+    }
+
     public void reindexForProject(HProject project, FullTextSession session,
             AsyncTaskHandle handle) {
         // it must use the same session in the DAO and to do the indexing
@@ -126,4 +153,33 @@ public class HTextFlowTargetIndexingStrategy extends
                         projectIteration);
         reindexScrollableResultSet(session, scrollableResults, handle);
     }
+
+    public void reindexForDocument(Long documentId, FullTextSession session,
+            AsyncTaskHandle handle) {
+        // it must use the same session in the DAO and to do the indexing
+        HTextFlowTargetStreamingDAO dao =
+                new HTextFlowTargetStreamingDAO(HTextFlowTarget.class, session);
+        ScrollableResults scrollableResults =
+                dao.getTargetsWithAllFieldsEagerlyFetchedForDocument(documentId);
+        reindexScrollableResultSet(session, scrollableResults, handle);
+    }
+
+    /**
+     * Indexes the given targets, eg after their automatic indexing was
+     * deferred (see
+     * {@link org.zanata.model.HTextFlowTargetIndexingInterceptor}). Ids of
+     * targets which no longer exist are ignored.
+     */
+    public void reindexTargets(Collection<Long> targetIds,
+            FullTextSession session) {
+        // it must use the same session in the DAO and to do the indexing
+        HTextFlowTargetStreamingDAO dao =
+                new HTextFlowTargetStreamingDAO(HTextFlowTarget.class, session);
+        for (List<Long> ids : Lists.partition(Lists.newArrayList(targetIds),
+                REINDEX_IDS_PER_QUERY)) {
+            ScrollableResults scrollableResults =
+                    dao.getTargetsWithAllFieldsEagerlyFetchedForIds(ids);
+            reindexScrollableResultSet(session, scrollableResults, null);
+        }
+    }
 }
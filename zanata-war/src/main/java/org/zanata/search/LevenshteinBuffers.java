@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+/**
+ * Per-thread reusable cost arrays for the bounded Levenshtein calculations in
+ * {@link LevenshteinUtil} and {@link LevenshteinTokenUtil}.
+ * <p>
+ * TM scoring calls the distance functions for every Lucene hit, so allocating
+ * two fresh arrays per call shows up as garbage on long paragraphs. Arrays
+ * larger than {@link #MAX_RETAINED_LENGTH} are not retained, so a single huge
+ * comparison can't pin memory to a pooled thread forever.
+ */
+final class LevenshteinBuffers {
+    static final int MAX_RETAINED_LENGTH = 16 * 1024;
+
+    private static final ThreadLocal<int[][]> BUFFERS =
+            new ThreadLocal<int[][]>() {
+                @Override
+                protected int[][] initialValue() {
+                    return new int[][] { new int[256], new int[256] };
+                }
+            };
+
+    private LevenshteinBuffers() {
+    }
+
+    /**
+     * Returns two arrays of at least the given length. The contents are
+     * undefined and must be initialised by the caller. The arrays must not be
+     * used after the calling method returns.
+     */
+    static int[][] get(int length) {
+        int[][] buffers = BUFFERS.get();
+        if (buffers[0].length >= length) {
+            return buffers;
+        }
+        int[][] fresh = new int[][] { new int[length], new int[length] };
+        if (length <= MAX_RETAINED_LENGTH) {
+            BUFFERS.set(fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Works out the largest edit distance which still yields the given
+     * similarity, where similarity is {@code (maxDistance - distance) /
+     * maxDistance}.
+     */
+    static int maxDistanceFor(double minSimilarity, int maxDistance) {
+        if (minSimilarity <= 0) {
+            return maxDistance;
+        }
+        if (minSimilarity >= 1) {
+            return 0;
+        }
+        // the small epsilon stops 0.9 * 10 from rounding down to 8
+        return (int) Math.floor((1 - minSimilarity) * maxDistance + 1e-9);
+    }
+
+    /**
+     * Works out the similarity the next string in a list must reach for the
+     * mean similarity of the whole list to still reach minSimilarity,
+     * assuming every remaining string is an exact match. May be greater than
+     * 1.0 if the target is no longer reachable.
+     */
+    static double requiredSimilarity(double minSimilarity, int count,
+            int index, double totalSoFar) {
+        int remainingAfterThis = count - index - 1;
+        return minSimilarity * count - totalSoFar - remainingAfterThis;
+    }
+}
@@ -116,6 +116,110 @@ public class LevenshteinTokenUtil {
         return p[n];
     }
 
+    /**
+     * Compute Levenshtein distance in words, giving up as soon as the distance
+     * is known to be greater than threshold. See
+     * {@link LevenshteinUtil#getLevenshteinDistance(String, String, int)}.
+     *
+     * @return the distance, or {@link LevenshteinUtil#EXCEEDS_THRESHOLD} if it
+     *         is greater than threshold
+     */
+    public static int getLevenshteinDistanceInWords(String[] s, String[] t,
+            int threshold) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+
+        int n = s.length;
+        int m = t.length;
+        if (Math.abs(n - m) > threshold) {
+            return LevenshteinUtil.EXCEEDS_THRESHOLD;
+        }
+
+        // strip common leading and trailing tokens
+        int start = 0;
+        while (start < n && start < m && s[start].equals(t[start])) {
+            start++;
+        }
+        while (n > start && m > start && s[n - 1].equals(t[m - 1])) {
+            n--;
+            m--;
+        }
+        n -= start;
+        m -= start;
+
+        if (n == 0) {
+            return m <= threshold ? m : LevenshteinUtil.EXCEEDS_THRESHOLD;
+        } else if (m == 0) {
+            return n <= threshold ? n : LevenshteinUtil.EXCEEDS_THRESHOLD;
+        }
+
+        if (n > m) {
+            String[] tmp = s;
+            s = t;
+            t = tmp;
+            int tmpLen = n;
+            n = m;
+            m = tmpLen;
+        }
+
+        int[][] buffers = LevenshteinBuffers.get(n + 1);
+        int p[] = buffers[0]; // 'previous' cost array, horizontally
+        int d[] = buffers[1]; // cost array, horizontally
+        int _d[]; // placeholder to assist in swapping p and d
+
+        final int outOfBand = Integer.MAX_VALUE / 2;
+        int boundary = Math.min(n, threshold);
+        for (int i = 0; i <= boundary; i++) {
+            p[i] = i;
+        }
+        for (int i = boundary + 1; i <= n; i++) {
+            p[i] = outOfBand;
+        }
+        for (int i = 0; i <= n; i++) {
+            d[i] = outOfBand;
+        }
+
+        for (int j = 1; j <= m; j++) {
+            String t_j = t[start + j - 1];
+            d[0] = j;
+
+            int min = Math.max(1, j - threshold);
+            int max = Math.min(n, j + threshold);
+            if (min > max) {
+                return LevenshteinUtil.EXCEEDS_THRESHOLD;
+            }
+            if (min > 1) {
+                d[min - 1] = outOfBand;
+            }
+
+            int rowMin = min == 1 ? d[0] : outOfBand;
+            for (int i = min; i <= max; i++) {
+                if (s[start + i - 1].equals(t_j)) {
+                    d[i] = p[i - 1];
+                } else {
+                    d[i] = 1 + Math.min(Math.min(d[i - 1], p[i]), p[i - 1]);
+                }
+                rowMin = Math.min(rowMin, d[i]);
+            }
+            if (max < n) {
+                d[max + 1] = outOfBand;
+            }
+            if (rowMin > threshold) {
+                return LevenshteinUtil.EXCEEDS_THRESHOLD;
+            }
+
+            _d = p;
+            p = d;
+            d = _d;
+        }
+
+        return p[n] <= threshold ? p[n] : LevenshteinUtil.EXCEEDS_THRESHOLD;
+    }
+
     public static double getSimilarity(final String s1, final String s2) {
         String[] s1s = tokenise(s1);
         String[] s2s = tokenise(s2);
@@ -127,6 +231,31 @@ public class LevenshteinTokenUtil {
         return similarity;
     }
 
+    /**
+     * Like {@link #getSimilarity(String, String)}, but stops as soon as the
+     * similarity is known to be less than minSimilarity.
+     *
+     * @return the similarity, or 0.0 if it is less than minSimilarity
+     */
+    public static double getSimilarity(final String s1, final String s2,
+            double minSimilarity) {
+        String[] s1s = tokenise(s1);
+        String[] s2s = tokenise(s2);
+
+        int maxDistance = Math.max(s1s.length, s2s.length);
+        if (maxDistance == 0) {
+            return getSimilarity(s1, s2);
+        }
+        int levDistance =
+                getLevenshteinDistanceInWords(s1s, s2s,
+                        LevenshteinBuffers.maxDistanceFor(minSimilarity,
+                                maxDistance));
+        if (levDistance == LevenshteinUtil.EXCEEDS_THRESHOLD) {
+            return 0.0;
+        }
+        return (maxDistance - levDistance) / (double) maxDistance;
+    }
+
     /**
      * Splits into tokens (lower-case).
      *
@@ -173,6 +302,29 @@ public class LevenshteinTokenUtil {
         return totalSimilarity / strings2.size();
     }
 
+    /**
+     * Like {@link #getSimilarity(String, List)}, but stops as soon as the mean
+     * similarity is known to be less than minSimilarity.
+     *
+     * @return mean similarity, or 0.0 if it is less than minSimilarity
+     */
+    public static double getSimilarity(final String s1,
+            final List<String> strings2, double minSimilarity) {
+        double totalSimilarity = 0.0;
+        int stringCount = strings2.size();
+        for (int i = 0; i < stringCount; i++) {
+            double required =
+                    LevenshteinBuffers.requiredSimilarity(minSimilarity,
+                            stringCount, i, totalSimilarity);
+            if (required > 1.0) {
+                return 0.0;
+            }
+            totalSimilarity += getSimilarity(s1, strings2.get(i), required);
+        }
+        double meanSimilarity = totalSimilarity / stringCount;
+        return meanSimilarity < minSimilarity ? 0.0 : meanSimilarity;
+    }
+
     /**
      * Calculate the word-based case-insensitive similarity of two lists of
      * strings (range 0.0 to 1.0).
@@ -242,4 +394,57 @@ public class LevenshteinTokenUtil {
         return (totalMaxDistance - totalLevDistance) / (double) totalMaxDistance;
     }
 
+    /**
+     * Like {@link #getSimilarity(List, List)}, but stops as soon as the
+     * similarity is known to be less than minSimilarity.
+     *
+     * @return average similarity between the strings, or 0.0 if it is less
+     *         than minSimilarity
+     */
+    public static double getSimilarity(final List<String> strings1,
+            final List<String> strings2, double minSimilarity) {
+        if (strings1.isEmpty() && strings2.isEmpty()) {
+            return 1.0;
+        }
+
+        final int minListSize = Math.min(strings1.size(), strings2.size());
+        final List<String> longestList = strings1.size() > minListSize ?
+                strings1 : strings2;
+        final int extraStringLengths =
+                countExtraStringLengths(longestList, minListSize);
+
+        // tokenise up front so the total editing distance (and hence the
+        // budget) is known before comparing anything
+        String[][] tokens1 = new String[minListSize][];
+        String[][] tokens2 = new String[minListSize][];
+        int totalMaxDistance = extraStringLengths;
+        for (int i = 0; i < minListSize; i++) {
+            tokens1[i] = tokenise(strings1.get(i));
+            tokens2[i] = tokenise(strings2.get(i));
+            totalMaxDistance += Math.max(tokens1[i].length, tokens2[i].length);
+        }
+        if (totalMaxDistance == 0) {
+            return 0.0;
+        }
+
+        int budget =
+                LevenshteinBuffers.maxDistanceFor(minSimilarity,
+                        totalMaxDistance) - extraStringLengths;
+        if (budget < 0) {
+            return 0.0;
+        }
+        int totalLevDistance = extraStringLengths;
+        for (int i = 0; i < minListSize; i++) {
+            int levenshteinDistance =
+                    getLevenshteinDistanceInWords(tokens1[i], tokens2[i],
+                            budget);
+            if (levenshteinDistance == LevenshteinUtil.EXCEEDS_THRESHOLD) {
+                return 0.0;
+            }
+            budget -= levenshteinDistance;
+            totalLevDistance += levenshteinDistance;
+        }
+        return (totalMaxDistance - totalLevDistance) / (double) totalMaxDistance;
+    }
+
 }
@@ -4,6 +4,18 @@ import java.util.List;
 
 public class LevenshteinUtil {
 
+    /**
+     * Returned by the bounded distance functions when the distance is
+     * greater than the given threshold.
+     */
+    public static final int EXCEEDS_THRESHOLD = -1;
+
+    /**
+     * Sentinel for cells outside the band. Small enough that adding 1 can't
+     * overflow.
+     */
+    private static final int OUT_OF_BAND = Integer.MAX_VALUE / 2;
+
     /**
      * Compute Levenshtein distance. Taken from
      * http://web.archive.org/web/20110720093554
@@ -90,6 +102,150 @@ public class LevenshteinUtil {
         return similarity;
     }
 
+    /**
+     * Compute Levenshtein distance, giving up as soon as the distance is known
+     * to be greater than threshold.
+     * <p>
+     * This is Ukkonen's banded variant of the algorithm above: only the cells
+     * within threshold of the diagonal are computed, so the cost is
+     * O(threshold * min(n, m)) rather than O(n * m). Common prefixes and
+     * suffixes are stripped first, and the cost arrays are reused per thread
+     * (see {@link LevenshteinBuffers}).
+     *
+     * @param s
+     *            first string
+     * @param t
+     *            second string
+     * @param threshold
+     *            largest distance of interest (must not be negative)
+     * @return the distance, or {@link #EXCEEDS_THRESHOLD} if it is greater
+     *         than threshold
+     */
+    public static int getLevenshteinDistance(String s, String t,
+            int threshold) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+
+        int n = s.length();
+        int m = t.length();
+        if (Math.abs(n - m) > threshold) {
+            // can't possibly be within threshold
+            return EXCEEDS_THRESHOLD;
+        }
+
+        // strip common prefix and suffix; they never contribute to the cost
+        int start = 0;
+        while (start < n && start < m && s.charAt(start) == t.charAt(start)) {
+            start++;
+        }
+        while (n > start && m > start
+                && s.charAt(n - 1) == t.charAt(m - 1)) {
+            n--;
+            m--;
+        }
+        n -= start;
+        m -= start;
+
+        if (n == 0) {
+            return m <= threshold ? m : EXCEEDS_THRESHOLD;
+        } else if (m == 0) {
+            return n <= threshold ? n : EXCEEDS_THRESHOLD;
+        }
+
+        // iterate over the longer string, keeping rows for the shorter one
+        if (n > m) {
+            String tmp = s;
+            s = t;
+            t = tmp;
+            int tmpLen = n;
+            n = m;
+            m = tmpLen;
+        }
+
+        int[][] buffers = LevenshteinBuffers.get(n + 1);
+        int p[] = buffers[0]; // 'previous' cost array, horizontally
+        int d[] = buffers[1]; // cost array, horizontally
+        int _d[]; // placeholder to assist in swapping p and d
+
+        int boundary = Math.min(n, threshold);
+        for (int i = 0; i <= boundary; i++) {
+            p[i] = i;
+        }
+        for (int i = boundary + 1; i <= n; i++) {
+            p[i] = OUT_OF_BAND;
+        }
+        for (int i = 0; i <= n; i++) {
+            d[i] = OUT_OF_BAND;
+        }
+
+        for (int j = 1; j <= m; j++) {
+            char t_j = t.charAt(start + j - 1);
+            d[0] = j;
+
+            // only compute the cells within threshold of the diagonal
+            int min = Math.max(1, j - threshold);
+            int max = Math.min(n, j + threshold);
+            if (min > max) {
+                return EXCEEDS_THRESHOLD;
+            }
+            if (min > 1) {
+                d[min - 1] = OUT_OF_BAND;
+            }
+
+            int rowMin = min == 1 ? d[0] : OUT_OF_BAND;
+            for (int i = min; i <= max; i++) {
+                if (s.charAt(start + i - 1) == t_j) {
+                    d[i] = p[i - 1];
+                } else {
+                    d[i] = 1 + Math.min(Math.min(d[i - 1], p[i]), p[i - 1]);
+                }
+                rowMin = Math.min(rowMin, d[i]);
+            }
+            if (max < n) {
+                d[max + 1] = OUT_OF_BAND;
+            }
+
+            // every path to the final cell passes through this row, so if
+            // the whole band is already too expensive we can stop here
+            if (rowMin > threshold) {
+                return EXCEEDS_THRESHOLD;
+            }
+
+            _d = p;
+            p = d;
+            d = _d;
+        }
+
+        return p[n] <= threshold ? p[n] : EXCEEDS_THRESHOLD;
+    }
+
+    /**
+     * Like {@link #getSimilarity(String, String)}, but stops as soon as the
+     * similarity is known to be less than minSimilarity.
+     *
+     * @param minSimilarity
+     *            smallest similarity of interest (0.0 to 1.0)
+     * @return the similarity, or 0.0 if it is less than minSimilarity
+     */
+    public static double getSimilarity(final String s1, final String s2,
+            double minSimilarity) {
+        int maxDistance = Math.max(s1.length(), s2.length());
+        if (maxDistance == 0) {
+            return getSimilarity(s1, s2);
+        }
+        int threshold =
+                LevenshteinBuffers.maxDistanceFor(minSimilarity, maxDistance);
+        int levDistance = getLevenshteinDistance(s1, s2, threshold);
+        if (levDistance == EXCEEDS_THRESHOLD) {
+            return 0.0;
+        }
+        return (maxDistance - levDistance) / (double) maxDistance;
+    }
+
     private static int countExtraStringLengths(List<String> strings,
             int fromIndex) {
         int total = 0;
@@ -121,6 +277,30 @@ public class LevenshteinUtil {
         return meanSimilarity;
     }
 
+    /**
+     * Like {@link #getSimilarity(String, List)}, but stops as soon as the mean
+     * similarity is known to be less than minSimilarity.
+     *
+     * @return the mean similarity, or 0.0 if it is less than minSimilarity
+     */
+    public static double getSimilarity(final String s1,
+            final List<String> strings2, double minSimilarity) {
+        double totalSimilarity = 0.0;
+        int stringCount = strings2.size();
+        for (int i = 0; i < stringCount; i++) {
+            double required =
+                    LevenshteinBuffers.requiredSimilarity(minSimilarity,
+                            stringCount, i, totalSimilarity);
+            if (required > 1.0) {
+                return 0.0;
+            }
+            String s2 = strings2.get(i);
+            totalSimilarity += getSimilarity(s1, s2, required);
+        }
+        double meanSimilarity = totalSimilarity / stringCount;
+        return meanSimilarity < minSimilarity ? 0.0 : meanSimilarity;
+    }
+
     public static double getSimilarity(final List<String> strings1,
             final List<String> strings2) {
         // length of the shorter list
@@ -157,4 +337,50 @@ public class LevenshteinUtil {
         return similarity;
     }
 
+    /**
+     * Like {@link #getSimilarity(List, List)}, but stops as soon as the
+     * similarity is known to be less than minSimilarity. The edit distance
+     * budget left over by each pair of strings is passed on to the next pair.
+     *
+     * @return the similarity, or 0.0 if it is less than minSimilarity
+     */
+    public static double getSimilarity(final List<String> strings1,
+            final List<String> strings2, double minSimilarity) {
+        int minListSize = Math.min(strings1.size(), strings2.size());
+        List<String> longestList =
+                strings1.size() > minListSize ? strings1 : strings2;
+        int extraStringLengths =
+                countExtraStringLengths(longestList, minListSize);
+
+        int totalMaxDistance = extraStringLengths;
+        for (int i = 0; i < minListSize; i++) {
+            totalMaxDistance +=
+                    Math.max(strings1.get(i).length(), strings2.get(i)
+                            .length());
+        }
+        if (totalMaxDistance == 0) {
+            return getSimilarity(strings1, strings2);
+        }
+
+        int budget =
+                LevenshteinBuffers.maxDistanceFor(minSimilarity,
+                        totalMaxDistance) - extraStringLengths;
+        if (budget < 0) {
+            return 0.0;
+        }
+        int totalLevDistance = extraStringLengths;
+        for (int i = 0; i < minListSize; i++) {
+            int levenshteinDistance =
+                    getLevenshteinDistance(strings1.get(i), strings2.get(i),
+                            budget);
+            if (levenshteinDistance == EXCEEDS_THRESHOLD) {
+                return 0.0;
+            }
+            budget -= levenshteinDistance;
+            totalLevDistance += levenshteinDistance;
+        }
+        return (totalMaxDistance - totalLevDistance)
+                / (double) totalMaxDistance;
+    }
+
 }
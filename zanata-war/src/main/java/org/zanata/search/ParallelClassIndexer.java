@@ -0,0 +1,204 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.search.FullTextSession;
+import org.zanata.async.AsyncTaskHandle;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.Range;
+
+/**
+ * Reindexes one entity class with several workers. The table is split into
+ * ranges of primary keys, and each worker repeatedly takes the next range and
+ * indexes it with its own session and scroll, so that entities are loaded and
+ * their index documents built in parallel. Hibernate Search still applies the
+ * documents to each index one batch at a time.
+ *
+ * @see ClassIndexer
+ */
+@Slf4j
+public class ParallelClassIndexer<T> {
+    private final AsyncTaskHandle handle;
+    private final Class<T> entityType;
+    private final Supplier<AbstractIndexingStrategy<T>> strategyFactory;
+    private final Supplier<FullTextSession> sessionFactory;
+    private final Executor executor;
+    private final int workers;
+    private final long partitionSize;
+    private final int batchSize;
+
+    /**
+     * @param strategyFactory
+     *            creates the indexing strategy for each worker
+     * @param sessionFactory
+     *            opens a new session for each worker; the worker closes it
+     * @param executor
+     *            runs the workers
+     */
+    public ParallelClassIndexer(AsyncTaskHandle handle, Class<T> entityType,
+            Supplier<AbstractIndexingStrategy<T>> strategyFactory,
+            Supplier<FullTextSession> sessionFactory, Executor executor,
+            int workers, long partitionSize, int batchSize) {
+        this.handle = handle;
+        this.entityType = entityType;
+        this.strategyFactory = strategyFactory;
+        this.sessionFactory = sessionFactory;
+        this.executor = executor;
+        this.workers = workers;
+        this.partitionSize = partitionSize;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Indexes every entity of the class, returning when all the workers have
+     * finished. If a worker fails, the others stop after their current
+     * partition and the failure is rethrown.
+     *
+     * @return the number of entities indexed
+     */
+    public int index() {
+        Optional<Range<Long>> idRange = findIdRange();
+        if (!idRange.isPresent()) {
+            return 0;
+        }
+        Queue<Range<Long>> partitions =
+                new ConcurrentLinkedQueue<>(partition(idRange.get(),
+                        partitionSize));
+        int workerCount = Math.min(workers, partitions.size());
+        log.info("reindexing {} in {} partitions with {} workers",
+                entityType, partitions.size(), workerCount);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<FutureTask<Integer>> tasks = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            FutureTask<Integer> task =
+                    new FutureTask<>(() -> runWorker(partitions, failed));
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.warn("reindex lane is full; running worker in the "
+                        + "calling thread");
+                task.run();
+            }
+        }
+        int indexed = 0;
+        Throwable failure = null;
+        // wait for every worker, so that no session outlives this method
+        for (FutureTask<Integer> task : tasks) {
+            try {
+                indexed += task.get();
+            } catch (ExecutionException e) {
+                failed.set(true);
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                failed.set(true);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (failure != null) {
+            throw new RuntimeException("reindexing " + entityType
+                    + " failed", failure);
+        }
+        return indexed;
+    }
+
+    private int runWorker(Queue<Range<Long>> partitions, AtomicBoolean failed) {
+        FullTextSession session = sessionFactory.get();
+        try {
+            session.setFlushMode(FlushMode.MANUAL);
+            session.setCacheMode(CacheMode.IGNORE);
+            AbstractIndexingStrategy<T> strategy = strategyFactory.get();
+            int indexed = 0;
+            Range<Long> partition;
+            while (!failed.get() && !isCancelled()
+                    && (partition = partitions.poll()) != null) {
+                log.debug("indexing {} ids {}", entityType, partition);
+                indexed +=
+                        strategy.invoke(handle, session, partition, batchSize);
+            }
+            return indexed;
+        } catch (RuntimeException | Error e) {
+            failed.set(true);
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    private boolean isCancelled() {
+        return handle != null && handle.isCancelled();
+    }
+
+    private Optional<Range<Long>> findIdRange() {
+        FullTextSession session = sessionFactory.get();
+        try {
+            Object[] bounds =
+                    (Object[]) session.createQuery(
+                            "select min(e.id), max(e.id) from "
+                                    + entityType.getName() + " e")
+                            .uniqueResult();
+            if (bounds == null || bounds[0] == null) {
+                return Optional.absent();
+            }
+            return Optional.of(Range.closed(((Number) bounds[0]).longValue(),
+                    ((Number) bounds[1]).longValue()));
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Splits a closed range of ids into half-open partitions of at most
+     * partitionSize ids each.
+     */
+    @VisibleForTesting
+    static List<Range<Long>> partition(Range<Long> idRange,
+            long partitionSize) {
+        List<Range<Long>> partitions = new ArrayList<>();
+        long end = idRange.upperEndpoint() + 1;
+        for (long start = idRange.lowerEndpoint(); start < end; start +=
+                partitionSize) {
+            partitions.add(Range.closedOpen(start,
+                    Math.min(start + partitionSize, end)));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.search.FullTextSession;
+import org.zanata.model.tm.TransMemoryUnit;
+
+/**
+ * Indexing strategy that indexes the translation units of a single
+ * translation memory.
+ */
+public class TransMemoryUnitIndexingStrategy extends
+        AbstractIndexingStrategy<TransMemoryUnit> {
+    private final Long transMemoryId;
+
+    public TransMemoryUnitIndexingStrategy(Long transMemoryId) {
+        super(TransMemoryUnit.class);
+        this.transMemoryId = transMemoryId;
+    }
+
+    @Override
+    protected void onEntityIndexed(int n, FullTextSession session) {
+    }
+
+    @Override
+    protected ScrollableResults queryResults(int offset,
+            FullTextSession session) {
+        return session
+                .createQuery(
+                        "from TransMemoryUnit tu "
+                                + "where tu.translationMemory.id = :tmId")
+                .setParameter("tmId", transMemoryId)
+                .setFirstResult(offset)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+}
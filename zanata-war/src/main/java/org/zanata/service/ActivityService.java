@@ -109,6 +109,12 @@ public interface ActivityService {
     void logActivity(long actorId, IsEntityWithType context,
             IsEntityWithType target, ActivityType activityType, int wordCount);
 
+    /**
+     * Saves the translation activity added up in memory since the last
+     * flush, in a single transaction.
+     */
+    void flushPendingActivities();
+
     /**
      * Get target or lastTarget entity in activity
      *
@@ -20,9 +20,15 @@
  */
 package org.zanata.service;
 
+import java.util.concurrent.TimeUnit;
+
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
+import org.zanata.lock.LockLostException;
 import org.zanata.lock.LockNotAcquiredException;
 
+import com.google.common.base.Optional;
+
 /**
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -33,36 +39,60 @@ public interface LockManagerService {
      *
      * @param l
      *            The lock to attain.
-     * @return True, if the lock was attained. False if the lock was not
+     * @return the lease if the lock was attained, absent if the lock was not
      *         available.
      */
-    public boolean checkAndAttain(Lock l);
+    public Optional<LockLease> checkAndAttain(Lock l);
 
     /**
-     * Checks for the availability of a lock and attains it if available.
+     * Attains a lock.
      *
-     * @param lock
+     * @param l
      *            The lock to attain.
-     * @return null if the lock was obtained, otherwise the username of the lock
-     *         owner
+     * @return the lease which must be passed to
+     *         {@link #release(Lock, LockLease)}
+     * @throws LockNotAcquiredException
+     *             If the lock was not acquired.
      */
-    public String attainLockOrReturnOwner(Lock lock);
+    public LockLease attain(Lock l) throws LockNotAcquiredException;
 
     /**
-     * Attains a lock.
+     * Attains a lock, waiting up to the given time for it to become available.
      *
-     * @param l
+     * @param lock
      *            The lock to attain.
-     * @throws LockNotAcquiredException
-     *             If the lock was not acquired.
+     * @param timeout
+     *            maximum time to wait. Zero or less means don't wait.
+     * @param unit
+     *            time unit of the timeout
+     * @return the lease if the lock was attained, otherwise absent
+     */
+    public Optional<LockLease> tryAttain(Lock lock, long timeout,
+            TimeUnit unit);
+
+    /**
+     * Checks whether a lease still holds a lock. Long running work can use
+     * this to make sure nobody has taken over its lock before it commits.
+     *
+     * @param lock
+     *            The lock.
+     * @param lease
+     *            The lease returned when the lock was attained.
+     * @return True if the lease still holds the lock.
      */
-    public void attain(Lock l) throws LockNotAcquiredException;
+    public boolean isHeld(Lock lock, LockLease lease);
 
     /**
-     * Releases a lock.
+     * Releases a lock, provided it is still held with the given lease.
      *
      * @param l
      *            The lock to release.
+     * @param lease
+     *            The lease returned when the lock was attained.
+     * @throws LockLostException
+     *             If the lease had expired and the lock was taken over, so
+     *             that the work it guarded may have overlapped with other
+     *             work.
      */
-    public void release(Lock l);
+    public void release(Lock l, LockLease lease) throws LockLostException;
 }
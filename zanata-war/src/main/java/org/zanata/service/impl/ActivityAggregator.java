@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.servlet.ServletContext;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang.time.DateUtils;
+import org.apache.deltaspike.core.api.lifecycle.Destroyed;
+import org.zanata.common.ActivityType;
+import org.zanata.service.ActivityService;
+import org.zanata.util.WithRequestScope;
+
+/**
+ * Adds up translation activity in memory, per actor, project version,
+ * activity type and hour, until
+ * {@link org.zanata.service.ActivityService#flushPendingActivities()} saves
+ * it. This turns a database transaction per translation save into one
+ * transaction per flush, which matters when many translators are active.
+ * <p>
+ * Pending activity is also flushed when the application stops, so it is
+ * only lost if the server dies or that last flush fails.
+ */
+@Named("activityAggregator")
+@javax.enterprise.context.ApplicationScoped
+@Slf4j
+public class ActivityAggregator {
+    private final ConcurrentMap<Key, PendingActivity> pending =
+            new ConcurrentHashMap<>();
+
+    @Inject
+    private ActivityService activityServiceImpl;
+
+    /**
+     * Records a single activity event.
+     *
+     * @param lastTargetId
+     *            id of the text flow target most recently changed by the
+     *            event
+     */
+    public void add(long actorId, long versionId, ActivityType activityType,
+            long lastTargetId, int wordCount, Date actionTime) {
+        Key key =
+                new Key(actorId, versionId, activityType, DateUtils.truncate(
+                        actionTime, Calendar.HOUR));
+        pending.merge(key, new PendingActivity(key, wordCount, 1,
+                lastTargetId, actionTime, actionTime), PendingActivity::merge);
+    }
+
+    /**
+     * Removes and returns everything recorded so far.
+     */
+    public List<PendingActivity> drain() {
+        List<PendingActivity> drained = new ArrayList<>(pending.size());
+        for (Key key : pending.keySet()) {
+            PendingActivity activity = pending.remove(key);
+            if (activity != null) {
+                drained.add(activity);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Puts back activities which could not be saved, so that the next flush
+     * retries them along with anything recorded in the meantime.
+     */
+    public void restore(Collection<PendingActivity> activities) {
+        for (PendingActivity activity : activities) {
+            pending.merge(activity.getKey(), activity, PendingActivity::merge);
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Saves the pending activity when the application stops, in a
+     * transaction as the scheduled flush does.
+     */
+    @WithRequestScope
+    public void flushOnShutdown(@Observes @Destroyed ServletContext context) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // a failed flush puts the activities back
+        activityServiceImpl.flushPendingActivities();
+        if (!pending.isEmpty()) {
+            log.warn("discarding {} unsaved activities on shutdown",
+                    pending.size());
+        }
+    }
+
+    @Value
+    public static class Key {
+        long actorId;
+        long versionId;
+        ActivityType activityType;
+        Date hour;
+    }
+
+    @Value
+    public static class PendingActivity {
+        Key key;
+        int wordCount;
+        int eventCount;
+        long lastTargetId;
+        Date firstActionTime;
+        Date lastActionTime;
+
+        PendingActivity merge(PendingActivity other) {
+            PendingActivity later =
+                    other.lastActionTime.before(lastActionTime) ? this : other;
+            Date first =
+                    other.firstActionTime.before(firstActionTime) ? other.firstActionTime
+                            : firstActionTime;
+            return new PendingActivity(key, wordCount + other.wordCount,
+                    eventCount + other.eventCount, later.lastTargetId, first,
+                    later.lastActionTime);
+        }
+    }
+}
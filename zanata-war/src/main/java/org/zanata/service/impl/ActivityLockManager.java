@@ -45,5 +45,13 @@ public class ActivityLockManager {
         return stripedLock.get(personId);
     }
 
+    /**
+     * Returns the locks for several people, in an order which is the same for
+     * every caller, so that they can be locked together without deadlock.
+     */
+    public Iterable<Lock> getLocks(Iterable<Long> personIds) {
+        return stripedLock.bulkGet(personIds);
+    }
+
 
 }
@@ -24,7 +24,9 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.event.Observes;
@@ -32,6 +34,9 @@ import javax.enterprise.event.TransactionPhase;
 import javax.persistence.EntityManager;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.time.DateUtils;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -42,17 +47,16 @@ import org.zanata.common.ActivityType;
 import org.zanata.dao.ActivityDAO;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.PersonDAO;
-import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.events.DocumentUploadedEvent;
 import org.zanata.events.TextFlowTargetStateEvent;
 import org.zanata.model.Activity;
 import org.zanata.model.HDocument;
 import org.zanata.model.HPerson;
 import org.zanata.model.HTextFlow;
-import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.IsEntityWithType;
 import org.zanata.model.type.EntityType;
 import org.zanata.service.ActivityService;
+import org.zanata.service.impl.ActivityAggregator.PendingActivity;
 import org.zanata.transaction.TransactionUtil;
 
 /**
@@ -60,13 +64,11 @@ import org.zanata.transaction.TransactionUtil;
  */
 @Named("activityServiceImpl")
 @RequestScoped
+@Slf4j
 public class ActivityServiceImpl implements ActivityService {
     @Inject
     private ActivityDAO activityDAO;
 
-    @Inject
-    private TextFlowTargetDAO textFlowTargetDAO;
-
     @Inject
     private DocumentDAO documentDAO;
 
@@ -79,6 +81,9 @@ public class ActivityServiceImpl implements ActivityService {
     @Inject
     private ActivityLockManager activityLockManager;
 
+    @Inject
+    private ActivityAggregator activityAggregator;
+
     @Inject
     private TransactionUtil transactionUtil;
 
@@ -175,12 +180,10 @@ public class ActivityServiceImpl implements ActivityService {
     }
 
     /**
-     * Logs each text flow target translation immediately after successful
-     * translation.
+     * Records each batch of text flow target translations after a successful
+     * translation. The word counts are added up in memory, and saved later
+     * by {@link #flushPendingActivities()}.
      */
-    // uses Async to ensure transaction environment is reset, because
-    // this is triggered during transaction.commit
-    @Async
     public void logTextFlowStateUpdate(@Observes(during = TransactionPhase.AFTER_SUCCESS) TextFlowTargetStateEvent event_) {
         // workaround for https://issues.jboss.org/browse/WELD-2019
         final TextFlowTargetStateEvent event = event_;
@@ -188,57 +191,97 @@ public class ActivityServiceImpl implements ActivityService {
         Long actorId = event.getActorId();
 
         if (actorId != null) {
-            Lock lock = activityLockManager.getLock(actorId);
-            lock.lock();
-            try {
-                transactionUtil.run(() -> {
-                    HDocument document =
-                        documentDAO.getById(event.getKey().getDocumentId());
-
-                    HTextFlowTarget lastReviewedTarget = null;
-                    HTextFlowTarget lastTranslatedTarget = null;
-
-                    int totalReviewedWords = 0;
-                    int totalTranslatedWords = 0;
-
-                    for (TextFlowTargetStateEvent.TextFlowTargetStateChange state : event
-                        .getStates()) {
-                        HTextFlowTarget target =
-                            textFlowTargetDAO.findById(
-                                state.getTextFlowTargetId(), false);
-                        if (state.getNewState().isReviewed()) {
-                            lastReviewedTarget = target;
-                            totalReviewedWords +=
-                                target.getTextFlow().getWordCount()
-                                    .intValue();
-                        } else {
-                            lastTranslatedTarget = target;
-                            totalTranslatedWords +=
-                                target.getTextFlow().getWordCount()
-                                    .intValue();
-                        }
-                    }
-                    if (lastReviewedTarget != null) {
-                        logActivityAlreadyLocked(actorId,
-                            document.getProjectIteration(), lastReviewedTarget,
-                            ActivityType.REVIEWED_TRANSLATION,
-                            totalReviewedWords);
-                    }
-
-                    if (lastTranslatedTarget != null) {
-                        logActivityAlreadyLocked(actorId,
-                            document.getProjectIteration(),
-                            lastTranslatedTarget,
-                            ActivityType.UPDATE_TRANSLATION,
-                            totalTranslatedWords);
-                    }
-                });
-            } catch (Exception e) {
-                Throwables.propagate(e);
-            } finally {
-                lock.unlock();
+            Long lastReviewedTargetId = null;
+            Long lastTranslatedTargetId = null;
+
+            int totalReviewedWords = 0;
+            int totalTranslatedWords = 0;
+
+            for (TextFlowTargetStateEvent.TextFlowTargetStateChange state : event
+                    .getStates()) {
+                if (state.getNewState().isReviewed()) {
+                    lastReviewedTargetId = state.getTextFlowTargetId();
+                    totalReviewedWords += state.getWordCount();
+                } else {
+                    lastTranslatedTargetId = state.getTextFlowTargetId();
+                    totalTranslatedWords += state.getWordCount();
+                }
             }
+            Date actionTime = new Date();
+            if (lastReviewedTargetId != null) {
+                activityAggregator.add(actorId, event.getProjectIterationId(),
+                        ActivityType.REVIEWED_TRANSLATION,
+                        lastReviewedTargetId, totalReviewedWords, actionTime);
+            }
+            if (lastTranslatedTargetId != null) {
+                activityAggregator.add(actorId, event.getProjectIterationId(),
+                        ActivityType.UPDATE_TRANSLATION,
+                        lastTranslatedTargetId, totalTranslatedWords,
+                        actionTime);
+            }
+        }
+    }
+
+    @Override
+    public void flushPendingActivities() {
+        List<PendingActivity> pending = activityAggregator.drain();
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<Long> actorIds = pending.stream()
+                .map(activity -> activity.getKey().getActorId())
+                .collect(Collectors.toSet());
+        // bulk locks come in a consistent order, so this can't deadlock
+        // with another thread holding several of them
+        List<Lock> locks =
+                ImmutableList.copyOf(activityLockManager.getLocks(actorIds));
+        locks.forEach(Lock::lock);
+        try {
+            transactionUtil.run(() -> {
+                for (PendingActivity activity : pending) {
+                    savePendingActivity(activity);
+                }
+                activityDAO.flush();
+            });
+        } catch (Exception e) {
+            log.warn("failed to save {} activities; will retry",
+                    pending.size(), e);
+            activityAggregator.restore(pending);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Precondition: current thread must hold a lock for the actor.
+     */
+    private void savePendingActivity(PendingActivity pending) {
+        ActivityAggregator.Key key = pending.getKey();
+        IsEntityWithType context =
+                new EntityReference(key.getVersionId(),
+                        EntityType.HProjectIteration);
+        IsEntityWithType target =
+                new EntityReference(pending.getLastTargetId(),
+                        EntityType.HTexFlowTarget);
+        Activity activity =
+                findActivity(key.getActorId(), context.getEntityType(),
+                        context.getId(), key.getActivityType(),
+                        pending.getLastActionTime());
+        if (activity != null) {
+            activity.updateActivity(pending.getLastActionTime(), target,
+                    pending.getWordCount(), pending.getEventCount());
+        } else {
+            HPerson actor = personDAO.findById(key.getActorId());
+            activity =
+                    new Activity(actor, context, target,
+                            key.getActivityType(), pending.getWordCount(),
+                            pending.getEventCount());
+            // the activity belongs to the hour it happened in, not the hour
+            // it was saved in
+            activity.setCreationDate(pending.getFirstActionTime());
+            activity.setLastEventTime(pending.getLastActionTime());
         }
+        activityDAO.makePersistent(activity);
     }
 
     /**
@@ -304,4 +347,13 @@ public class ActivityServiceImpl implements ActivityService {
 
         return stats;
     }
+
+    /**
+     * Identifies an entity for an {@link Activity} without loading it.
+     */
+    @Value
+    private static class EntityReference implements IsEntityWithType {
+        Long id;
+        EntityType entityType;
+    }
 }
@@ -21,7 +21,10 @@
 package org.zanata.service.impl;
 
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nonnull;
 import javax.enterprise.context.RequestScoped;
@@ -35,8 +38,12 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.zanata.async.Async;
+import org.zanata.async.AsyncTaskManager;
+import org.zanata.async.AsyncTaskRejectedException;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.handle.CopyTransTaskHandle;
+import org.zanata.config.CopyTransConfig;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.ProjectDAO;
 import org.zanata.dao.TextFlowDAO;
@@ -53,6 +60,8 @@ import org.zanata.util.ServiceLocator;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
 
 @Named("copyTransServiceImpl")
 @RequestScoped
@@ -61,8 +70,6 @@ import com.google.common.base.Stopwatch;
 @NoArgsConstructor
 public class CopyTransServiceImpl implements CopyTransService {
 
-    private static final int COPY_TRANS_BATCH_SIZE = 20;
-
     @Inject
     private LocaleService localeServiceImpl;
     @Inject
@@ -77,6 +84,8 @@ public class CopyTransServiceImpl implements CopyTransService {
     private TranslationStateCache translationStateCacheImpl;
     @Inject
     private TextFlowDAO textFlowDAO;
+    @Inject
+    private CopyTransConfig copyTransConfig;
 
     /**
      * Copies previous matching translations for the given locale into a
@@ -128,13 +137,14 @@ public class CopyTransServiceImpl implements CopyTransService {
         if (hasTranslationToCopy) {
             boolean requireTranslationReview =
                     document.getProjectIteration().getRequireTranslationReview();
+            int batchSize = copyTransConfig.getBatchSize();
 
             while (start < document.getTextFlows().size()) {
                 numCopied +=
-                        copyTransForBatch(document, start, COPY_TRANS_BATCH_SIZE,
+                        copyTransForBatch(document, start, batchSize,
                                 targetLocale, options, taskHandleOpt,
                                 requireTranslationReview);
-                start += COPY_TRANS_BATCH_SIZE;
+                start += batchSize;
                 documentDAO.clear();
             }
         } else if (taskHandleOpt.isPresent()) {
@@ -160,7 +170,9 @@ public class CopyTransServiceImpl implements CopyTransService {
     }
 
     /**
-     * Perform copy trans on a batch of text flows for a document.
+     * Perform copy trans on a batch of text flows for a document. Matches for
+     * the whole batch are resolved with a single query (see
+     * {@link TextFlowTargetDAO#searchBestMatchesTransMemory}).
      *
      * @param requireTranslationReview
      *            whether the project iteration requires translation review
@@ -242,22 +254,107 @@ public class CopyTransServiceImpl implements CopyTransService {
                         document.getProjectIteration().getProject().getSlug(),
                         document.getProjectIteration().getSlug());
 
-        for (HLocale targetLocale : localeList) {
+        int parallelism =
+                Math.min(copyTransConfig.getLocaleParallelism(),
+                        localeList.size());
+        if (parallelism > 1) {
+            copyTransForLocalesInParallel(document, localeList,
+                    copyTransOpts, taskHandleOpt, parallelism);
+        } else {
+            for (HLocale targetLocale : localeList) {
+                if (taskHandleOpt.isPresent()
+                        && taskHandleOpt.get().isCancelled()) {
+                    return;
+                }
+                try {
+                    copyTransForDocumentLocale(document, targetLocale,
+                            copyTransOpts, taskHandleOpt);
+                } catch (Exception e) {
+                    Throwables.propagate(e);
+                }
+            }
+        }
+        log.info("copyTrans finished: document \"{}\"", document.getDocId());
+    }
+
+    /**
+     * Runs copy trans for several locales of a document at the same time.
+     * <p>
+     * Helper tasks are started on the async task pool and, together with the
+     * calling thread, take locales from a shared queue. The calling thread
+     * only waits for helpers which actually started, so if the lane is
+     * saturated (eg by other copy trans tasks waiting in this method) the
+     * calling thread simply processes every locale itself instead of
+     * deadlocking.
+     */
+    private void copyTransForLocalesInParallel(final HDocument document,
+            List<HLocale> localeList, final HCopyTransOptions options,
+            final Optional<CopyTransTaskHandle> taskHandleOpt,
+            int parallelism) {
+        final Queue<HLocale> pendingLocales =
+                new ConcurrentLinkedQueue<HLocale>(localeList);
+        AsyncTaskManager asyncTaskManager =
+                ServiceLocator.instance().getInstance(AsyncTaskManager.class);
+
+        List<AtomicBoolean> helperStarted = Lists.newArrayList();
+        List<ListenableFuture<Void>> helperResults = Lists.newArrayList();
+        for (int i = 1; i < parallelism; i++) {
+            final AtomicBoolean started = new AtomicBoolean();
+            try {
+                helperResults.add(asyncTaskManager.startTask(() -> {
+                    started.set(true);
+                    // each helper runs in its own request context, so it
+                    // needs its own instance (and hence its own DAOs/session)
+                    ServiceLocator.instance()
+                            .getInstance(CopyTransServiceImpl.class)
+                            .copyTransForPendingLocales(document, options,
+                                    pendingLocales, taskHandleOpt);
+                    return AsyncTaskResult.<Void>taskResult();
+                }, AsyncTaskType.COPY_TRANS));
+                helperStarted.add(started);
+            } catch (AsyncTaskRejectedException e) {
+                // the lane is busy; this thread will do the remaining work
+                log.debug("copy trans helper rejected", e);
+                break;
+            }
+        }
+
+        copyTransForPendingLocales(document, options, pendingLocales,
+                taskHandleOpt);
+
+        for (int i = 0; i < helperResults.size(); i++) {
+            // a helper which hasn't started by now will find the queue empty
+            if (helperStarted.get(i).get()) {
+                try {
+                    helperResults.get(i).get();
+                } catch (Exception e) {
+                    Throwables.propagate(e);
+                }
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void copyTransForPendingLocales(HDocument document,
+            HCopyTransOptions options, Queue<HLocale> pendingLocales,
+            Optional<CopyTransTaskHandle> taskHandleOpt) {
+        HLocale targetLocale;
+        while ((targetLocale = pendingLocales.poll()) != null) {
             if (taskHandleOpt.isPresent() && taskHandleOpt.get().isCancelled()) {
+                pendingLocales.clear();
                 return;
             }
             try {
-                copyTransForDocumentLocale(document, targetLocale, copyTransOpts,
+                copyTransForDocumentLocale(document, targetLocale, options,
                         taskHandleOpt);
             } catch (Exception e) {
                 Throwables.propagate(e);
             }
         }
-        log.info("copyTrans finished: document \"{}\"", document.getDocId());
     }
 
     @Override
-    @Async
+    @Async(AsyncTaskType.COPY_TRANS)
     public Future<Void> startCopyTransForDocument(HDocument document,
             HCopyTransOptions copyTransOptions, CopyTransTaskHandle handle) {
         copyTransForDocument(document, copyTransOptions, handle);
@@ -265,7 +362,7 @@ public class CopyTransServiceImpl implements CopyTransService {
     }
 
     @Override
-    @Async
+    @Async(AsyncTaskType.COPY_TRANS)
     public Future<Void> startCopyTransForIteration(HProjectIteration iteration,
             HCopyTransOptions copyTransOptions, CopyTransTaskHandle handle) {
         copyTransForIteration(iteration, copyTransOptions, handle);
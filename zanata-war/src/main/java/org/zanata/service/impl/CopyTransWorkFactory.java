@@ -56,9 +56,9 @@ import org.zanata.service.VersionStateCache;
 import org.zanata.util.TranslationUtil;
 import org.zanata.webtrans.shared.model.ValidationAction;
 
-import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -113,22 +113,30 @@ public class CopyTransWorkFactory {
         }
 
         Long actorId = authenticatedAccount.getPerson().getId();
+        List<HTextFlow> textFlowsToMatch =
+                Lists.newArrayListWithCapacity(copyTargets.size());
         for (HTextFlow textFlow : copyTargets) {
             if (shouldFindMatch(textFlow, targetLocale,
                     requireTranslationReview)) {
+                textFlowsToMatch.add(textFlow);
+            }
+        }
+        if (textFlowsToMatch.isEmpty()) {
+            return 0;
+        }
 
-                Optional<HTextFlowTarget> bestMatch =
-                        translationFinder.searchBestMatchTransMemory(textFlow,
-                                targetLocale.getLocaleId(), document
-                                        .getLocale().getLocaleId(),
-                                checkContext, checkDocument, checkProject);
-                if (bestMatch.isPresent()) {
-                    numCopied++;
-
-                    saveCopyTransMatch(actorId, bestMatch.get(), textFlow,
-                        options, requireTranslationReview);
-
-                }
+        // resolve the matches for the whole batch with one query
+        Map<Long, HTextFlowTarget> bestMatches =
+                translationFinder.searchBestMatchesTransMemory(
+                        textFlowsToMatch, targetLocale.getLocaleId(),
+                        checkContext, checkDocument, checkProject);
+        for (HTextFlow textFlow : textFlowsToMatch) {
+            HTextFlowTarget bestMatch = bestMatches.get(textFlow.getId());
+            if (bestMatch != null) {
+                numCopied++;
+
+                saveCopyTransMatch(actorId, bestMatch, textFlow,
+                    options, requireTranslationReview);
             }
         }
         return numCopied;
@@ -9,16 +9,25 @@ import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.search.Search;
+
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.handle.CopyVersionTaskHandle;
 import org.zanata.common.EntityStatus;
+import org.zanata.config.CopyVersionConfig;
+import org.zanata.dao.CopyVersionDAO;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.ProjectDAO;
 import org.zanata.dao.ProjectIterationDAO;
@@ -38,6 +47,7 @@ import org.zanata.model.po.HPoHeader;
 import org.zanata.model.po.HPoTargetHeader;
 import org.zanata.model.po.HPotEntryData;
 import org.zanata.model.type.TranslationSourceType;
+import org.zanata.search.HTextFlowTargetIndexingStrategy;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.CopyVersionService;
 import org.zanata.service.VersionStateCache;
@@ -87,6 +97,15 @@ public class CopyVersionServiceImpl implements CopyVersionService {
     @Inject
     private ZanataIdentity identity;
 
+    @Inject
+    private CopyVersionDAO copyVersionDAO;
+
+    @Inject
+    private CopyVersionConfig copyVersionConfig;
+
+    @Inject
+    private EntityManager entityManager;
+
     // Stop watch for textFlow and target copy process
     private Stopwatch copyTfAndTftStopWatch = Stopwatch.createUnstarted();
 
@@ -168,7 +187,7 @@ public class CopyVersionServiceImpl implements CopyVersionService {
 
 
     @Override
-    @Async
+    @Async(AsyncTaskType.COPY_VERSION)
     public Future<Void> startCopyVersion(@Nonnull String projectSlug,
             @Nonnull String versionSlug,
             @Nonnull String newVersionSlug, CopyVersionTaskHandle handle) {
@@ -213,8 +232,8 @@ public class CopyVersionServiceImpl implements CopyVersionService {
 
     /**
      * Copy documents from HProjectIteration(id=versionId) in batches(batchStart,
-     * batchLength) into HProjectIteration(id=newVersionId). Copying includes
-     * HRawDocument stored in file system.
+     * batchLength) into HProjectIteration(id=newVersionId). Copied
+     * HRawDocuments share the stored file content of the originals.
      * @return Map indexed by the original document id, and to the new copied
      * document id.
      * @throws Exception
@@ -262,19 +281,27 @@ public class CopyVersionServiceImpl implements CopyVersionService {
      */
     private void copyTextFlowAndTarget(Long documentId, Long newDocumentId) {
         copyTfAndTftStopWatch.start();
-        int tfStart = 0, tftStart = 0, totalTftCount = 0;
+        int tfStart = 0, totalTftCount = 0;
         int tfCount = textFlowDAO.countActiveTextFlowsInDocument(documentId);
+        Map<Long, Long> tfMap = Maps.newLinkedHashMap();
 
         while (tfStart < tfCount) {
-            Map<Long, Long> tfMap =
-                    copyTextFlowBatch(documentId, newDocumentId, tfStart,
-                            TF_BATCH_SIZE);
+            tfMap.putAll(copyTextFlowBatch(documentId, newDocumentId, tfStart,
+                    TF_BATCH_SIZE));
             tfStart += TF_BATCH_SIZE;
             textFlowDAO.clear();
             documentDAO.clear();
+        }
 
+        Optional<Integer> bulkCopied = Optional.absent();
+        if (copyVersionConfig.isBulkCopy()) {
+            bulkCopied = copyTextFlowTargetsInBulk(documentId, newDocumentId);
+        }
+        if (bulkCopied.isPresent()) {
+            totalTftCount = bulkCopied.get();
+        } else {
             for (Map.Entry<Long, Long> entry : tfMap.entrySet()) {
-                tftStart = 0;
+                int tftStart = 0;
                 int tftCount =
                         textFlowTargetDAO.countTextFlowTargetsInTextFlow(
                                 entry.getKey());
@@ -296,6 +323,58 @@ public class CopyVersionServiceImpl implements CopyVersionService {
         copyTfAndTftStopWatch.reset();
     }
 
+    /**
+     * Copies all the targets of a document with
+     * {@link CopyVersionDAO#copyTargets}, then indexes them.
+     *
+     * @return number of HTextFlowTarget copied, or absent if the bulk copy
+     *         failed and nothing was copied
+     */
+    protected Optional<Integer> copyTextFlowTargetsInBulk(Long documentId,
+            Long newDocumentId) {
+        int copied;
+        try {
+            String revisionComment =
+                    TranslationUtil.getCopyVersionMessage(documentDAO
+                            .getById(documentId));
+            copied = runInTransaction(() -> copyVersionDAO.copyTargets(
+                    documentId, newDocumentId, revisionComment));
+        } catch (Exception e) {
+            log.warn("exception during bulk copy of text flow targets for "
+                    + "document {}, copying them one by one", documentId, e);
+            return Optional.absent();
+        } finally {
+            copyVersionDAO.clear();
+        }
+        if (copied > 0) {
+            indexTextFlowTargets(newDocumentId);
+        }
+        return Optional.of(copied);
+    }
+
+    /**
+     * The bulk copy bypasses Hibernate Search, so the new targets have to be
+     * indexed explicitly. A failure here leaves the copy in place, to be
+     * picked up by the next reindex.
+     */
+    private void indexTextFlowTargets(Long newDocumentId) {
+        // the injected Session is a CDI proxy, which FullTextSession can't wrap
+        Session session = entityManager.unwrap(Session.class);
+        FlushMode flushMode = session.getFlushMode();
+        CacheMode cacheMode = session.getCacheMode();
+        try {
+            runInTransaction(() -> new HTextFlowTargetIndexingStrategy()
+                    .reindexForDocument(newDocumentId,
+                            Search.getFullTextSession(session), null));
+        } catch (Exception e) {
+            log.error("exception during indexing of text flow targets for "
+                    + "document {}", newDocumentId, e);
+        } finally {
+            session.setFlushMode(flushMode);
+            session.setCacheMode(cacheMode);
+        }
+    }
+
     /**
      * Return map of old HTextFlow id, new HTextFlow id copied
      *
@@ -27,7 +27,6 @@ import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 
 import javax.enterprise.context.RequestScoped;
@@ -48,9 +47,11 @@ import org.zanata.events.DocStatsEvent;
 import org.zanata.events.DocumentLocaleKey;
 import org.zanata.events.DocumentUploadedEvent;
 import org.zanata.model.type.WebhookType;
+import org.zanata.webhook.WebhookDispatcher;
 import org.zanata.webhook.events.DocumentMilestoneEvent;
 import org.zanata.i18n.Messages;
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
 import org.zanata.model.HAccount;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
@@ -127,6 +128,9 @@ public class DocumentServiceImpl implements DocumentService {
     @Inject
     private Messages msgs;
 
+    @Inject
+    private WebhookDispatcher webhookDispatcher;
+
     @Inject
     private Event<DocumentUploadedEvent> documentUploadedEvent;
 
@@ -136,12 +140,13 @@ public class DocumentServiceImpl implements DocumentService {
             Resource sourceDoc, Set<String> extensions, boolean copyTrans,
             boolean lock) {
         Lock docLock = null;
+        LockLease lease = null;
         if (lock) {
             // Lock this document for push
             docLock =
                     new Lock(projectSlug, iterationSlug, sourceDoc.getName(),
                             "push");
-            lockManagerServiceImpl.attain(docLock);
+            lease = lockManagerServiceImpl.attain(docLock);
         }
 
         try {
@@ -149,7 +154,7 @@ public class DocumentServiceImpl implements DocumentService {
                     extensions, copyTrans);
         } finally {
             if (lock) {
-                lockManagerServiceImpl.release(docLock);
+                lockManagerServiceImpl.release(docLock, lease);
             }
         }
     }
@@ -324,8 +329,7 @@ public class DocumentServiceImpl implements DocumentService {
     public void publishDocumentMilestoneEvent(List<WebHook> webHooks,
             DocumentMilestoneEvent event) {
         for (WebHook webHook : webHooks) {
-            WebHooksPublisher.publish(webHook.getUrl(), event,
-                    Optional.fromNullable(webHook.getSecret()));
+            webhookDispatcher.dispatch(webHook, event);
         }
     }
 
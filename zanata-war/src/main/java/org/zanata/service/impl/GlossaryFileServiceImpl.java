@@ -28,6 +28,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.io.FilenameUtils;
@@ -35,6 +36,7 @@ import org.apache.commons.lang.StringUtils;
 
 import javax.annotation.Nullable;
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
@@ -44,6 +46,7 @@ import org.zanata.adapter.glossary.GlossaryCSVReader;
 import org.zanata.adapter.glossary.GlossaryPoReader;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.GlossaryDAO;
+import org.zanata.events.GlossaryChangedEvent;
 import org.zanata.exception.ZanataServiceException;
 import org.zanata.model.HAccount;
 import org.zanata.model.HGlossaryEntry;
@@ -81,6 +84,9 @@ public class GlossaryFileServiceImpl implements GlossaryFileService {
     @Inject @Authenticated
     private HAccount authenticatedAccount;
 
+    @Inject
+    private Event<GlossaryChangedEvent> glossaryChangedEvent;
+
     private final static int BATCH_SIZE = 50;
 
     private final static int MAX_LENGTH_CHAR = 255;
@@ -110,6 +116,7 @@ public class GlossaryFileServiceImpl implements GlossaryFileService {
         int counter = 0;
         List<HGlossaryEntry> entries = Lists.newArrayList();
         List<String> warnings = Lists.newArrayList();
+        Set<LocaleId> srcLocales = Sets.newHashSet();
         for (int i = 0; i < glossaryEntries.size(); i++) {
             GlossaryEntry entry = glossaryEntries.get(i);
 
@@ -133,11 +140,15 @@ public class GlossaryFileServiceImpl implements GlossaryFileService {
             HGlossaryEntry hGlossaryEntry = transferGlossaryEntryAndSave(
                     entry, onlyTransferTransTerm);
             entries.add(hGlossaryEntry);
+            srcLocales.add(entry.getSrcLang());
             counter++;
             if (isExecuteCommit(counter, i, glossaryEntries.size())) {
                 counter = 0;
             }
         }
+        for (LocaleId srcLocale : srcLocales) {
+            glossaryChangedEvent.fire(new GlossaryChangedEvent(srcLocale));
+        }
         return new GlossaryProcessed(entries, warnings);
     }
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.zanata.common.LocaleId;
+import org.zanata.dao.GlossaryDAO;
+import org.zanata.events.GlossaryChangedEvent;
+import org.zanata.search.GlossaryTermMatcher;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds a compiled {@link GlossaryTermMatcher} for each pair of source and
+ * target locale which has been looked up recently, so that finding the
+ * glossary terms in a trans unit doesn't need a query.
+ * <p>
+ * A matcher is rebuilt on the next lookup after a {@link GlossaryChangedEvent}
+ * for its source locale. Changes made on other cluster nodes don't fire events
+ * here, so matchers are also rebuilt once they are
+ * {@link #MAX_AGE_MINUTES} old.
+ */
+@Named("glossaryTermMatcherCache")
+@ApplicationScoped
+@Slf4j
+public class GlossaryTermMatcherCache {
+    private static final int MAX_LOCALE_PAIRS = 50;
+    private static final int MAX_AGE_MINUTES = 10;
+
+    @Inject
+    private GlossaryDAO glossaryDAO;
+
+    private final Cache<LocalePair, VersionedMatcher> matchers =
+            CacheBuilder.newBuilder().maximumSize(MAX_LOCALE_PAIRS)
+                    .expireAfterWrite(MAX_AGE_MINUTES, TimeUnit.MINUTES)
+                    .build();
+
+    // bumped by changes to entries of any source locale
+    private final AtomicLong allLocalesVersion = new AtomicLong();
+    private final ConcurrentMap<LocaleId, AtomicLong> localeVersions =
+            new ConcurrentHashMap<LocaleId, AtomicLong>();
+
+    /**
+     * Gets the matcher for glossary terms in srcLocale which have a
+     * translation in targetLocale, building it if necessary.
+     */
+    public GlossaryTermMatcher<TermPair> getMatcher(LocaleId srcLocale,
+            LocaleId targetLocale) {
+        LocalePair key = new LocalePair(srcLocale, targetLocale);
+        try {
+            VersionedMatcher matcher = matchers.get(key, () -> load(key));
+            if (matcher.getVersion() != version(srcLocale)) {
+                // built from data which changed since; only discard it if
+                // nobody else has replaced it already
+                matchers.asMap().remove(key, matcher);
+                matcher = matchers.get(key, () -> load(key));
+            }
+            return matcher.getMatcher();
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    public void glossaryChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            GlossaryChangedEvent event) {
+        LocaleId srcLocaleId = event.getSrcLocaleId();
+        if (srcLocaleId == null) {
+            allLocalesVersion.incrementAndGet();
+        } else {
+            localeVersion(srcLocaleId).incrementAndGet();
+        }
+    }
+
+    private VersionedMatcher load(LocalePair key) {
+        // read the version first, so that a change committed while the
+        // terms are being loaded makes this matcher stale
+        long version = version(key.getSrcLocale());
+        List<Object[]> pairs =
+                glossaryDAO.getTermPairs(key.getSrcLocale(),
+                        key.getTargetLocale());
+        GlossaryTermMatcher.Builder<TermPair> builder =
+                GlossaryTermMatcher.builder();
+        for (Object[] pair : pairs) {
+            String srcContent = (String) pair[1];
+            builder.add(srcContent, new TermPair((Long) pair[0], srcContent,
+                    (String) pair[2]));
+        }
+        GlossaryTermMatcher<TermPair> matcher = builder.build();
+        log.debug("built glossary matcher for {} with {} terms", key,
+                matcher.size());
+        return new VersionedMatcher(version, matcher);
+    }
+
+    private long version(LocaleId srcLocale) {
+        // both counters only increase, so the sum changes whenever either does
+        return allLocalesVersion.get() + localeVersion(srcLocale).get();
+    }
+
+    private AtomicLong localeVersion(LocaleId srcLocale) {
+        return localeVersions.computeIfAbsent(srcLocale,
+                locale -> new AtomicLong());
+    }
+
+    /**
+     * A glossary source term and its translation in the target locale.
+     */
+    @Value
+    public static class TermPair {
+        Long srcTermId;
+        String srcContent;
+        String targetContent;
+    }
+
+    @Value
+    private static class LocalePair {
+        LocaleId srcLocale;
+        LocaleId targetLocale;
+    }
+
+    @Value
+    private static class VersionedMatcher {
+        long version;
+        GlossaryTermMatcher<TermPair> matcher;
+    }
+}
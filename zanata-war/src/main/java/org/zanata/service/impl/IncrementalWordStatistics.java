@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.zanata.cache.CacheWrapper;
+import org.zanata.common.ContentState;
+import org.zanata.ui.model.statistic.WordStatistic;
+import org.zanata.util.SysProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies word count deltas (from {@link org.zanata.events.DocStatsEvent}) to
+ * cached {@link WordStatistic} entries instead of evicting them, so that the
+ * aggregate statistics query only runs on a cache miss.
+ * <p>
+ * Cached entries are never mutated: a copy with the deltas applied replaces
+ * the old value with an atomic compare-and-replace, retried if the entry has
+ * been changed meanwhile, so concurrent updates on any node aren't lost.
+ * Deltas are not applied to an entry loaded after their changes were made,
+ * since the load may already have seen them once they were committed; the
+ * entry is evicted instead. To limit any other drift, an entry is also
+ * evicted and hence recomputed after a number of incremental updates, or if
+ * applying a delta would make a count negative.
+ *
+ * @param <K>
+ *            cache key type
+ */
+@Slf4j
+class IncrementalWordStatistics<K> {
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final CacheWrapper<K, WordStatistic> cache;
+    private final int reconcileInterval;
+    private final Cache<K, AtomicInteger> updateCounts;
+
+    IncrementalWordStatistics(CacheWrapper<K, WordStatistic> cache) {
+        this(cache, SysProperties.getInt(
+                SysProperties.STATS_RECONCILE_INTERVAL, 200));
+    }
+
+    IncrementalWordStatistics(CacheWrapper<K, WordStatistic> cache,
+            int reconcileInterval) {
+        this.cache = cache;
+        this.reconcileInterval = reconcileInterval;
+        this.updateCounts =
+                CacheBuilder.newBuilder().maximumSize(100000)
+                        .expireAfterAccess(1, TimeUnit.HOURS).build();
+    }
+
+    /**
+     * Applies the word count deltas to the cached entry for key, if there is
+     * one. If there isn't, the next read will load the entry from the
+     * database.
+     *
+     * @param changedAt
+     *            when the changes were made, before their transaction
+     *            committed (see {@link WordStatistic#getLoadedAt()})
+     */
+    void applyDeltas(K key, Map<ContentState, Long> wordDeltasByState,
+            long changedAt) {
+        WordStatistic cached = cache.get(key);
+        if (cached == null) {
+            return;
+        }
+        if (isReconcileDue(key)) {
+            evict(key);
+            return;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (cached.getLoadedAt() > changedAt) {
+                log.debug("statistics for {} were loaded after the change;"
+                        + " evicting", key);
+                evict(key);
+                return;
+            }
+            WordStatistic updated = withDeltas(cached, wordDeltasByState);
+            if (updated == null) {
+                log.debug("statistics for {} have drifted; evicting", key);
+                evict(key);
+                return;
+            }
+            if (cache.replace(key, cached, updated)) {
+                return;
+            }
+            cached = cache.get(key);
+            if (cached == null) {
+                return;
+            }
+        }
+        log.debug("statistics for {} keep changing; evicting", key);
+        evict(key);
+    }
+
+    /**
+     * Removes the cached entry for key, so that it will be recomputed.
+     */
+    void evict(K key) {
+        cache.remove(key);
+        updateCounts.invalidate(key);
+    }
+
+    private boolean isReconcileDue(K key) {
+        AtomicInteger count = updateCounts.getIfPresent(key);
+        if (count == null) {
+            count = new AtomicInteger();
+            updateCounts.put(key, count);
+        }
+        return count.incrementAndGet() > reconcileInterval;
+    }
+
+    /**
+     * @return a copy of the statistic with the deltas applied, or null if a
+     *         count would become negative
+     */
+    private static WordStatistic withDeltas(WordStatistic from,
+            Map<ContentState, Long> wordDeltasByState) {
+        // NB get(Translated) excludes approved, unlike getTranslated()
+        WordStatistic updated =
+                new WordStatistic(from.get(ContentState.Approved),
+                        from.get(ContentState.NeedReview),
+                        from.get(ContentState.New),
+                        from.get(ContentState.Translated),
+                        from.get(ContentState.Rejected));
+        updated.setLoadedAt(from.getLoadedAt());
+        for (Map.Entry<ContentState, Long> entry : wordDeltasByState
+                .entrySet()) {
+            int newCount =
+                    updated.get(entry.getKey())
+                            + Math.toIntExact(entry.getValue());
+            if (newCount < 0) {
+                return null;
+            }
+            updated.set(entry.getKey(), newCount);
+        }
+        return updated;
+    }
+}
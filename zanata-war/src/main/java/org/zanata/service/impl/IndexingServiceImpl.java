@@ -37,13 +37,17 @@ import javax.inject.Named;
 import org.zanata.action.ReindexClassOptions;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskManager;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
+import org.zanata.config.ReindexConfig;
 import org.zanata.dao.HTextFlowTargetStreamingDAO;
 import org.zanata.model.HProject;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.search.AbstractIndexingStrategy;
 import org.zanata.search.ClassIndexer;
 import org.zanata.search.HTextFlowTargetIndexingStrategy;
+import org.zanata.search.ParallelClassIndexer;
 import org.zanata.search.SimpleClassIndexingStrategy;
 import org.zanata.service.IndexingService;
 import org.zanata.util.Zanata;
@@ -63,6 +67,12 @@ public class IndexingServiceImpl implements IndexingService {
     @Inject
     private HTextFlowTargetStreamingDAO hTextFlowTargetStreamingDAO;
 
+    @Inject
+    private AsyncTaskManager asyncTaskManager;
+
+    @Inject
+    private ReindexConfig reindexConfig;
+
     @Override
     @Async
     public Future<Void> startIndexing(
@@ -92,7 +102,11 @@ public class IndexingServiceImpl implements IndexingService {
                         && indexingOptions.get(clazz).isReindex()) {
                     log.info("reindexing {}", clazz);
                     // currentClass = clazz;
-                    getIndexer(clazz, handle).index(session);
+                    if (reindexConfig.getWorkers() > 1) {
+                        getParallelIndexer(clazz, handle).index();
+                    } else {
+                        getIndexer(clazz, handle).index(session);
+                    }
                 }
                 if (!handle.isCancelled()
                         && indexingOptions.get(clazz).isOptimize()) {
@@ -162,15 +176,29 @@ public class IndexingServiceImpl implements IndexingService {
 
     private <T> ClassIndexer<T> getIndexer(Class<T> clazz,
             AsyncTaskHandle handle) {
-        AbstractIndexingStrategy<T> strategy;
+        return new ClassIndexer<T>(handle, clazz, createStrategy(clazz));
+    }
+
+    /**
+     * Returns an indexer which splits the table by id range between several
+     * workers in the reindex lane, each with its own session.
+     */
+    private <T> ParallelClassIndexer<T> getParallelIndexer(Class<T> clazz,
+            AsyncTaskHandle handle) {
+        return new ParallelClassIndexer<T>(handle, clazz,
+                () -> createStrategy(clazz), this::openFullTextSession,
+                asyncTaskManager.laneExecutor(AsyncTaskType.REINDEX),
+                reindexConfig.getWorkers(), reindexConfig.getPartitionSize(),
+                reindexConfig.getBatchSize());
+    }
+
+    private static <T> AbstractIndexingStrategy<T> createStrategy(
+            Class<T> clazz) {
         // TODO add a strategy which uses TransMemoryStreamingDAO
         if (clazz.equals(HTextFlowTarget.class)) {
-            strategy =
-                    (AbstractIndexingStrategy<T>) new HTextFlowTargetIndexingStrategy();
-        } else {
-            strategy = new SimpleClassIndexingStrategy<T>(clazz);
+            return (AbstractIndexingStrategy<T>) new HTextFlowTargetIndexingStrategy();
         }
-        return new ClassIndexer<T>(handle, clazz, strategy);
+        return new SimpleClassIndexingStrategy<T>(clazz);
     }
 
     @Override
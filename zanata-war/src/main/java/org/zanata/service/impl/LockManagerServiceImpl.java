@@ -20,59 +20,333 @@
  */
 package org.zanata.service.impl;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
 import javax.inject.Named;
-import org.zanata.seam.security.ZanataJpaIdentityStore;
+import javax.servlet.ServletContext;
+
+import org.apache.deltaspike.core.api.lifecycle.Initialized;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.CacheContainer;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.zanata.config.LockConfig;
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
+import org.zanata.lock.LockLostException;
 import org.zanata.lock.LockNotAcquiredException;
 import org.zanata.model.HAccount;
 import org.zanata.security.annotations.AuthenticatedLiteral;
 import org.zanata.service.LockManagerService;
 import org.zanata.util.ServiceLocator;
+import org.zanata.util.Zanata;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Default implementation of the {@link LockManagerService} interface. Manages
  * locks at the application level.
+ * <p>
+ * On a single node the locks are kept in memory and never expire. When
+ * {@link LockConfig#CLUSTERED} is set they are kept in the shared Infinispan
+ * cache container instead, so that two nodes can't both accept a push of the
+ * same document. The container must define replicated or distributed caches
+ * named {@value #LEASE_CACHE_NAME} and {@value #FENCING_TOKEN_CACHE_NAME},
+ * without expiration or eviction; startup fails otherwise.
+ * <p>
+ * Shared locks are held as leases which expire, so that a node which dies
+ * can't keep its locks for ever. Each node renews the leases it holds (see
+ * {@code org.zanata.job.LockLeaseRenewalJob}), so a lease is only lost if its
+ * node stops renewing it for longer than {@link LockConfig#LEASE_SECONDS}.
+ * Lease expiry compares wall clock times, so the nodes' clocks are assumed to
+ * be roughly in sync.
  *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
  */
 @Named("lockManagerServiceImpl")
 @ApplicationScoped
+@Slf4j
 public class LockManagerServiceImpl implements LockManagerService {
+    private static final String BASE = LockManagerServiceImpl.class.getName();
+    public static final String LEASE_CACHE_NAME = BASE + ".leaseCache";
+    public static final String FENCING_TOKEN_CACHE_NAME =
+            BASE + ".fencingTokenCache";
+    private static final String FENCING_TOKEN_KEY = "fencingToken";
+    // how often tryAttain checks a lock which may be released by another node
+    private static final long MAX_POLL_MILLIS = 100;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    @Inject
+    @Zanata
+    private Instance<CacheContainer> cacheContainer;
+
+    @Inject
+    private LockConfig lockConfig;
+
+    /**
+     * Maps locks to their owners' leases
+     */
+    private ConcurrentMap<Lock, LockLease> leases;
+    private ConcurrentMap<String, Long> fencingTokens;
     /**
-     * Maps locks to their owners' usernames
+     * How long a lease lasts without being renewed, or {@link #NEVER} if
+     * leases don't expire.
      */
-    private final ConcurrentMap<Lock, String> locks =
-            new ConcurrentHashMap<Lock, String>();
+    private long leaseMillis;
+
+    /**
+     * Leases attained on this node and not yet released, which this node
+     * must keep renewing.
+     */
+    private final ConcurrentMap<Lock, LockLease> heldLeases =
+            new ConcurrentHashMap<>();
+    private final Object releaseMonitor = new Object();
+
+    public LockManagerServiceImpl() {
+    }
+
+    @VisibleForTesting
+    LockManagerServiceImpl(CacheContainer cacheContainer, long leaseMillis) {
+        this.leases = cacheContainer.getCache(LEASE_CACHE_NAME);
+        this.fencingTokens = cacheContainer.getCache(FENCING_TOKEN_CACHE_NAME);
+        this.leaseMillis = leaseMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (lockConfig.isClustered()) {
+            log.info("keeping locks in the shared caches {} and {}",
+                    LEASE_CACHE_NAME, FENCING_TOKEN_CACHE_NAME);
+            leases = getSharedCache(cacheContainer.get(), LEASE_CACHE_NAME);
+            fencingTokens =
+                    getSharedCache(cacheContainer.get(),
+                            FENCING_TOKEN_CACHE_NAME);
+            leaseMillis = lockConfig.getLeaseMillis();
+        } else {
+            leases = new ConcurrentHashMap<>();
+            fencingTokens = new ConcurrentHashMap<>();
+            leaseMillis = NEVER;
+        }
+    }
+
+    /**
+     * Creates this service when the application starts, so that a missing
+     * shared lease cache fails the deployment rather than the first push.
+     */
+    void onStartup(@Observes @Initialized ServletContext context) {
+        log.debug("lock manager started with {} leases", leases.size());
+    }
+
+    /**
+     * Returns a cache which is shared between all nodes and never drops
+     * entries of its own accord.
+     *
+     * @throws IllegalStateException
+     *             if the cache is not configured that way
+     */
+    @VisibleForTesting
+    static <K, V> Cache<K, V> getSharedCache(CacheContainer container,
+            String name) {
+        if (!(container instanceof EmbeddedCacheManager)
+                || !((EmbeddedCacheManager) container).getCacheNames()
+                        .contains(name)) {
+            throw new IllegalStateException("cache " + name
+                    + " must be defined in the zanata cache container when "
+                    + LockConfig.CLUSTERED + " is set");
+        }
+        Cache<K, V> cache = container.getCache(name);
+        Configuration config = cache.getCacheConfiguration();
+        if (!config.clustering().cacheMode().isClustered()) {
+            throw new IllegalStateException("cache " + name
+                    + " must be a replicated or distributed cache");
+        }
+        if (config.expiration().lifespan() >= 0
+                || config.expiration().maxIdle() >= 0) {
+            throw new IllegalStateException("cache " + name
+                    + " must not expire its entries");
+        }
+        if (config.eviction().strategy() != EvictionStrategy.NONE
+                && config.eviction().maxEntries() > 0) {
+            throw new IllegalStateException("cache " + name
+                    + " must not evict its entries");
+        }
+        return cache;
+    }
 
     @Override
-    public boolean checkAndAttain(Lock lock) {
-        return attainLockOrReturnOwner(lock) == null;
+    public Optional<LockLease> checkAndAttain(Lock lock) {
+        Attempt attempt = attempt(lock, getCurrentUser());
+        return attempt.attained ? Optional.of(attempt.lease) : Optional
+                .<LockLease> absent();
     }
 
     @Override
-    public void attain(Lock l) throws LockNotAcquiredException {
-        String owner = attainLockOrReturnOwner(l);
-        if (owner != null) {
-            throw new LockNotAcquiredException(l, "Already locked by user: "
-                    + owner);
+    public LockLease attain(Lock l) throws LockNotAcquiredException {
+        Attempt attempt = attempt(l, getCurrentUser());
+        if (!attempt.attained) {
+            String owner = attempt.lease.getOwner();
+            throw new LockNotAcquiredException(l, owner,
+                    "Already locked by user: " + owner);
         }
+        return attempt.lease;
     }
 
     @Override
-    public String attainLockOrReturnOwner(Lock lock) {
+    public Optional<LockLease> tryAttain(Lock lock, long timeout,
+            TimeUnit unit) {
         String newLocker = getCurrentUser();
-        String previousLocker = locks.putIfAbsent(lock, newLocker);
-        return previousLocker;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Attempt attempt = attempt(lock, newLocker);
+            if (attempt.attained) {
+                return Optional.of(attempt.lease);
+            }
+            long remainingMillis =
+                    TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return Optional.absent();
+            }
+            long untilExpiry =
+                    Math.max(1, attempt.lease.getExpiresAt() - now());
+            long waitMillis =
+                    Math.min(remainingMillis,
+                            Math.min(MAX_POLL_MILLIS, untilExpiry));
+            // releases on this node wake us up straight away; releases on
+            // other nodes are picked up by the next poll
+            synchronized (releaseMonitor) {
+                try {
+                    releaseMonitor.wait(waitMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return Optional.absent();
+                }
+            }
+        }
     }
 
     @Override
-    public void release(Lock l) {
-        locks.remove(l);
+    public boolean isHeld(Lock lock, LockLease lease) {
+        LockLease current = leases.get(lock);
+        return current != null && current.isSameLease(lease)
+                && !current.isExpiredAt(now());
+    }
+
+    @Override
+    public void release(Lock l, LockLease lease) throws LockLostException {
+        // stop renewing the lease first
+        heldLeases.computeIfPresent(l,
+                (lock, held) -> held.isSameLease(lease) ? null : held);
+        try {
+            while (true) {
+                LockLease current = leases.get(l);
+                if (current == null || !current.isSameLease(lease)) {
+                    throw new LockLostException(l, lease);
+                }
+                // the lease may have been renewed in the meantime
+                if (leases.remove(l, current)) {
+                    return;
+                }
+            }
+        } finally {
+            synchronized (releaseMonitor) {
+                releaseMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Extends every unexpired lease held by this node. A lease which has
+     * already been taken over is dropped, and its holder will find out when
+     * it checks or releases the lock.
+     */
+    public void renewLeases() {
+        if (leaseMillis == NEVER) {
+            return;
+        }
+        for (Map.Entry<Lock, LockLease> held : heldLeases.entrySet()) {
+            Lock lock = held.getKey();
+            LockLease lease = held.getValue();
+            LockLease current = leases.get(lock);
+            if (current == null || !current.isSameLease(lease)
+                    || current.isExpiredAt(now())) {
+                log.error("lease {} of lock {} was lost before renewal",
+                        lease, lock);
+                heldLeases.remove(lock, lease);
+                continue;
+            }
+            LockLease renewed = current.renewedUntil(expiry());
+            if (leases.replace(lock, current, renewed)) {
+                heldLeases.replace(lock, lease, renewed);
+            }
+            // otherwise it was released or taken over in the meantime, which
+            // the next renewal will find out
+        }
+    }
+
+    /**
+     * Tries once to attain the lock, taking over an expired lease if need be.
+     *
+     * @return the new lease if attained, otherwise the current holder's lease
+     */
+    private Attempt attempt(Lock lock, String owner) {
+        while (true) {
+            LockLease current = leases.get(lock);
+            if (current != null && !current.isExpiredAt(now())) {
+                return new Attempt(current, false);
+            }
+            LockLease lease =
+                    new LockLease(owner, nextFencingToken(), expiry());
+            boolean attained =
+                    current == null ? leases.putIfAbsent(lock, lease) == null
+                            : leases.replace(lock, current, lease);
+            if (attained) {
+                if (current != null) {
+                    log.warn("lock {} taken over from expired lease {}", lock,
+                            current);
+                }
+                heldLeases.put(lock, lease);
+                return new Attempt(lease, true);
+            }
+            // someone else changed the lease in the meantime; look again
+        }
+    }
+
+    private long nextFencingToken() {
+        while (true) {
+            Long current = fencingTokens.get(FENCING_TOKEN_KEY);
+            if (current == null) {
+                // start from the clock rather than 1, so that tokens keep
+                // increasing even if the counter itself was lost
+                long first = now();
+                if (fencingTokens.putIfAbsent(FENCING_TOKEN_KEY, first) == null) {
+                    return first;
+                }
+            } else if (fencingTokens.replace(FENCING_TOKEN_KEY, current,
+                    current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private long expiry() {
+        return leaseMillis == NEVER ? NEVER : now() + leaseMillis;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
     }
 
     private String getCurrentUser() {
@@ -83,4 +357,9 @@ public class LockManagerServiceImpl implements LockManagerService {
         return newLocker;
     }
 
+    @AllArgsConstructor
+    private static class Attempt {
+        private final LockLease lease;
+        private final boolean attained;
+    }
 }
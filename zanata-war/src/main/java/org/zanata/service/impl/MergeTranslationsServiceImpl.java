@@ -38,6 +38,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.handle.MergeTranslationsTaskHandle;
 import org.zanata.common.ContentState;
 import org.zanata.dao.ProjectIterationDAO;
@@ -117,7 +118,7 @@ public class MergeTranslationsServiceImpl implements MergeTranslationsService {
     private final static int TEXTFLOWS_PER_BATCH = 20;
 
     @Override
-    @Async
+    @Async(AsyncTaskType.MERGE)
     public Future<Void> startMergeTranslations(String sourceProjectSlug,
             String sourceVersionSlug, String targetProjectSlug,
             String targetVersionSlug, boolean useNewerTranslation,
@@ -280,7 +281,7 @@ public class MergeTranslationsServiceImpl implements MergeTranslationsService {
 
                     eventMap.put(key, new TextFlowTargetStateEvent.TextFlowTargetStateChange(targetTf.getId(),
                             updatedTarget.getId(), updatedTarget.getState(),
-                            entry.getValue()));
+                            entry.getValue(), targetTf.getWordCount()));
 
                     lastUpdatedTargetId.put(key, updatedTarget.getId());
 
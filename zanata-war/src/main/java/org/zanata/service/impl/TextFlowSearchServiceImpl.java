@@ -57,7 +57,6 @@ import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
-import org.zanata.model.HTextFlowTarget;
 import org.zanata.search.FilterConstraintToQuery;
 import org.zanata.search.FilterConstraints;
 import org.zanata.service.LocaleService;
@@ -186,63 +185,13 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
         org.hibernate.Query query = session.createQuery(hql);
         toQuery.setQueryParameters(query, hLocale);
         query.setComment("TextFlowSearchServiceImpl.findTextFlowsWithDatabaseSearch");
+        // case sensitive searches are matched by the query too (see
+        // HqlCriterion.likeCaseSensitive), so only the hits are loaded
         @SuppressWarnings("unchecked")
         List<HTextFlow> result = query.list();
-        if (constraints.isCaseSensitive()) {
-            // Query results are post-filtered because the content table uses
-            // case-insensitive collation
-            // so results will always be case-insensitive at this point.
-            // This can be removed if the table or query can be updated to
-            // specify a case-sensitive
-            // collation.
-            result = filterCaseSensitive(result, constraints, hLocale.getId());
-        }
         return result;
     }
 
-    /**
-     * Filter a list of text flows to include only those that have a case
-     * sensitive match of the search string in the contents of interest.
-     *
-     * @param results
-     *            the list to filter
-     * @param constraints
-     *            describing search term and whether to match in source, target
-     *            or both
-     * @param localeId
-     *            used to look up targets if target content is checked
-     * @return filtered list
-     */
-    private List<HTextFlow> filterCaseSensitive(List<HTextFlow> results,
-            FilterConstraints constraints, Long localeId) {
-        List<HTextFlow> matchingTextFlows = new ArrayList<HTextFlow>();
-        String search = constraints.getSearchString();
-
-        scanning_text_flows: for (HTextFlow tf : results) {
-            if (constraints.isSearchInSource()) {
-                for (String content : tf.getContents()) {
-                    if (content.contains(search)) {
-                        matchingTextFlows.add(tf);
-                        continue scanning_text_flows;
-                    }
-                }
-            }
-            if (constraints.isSearchInTarget()) {
-                HTextFlowTarget tft = tf.getTargets().get(localeId);
-                if (tft != null) {
-                    for (String content : tft.getContents()) {
-                        if (content.contains(search)) {
-                            matchingTextFlows.add(tf);
-                            continue scanning_text_flows;
-                        }
-                    }
-                }
-            }
-        }
-
-        return matchingTextFlows;
-    }
-
     @Override
     public List<HTextFlow> findTextFlows(WorkspaceId workspace, DocumentId doc,
             FilterConstraints constraints) {
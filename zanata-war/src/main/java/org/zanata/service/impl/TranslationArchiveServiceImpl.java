@@ -21,17 +21,23 @@
 package org.zanata.service.impl;
 
 import com.google.common.base.Optional;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.adapter.po.PoWriter2;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskManager;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.common.LocaleId;
 import org.zanata.common.ProjectType;
+import org.zanata.config.AsyncConfig;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.ProjectIterationDAO;
@@ -47,12 +53,21 @@ import org.zanata.service.ConfigurationService;
 import org.zanata.service.FileSystemService;
 import org.zanata.service.TranslationArchiveService;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -89,6 +104,15 @@ public class TranslationArchiveServiceImpl implements
     @Inject
     private ConfigurationService configurationServiceImpl;
 
+    @Inject
+    private TranslationFileCache translationFileCache;
+
+    @Inject
+    private AsyncTaskManager asyncTaskManager;
+
+    @Inject
+    private AsyncConfig asyncConfig;
+
     @Override
     public String buildTranslationFileArchive(String projectSlug,
             String iterationSlug, String localeId, String userName,
@@ -113,68 +137,125 @@ public class TranslationArchiveServiceImpl implements
         final FileOutputStream output = new FileOutputStream(downloadFile);
         final ZipOutputStream zipOutput = new ZipOutputStream(output);
         zipOutput.setMethod(ZipOutputStream.DEFLATED);
-        final PoWriter2 poWriter = new PoWriter2(false, !isPoProject);
         final Set<String> extensions = new HashSet<String>();
 
         extensions.add("gettext");
         extensions.add("comment");
 
-        // Generate the download descriptor file
-        String downloadId =
-                fileSystemServiceImpl.createDownloadDescriptorFile(downloadFile,
-                        projectSlug + "_" + iterationSlug + "_" + localeId
-                                + ".zip", userName);
-
-        // Add the config file at the root of the project directory
-        String configFilename =
-                projectDirectory
-                        + configurationServiceImpl.getConfigurationFileName();
-        zipOutput.putNextEntry(new ZipEntry(configFilename));
-        zipOutput.write(configurationServiceImpl.getConfigForOfflineTranslation(
-                projectSlug, iterationSlug, hLocale).getBytes());
-        zipOutput.closeEntry();
-        handle.increaseProgress(1);
+        // files rendering (or rendered) but not yet written, in archive order
+        final Deque<PendingFile> pendingFiles = new ArrayDeque<>();
+        String downloadId = null;
+        boolean complete = false;
+        try {
+            // Generate the download descriptor file
+            downloadId =
+                    fileSystemServiceImpl.createDownloadDescriptorFile(
+                            downloadFile, projectSlug + "_" + iterationSlug
+                                    + "_" + localeId + ".zip", userName);
 
-        final List<HDocument> allIterationDocs =
-                documentDAO
-                        .getAllByProjectIteration(projectSlug, iterationSlug);
-        for (HDocument document : allIterationDocs) {
-            // Stop the process if signaled to do so
-            if (handleOpt.isPresent() && handleOpt.get().isCancelled()) {
-                zipOutput.close();
-                downloadFile.delete();
-                fileSystemServiceImpl.deleteDownloadDescriptorFile(downloadId);
-                return null;
+            // Add the config file at the root of the project directory
+            String configFilename =
+                    projectDirectory
+                            + configurationServiceImpl
+                                    .getConfigurationFileName();
+            zipOutput.putNextEntry(new ZipEntry(configFilename));
+            zipOutput.write(configurationServiceImpl
+                    .getConfigForOfflineTranslation(projectSlug,
+                            iterationSlug, hLocale).getBytes());
+            zipOutput.closeEntry();
+            if (handleOpt.isPresent()) {
+                handleOpt.get().increaseProgress(1);
             }
 
-            TranslationsResource translationResource =
-                    new TranslationsResource();
-            List<HTextFlowTarget> hTargets =
-                    textFlowTargetDAO.findTranslations(document, hLocale);
-            resourceUtils.transferToTranslationsResource(translationResource,
-                    document, hLocale, extensions, hTargets,
-                    Optional.<String> absent());
+            final List<HDocument> allIterationDocs =
+                    documentDAO.getAllByProjectIteration(projectSlug,
+                            iterationSlug);
+            final Map<Long, Long> translationRevisions =
+                    documentDAO.getTranslationRevisions(projectSlug,
+                            iterationSlug, hLocale);
+            final Executor renderExecutor =
+                    asyncTaskManager.laneExecutor(AsyncTaskType.FILE_RENDER);
+            final int maxPendingFiles =
+                    asyncConfig.getLaneThreads(AsyncTaskType.FILE_RENDER) * 2;
 
-            Resource res = resourceUtils.buildResource(document);
+            for (HDocument document : allIterationDocs) {
+                // Stop the process if signaled to do so
+                if (handleOpt.isPresent() && handleOpt.get().isCancelled()) {
+                    return null;
+                }
 
-            String filename = localeDirectory + document.getDocId() + ".po";
-            zipOutput.putNextEntry(new ZipEntry(filename));
-            poWriter.writePo(zipOutput, "UTF-8", res, translationResource);
-            zipOutput.closeEntry();
+                String filename =
+                        localeDirectory + document.getDocId() + ".po";
+                TranslationFileCache.Key key =
+                        new TranslationFileCache.Key(document.getId(),
+                                mappedLocale, isPoProject);
+                TranslationFileCache.Stamp stamp =
+                        createStamp(document,
+                                translationRevisions.get(document.getId()));
+                Optional<byte[]> cached = translationFileCache.get(key, stamp);
+                FutureTask<byte[]> contents;
+                if (cached.isPresent()) {
+                    contents = new FutureTask<>(cached::get);
+                    contents.run();
+                } else {
+                    // entities must be read in this thread, so render from
+                    // DTOs
+                    TranslationsResource translationResource =
+                            new TranslationsResource();
+                    List<HTextFlowTarget> hTargets =
+                            textFlowTargetDAO.findTranslations(document,
+                                    hLocale);
+                    resourceUtils.transferToTranslationsResource(
+                            translationResource, document, hLocale,
+                            extensions, hTargets, Optional.<String> absent());
+                    Resource res = resourceUtils.buildResource(document);
+                    contents = new FutureTask<>(() -> {
+                        byte[] bytes = renderPo(isPoProject, res,
+                                translationResource);
+                        translationFileCache.put(key, stamp, bytes);
+                        return bytes;
+                    });
+                    try {
+                        renderExecutor.execute(contents);
+                    } catch (RejectedExecutionException e) {
+                        log.debug("file render lane is full; rendering {} in "
+                                + "the calling thread", filename);
+                        contents.run();
+                    }
+                }
+                pendingFiles.add(new PendingFile(filename, contents));
 
-            if (handleOpt.isPresent()) {
-                handleOpt.get().increaseProgress(1);
+                while (pendingFiles.size() >= maxPendingFiles
+                        || (!pendingFiles.isEmpty() && pendingFiles.peek()
+                                .getContents().isDone())) {
+                    writeFile(zipOutput, pendingFiles.remove(), handleOpt);
+                }
+            }
+            while (!pendingFiles.isEmpty()) {
+                writeFile(zipOutput, pendingFiles.remove(), handleOpt);
             }
-        }
 
-        zipOutput.flush();
-        zipOutput.close();
+            zipOutput.flush();
+            complete = true;
+        } finally {
+            // a cancelled or failed archive must not leave renders running,
+            // or a partial file to be downloaded
+            cancelRendering(pendingFiles);
+            zipOutput.close();
+            if (!complete) {
+                downloadFile.delete();
+                if (downloadId != null) {
+                    fileSystemServiceImpl
+                            .deleteDownloadDescriptorFile(downloadId);
+                }
+            }
+        }
 
         return downloadId;
     }
 
     @Override
-    @Async
+    @Async(AsyncTaskType.FILE_GENERATION)
     public Future<String> startBuildingTranslationFileArchive(String projectSlug,
             String iterationSlug, String localeId, String userName,
             AsyncTaskHandle<String> handle) throws Exception {
@@ -195,6 +276,50 @@ public class TranslationArchiveServiceImpl implements
         // file
     }
 
+    private static TranslationFileCache.Stamp createStamp(HDocument document,
+            @Nullable Long translationRevision) {
+        return new TranslationFileCache.Stamp(document.getRevision(),
+                document.getLastChanged().getTime(),
+                translationRevision == null ? 0 : translationRevision);
+    }
+
+    private static byte[] renderPo(boolean isPoProject, Resource res,
+            TranslationsResource translationResource) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PoWriter2 poWriter = new PoWriter2(false, !isPoProject);
+        poWriter.writePo(output, "UTF-8", res, translationResource);
+        return output.toByteArray();
+    }
+
+    private static void writeFile(ZipOutputStream zipOutput,
+            PendingFile file, Optional<AsyncTaskHandle<String>> handleOpt)
+            throws IOException, InterruptedException, ExecutionException {
+        byte[] contents = file.getContents().get();
+        zipOutput.putNextEntry(new ZipEntry(file.getFilename()));
+        zipOutput.write(contents);
+        zipOutput.closeEntry();
+
+        if (handleOpt.isPresent()) {
+            handleOpt.get().increaseProgress(1);
+        }
+    }
+
+    private static void cancelRendering(Deque<PendingFile> pendingFiles) {
+        for (PendingFile file : pendingFiles) {
+            file.getContents().cancel(false);
+        }
+        pendingFiles.clear();
+    }
+
+    /**
+     * An archive entry whose contents may still be rendering.
+     */
+    @Value
+    private static class PendingFile {
+        String filename;
+        Future<byte[]> contents;
+    }
+
     private boolean isPoProject(String projectSlug, String versionSlug) {
         HProjectIteration projectIteration =
                 projectIterationDAO.getBySlug(projectSlug, versionSlug);
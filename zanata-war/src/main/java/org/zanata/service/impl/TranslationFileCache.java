@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.zanata.config.DownloadConfig;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps recently rendered translation files of documents, for
+ * {@link TranslationArchiveServiceImpl}. Each file is stored with a
+ * {@link Stamp} of the document and its translations when it was rendered,
+ * and is only returned while the stamp still matches, so a changed document
+ * is always rendered again.
+ * <p>
+ * The cache is bounded by the total size of the files (see
+ * {@link DownloadConfig#FILE_CACHE_SIZE}).
+ */
+@Named("translationFileCache")
+@ApplicationScoped
+@Slf4j
+public class TranslationFileCache {
+    @Inject
+    private DownloadConfig downloadConfig;
+
+    private Cache<Key, CachedFile> files;
+
+    public TranslationFileCache() {
+    }
+
+    TranslationFileCache(long maxBytes) {
+        files = buildCache(maxBytes);
+    }
+
+    @PostConstruct
+    void init() {
+        long maxBytes = downloadConfig.getFileCacheSizeMB() * 1024L * 1024L;
+        log.info("translation file cache size: {} bytes", maxBytes);
+        files = buildCache(maxBytes);
+    }
+
+    private static Cache<Key, CachedFile> buildCache(long maxBytes) {
+        return CacheBuilder.newBuilder().maximumWeight(maxBytes)
+                .<Key, CachedFile> weigher(
+                        (key, file) -> file.getContents().length)
+                .build();
+    }
+
+    /**
+     * @return the file rendered for key, if it was rendered from the same
+     *         state of the document and its translations
+     */
+    public Optional<byte[]> get(Key key, Stamp stamp) {
+        CachedFile file = files.getIfPresent(key);
+        if (file == null || !file.getStamp().equals(stamp)) {
+            return Optional.absent();
+        }
+        return Optional.of(file.getContents());
+    }
+
+    /**
+     * Stores a rendered file. The contents must not be modified afterwards.
+     */
+    public void put(Key key, Stamp stamp, byte[] contents) {
+        files.put(key, new CachedFile(stamp, contents));
+    }
+
+    /**
+     * Identifies a rendered file: one document in one locale, in one of the
+     * output variants.
+     */
+    @Value
+    public static class Key {
+        Long documentId;
+        String localeId;
+        boolean poProject;
+    }
+
+    /**
+     * The state of a document and its translations in one locale. Any change
+     * to the source changes the document revision or time, and any change to
+     * the translations (including their PO headers) changes the translation
+     * revision kept in {@link org.zanata.model.HDocumentLocaleState}. The time
+     * is in milliseconds, since entities may hold it as different Date
+     * subclasses.
+     */
+    @Value
+    public static class Stamp {
+        int documentRevision;
+        long documentLastChanged;
+        long translationRevision;
+    }
+
+    @Value
+    private static class CachedFile {
+        Stamp stamp;
+        byte[] contents;
+    }
+}
@@ -49,6 +49,8 @@ import javax.inject.Named;
 import org.zanata.common.ContentState;
 import org.zanata.common.EntityStatus;
 import org.zanata.common.LocaleId;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.dao.TransMemoryUnitDAO;
 import org.zanata.hibernate.search.IndexFieldLabels;
 import org.zanata.hibernate.search.TextContainerAnalyzerDiscriminator;
 import org.zanata.jpa.FullText;
@@ -125,9 +127,18 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     private static final double MINIMUM_SIMILARITY = 1.0;
 
+    // relevance score reported for matches found without Lucene
+    private static final float EXACT_MATCH_SCORE = 1.0f;
+
     @Inject @FullText
     private FullTextEntityManager entityManager;
 
+    @Inject
+    private TextFlowTargetDAO textFlowTargetDAO;
+
+    @Inject
+    private TransMemoryUnitDAO transMemoryUnitDAO;
+
     private static final Version LUCENE_VERSION = Version.LUCENE_29;
 
     // sort desc by lastChanged of HTextFlowTarget
@@ -170,8 +181,9 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
     }
 
     /**
-     * This is used by CopyTrans, with ContentHash search in lucene. Returns
-     * first entry of the matches which sort by HTextFlowTarget.lastChanged DESC
+     * This is used by CopyTrans. Exact matches are found through the content
+     * hash index in the database rather than through Lucene; see
+     * {@link TextFlowTargetDAO#searchBestMatchTransMemory}.
      *
      * @param textFlow
      * @param targetLocaleId
@@ -185,20 +197,9 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
             final HTextFlow textFlow, LocaleId targetLocaleId,
             LocaleId sourceLocaleId, boolean checkContext,
             boolean checkDocument, boolean checkProject) {
-
-        TransMemoryQuery query =
-                buildTMQuery(textFlow, HasSearchType.SearchType.CONTENT_HASH,
-                        checkContext, checkDocument, checkProject, false);
-
-        Collection<Object[]> matches =
-                findMatchingTranslation(targetLocaleId, sourceLocaleId, query,
-                        0, Optional.<Long>absent(), HTextFlowTarget.class);
-
-        if (matches.isEmpty()) {
-            return Optional.<HTextFlowTarget> absent();
-        }
-
-        return Optional.of((HTextFlowTarget) matches.iterator().next()[1]);
+        return textFlowTargetDAO.searchBestMatchTransMemory(textFlow,
+                targetLocaleId, sourceLocaleId, checkContext, checkDocument,
+                checkProject);
     }
 
     /**
@@ -222,9 +223,24 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         TransMemoryQuery query =
                 buildTMQuery(textFlow, HasSearchType.SearchType.FUZZY_PLURAL,
                         checkContext, checkDocument, checkProject, true);
-
-        List<TransMemoryResultItem> tmResults =
-                searchTransMemory(targetLocaleId, sourceLocaleId, query);
+        double minimumSimilarity =
+                Math.max(thresholdPercent, MINIMUM_SIMILARITY);
+
+        // 100% matches always rank first, so only run the fuzzy search if
+        // there aren't any
+        Collection<Object[]> exactMatches =
+                findExactMatches(textFlow, targetLocaleId, sourceLocaleId,
+                        checkContext, checkDocument, checkProject);
+        List<TransMemoryResultItem> tmResults;
+        if (!exactMatches.isEmpty()) {
+            tmResults =
+                    collateMatches(query, exactMatches, sourceLocaleId,
+                            targetLocaleId, minimumSimilarity);
+        } else {
+            tmResults =
+                    searchTransMemory(targetLocaleId, sourceLocaleId, query,
+                            minimumSimilarity);
+        }
 
         // findTMAboveThreshold
         Collection<TransMemoryResultItem> aboveThreshold =
@@ -242,6 +258,18 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
     public List<TransMemoryResultItem> searchTransMemory(
             LocaleId targetLocaleId, LocaleId sourceLocaleId,
             TransMemoryQuery transMemoryQuery) {
+        return searchTransMemory(targetLocaleId, sourceLocaleId,
+                transMemoryQuery, MINIMUM_SIMILARITY);
+    }
+
+    /**
+     * @param minimumSimilarity
+     *            matches less similar than this percentage are dropped
+     *            without working out their exact similarity
+     */
+    private List<TransMemoryResultItem> searchTransMemory(
+            LocaleId targetLocaleId, LocaleId sourceLocaleId,
+            TransMemoryQuery transMemoryQuery, double minimumSimilarity) {
         // NB: If we want to, we could pass the TFT id from the editor
         // via GWT-RPC(TransMemoryQuery), allowing Lucene to rank results
         // by metadata too.
@@ -251,12 +279,27 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                         transMemoryQuery, SEARCH_MAX_RESULTS,
                         textFlowTargetId,
                         HTextFlowTarget.class, TransMemoryUnit.class);
+        return collateMatches(transMemoryQuery, matches, sourceLocaleId,
+                targetLocaleId, minimumSimilarity);
+    }
 
+    /**
+     * Merges matches with the same source and target contents into result
+     * items, best first.
+     *
+     * @param matches
+     *            rows of [Float score, entity] as returned by
+     *            {@link #findMatchingTranslation}
+     */
+    private List<TransMemoryResultItem> collateMatches(
+            TransMemoryQuery transMemoryQuery, Collection<Object[]> matches,
+            LocaleId sourceLocaleId, LocaleId targetLocaleId,
+            double minimumSimilarity) {
         Map<TMKey, TransMemoryResultItem> matchesMap =
                 new LinkedHashMap<TMKey, TransMemoryResultItem>(matches.size());
         for (Object[] match : matches) {
             processIndexMatch(transMemoryQuery, matchesMap, match,
-                    sourceLocaleId, targetLocaleId);
+                    sourceLocaleId, targetLocaleId, minimumSimilarity);
         }
         List<TransMemoryResultItem> results =
                 Lists.newArrayList(matchesMap.values());
@@ -264,6 +307,35 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         return results;
     }
 
+    /**
+     * Looks up 100% matches for textFlow with the database's content hash
+     * indexes, and returns them in the same form as
+     * {@link #findMatchingTranslation}. Imported TM units are only looked up
+     * if there are no matching translations, because they would rank below
+     * them anyway. As in the Lucene query, the context, document and project
+     * conditions only apply to translations.
+     */
+    private Collection<Object[]> findExactMatches(HTextFlow textFlow,
+            LocaleId targetLocaleId, LocaleId sourceLocaleId,
+            boolean checkContext, boolean checkDocument, boolean checkProject) {
+        List<Object[]> matches = Lists.newArrayList();
+        for (HTextFlowTarget target : textFlowTargetDAO.findExactMatches(
+                textFlow, targetLocaleId, checkContext, checkDocument,
+                checkProject, SEARCH_MAX_RESULTS)) {
+            matches.add(new Object[] { EXACT_MATCH_SCORE, target });
+        }
+        // a TM unit has a single source segment, so it can't be a 100% match
+        // for a plural text flow
+        if (matches.isEmpty() && textFlow.getContents().size() == 1) {
+            for (TransMemoryUnit unit : transMemoryUnitDAO.findExactMatches(
+                    textFlow.getContentHash(), sourceLocaleId, targetLocaleId,
+                    SEARCH_MAX_RESULTS)) {
+                matches.add(new Object[] { EXACT_MATCH_SCORE, unit });
+            }
+        }
+        return matches;
+    }
+
     @Override
     public List<Suggestion> searchTransMemoryWithDetails(
             LocaleId targetLocaleId, LocaleId sourceLocaleId,
@@ -349,7 +421,8 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     private void processIndexMatch(TransMemoryQuery transMemoryQuery,
             Map<TMKey, TransMemoryResultItem> matchesMap, Object[] match,
-            LocaleId sourceLocaleId, LocaleId targetLocaleId) {
+            LocaleId sourceLocaleId, LocaleId targetLocaleId,
+            double minimumSimilarity) {
         Object entity = match[1];
         if (entity instanceof HTextFlowTarget) {
             HTextFlowTarget textFlowTarget = (HTextFlowTarget) entity;
@@ -364,10 +437,10 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
             double percent =
                 calculateSimilarityPercentage(transMemoryQuery,
-                    textFlowContents);
-            if (percent < MINIMUM_SIMILARITY) {
-                log.info("Ignoring TM - {} with less than {}% matching.",
-                    textFlowContents, MINIMUM_SIMILARITY);
+                    textFlowContents, minimumSimilarity);
+            if (percent < minimumSimilarity) {
+                log.debug("Ignoring TM - {} with less than {}% matching.",
+                    textFlowContents, minimumSimilarity);
                 return;
             }
             TransMemoryResultItem item = createOrGetResultItem(
@@ -383,10 +456,11 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                     Lists.newArrayList(transUnit.getTransUnitVariants()
                             .get(targetLocaleId.getId()).getPlainTextSegment());
             double percent =
-                calculateSimilarityPercentage(transMemoryQuery, sourceContents);
-            if (percent < MINIMUM_SIMILARITY) {
-                log.info("Ignoring TM - {} with less than {}% matching.",
-                        sourceContents, MINIMUM_SIMILARITY);
+                calculateSimilarityPercentage(transMemoryQuery, sourceContents,
+                        minimumSimilarity);
+            if (percent < minimumSimilarity) {
+                log.debug("Ignoring TM - {} with less than {}% matching.",
+                        sourceContents, minimumSimilarity);
                 return;
             }
             TransMemoryResultItem item =
@@ -399,31 +473,43 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     private static double calculateSimilarityPercentage(TransMemoryQuery query,
             List<String> sourceContents) {
+        return calculateSimilarityPercentage(query, sourceContents, 0);
+    }
+
+    /**
+     * Calculates the similarity of the query to the given source contents.
+     * Since the result will be discarded if it is below minimumPercent, the
+     * Levenshtein calculations are allowed to give up (returning 0) as soon as
+     * they know they can't reach it.
+     */
+    private static double calculateSimilarityPercentage(TransMemoryQuery query,
+            List<String> sourceContents, double minimumPercent) {
+        double minSimilarity = minimumPercent / 100;
         double percent;
         if (query.getSearchType() == HasSearchType.SearchType.CONTENT_HASH) {
             return 100;
         } else if (query.getSearchType() == HasSearchType.SearchType.FUZZY_PLURAL) {
             percent =
                     100 * LevenshteinTokenUtil.getSimilarity(
-                            query.getQueries(), sourceContents);
+                            query.getQueries(), sourceContents, minSimilarity);
             if (percent > 99.99) {
                 // make sure we only get 100% similarity if every character
                 // matches
                 percent =
                         100 * LevenshteinUtil.getSimilarity(query.getQueries(),
-                                sourceContents);
+                                sourceContents, minSimilarity);
             }
         } else {
             final String searchText = query.getQueries().get(0);
             percent =
                     100 * LevenshteinTokenUtil.getSimilarity(searchText,
-                            sourceContents);
+                            sourceContents, minSimilarity);
             if (percent > 99.99) {
                 // make sure we only get 100% similarity if every character
                 // matches
                 percent =
                         100 * LevenshteinUtil.getSimilarity(searchText,
-                                sourceContents);
+                                sourceContents, minSimilarity);
             }
         }
         return percent;
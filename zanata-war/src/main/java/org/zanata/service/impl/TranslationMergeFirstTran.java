@@ -36,17 +36,29 @@ public class TranslationMergeFirstTran implements TranslationMergeService {
             HTextFlowTarget hTarget, Set<String> extensions) {
         Preconditions.checkArgument(hTarget == null,
                 "This merge service only handles null HTextFlowTarget");
-        hTarget = new HTextFlowTarget(textFlow, hLocale);
+        hTarget = createTarget(incomingTarget, extensions);
+        textFlow.getTargets().put(hLocale.getId(), hTarget);
+        return true;
+    }
+
+    /**
+     * Creates the text flow's target from the incoming one, without adding
+     * it to the text flow's targets.
+     *
+     * @return the new, transient target
+     */
+    public HTextFlowTarget createTarget(TextFlowTarget incomingTarget,
+            Set<String> extensions) {
+        HTextFlowTarget hTarget = new HTextFlowTarget(textFlow, hLocale);
         List<String> contents = Collections.nCopies(nPlurals, "");
         hTarget.setContents(contents);
         hTarget.setVersionNum(0); // incremented when content is set
-        textFlow.getTargets().put(hLocale.getId(), hTarget);
         new TargetTransformer(extensions).transform(incomingTarget,
                 hTarget);
         if (incomingTarget.getState().isTranslated()) {
             hTarget.setState(ContentState.Translated);
         }
-        return true;
+        return hTarget;
     }
 
 }
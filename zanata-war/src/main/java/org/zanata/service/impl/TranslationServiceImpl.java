@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.annotation.Nonnull;
 import javax.enterprise.context.RequestScoped;
@@ -40,12 +41,16 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang.StringUtils;
 import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.search.Search;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskManager;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.common.MergeType;
@@ -61,6 +66,7 @@ import org.zanata.events.TextFlowTargetStateEvent;
 import org.zanata.exception.ZanataServiceException;
 import org.zanata.i18n.Messages;
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
 import org.zanata.model.HAccount;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
@@ -70,11 +76,13 @@ import org.zanata.model.HSimpleComment;
 import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.HTextFlowTargetHistory;
+import org.zanata.model.HTextFlowTargetIndexingInterceptor;
 import org.zanata.model.type.EntityType;
 import org.zanata.model.type.TranslationSourceType;
 import org.zanata.rest.dto.resource.TextFlowTarget;
 import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.rest.service.ResourceUtils;
+import org.zanata.search.HTextFlowTargetIndexingStrategy;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.security.annotations.Authenticated;
 import org.zanata.service.LocaleService;
@@ -83,6 +91,7 @@ import org.zanata.service.TranslationMergeService;
 import org.zanata.service.TranslationService;
 import org.zanata.service.ValidationService;
 import javax.enterprise.event.Event;
+import org.zanata.util.ServiceLocator;
 import org.zanata.util.ShortString;
 import org.zanata.webtrans.shared.model.TransUnitId;
 import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
@@ -552,26 +561,74 @@ public class TranslationServiceImpl implements TranslationService {
             AsyncTaskHandle handle, TranslationSourceType translationSourceType) {
         // Lock this document for push
         Lock transLock = null;
+        LockLease lease = null;
         if (lock) {
             transLock =
                     new Lock(projectSlug, iterationSlug, docId, locale, "push");
-            lockManagerServiceImpl.attain(transLock);
+            lease = lockManagerServiceImpl.attain(transLock);
         }
 
         List<String> messages = Lists.newArrayList();
+        // each batch commits separately, so indexing the targets can wait
+        // until the push has finished and released the lock
+        HTextFlowTargetIndexingInterceptor.deferIndexing();
         try {
             messages =
                     this.translateAllInDoc(projectSlug, iterationSlug, docId,
                             locale, translations, extensions, mergeType,
                             assignCreditToUploader, handle, translationSourceType);
         } finally {
-            if (lock) {
-                lockManagerServiceImpl.release(transLock);
+            Set<Long> skippedTargetIds =
+                    HTextFlowTargetIndexingInterceptor.resumeIndexing();
+            try {
+                if (lock) {
+                    // throws if the lock was lost to another push
+                    lockManagerServiceImpl.release(transLock, lease);
+                }
+            } finally {
+                indexTargetsLater(skippedTargetIds);
             }
         }
         return AsyncTaskResult.taskResult(messages);
     }
 
+    /**
+     * Indexes targets whose automatic indexing was deferred, in the
+     * background if the reindex lane has room, otherwise straight away. A
+     * failure is logged, leaving the targets to be picked up by the next
+     * reindex.
+     */
+    private void indexTargetsLater(Set<Long> targetIds) {
+        if (targetIds.isEmpty()) {
+            return;
+        }
+        Runnable indexing = () -> {
+            // the injected Session is a CDI proxy, which FullTextSession
+            // can't wrap
+            Session session =
+                    ServiceLocator.instance().getEntityManager()
+                            .unwrap(Session.class);
+            try {
+                runInTransaction(() -> {
+                    new HTextFlowTargetIndexingStrategy().reindexTargets(
+                            targetIds, Search.getFullTextSession(session));
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("exception indexing {} pushed translations",
+                        targetIds.size(), e);
+            }
+        };
+        try {
+            ServiceLocator.instance().getInstance(AsyncTaskManager.class)
+                    .laneExecutor(AsyncTaskType.REINDEX).execute(indexing);
+        } catch (RejectedExecutionException e) {
+            log.info("reindex lane is full; indexing {} pushed translations "
+                    + "now", targetIds.size());
+            indexing.run();
+        }
+    }
+
     /**
      * Run enforced validation check(Error) if target has changed and
      * translation saving as 'Translated' or 'Approved'
@@ -685,13 +742,8 @@ public class TranslationServiceImpl implements TranslationService {
         final List<String> warnings = new ArrayList<String>();
 
         if (mergeType == MergeType.IMPORT) {
-            for (HTextFlow textFlow : document.getTextFlows()) {
-                HTextFlowTarget hTarget =
-                        textFlow.getTargets().get(hLocale.getId());
-                if (hTarget != null) {
-                    removedTextFlowTargetIds.add(hTarget.getId());
-                }
-            }
+            removedTextFlowTargetIds.addAll(textFlowTargetDAO
+                    .getTargetIdsByDocumentAndLocale(document, hLocale));
         }
 
         // Break the target into batches
@@ -789,6 +841,12 @@ public class TranslationServiceImpl implements TranslationService {
                         return input.getResId();
                     }
                 }));
+        // only this locale's targets: fetching every locale's targets (and
+        // their history) along with the text flows multiplies the rows read
+        // by the number of locales
+        Map<Long, HTextFlowTarget> textFlowIdToTargetMap =
+                textFlowTargetDAO.getTargetsWithHistory(
+                        resIdToTextFlowMap.values(), locale);
         final int numPlurals = resourceUtils.getNumPlurals(document, locale);
 
         List<TextFlowTargetStateChange> targetStates = Lists.newArrayList();
@@ -836,8 +894,9 @@ public class TranslationServiceImpl implements TranslationService {
                 }
 
                 int nPlurals = textFlow.isPlural() ? numPlurals : 1;
-                // we have eagerly loaded all targets upfront
-                HTextFlowTarget hTarget = textFlow.getTargets().get(locale.getId());
+                // this locale's targets were loaded for the whole batch
+                HTextFlowTarget hTarget =
+                        textFlowIdToTargetMap.get(textFlow.getId());
                 ContentState oldState = ContentState.New;
                 if (hTarget != null) {
                     oldState = hTarget.getState();
@@ -845,21 +904,27 @@ public class TranslationServiceImpl implements TranslationService {
                         removedTextFlowTargetIds.remove(hTarget.getId());
                     }
                 }
-                TranslationMergeServiceFactory.MergeContext mergeContext =
-                        new TranslationMergeServiceFactory.MergeContext(
-                                mergeType, textFlow, locale, hTarget,
-                                nPlurals);
-                TranslationMergeService mergeService =
-                        translationMergeServiceFactory
-                                .getMergeService(mergeContext);
-
-                boolean targetChanged =
-                        mergeService.merge(incomingTarget, hTarget,
-                                extensions);
-                if (hTarget == null) {
-                    // in case hTarget was null, we need to
-                    // retrieve it after merge
-                    hTarget = textFlow.getTargets().get(locale.getId());
+                boolean newTarget = hTarget == null;
+                boolean targetChanged;
+                if (newTarget) {
+                    // not added to textFlow.getTargets(), which would load
+                    // the text flow's targets in every locale
+                    hTarget =
+                            new TranslationMergeFirstTran(nPlurals, locale,
+                                    textFlow).createTarget(incomingTarget,
+                                    extensions);
+                    targetChanged = true;
+                } else {
+                    TranslationMergeServiceFactory.MergeContext mergeContext =
+                            new TranslationMergeServiceFactory.MergeContext(
+                                    mergeType, textFlow, locale, hTarget,
+                                    nPlurals);
+                    TranslationMergeService mergeService =
+                            translationMergeServiceFactory
+                                    .getMergeService(mergeContext);
+                    targetChanged =
+                            mergeService.merge(incomingTarget, hTarget,
+                                    extensions);
                 }
                 targetChanged |=
                         adjustContentsAndState(hTarget, nPlurals, warnings);
@@ -879,7 +944,11 @@ public class TranslationServiceImpl implements TranslationService {
                     hTarget.setSourceType(translationSourceType);
                     hTarget.setCopiedEntityId(null);
                     hTarget.setCopiedEntityId(null);
-                    textFlowTargetDAO.makePersistent(hTarget);
+                    if (newTarget) {
+                        textFlowTargetDAO.makePersistentNew(hTarget);
+                    } else {
+                        textFlowTargetDAO.makePersistent(hTarget);
+                    }
 
                     aggregateChanges(textFlow, hTarget, oldState, targetStates,
                         contentStateDeltas);
@@ -920,7 +989,8 @@ public class TranslationServiceImpl implements TranslationService {
             Map<ContentState, Long> contentStateDeltas) {
         TextFlowTargetStateChange state =
                 new TextFlowTargetStateChange(textFlow.getId(),
-                        hTarget.getId(), hTarget.getState(), oldState);
+                        hTarget.getId(), hTarget.getState(), oldState,
+                        textFlow.getWordCount());
 
         targetStates.add(state);
         DocStatsEvent.updateContentStateDeltas(contentStateDeltas,
@@ -83,6 +83,7 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
 
     private CacheWrapper<DocumentLocaleKey, WordStatistic> documentStatisticCache;
     private CacheLoader<DocumentLocaleKey, WordStatistic> documentStatisticLoader;
+    private IncrementalWordStatistics<DocumentLocaleKey> documentStatistics;
 
     private CacheWrapper<DocumentLocaleKey, DocumentStatus> docStatusCache;
     private CacheLoader<DocumentLocaleKey, DocumentStatus> docStatusLoader;
@@ -134,6 +135,9 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
         documentStatisticCache =
                 InfinispanCacheWrapper.create(DOC_STATISTIC_CACHE_NAME,
                         cacheContainer, documentStatisticLoader);
+        documentStatistics =
+                new IncrementalWordStatistics<DocumentLocaleKey>(
+                        documentStatisticCache);
 
         docStatusCache =
                 InfinispanCacheWrapper.create(DOC_STATUS_CACHE_NAME,
@@ -157,14 +161,13 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
         for (HLocale locale : localeDAO.findAll()) {
             DocumentLocaleKey key =
                     new DocumentLocaleKey(documentId, locale.getLocaleId());
-            documentStatisticCache.remove(key);
+            documentStatistics.evict(key);
         }
     }
 
     @Override
     public void clearDocumentStatistics(Long documentId, LocaleId localeId) {
-        documentStatisticCache.remove(new DocumentLocaleKey(documentId,
-                localeId));
+        documentStatistics.evict(new DocumentLocaleKey(documentId, localeId));
     }
 
 
@@ -205,9 +208,9 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
     public void docStatsUpdated(
         @Observes(during = TransactionPhase.AFTER_SUCCESS)
             DocStatsEvent event) {
-        // invalidate document statistic cache
-        clearDocumentStatistics(event.getKey().getDocumentId(),
-            event.getKey().getLocaleId());
+        // apply the word count changes to the cached document statistic
+        documentStatistics.applyDeltas(event.getKey(),
+            event.getWordDeltasByState(), event.getChangedAt());
 
         // update document status information
         updateDocStatusCache(event.getKey(),
@@ -250,8 +253,10 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
 
         @Override
         public WordStatistic load(DocumentLocaleKey key) throws Exception {
+            long loadedAt = System.currentTimeMillis();
             WordStatistic wordStatistic = getDocumentDAO().getWordStatistics(
                     key.getDocumentId(), key.getLocaleId());
+            wordStatistic.setLoadedAt(loadedAt);
             return wordStatistic;
         }
     }
@@ -18,9 +18,9 @@ import org.zanata.model.HPerson;
 import org.zanata.model.HProject;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.WebHook;
+import org.zanata.webhook.WebhookDispatcher;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Optional;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.event.Observes;
@@ -46,6 +46,9 @@ public class TranslationUpdatedManager {
     @Inject
     private DocumentDAO documentDAO;
 
+    @Inject
+    private WebhookDispatcher webhookDispatcher;
+
     @Async
     public void docStatsUpdated(
         @Observes(during = TransactionPhase.AFTER_SUCCESS)
@@ -94,15 +97,16 @@ public class TranslationUpdatedManager {
     public void publishWebhookEvent(List<WebHook> webHooks,
             DocumentStatsEvent event) {
         for (WebHook webHook : webHooks) {
-            WebHooksPublisher.publish(webHook.getUrl(), event,
-                    Optional.fromNullable(webHook.getSecret()));
+            webhookDispatcher.dispatch(webHook, event);
         }
     }
 
     @VisibleForTesting
     public void init(DocumentDAO documentDAO,
-            TextFlowTargetDAO textFlowTargetDAO) {
+            TextFlowTargetDAO textFlowTargetDAO,
+            WebhookDispatcher webhookDispatcher) {
         this.documentDAO = documentDAO;
         this.textFlowTargetDAO = textFlowTargetDAO;
+        this.webhookDispatcher = webhookDispatcher;
     }
 }
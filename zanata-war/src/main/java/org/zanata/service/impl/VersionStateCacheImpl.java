@@ -22,8 +22,6 @@
 
 package org.zanata.service.impl;
 
-import java.util.Map;
-
 import com.google.common.annotations.VisibleForTesting;
 import org.infinispan.manager.CacheContainer;
 import javax.annotation.PostConstruct;
@@ -31,7 +29,6 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.cache.CacheWrapper;
 import org.zanata.cache.InfinispanCacheWrapper;
-import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.ProjectIterationDAO;
@@ -62,6 +59,7 @@ public class VersionStateCacheImpl implements VersionStateCache {
 
     private CacheWrapper<VersionLocaleKey, WordStatistic> versionStatisticCache;
     private CacheLoader<VersionLocaleKey, WordStatistic> versionStatisticLoader;
+    private IncrementalWordStatistics<VersionLocaleKey> versionStatistics;
 
     @Inject @Zanata
     private CacheContainer cacheContainer;
@@ -88,6 +86,9 @@ public class VersionStateCacheImpl implements VersionStateCache {
         versionStatisticCache =
                 InfinispanCacheWrapper.create(VERSION_STATISTIC_CACHE_NAME,
                         cacheContainer, versionStatisticLoader);
+        versionStatistics =
+                new IncrementalWordStatistics<VersionLocaleKey>(
+                        versionStatisticCache);
     }
 
     @Override
@@ -97,15 +98,8 @@ public class VersionStateCacheImpl implements VersionStateCache {
         VersionLocaleKey key =
             new VersionLocaleKey(event.getProjectVersionId(),
                 event.getKey().getLocaleId());
-        WordStatistic stats = versionStatisticCache.get(key);
-        if (stats != null) {
-            for (Map.Entry<ContentState, Long> entry : event
-                    .getWordDeltasByState().entrySet()) {
-                stats.increment(entry.getKey(),
-                        Math.toIntExact(entry.getValue()));
-            }
-            versionStatisticCache.put(key, stats);
-        }
+        versionStatistics.applyDeltas(key, event.getWordDeltasByState(),
+                event.getChangedAt());
     }
 
     @Override
@@ -121,7 +115,7 @@ public class VersionStateCacheImpl implements VersionStateCache {
         for (HLocale locale : localeDAO.findAll()) {
             VersionLocaleKey key =
                     new VersionLocaleKey(versionId, locale.getLocaleId());
-            versionStatisticCache.remove(key);
+            versionStatistics.evict(key);
         }
     }
 
@@ -140,11 +134,11 @@ public class VersionStateCacheImpl implements VersionStateCache {
 
         @Override
         public WordStatistic load(VersionLocaleKey key) throws Exception {
-
+            long loadedAt = System.currentTimeMillis();
             WordStatistic wordStatistic =
                     getProjectIterationDAO().getWordStatistics(
                         key.getProjectIterationId(), key.getLocaleId());
-
+            wordStatistic.setLoadedAt(loadedAt);
             return wordStatistic;
         }
     }
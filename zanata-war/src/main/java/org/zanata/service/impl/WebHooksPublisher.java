@@ -21,23 +21,26 @@
 
 package org.zanata.service.impl;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnull;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status.Family;
 
 import org.apache.commons.lang.StringUtils;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
-import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
-import org.zanata.events.WebhookEventType;
 
 import com.google.common.base.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.zanata.util.HmacUtil;
 
 /**
- * Do http post for webhook event
+ * Do http post for webhook event. Posts are queued and retried by
+ * {@link org.zanata.webhook.WebhookDispatcher}.
  *
  * @author Alex Eng <a href="mailto:aeng@redhat.com">aeng@redhat.com</a>
  */
@@ -46,31 +49,40 @@ public class WebHooksPublisher {
 
     public static final String WEBHOOK_HEADER = "X-Zanata-Webhook";
 
-    public static void publish(@Nonnull String callbackURL,
-        @Nonnull WebhookEventType event, Optional<String> secretKey) {
-        publish(callbackURL, event.getJSON(), MediaType.APPLICATION_JSON_TYPE,
-            MediaType.APPLICATION_JSON_TYPE, secretKey);
-    }
+    /**
+     * Posts webhook data and waits for the receiver's response.
+     *
+     * @param client
+     *            client to post with, which should be shared between posts
+     *            so that connections can be reused
+     * @throws IOException
+     *             if the receiver responds with anything but success
+     * @throws javax.ws.rs.ProcessingException
+     *             if the receiver can't be reached or times out
+     */
+    public static void post(@Nonnull ResteasyClient client,
+            @Nonnull String callbackURL, @Nonnull String data,
+            Optional<String> secretKey) throws IOException {
+        ResteasyWebTarget target = client.target(callbackURL);
+        Invocation.Builder postBuilder =
+                target.request().accept(MediaType.APPLICATION_JSON_TYPE);
 
-    protected static void publish(@Nonnull String callbackURL,
-            @Nonnull String data, @Nonnull MediaType acceptType,
-            @Nonnull MediaType mediaType, Optional<String> secretKey) {
+        if (secretKey.isPresent() &&
+                StringUtils.isNotBlank(secretKey.get())) {
+            String sha =
+                    signWebhookHeader(data, secretKey.get(), callbackURL);
+            postBuilder.header(WEBHOOK_HEADER, sha);
+        }
+        log.debug("firing webhook: {}:{}", callbackURL, data);
+        Response response = postBuilder.post(
+                Entity.entity(data, MediaType.APPLICATION_JSON_TYPE));
         try {
-            ResteasyClient client = new ResteasyClientBuilder().build();
-            ResteasyWebTarget target = client.target(callbackURL);
-            Invocation.Builder postBuilder =
-                    target.request().accept(acceptType);
-
-            if (secretKey.isPresent() &&
-                    StringUtils.isNotBlank(secretKey.get())) {
-                String sha =
-                        signWebhookHeader(data, secretKey.get(), callbackURL);
-                postBuilder.header(WEBHOOK_HEADER, sha);
+            if (response.getStatusInfo().getFamily() != Family.SUCCESSFUL) {
+                throw new IOException("webhook " + callbackURL
+                        + " responded with status " + response.getStatus());
             }
-            log.debug("firing async webhook: {}:{}", callbackURL, data);
-            postBuilder.async().post(Entity.entity(data, mediaType));
-        } catch (Exception e) {
-            log.error("Error on webhooks post {}, {}", callbackURL, e);
+        } finally {
+            response.close();
         }
     }
 
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.tmx;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.zanata.model.tm.TransMemoryUnit;
+
+import com.google.common.collect.Lists;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands parsed translation units to a writer in batches, so that parsing and
+ * saving can overlap.
+ * <p>
+ * Units are partitioned by unique id. Each partition has at most one batch
+ * being written at a time, so units with the same unique id (which are merged
+ * with each other) are always written by one thread, in file order. The
+ * thread submitting units blocks when its partition's previous batch is still
+ * being written, which bounds memory use to about two batches per partition.
+ * If the executor rejects a batch, it is written on the submitting thread.
+ */
+@Slf4j
+class TMXImportPipeline {
+
+    interface BatchWriter {
+        void write(List<TransMemoryUnit> batch) throws Exception;
+    }
+
+    private final int batchSize;
+    private final BatchWriter writer;
+    private final Executor executor;
+    private final List<List<TransMemoryUnit>> pendingBatches;
+    private final List<FutureTask<Void>> inFlight;
+    private int submitted;
+
+    /**
+     * @param partitions
+     *            number of batches which may be written at the same time
+     * @param executor
+     *            runs the batch writes; a direct executor makes the pipeline
+     *            run on the submitting thread only
+     */
+    TMXImportPipeline(int partitions, int batchSize, BatchWriter writer,
+            Executor executor) {
+        this.batchSize = batchSize;
+        this.writer = writer;
+        this.executor = executor;
+        pendingBatches = Lists.newArrayListWithCapacity(partitions);
+        inFlight = Lists.newArrayListWithCapacity(partitions);
+        for (int i = 0; i < partitions; i++) {
+            pendingBatches.add(Lists.newArrayListWithCapacity(batchSize));
+            inFlight.add(null);
+        }
+    }
+
+    /**
+     * Queues a unit to be written. May block while an earlier batch is being
+     * written.
+     *
+     * @throws Exception
+     *             if an earlier batch of the same partition failed
+     */
+    void submit(TransMemoryUnit tu) throws Exception {
+        int partition = partitionOf(tu);
+        List<TransMemoryUnit> batch = pendingBatches.get(partition);
+        batch.add(tu);
+        submitted++;
+        if (batch.size() >= batchSize) {
+            pendingBatches.set(partition,
+                    Lists.newArrayListWithCapacity(batchSize));
+            startBatch(partition, batch);
+        }
+    }
+
+    /**
+     * Writes the remaining partial batches and waits for all writes to
+     * finish.
+     *
+     * @return number of units written
+     * @throws Exception
+     *             the first failure of any batch
+     */
+    int finish() throws Exception {
+        for (int i = 0; i < pendingBatches.size(); i++) {
+            List<TransMemoryUnit> batch = pendingBatches.get(i);
+            if (!batch.isEmpty()) {
+                startBatch(i, batch);
+            }
+        }
+        for (int i = 0; i < inFlight.size(); i++) {
+            awaitPartition(i);
+        }
+        return submitted;
+    }
+
+    /**
+     * Waits for batches which are still being written, ignoring their
+     * failures. Used when giving up on an import.
+     */
+    void awaitQuietly() {
+        for (int i = 0; i < inFlight.size(); i++) {
+            try {
+                awaitPartition(i);
+            } catch (Exception e) {
+                log.debug("ignoring failed TMX batch", e);
+            }
+        }
+    }
+
+    private int partitionOf(TransMemoryUnit tu) {
+        int partitions = pendingBatches.size();
+        if (partitions == 1 || tu.getUniqueId() == null) {
+            return 0;
+        }
+        return (tu.getUniqueId().hashCode() & Integer.MAX_VALUE) % partitions;
+    }
+
+    private void startBatch(int partition, List<TransMemoryUnit> batch)
+            throws Exception {
+        // keep writes of one partition in order
+        awaitPartition(partition);
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            writer.write(batch);
+            return null;
+        });
+        inFlight.set(partition, task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("TMX batch rejected by executor; writing it directly");
+            task.run();
+        }
+    }
+
+    private void awaitPartition(int partition) throws Exception {
+        FutureTask<Void> previous = inFlight.get(partition);
+        if (previous == null) {
+            return;
+        }
+        try {
+            previous.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            inFlight.set(partition, null);
+        }
+    }
+}
@@ -21,9 +21,12 @@
 package org.zanata.tmx;
 
 import java.io.InputStream;
+import java.util.List;
 
+import javax.annotation.Nullable;
 import javax.enterprise.context.Dependent;
 import javax.persistence.EntityExistsException;
+import javax.persistence.EntityManager;
 import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.NotSupportedException;
@@ -35,7 +38,6 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
-import lombok.AllArgsConstructor;
 import lombok.Cleanup;
 import lombok.extern.slf4j.Slf4j;
 import nu.xom.Element;
@@ -43,18 +45,35 @@ import nu.xom.Element;
 import org.hibernate.CacheMode;
 import org.hibernate.FlushMode;
 import org.hibernate.Session;
+import org.hibernate.search.Search;
+
 import javax.inject.Inject;
 import javax.inject.Named;
+import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskManager;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.common.util.ElementBuilder;
+import org.zanata.config.TMXConfig;
 import org.zanata.model.tm.TransMemory;
+import org.zanata.model.tm.TransMemoryUnit;
+import org.zanata.model.tm.TransMemoryUnitIndexingInterceptor;
+import org.zanata.search.ClassIndexer;
+import org.zanata.search.TransMemoryUnitIndexingStrategy;
 import org.zanata.transaction.TransactionUtil;
-import org.zanata.util.RunnableEx;
+import org.zanata.util.ServiceLocator;
 import org.zanata.util.TMXParseException;
 import org.zanata.xml.TmxDtdResolver;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Parses TMX input.
+ * <p>
+ * The file is read on the calling thread, and the parsed translation units
+ * are saved in batches by a {@link TMXImportPipeline}. With more than one
+ * writer (see {@link TMXConfig}), batches are saved in parallel in the
+ * TM import lane, and the units are indexed in bulk at the end instead of on
+ * every commit.
  *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -63,19 +82,55 @@ import com.google.common.base.Throwables;
 @Dependent
 @Slf4j
 public class TMXParser {
-    // Batch size to commit in a new transaction for long files
-    private static final int BATCH_SIZE = 100;
+    private static final QName TMX = new QName("tmx");
+    private static final QName HEADER = new QName("header");
+    private static final QName TU = new QName("tu");
 
     @Inject
     private Session session;
     @Inject
+    private EntityManager entityManager;
+    @Inject
     private TransMemoryAdapter transMemoryAdapter;
+    @Inject
+    private TMXConfig tmxConfig;
 
     public void parseAndSaveTMX(InputStream input, TransMemory transMemory)
             throws TMXParseException, SecurityException, IllegalStateException,
             RollbackException, HeuristicMixedException,
             HeuristicRollbackException, SystemException, NotSupportedException {
+        parseAndSaveTMX(input, transMemory, null);
+    }
+
+    /**
+     * @param handle
+     *            if not null, its progress is increased by the number of
+     *            translation units saved
+     */
+    public void parseAndSaveTMX(InputStream input, TransMemory transMemory,
+            @Nullable AsyncTaskHandle<?> handle)
+            throws TMXParseException, SecurityException, IllegalStateException,
+            RollbackException, HeuristicMixedException,
+            HeuristicRollbackException, SystemException, NotSupportedException {
         int handledTUs = 0;
+        int writers = tmxConfig.getWriters();
+        boolean parallel = writers > 1;
+        TMXImportPipeline pipeline =
+                new TMXImportPipeline(writers, tmxConfig.getBatchSize(),
+                        batch -> {
+                            saveBatch(batch, parallel);
+                            if (handle != null) {
+                                handle.increaseProgress(batch.size());
+                            }
+                        }, parallel ? ServiceLocator.instance()
+                                .getInstance(AsyncTaskManager.class)
+                                .laneExecutor(AsyncTaskType.TM_IMPORT)
+                                : MoreExecutors.directExecutor());
+        if (parallel) {
+            TransMemoryUnitIndexingInterceptor.deferIndexing(transMemory
+                    .getId());
+        }
+        boolean finished = false;
         try {
             log.info("parsing started for: {}", transMemory.getSlug());
             session.setFlushMode(FlushMode.MANUAL);
@@ -87,22 +142,40 @@ public class TMXParser {
             @Cleanup
             XMLStreamReader reader = factory.createXMLStreamReader(input);
 
-            QName tmx = new QName("tmx");
-
             while (reader.hasNext()
                     && reader.next() != XMLStreamConstants.START_ELEMENT) {
             }
             if (!reader.hasNext())
                 throw new TMXParseException("No root element");
-            if (!reader.getName().equals(tmx))
+            if (!reader.getName().equals(TMX))
                 throw new TMXParseException("Wrong root element: expected tmx");
 
             // At this point, event = START_ELEMENT and name = tmx
             while (reader.hasNext()) {
-                CommitBatch commitBatch =
-                        new CommitBatch(reader, 0, transMemory);
-                TransactionUtil.get().runEx(commitBatch);
-                handledTUs += commitBatch.handledTUs;
+                int eventType = reader.next();
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    QName elemName = reader.getName();
+                    if (elemName.equals(TU)) {
+                        Element tuElem = ElementBuilder.buildElement(reader);
+                        pipeline.submit(transMemoryAdapter.parseTransUnit(
+                                transMemory, tuElem));
+                    } else if (elemName.equals(HEADER)) {
+                        Element headerElem =
+                                ElementBuilder.buildElement(reader);
+                        TransactionUtil.get().runEx(() -> {
+                            transMemoryAdapter.processHeader(transMemory,
+                                    headerElem);
+                            session.flush();
+                        });
+                    }
+                }
+            }
+            handledTUs = pipeline.finish();
+            finished = true;
+            if (parallel) {
+                TransMemoryUnitIndexingInterceptor.resumeIndexing(transMemory
+                        .getId());
+                indexTransUnits(transMemory, handle);
             }
         } catch (EntityExistsException e) {
             String msg =
@@ -112,48 +185,52 @@ public class TMXParser {
         } catch (Exception e) {
             Throwable rootCause = Throwables.getRootCause(e);
             if (rootCause instanceof TMXParseException) {
-                throw (TMXParseException) e;
+                throw (TMXParseException) rootCause;
             } else if (rootCause instanceof XMLStreamException) {
                 throw new TMXParseException(rootCause);
+            } else if (rootCause instanceof EntityExistsException) {
+                throw new TMXParseException(
+                        "Possible duplicate TU (duplicate tuid or duplicate"
+                                + "src content without tuid)", rootCause);
             } else {
                 throw Throwables.propagate(e);
             }
         } finally {
+            if (!finished) {
+                pipeline.awaitQuietly();
+            }
+            if (parallel) {
+                TransMemoryUnitIndexingInterceptor.resumeIndexing(transMemory
+                        .getId());
+            }
             log.info("parsing stopped for: {}, TU count={}",
                     transMemory.getSlug(), handledTUs);
         }
     }
 
-
-
-    @AllArgsConstructor
-    private class CommitBatch implements RunnableEx {
-        private XMLStreamReader reader;
-        private int handledTUs;
-        private TransMemory transMemory;
-        private final QName header = new QName("header");
-        private final QName tu = new QName("tu");
-
-        @Override
-        public void run() throws Exception {
-            while (reader.hasNext() && handledTUs < BATCH_SIZE) {
-                int eventType = reader.next();
-                if (eventType == XMLStreamConstants.START_ELEMENT) {
-                    QName elemName = reader.getName();
-                    if (elemName.equals(tu)) {
-                        Element tuElem = ElementBuilder.buildElement(reader);
-                        transMemoryAdapter
-                                .processTransUnit(transMemory, tuElem);
-                        handledTUs++;
-                    } else if (elemName.equals(header)) {
-                        Element headerElem =
-                                ElementBuilder.buildElement(reader);
-                        transMemoryAdapter.processHeader(transMemory,
-                                headerElem);
-                    }
-                }
-            }
-        }
+    private void saveBatch(List<TransMemoryUnit> batch,
+            boolean parallel) throws Exception {
+        // parallel batches run in their own request context, so they need
+        // their own adapter (and hence their own entity manager)
+        TransMemoryAdapter adapter =
+                parallel ? ServiceLocator.instance().getInstance(
+                        TransMemoryAdapter.class) : transMemoryAdapter;
+        TransactionUtil.get().runEx(() -> adapter.persistTransUnits(batch));
     }
 
+    /**
+     * Indexes the units of a translation memory whose automatic indexing was
+     * deferred during the import.
+     */
+    private void indexTransUnits(TransMemory transMemory,
+            @Nullable AsyncTaskHandle<?> handle) throws Exception {
+        log.info("indexing translation units of: {}", transMemory.getSlug());
+        // the injected Session is a CDI proxy, which FullTextSession can't wrap
+        Session realSession = entityManager.unwrap(Session.class);
+        TransactionUtil.get().runEx(
+                () -> new ClassIndexer<>(handle, TransMemoryUnit.class,
+                        new TransMemoryUnitIndexingStrategy(transMemory
+                                .getId())).index(Search
+                        .getFullTextSession(realSession)));
+    }
 }
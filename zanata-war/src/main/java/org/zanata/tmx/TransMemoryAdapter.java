@@ -21,6 +21,8 @@
 
 package org.zanata.tmx;
 
+import java.util.List;
+
 import javax.enterprise.context.Dependent;
 import javax.persistence.EntityManager;
 
@@ -75,6 +77,19 @@ public class TransMemoryAdapter {
      */
     public void processTransUnit(TransMemory tm, Element tuElem)
             throws TMXParseException {
+        TransMemoryUnit tu = parseTransUnit(tm, tuElem);
+        tu = mergeWithExistingTUIfAny(tu);
+        entityManager.merge(tu);
+    }
+
+    /**
+     * Builds a translation unit from a tu element, without touching the
+     * database.
+     *
+     * @throws TMXParseException
+     */
+    public TransMemoryUnit parseTransUnit(TransMemory tm, Element tuElem)
+            throws TMXParseException {
         TransMemoryUnit tu = new TransMemoryUnit();
         tu.setTranslationMemory(tm);
 
@@ -84,9 +99,23 @@ public class TransMemoryAdapter {
         addTUVs(tu, tuElem.getChildElements("tuv"));
 
         tu.setUniqueId(determineUniqueId(tu));
+        return tu;
+    }
 
-        tu = mergeWithExistingTUIfAny(tu);
-        entityManager.merge(tu);
+    /**
+     * Saves a batch of parsed translation units, merging each into any
+     * existing unit with the same unique id, then flushes and clears the
+     * persistence context so that long imports don't accumulate entities.
+     */
+    public void persistTransUnits(List<TransMemoryUnit> tus) {
+        for (TransMemoryUnit tu : tus) {
+            TransMemoryUnit existingTu = mergeWithExistingTUIfAny(tu);
+            if (existingTu == tu) {
+                entityManager.persist(tu);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
     }
 
     private String determineUniqueId(TransMemoryUnit tu)
@@ -11,6 +11,9 @@ public class WordStatistic extends AbstractStatistic {
 
     private double remainingHours;
 
+    // when the statistic was loaded from the database, if it was
+    private long loadedAt;
+
     public WordStatistic() {
         super();
     }
@@ -39,4 +42,17 @@ public class WordStatistic extends AbstractStatistic {
     public synchronized void setRemainingHours(double remainingHours) {
         this.remainingHours = remainingHours;
     }
+
+    /**
+     * @return the time (in milliseconds) at which the query loading this
+     *         statistic started, or 0 if it was not loaded from the
+     *         database
+     */
+    public synchronized long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public synchronized void setLoadedAt(long loadedAt) {
+        this.loadedAt = loadedAt;
+    }
 }
@@ -29,9 +29,21 @@ public class HqlCriterion {
         return property + " like " + namedParam;
     }
 
+    /**
+     * Like which is case sensitive whatever the collation of the column. The
+     * content columns use a case-insensitive collation in MySQL, where
+     * comparing the binary string of the column matches case (Hibernate
+     * passes the unregistered binary() function through to SQL). Dialects
+     * with a different syntax must register a binary function (see
+     * CustomH2Dialect in the tests).
+     */
+    public static String likeCaseSensitive(String property, String namedParam) {
+        return like("binary(" + property + ")", namedParam);
+    }
+
     public static String like(String property, boolean caseSensitive, String namedParam) {
         if (caseSensitive) {
-            return like(property, namedParam);
+            return likeCaseSensitive(property, namedParam);
         } else {
             return ilike(property, namedParam);
         }
@@ -49,6 +61,10 @@ public class HqlCriterion {
         return property + ">" + namedParam;
     }
 
+    public static String ge(String property, String namedParam) {
+        return property + ">=" + namedParam;
+    }
+
     public static String lt(String property, String namedParam) {
         return property + "<" + namedParam;
     }
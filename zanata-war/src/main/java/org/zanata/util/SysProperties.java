@@ -59,6 +59,31 @@ public class SysProperties {
      * Override default lock timeout for @Synchronized beans
      */
     public static final String LOCK_TIMEOUT = "zanata.lock.timeout.millis";
+    /**
+     * Number of incremental updates applied to a cached word statistic before
+     * it is recomputed from the database
+     */
+    public static final String STATS_RECONCILE_INTERVAL =
+            "zanata.stats.reconcile.interval";
+    /**
+     * Maximum number of entries held in the near-cache in front of each
+     * Infinispan cache which has a loader
+     */
+    public static final String NEAR_CACHE_MAX_SIZE =
+            "zanata.cache.near.max.size";
+    /**
+     * Age in seconds after which a near-cached entry is reloaded in the
+     * background the next time it is read (the old value is returned in the
+     * meantime). Zero disables refreshing.
+     */
+    public static final String NEAR_CACHE_REFRESH_SECONDS =
+            "zanata.cache.near.refresh.seconds";
+    /**
+     * Maximum total size in megabytes of the generated translated files kept
+     * on local disk (see {@link org.zanata.file.TranslatedFileCache})
+     */
+    public static final String TRANSLATED_FILE_CACHE_MAX_MB =
+            "zanata.translated.file.cache.max.mb";
 
     /**
      * Gets the value of a system property as a float if available,
@@ -112,6 +112,20 @@ public class TranslationUtil {
             getAuthor(tft.getLastModifiedBy()));
     }
 
+    /**
+     * Create revision comment for translations copied by copy version from a
+     * document, without the author of each translation.
+     * @see org.zanata.dao.CopyVersionDAO
+     *
+     * @param document - HDocument to copy from
+     */
+    public static final String getCopyVersionMessage(HDocument document) {
+        return generateAutoCopiedMessage(PREFIX_COPY_VERSION,
+            document.getProjectIteration().getProject().getName(),
+            document.getProjectIteration().getSlug(), document.getDocId(),
+            null);
+    }
+
     /**
      * Create revision comment for translation that is copied by TM Merge
      * @see org.zanata.service.TransMemoryMergeService
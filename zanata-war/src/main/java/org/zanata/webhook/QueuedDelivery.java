@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webhook;
+
+import javax.annotation.Nullable;
+
+import lombok.Value;
+
+/**
+ * A webhook event waiting in the queue of its
+ * {@link WebhookEndpoint}.
+ */
+@Value
+class QueuedDelivery {
+    /**
+     * Id of the saved {@link org.zanata.model.WebHookDelivery} this is a
+     * retry of, or null for a first attempt.
+     */
+    @Nullable
+    Long deliveryId;
+    Long webHookId;
+    String url;
+    @Nullable
+    String secret;
+    String payload;
+    /**
+     * Number of failed attempts so far.
+     */
+    int attempts;
+}
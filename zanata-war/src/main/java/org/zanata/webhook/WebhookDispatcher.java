@@ -0,0 +1,374 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webhook;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.zanata.async.AsyncTaskManager;
+import org.zanata.async.AsyncTaskType;
+import org.zanata.config.WebhookConfig;
+import org.zanata.dao.WebHookDAO;
+import org.zanata.dao.WebHookDeliveryDAO;
+import org.zanata.events.WebhookEventType;
+import org.zanata.model.WebHook;
+import org.zanata.model.WebHookDelivery;
+import org.zanata.service.impl.WebHooksPublisher;
+import org.zanata.util.Introspectable;
+import org.zanata.util.ServiceLocator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static org.zanata.transaction.TransactionUtil.runInTransaction;
+
+/**
+ * Posts webhook events in the background, so that a slow or unreachable
+ * receiver doesn't hold up the thread which fired the event.
+ * <p>
+ * Each webhook URL has its own bounded queue, drained by one thread at a time
+ * in the {@link AsyncTaskType#WEBHOOK} lane. A failed post is saved as a
+ * {@link WebHookDelivery} and retried by
+ * {@link org.zanata.job.WebhookRetryJob}, with the delay doubling after each
+ * attempt, until {@link WebhookConfig#MAX_ATTEMPTS} is reached. Events which
+ * don't fit in their queue are saved for retry in the same way.
+ */
+@Named("webhookDispatcher")
+@javax.enterprise.context.ApplicationScoped
+@Slf4j
+public class WebhookDispatcher implements Introspectable {
+
+    public static final String INTROSPECTABLE_FIELD_ENDPOINTS =
+            "WebhookEndpoints";
+    public static final String INTROSPECTABLE_FIELD_METRICS =
+            "WebhookMetrics";
+    static final long FIRST_RETRY_DELAY_MILLIS =
+            TimeUnit.SECONDS.toMillis(30);
+    static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // a saved delivery isn't queued again for this long, while it waits in
+    // its queue (or if the server goes down before it is posted)
+    private static final long RETRY_LEASE_MILLIS =
+            TimeUnit.MINUTES.toMillis(10);
+    private static final int RETRIES_PER_RUN = 200;
+    private static final int CONNECTION_POOL_SIZE = 20;
+
+    @Inject
+    private WebhookConfig webhookConfig;
+
+    @Inject
+    private AsyncTaskManager asyncTaskManager;
+
+    // endpoints which go quiet (eg when their webhook is removed) are
+    // forgotten, along with their metrics
+    private final Cache<String, WebhookEndpoint> endpoints = CacheBuilder
+            .newBuilder().expireAfterAccess(1, TimeUnit.DAYS).build();
+    // events which didn't fit in their queue, to be saved by the retry job
+    private final Queue<QueuedDelivery> overflow =
+            new ConcurrentLinkedQueue<>();
+    private ResteasyClient client;
+
+    public static WebhookDispatcher getInstance() {
+        return ServiceLocator.instance().getInstance(WebhookDispatcher.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        int timeout = webhookConfig.getTimeoutSeconds();
+        // one pooled client, so that connections to a receiver are reused
+        client = new ResteasyClientBuilder()
+                .connectionPoolSize(CONNECTION_POOL_SIZE)
+                .maxPooledPerRoute(CONNECTION_POOL_SIZE)
+                .establishConnectionTimeout(timeout, TimeUnit.SECONDS)
+                .socketTimeout(timeout, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        client.close();
+    }
+
+    /**
+     * Queues an event to be posted to a webhook, without waiting for the
+     * post.
+     */
+    public void dispatch(WebHook webHook, WebhookEventType event) {
+        QueuedDelivery delivery =
+                new QueuedDelivery(null, webHook.getId(), webHook.getUrl(),
+                        webHook.getSecret(), event.getJSON(), 0);
+        WebhookEndpoint endpoint = getEndpoint(webHook.getUrl());
+        if (endpoint.offer(delivery)) {
+            scheduleDrain(endpoint);
+        } else {
+            log.warn("webhook queue for {} is full; the event will be "
+                    + "posted by the retry job", webHook.getUrl());
+            overflow.add(delivery);
+        }
+    }
+
+    /**
+     * Saves events which didn't fit in their queues, and queues saved events
+     * which are due to be retried.
+     */
+    public void retryDueDeliveries() throws Exception {
+        List<QueuedDelivery> overflowed = Lists.newArrayList();
+        QueuedDelivery next;
+        while ((next = overflow.poll()) != null) {
+            overflowed.add(next);
+        }
+        List<QueuedDelivery> due;
+        try {
+            due = runInTransaction(() -> saveAndLoadDue(overflowed));
+        } catch (Exception e) {
+            // keep them for the next run
+            overflow.addAll(overflowed);
+            throw e;
+        }
+        for (QueuedDelivery delivery : due) {
+            // one which doesn't fit is queued again once its lease expires
+            getEndpoint(delivery.getUrl()).offer(delivery);
+        }
+        // also restarts queues whose drain task was rejected by a full lane
+        for (WebhookEndpoint endpoint : endpoints.asMap().values()) {
+            scheduleDrain(endpoint);
+        }
+    }
+
+    private List<QueuedDelivery> saveAndLoadDue(
+            List<QueuedDelivery> overflowed) {
+        WebHookDeliveryDAO deliveryDAO = ServiceLocator.instance()
+                .getInstance(WebHookDeliveryDAO.class);
+        WebHookDAO webHookDAO =
+                ServiceLocator.instance().getInstance(WebHookDAO.class);
+        Date now = new Date();
+        for (QueuedDelivery delivery : overflowed) {
+            deliveryDAO.makePersistent(new WebHookDelivery(
+                    delivery.getWebHookId(), delivery.getPayload(),
+                    delivery.getAttempts(), now));
+        }
+        deliveryDAO.flush();
+        int orphans = deliveryDAO.deleteOrphans();
+        if (orphans > 0) {
+            log.info("discarded {} deliveries of removed webhooks", orphans);
+        }
+        Date leaseExpiry = new Date(now.getTime() + RETRY_LEASE_MILLIS);
+        List<QueuedDelivery> due = Lists.newArrayList();
+        for (WebHookDelivery saved : deliveryDAO.getDue(now,
+                RETRIES_PER_RUN)) {
+            WebHook webHook = webHookDAO.findById(saved.getWebHookId());
+            if (webHook == null) {
+                continue;
+            }
+            saved.setNextAttempt(leaseExpiry);
+            due.add(new QueuedDelivery(saved.getId(), webHook.getId(),
+                    webHook.getUrl(), webHook.getSecret(),
+                    saved.getPayload(), saved.getAttempts()));
+        }
+        deliveryDAO.flush();
+        return due;
+    }
+
+    private WebhookEndpoint getEndpoint(String url) {
+        try {
+            return endpoints.get(url,
+                    () -> new WebhookEndpoint(url,
+                            webhookConfig.getQueueSize()));
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private void scheduleDrain(WebhookEndpoint endpoint) {
+        if (!endpoint.startDraining()) {
+            return;
+        }
+        try {
+            asyncTaskManager.laneExecutor(AsyncTaskType.WEBHOOK).execute(
+                    () -> drain(endpoint));
+        } catch (RejectedExecutionException e) {
+            // the queue keeps its events until the next dispatch or retry
+            endpoint.stopDraining();
+            log.info("webhook lane is full; delaying posts to {}",
+                    endpoint.getUrl());
+        }
+    }
+
+    private void drain(WebhookEndpoint endpoint) {
+        try {
+            QueuedDelivery delivery;
+            while ((delivery = endpoint.poll()) != null) {
+                post(endpoint, delivery);
+            }
+        } finally {
+            endpoint.stopDraining();
+        }
+        // in case an event was queued after the last poll
+        scheduleDrain(endpoint);
+    }
+
+    private void post(WebhookEndpoint endpoint, QueuedDelivery delivery) {
+        boolean delivered;
+        long start = System.nanoTime();
+        try {
+            WebHooksPublisher.post(client, delivery.getUrl(),
+                    delivery.getPayload(),
+                    Optional.fromNullable(delivery.getSecret()));
+            endpoint.recordDelivered(System.nanoTime() - start);
+            delivered = true;
+        } catch (Exception e) {
+            endpoint.recordFailed(System.nanoTime() - start);
+            log.warn("webhook post to {} failed (attempt {}): {}",
+                    delivery.getUrl(), delivery.getAttempts() + 1,
+                    e.toString());
+            delivered = false;
+        }
+        try {
+            recordAttempt(delivery, delivered);
+        } catch (Exception e) {
+            log.error("unable to record webhook post to {}",
+                    delivery.getUrl(), e);
+        }
+    }
+
+    /**
+     * Deletes the saved delivery once it has been posted or given up on,
+     * otherwise saves it to be retried after a delay.
+     */
+    private void recordAttempt(QueuedDelivery delivery, boolean delivered)
+            throws Exception {
+        int attempts =
+                delivered ? delivery.getAttempts() : delivery.getAttempts() + 1;
+        boolean finished =
+                delivered || attempts >= webhookConfig.getMaxAttempts();
+        if (!delivered && finished) {
+            log.error("giving up on webhook post to {} after {} attempts",
+                    delivery.getUrl(), attempts);
+        }
+        Long deliveryId = delivery.getDeliveryId();
+        if (finished && deliveryId == null) {
+            return;
+        }
+        Date nextAttempt =
+                new Date(System.currentTimeMillis()
+                        + retryDelayMillis(attempts));
+        runInTransaction(() -> {
+            WebHookDeliveryDAO deliveryDAO = ServiceLocator.instance()
+                    .getInstance(WebHookDeliveryDAO.class);
+            WebHookDelivery saved =
+                    deliveryId == null ? null : deliveryDAO
+                            .findById(deliveryId);
+            if (finished) {
+                if (saved != null) {
+                    deliveryDAO.makeTransient(saved);
+                }
+            } else if (saved == null) {
+                deliveryDAO.makePersistent(new WebHookDelivery(
+                        delivery.getWebHookId(), delivery.getPayload(),
+                        attempts, nextAttempt));
+            } else {
+                saved.setAttempts(attempts);
+                saved.setNextAttempt(nextAttempt);
+            }
+            deliveryDAO.flush();
+            return null;
+        });
+    }
+
+    /**
+     * @return delay before the next attempt, after the given number of
+     *         failed attempts
+     */
+    @VisibleForTesting
+    static long retryDelayMillis(int failedAttempts) {
+        int doublings = Math.min(Math.max(failedAttempts - 1, 0), 20);
+        return Math.min(FIRST_RETRY_DELAY_MILLIS << doublings,
+                MAX_RETRY_DELAY_MILLIS);
+    }
+
+    // below are all monitoring stuff
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public Collection<String> getIntrospectableFieldNames() {
+        return Lists.newArrayList(INTROSPECTABLE_FIELD_ENDPOINTS,
+                INTROSPECTABLE_FIELD_METRICS);
+    }
+
+    @Override
+    public String getFieldValueAsString(String fieldName) {
+        if (INTROSPECTABLE_FIELD_ENDPOINTS.equals(fieldName)) {
+            return Iterables.toString(endpoints.asMap().values());
+        }
+        if (INTROSPECTABLE_FIELD_METRICS.equals(fieldName)) {
+            return summarizeMetrics();
+        }
+        throw new IllegalArgumentException("unknown field:" + fieldName);
+    }
+
+    private String summarizeMetrics() {
+        long queued = 0;
+        long delivered = 0;
+        long failed = 0;
+        long overflowed = 0;
+        long maxLatencyMillis = 0;
+        Collection<WebhookEndpoint> all = endpoints.asMap().values();
+        for (WebhookEndpoint endpoint : all) {
+            queued += endpoint.getQueueLength();
+            delivered += endpoint.getDeliveredCount();
+            failed += endpoint.getFailedCount();
+            overflowed += endpoint.getOverflowedCount();
+            maxLatencyMillis =
+                    Math.max(maxLatencyMillis, endpoint.getMaxLatencyMillis());
+        }
+        return Objects.toStringHelper("WebhookMetrics")
+                .add("endpoints", all.size())
+                .add("queued", queued)
+                .add("delivered", delivered)
+                .add("failed", failed)
+                .add("overflowed", overflowed)
+                .add("maxLatencyMillis", maxLatencyMillis)
+                .toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webhook;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Objects;
+
+/**
+ * Queue and metrics for a single webhook URL. At most one thread drains the
+ * queue at a time (see {@link #startDraining()}), so a slow receiver only
+ * ever holds up its own events.
+ */
+class WebhookEndpoint {
+    private final String url;
+    private final BlockingQueue<QueuedDelivery> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // metrics, updated without locking so they don't add contention
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos =
+            new LongAccumulator(Math::max, 0);
+
+    WebhookEndpoint(String url, int queueSize) {
+        this.url = url;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    boolean offer(QueuedDelivery delivery) {
+        if (queue.offer(delivery)) {
+            return true;
+        }
+        overflowed.increment();
+        return false;
+    }
+
+    QueuedDelivery poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Claims the queue for draining by the calling thread.
+     *
+     * @return false if the queue is empty or another thread is draining it
+     */
+    boolean startDraining() {
+        return !queue.isEmpty() && draining.compareAndSet(false, true);
+    }
+
+    void stopDraining() {
+        draining.set(false);
+    }
+
+    void recordDelivered(long latencyNanos) {
+        delivered.increment();
+        recordLatency(latencyNanos);
+    }
+
+    void recordFailed(long latencyNanos) {
+        failed.increment();
+        recordLatency(latencyNanos);
+    }
+
+    private void recordLatency(long latencyNanos) {
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulate(latencyNanos);
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    int getQueueLength() {
+        return queue.size();
+    }
+
+    long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return number of events which didn't fit in the queue
+     */
+    long getOverflowedCount() {
+        return overflowed.sum();
+    }
+
+    /**
+     * @return average time taken by a post, successful or not, in
+     *         milliseconds
+     */
+    long getAverageLatencyMillis() {
+        long posts = delivered.sum() + failed.sum();
+        if (posts == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.sum() / posts);
+    }
+
+    long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("url", url)
+                .add("queued", getQueueLength())
+                .add("delivered", getDeliveredCount())
+                .add("failed", getFailedCount())
+                .add("overflowed", getOverflowedCount())
+                .add("avgLatencyMillis", getAverageLatencyMillis())
+                .add("maxLatencyMillis", getMaxLatencyMillis())
+                .toString();
+    }
+}
@@ -168,6 +168,17 @@ public class ModalNavigationStateHolder {
         return selected;
     }
 
+    /**
+     * @return the id at an index of the navigation list, or null if the list
+     *         is not loaded yet or is shorter
+     */
+    protected TransUnitId getIdAtIndex(int index) {
+        if (idIndexList == null || index < 0 || index >= idIndexList.size()) {
+            return null;
+        }
+        return idIndexList.get(index);
+    }
+
     public TransUnitId getFirstId() {
         return idIndexList.get(0);
     }
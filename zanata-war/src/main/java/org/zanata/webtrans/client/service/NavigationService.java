@@ -130,6 +130,12 @@ public class NavigationService implements TransUnitUpdatedEventHandler,
         GetTransUnitList action =
                 GetTransUnitList.newAction(actionContext).setNeedReloadIndex(
                         needReloadIndex);
+        if (!needReloadIndex) {
+            // the navigation index still matches the context, so it tells the
+            // server where the page starts
+            action.setFirstTransUnitId(navigationStateHolder
+                    .getIdAtIndex(actionContext.getOffset()));
+        }
         Log.info("requesting transUnits: " + action);
         dispatcher.execute(action, new AsyncCallback<GetTransUnitListResult>() {
             @Override
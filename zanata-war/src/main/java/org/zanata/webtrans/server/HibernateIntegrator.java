@@ -10,6 +10,7 @@ import org.hibernate.integrator.spi.Integrator;
 import org.hibernate.metamodel.source.MetadataImplementor;
 import org.hibernate.service.spi.SessionFactoryServiceRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.zanata.dao.DocumentLocaleStateListener;
 import org.zanata.service.impl.SlugEntityUpdatedListener;
 import org.zanata.util.Contexts;
 import org.zanata.util.ServiceLocator;
@@ -49,6 +50,21 @@ public class HibernateIntegrator implements Integrator {
         eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE,
                 slugEntityUpdatedListener);
 
+        // appended after the default flush listeners, so that it runs once
+        // the flush has been executed
+        DocumentLocaleStateListener documentLocaleStateListener =
+                new DocumentLocaleStateListener();
+        eventListenerRegistry.appendListeners(EventType.POST_INSERT,
+                documentLocaleStateListener);
+        eventListenerRegistry.appendListeners(EventType.POST_UPDATE,
+                documentLocaleStateListener);
+        eventListenerRegistry.appendListeners(EventType.POST_DELETE,
+                documentLocaleStateListener);
+        eventListenerRegistry.appendListeners(EventType.FLUSH,
+                documentLocaleStateListener);
+        eventListenerRegistry.appendListeners(EventType.AUTO_FLUSH,
+                documentLocaleStateListener);
+
     }
 
     @Override
@@ -46,8 +46,14 @@ public interface TranslationWorkspace {
 
     Collection<EditorClientId> removeEditorClients(String httpSessionId);
 
+    /**
+     * Queues an event to be sent to every editor in the workspace, without
+     * waiting for it to be sent.
+     */
     <T extends SessionEventData> void publish(T eventData);
 
+    WorkspaceEventQueue getEventQueue();
+
     WorkspaceContext getWorkspaceContext();
 
     void updateUserSelection(EditorClientId editorClientId,
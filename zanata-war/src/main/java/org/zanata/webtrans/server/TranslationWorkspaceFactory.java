@@ -31,6 +31,8 @@ import org.zanata.webtrans.shared.NoSuchWorkspaceException;
 import org.zanata.webtrans.shared.model.WorkspaceContext;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 
+import java.util.concurrent.Executor;
+
 import javax.inject.Inject;
 
 /**
@@ -83,11 +85,12 @@ public class TranslationWorkspaceFactory {
                 localeDisplayName);
     }
 
-    public TranslationWorkspace createWorkspace(WorkspaceId workspaceId)
-            throws NoSuchWorkspaceException {
+    public TranslationWorkspace createWorkspace(WorkspaceId workspaceId,
+            Executor eventDispatchExecutor) throws NoSuchWorkspaceException {
         WorkspaceContext workspaceContext =
                 validateAndGetWorkspaceContext(workspaceId);
-        return new TranslationWorkspaceImpl(workspaceContext);
+        return new TranslationWorkspaceImpl(workspaceContext,
+                eventDispatchExecutor);
     }
 
 }
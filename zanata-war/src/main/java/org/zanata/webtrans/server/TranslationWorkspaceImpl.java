@@ -3,7 +3,10 @@ package org.zanata.webtrans.server;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,12 +20,8 @@ import org.zanata.webtrans.shared.rpc.ExitWorkspace;
 import org.zanata.webtrans.shared.rpc.SessionEventData;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapMaker;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 
 import de.novanic.eventservice.client.event.domain.Domain;
 import de.novanic.eventservice.client.event.domain.DomainFactory;
@@ -39,19 +38,19 @@ public class TranslationWorkspaceImpl implements TranslationWorkspace {
     private final Domain domain;
     private final ConcurrentMap<EditorClientId, PersonSessionDetails> sessions =
             new MapMaker().makeMap();
-    private final Multimap<String, EditorClientId> httpSessionToEditorClientId;
-    private final Map<String, EditorClientId> connectionIdToEditorClientId;
+    private final ConcurrentMap<String, Set<EditorClientId>>
+            httpSessionToEditorClientId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, EditorClientId>
+            connectionIdToEditorClientId = new ConcurrentHashMap<>();
     private final EventExecutorService eventExecutorService;
-
-    {
-        ArrayListMultimap<String, EditorClientId> almm =
-                ArrayListMultimap.create();
-        httpSessionToEditorClientId = Multimaps.synchronizedListMultimap(almm);
-        Map<String, EditorClientId> connMap = Maps.newHashMap();
-        connectionIdToEditorClientId = Collections.synchronizedMap(connMap);
-    }
-
-    public TranslationWorkspaceImpl(WorkspaceContext workspaceContext) {
+    private final WorkspaceEventQueue eventQueue;
+
+    /**
+     * @param eventDispatchExecutor
+     *            sends published events to the workspace's editors
+     */
+    public TranslationWorkspaceImpl(WorkspaceContext workspaceContext,
+            Executor eventDispatchExecutor) {
         Preconditions
                 .checkNotNull(workspaceContext, "workspaceContext is null");
 
@@ -62,6 +61,9 @@ public class TranslationWorkspaceImpl implements TranslationWorkspace {
                 EventExecutorServiceFactory.getInstance();
         this.eventExecutorService =
                 factory.getEventExecutorService(workspaceId);
+        this.eventQueue =
+                new WorkspaceEventQueue(eventDispatchExecutor,
+                        event -> eventExecutorService.addEvent(domain, event));
 
         UserManager userManager =
                 UserManagerFactory.getInstance().getUserManager();
@@ -106,7 +108,12 @@ public class TranslationWorkspaceImpl implements TranslationWorkspace {
         if (prev == null) {
             log.info("Added user {} with editorClientId {} to workspace {}",
                     personId.getId(), editorClientId, workspaceContext);
-            httpSessionToEditorClientId.put(httpSessionId, editorClientId);
+            httpSessionToEditorClientId.compute(httpSessionId, (id, ids) -> {
+                Set<EditorClientId> clientIds =
+                        ids != null ? ids : ConcurrentHashMap.newKeySet();
+                clientIds.add(editorClientId);
+                return clientIds;
+            });
         }
     }
 
@@ -121,7 +128,10 @@ public class TranslationWorkspaceImpl implements TranslationWorkspace {
     @Override
     public Collection<EditorClientId> removeEditorClients(String httpSessionId) {
         Collection<EditorClientId> editorClients =
-                httpSessionToEditorClientId.removeAll(httpSessionId);
+                httpSessionToEditorClientId.remove(httpSessionId);
+        if (editorClients == null) {
+            return Collections.emptySet();
+        }
         for (EditorClientId editorClientId : editorClients) {
             removeEditorClient(editorClientId);
         }
@@ -133,38 +143,37 @@ public class TranslationWorkspaceImpl implements TranslationWorkspace {
         PersonSessionDetails details = sessions.remove(editorClientId);
         if (details != null) {
             String httpSessionId = editorClientId.getHttpSessionId();
-            Collection<EditorClientId> clientIds =
-                    httpSessionToEditorClientId.get(httpSessionId);
-            if (clientIds != null) {
-                clientIds.remove(editorClientId);
-
-                // Send GWT Event to clients to update the user list
-                ExitWorkspace event =
-                        new ExitWorkspace(editorClientId, details.getPerson());
-                publish(event);
-
-                log.info(
-                        "Removed user {} with editorClientId {} from workspace {}",
-                        details.getPerson().getId(), editorClientId,
-                        workspaceContext);
-                return true;
-            } else {
-                log.warn(
-                        "Unable to remove user {} with editorClientId {} from workspace {}",
-                        details.getPerson().getId(), editorClientId,
-                        workspaceContext);
-            }
+            httpSessionToEditorClientId.computeIfPresent(httpSessionId,
+                    (id, clientIds) -> {
+                        clientIds.remove(editorClientId);
+                        return clientIds.isEmpty() ? null : clientIds;
+                    });
+
+            // Send GWT Event to clients to update the user list
+            ExitWorkspace event =
+                    new ExitWorkspace(editorClientId, details.getPerson());
+            publish(event);
+
+            log.info(
+                    "Removed user {} with editorClientId {} from workspace {}",
+                    details.getPerson().getId(), editorClientId,
+                    workspaceContext);
+            return true;
         } else {
             log.debug("EditorClientId {} not found in workspace {}",
                     editorClientId, workspaceContext);
             return false;
         }
-        return false;
     }
 
     @Override
     public <T extends SessionEventData> void publish(T eventData) {
-        eventExecutorService.addEvent(domain, eventData);
+        eventQueue.publish(eventData);
+    }
+
+    @Override
+    public WorkspaceEventQueue getEventQueue() {
+        return eventQueue;
     }
 
     @Override
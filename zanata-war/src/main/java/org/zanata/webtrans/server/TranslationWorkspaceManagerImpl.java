@@ -1,13 +1,16 @@
 package org.zanata.webtrans.server;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.ibm.icu.util.ULocale;
 import de.novanic.eventservice.service.registry.EventRegistry;
 import de.novanic.eventservice.service.registry.EventRegistryFactory;
@@ -28,6 +31,8 @@ import org.zanata.model.HProjectIteration;
 import org.zanata.service.GravatarService;
 import org.zanata.service.LocaleService;
 import org.zanata.service.ValidationService;
+import org.zanata.util.Introspectable;
+import org.zanata.util.ServiceLocator;
 import org.zanata.webtrans.shared.NoSuchWorkspaceException;
 import org.zanata.webtrans.shared.auth.EditorClientId;
 import org.zanata.webtrans.shared.model.Person;
@@ -49,8 +54,12 @@ import javax.inject.Named;
 import javax.persistence.EntityManager;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.zanata.transaction.TransactionUtil.runInTransaction;
@@ -59,7 +68,15 @@ import static org.zanata.transaction.TransactionUtil.runInTransaction;
 @Named("translationWorkspaceManager")
 @Slf4j
 public class TranslationWorkspaceManagerImpl implements
-        TranslationWorkspaceManager {
+        TranslationWorkspaceManager, Introspectable {
+
+    public static final String INTROSPECTABLE_FIELD_EVENT_QUEUES =
+            "WorkspaceEventQueues";
+    public static final String INTROSPECTABLE_FIELD_EVENT_METRICS =
+            "WorkspaceEventMetrics";
+    // each workspace sends its events on one thread at a time, so this is
+    // the number of workspaces which can be sending at once
+    private static final int EVENT_DISPATCH_THREADS = 4;
 
     @Inject
     private GravatarService gravatarServiceImpl;
@@ -82,6 +99,12 @@ public class TranslationWorkspaceManagerImpl implements
     private ConcurrentHashMap<WorkspaceId, TranslationWorkspace> workspaceMap;
     private Multimap<ProjectIterationId, TranslationWorkspace> projIterWorkspaceMap;
     private EventRegistry eventRegistry;
+    private ExecutorService eventDispatchExecutor;
+
+    public static TranslationWorkspaceManagerImpl getInstance() {
+        return ServiceLocator.instance().getInstance(
+                TranslationWorkspaceManagerImpl.class);
+    }
 
     @PostConstruct
     public void postConstruct() {
@@ -91,6 +114,11 @@ public class TranslationWorkspaceManagerImpl implements
         this.projIterWorkspaceMap = Multimaps.synchronizedMultimap(piwm);
         this.eventRegistry =
                 EventRegistryFactory.getInstance().getEventRegistry();
+        this.eventDispatchExecutor =
+                Executors.newFixedThreadPool(EVENT_DISPATCH_THREADS,
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("editor-events-%d")
+                                .setDaemon(true).build());
     }
 
     public void start(@Observes ServerStarted payload) {
@@ -287,6 +315,7 @@ public class TranslationWorkspaceManagerImpl implements
         UserManager userManager =
                 UserManagerFactory.getInstance().getUserManager();
         userManager.getUserActivityScheduler().stop();
+        eventDispatchExecutor.shutdown();
     }
 
     @Override
@@ -295,7 +324,8 @@ public class TranslationWorkspaceManagerImpl implements
         TranslationWorkspace workspace = workspaceMap.get(workspaceId);
         if (workspace == null) {
             workspace =
-                    translationWorkspaceFactory.createWorkspace(workspaceId);
+                    translationWorkspaceFactory.createWorkspace(workspaceId,
+                            eventDispatchExecutor);
             TranslationWorkspace prev =
                     workspaceMap.putIfAbsent(workspaceId, workspace);
 
@@ -313,4 +343,59 @@ public class TranslationWorkspaceManagerImpl implements
     public Optional<TranslationWorkspace> tryGetWorkspace(WorkspaceId workspaceId) {
         return Optional.fromNullable(workspaceMap.get(workspaceId));
     }
+
+    // below are all monitoring stuff
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public Collection<String> getIntrospectableFieldNames() {
+        return Lists.newArrayList(INTROSPECTABLE_FIELD_EVENT_QUEUES,
+                INTROSPECTABLE_FIELD_EVENT_METRICS);
+    }
+
+    @Override
+    public String getFieldValueAsString(String fieldName) {
+        if (INTROSPECTABLE_FIELD_EVENT_QUEUES.equals(fieldName)) {
+            List<String> queues = Lists.newArrayList();
+            for (Map.Entry<WorkspaceId, TranslationWorkspace> entry :
+                    workspaceMap.entrySet()) {
+                queues.add(entry.getKey() + ":"
+                        + entry.getValue().getEventQueue());
+            }
+            return queues.toString();
+        }
+        if (INTROSPECTABLE_FIELD_EVENT_METRICS.equals(fieldName)) {
+            return summarizeEventMetrics();
+        }
+        throw new IllegalArgumentException("unknown field:" + fieldName);
+    }
+
+    private String summarizeEventMetrics() {
+        long depth = 0;
+        long published = 0;
+        long coalesced = 0;
+        long sent = 0;
+        long maxLatencyMillis = 0;
+        Collection<TranslationWorkspace> workspaces = workspaceMap.values();
+        for (TranslationWorkspace workspace : workspaces) {
+            WorkspaceEventQueue queue = workspace.getEventQueue();
+            depth += queue.getDepth();
+            published += queue.getPublishedCount();
+            coalesced += queue.getCoalescedCount();
+            sent += queue.getSentCount();
+            maxLatencyMillis =
+                    Math.max(maxLatencyMillis, queue.getMaxLatencyMillis());
+        }
+        return MoreObjects.toStringHelper("WorkspaceEventMetrics")
+                .add("workspaces", workspaces.size())
+                .add("depth", depth)
+                .add("published", published)
+                .add("coalesced", coalesced)
+                .add("sent", sent)
+                .add("maxLatencyMillis", maxLatencyMillis)
+                .toString();
+    }
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.zanata.webtrans.shared.auth.EditorClientId;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
+import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Events waiting to be sent to the editors connected to a workspace. Events
+ * are sent in the order they were published, by one thread at a time, so the
+ * thread which publishes an event doesn't wait while it is fanned out to
+ * every editor.
+ * <p>
+ * A {@link TransUnitUpdated} which is still waiting is merged into a later
+ * update of the same text flow from the same editor, so that a burst of saves
+ * reaches the other editors as a single update. Only the latest waiting
+ * update of a text flow can be merged into, so updates of a text flow from
+ * different editors are never reordered.
+ */
+@Slf4j
+public class WorkspaceEventQueue {
+    private final Executor executor;
+    private final Consumer<SessionEventData> sender;
+    // guards queue, pendingUpdates and waiting, and is only held to add or
+    // remove an entry
+    private final Object lock = new Object();
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    // the latest waiting update of each text flow
+    private final Map<TransUnitId, Entry> pendingUpdates = Maps.newHashMap();
+    private int waiting;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // metrics, updated without locking so they don't add contention
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos =
+            new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxDepth =
+            new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param executor
+     *            runs the task which sends waiting events
+     * @param sender
+     *            sends an event to every editor in the workspace
+     */
+    WorkspaceEventQueue(Executor executor, Consumer<SessionEventData> sender) {
+        this.executor = executor;
+        this.sender = sender;
+    }
+
+    void publish(SessionEventData event) {
+        published.increment();
+        long now = System.nanoTime();
+        synchronized (lock) {
+            UpdateKey key = UpdateKey.of(event);
+            long publishedNanos = now;
+            if (key != null) {
+                Entry previous = pendingUpdates.get(key.getTransUnitId());
+                if (previous != null
+                        && key.equals(UpdateKey.of(previous.event))) {
+                    // the merged update takes the place of the new one, to
+                    // keep its order relative to other events
+                    event = merge((TransUnitUpdated) previous.event,
+                            (TransUnitUpdated) event);
+                    publishedNanos = previous.publishedNanos;
+                    previous.event = null;
+                    waiting--;
+                    coalesced.increment();
+                }
+            }
+            Entry entry = new Entry(event, publishedNanos);
+            if (key != null) {
+                // an earlier update of the text flow from another editor is
+                // no longer merged into, as that would move it after this one
+                pendingUpdates.put(key.getTransUnitId(), entry);
+            }
+            queue.add(entry);
+            waiting++;
+            maxDepth.accumulate(waiting);
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (isEmpty() || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // eg while shutting down
+            log.debug("event dispatch rejected; sending on this thread");
+            drain();
+        }
+    }
+
+    private void drain() {
+        try {
+            Entry entry;
+            while ((entry = poll()) != null) {
+                send(entry);
+            }
+        } finally {
+            draining.set(false);
+        }
+        // in case an event was published after the last poll
+        scheduleDrain();
+    }
+
+    private Entry poll() {
+        synchronized (lock) {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                if (entry.event != null) {
+                    UpdateKey key = UpdateKey.of(entry.event);
+                    if (key != null) {
+                        pendingUpdates.remove(key.getTransUnitId(), entry);
+                    }
+                    waiting--;
+                    return entry;
+                }
+                // else merged into a later update
+            }
+            return null;
+        }
+    }
+
+    private void send(Entry entry) {
+        try {
+            sender.accept(entry.event);
+            sent.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("unable to send event {}", entry.event, e);
+        } finally {
+            long latency = System.nanoTime() - entry.publishedNanos;
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulate(latency);
+        }
+    }
+
+    private boolean isEmpty() {
+        synchronized (lock) {
+            return waiting == 0;
+        }
+    }
+
+    /**
+     * Combines two updates of a text flow into one which reports the change
+     * from the state before the first to the state after the second, so that
+     * editors keep their statistics right.
+     */
+    static TransUnitUpdated merge(TransUnitUpdated first,
+            TransUnitUpdated second) {
+        TransUnitUpdateInfo firstInfo = first.getUpdateInfo();
+        TransUnitUpdateInfo secondInfo = second.getUpdateInfo();
+        TransUnitUpdateInfo merged =
+                new TransUnitUpdateInfo(secondInfo.isSuccess(),
+                        firstInfo.isTargetChanged()
+                                || secondInfo.isTargetChanged(),
+                        secondInfo.getDocumentId(),
+                        secondInfo.getTransUnit(),
+                        secondInfo.getSourceWordCount(),
+                        firstInfo.getPreviousVersionNum(),
+                        firstInfo.getPreviousState(),
+                        secondInfo.getErrorMessage());
+        return new TransUnitUpdated(merged, second.getEditorClientId(),
+                second.getUpdateType());
+    }
+
+    public int getDepth() {
+        synchronized (lock) {
+            return waiting;
+        }
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * @return number of updates merged into a later update
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return average time from publishing an event to having sent it to
+     *         every editor, in milliseconds
+     */
+    public long getAverageLatencyMillis() {
+        long count = sent.sum() + failed.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS
+                .toMillis(totalLatencyNanos.sum() / count);
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("depth", getDepth())
+                .add("maxDepth", getMaxDepth())
+                .add("published", getPublishedCount())
+                .add("coalesced", getCoalescedCount())
+                .add("sent", getSentCount())
+                .add("failed", getFailedCount())
+                .add("avgLatencyMillis", getAverageLatencyMillis())
+                .add("maxLatencyMillis", getMaxLatencyMillis())
+                .toString();
+    }
+
+    private static class Entry {
+        // null once merged into a later update
+        private SessionEventData event;
+        private final long publishedNanos;
+
+        private Entry(SessionEventData event, long publishedNanos) {
+            this.event = event;
+            this.publishedNanos = publishedNanos;
+        }
+    }
+
+    /**
+     * Identifies the updates which may be merged: those of the same text
+     * flow, made the same way in the same editor.
+     */
+    @Value
+    private static class UpdateKey {
+        TransUnitId transUnitId;
+        EditorClientId editorClientId;
+        TransUnitUpdated.UpdateType updateType;
+
+        static UpdateKey of(SessionEventData event) {
+            if (!(event instanceof TransUnitUpdated)) {
+                return null;
+            }
+            TransUnitUpdated update = (TransUnitUpdated) event;
+            if (update.getUpdateInfo().getTransUnit() == null) {
+                return null;
+            }
+            return new UpdateKey(
+                    update.getUpdateInfo().getTransUnit().getId(),
+                    update.getEditorClientId(), update.getUpdateType());
+        }
+    }
+}
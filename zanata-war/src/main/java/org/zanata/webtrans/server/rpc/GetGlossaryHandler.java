@@ -37,6 +37,8 @@ import org.zanata.dao.GlossaryDAO;
 import org.zanata.model.HGlossaryTerm;
 import org.zanata.search.LevenshteinUtil;
 import org.zanata.security.ZanataIdentity;
+import org.zanata.service.impl.GlossaryTermMatcherCache;
+import org.zanata.service.impl.GlossaryTermMatcherCache.TermPair;
 import org.zanata.util.ShortString;
 import org.zanata.webtrans.server.ActionHandlerFor;
 import org.zanata.webtrans.shared.model.GlossaryResultItem;
@@ -58,12 +60,18 @@ public class GetGlossaryHandler extends
 
     private static final int MAX_RESULTS = 20;
 
+    // relevance score of terms found by the matcher, which doesn't rank them
+    private static final float TERM_MATCH_SCORE = 1.0f;
+
     private static final Comparator<GlossaryResultItem> COMPARATOR =
             new GlossaryResultItemComparator();
 
     @Inject
     private GlossaryDAO glossaryDAO;
 
+    @Inject
+    private GlossaryTermMatcherCache glossaryTermMatcherCache;
+
     @Inject
     private ZanataIdentity identity;
 
@@ -79,15 +87,56 @@ public class GetGlossaryHandler extends
                 abbrev);
 
         LocaleId localeID = action.getLocaleId();
-        ArrayList<GlossaryResultItem> results;
+        Map<GlossaryKey, GlossaryResultItem> matchesMap =
+                new LinkedHashMap<GlossaryKey, GlossaryResultItem>();
+        if (searchType == SearchType.FUZZY) {
+            // the editor sends the sources of each selected trans unit as a
+            // fuzzy query; whole terms found in the text are the best matches,
+            // and the index adds partial matches
+            findTermsInText(matchesMap, searchText, action.getSrcLocaleId(),
+                    localeID);
+        }
+        searchIndex(matchesMap, searchText, searchType,
+                action.getSrcLocaleId(), localeID);
+
+        ArrayList<GlossaryResultItem> results =
+                new ArrayList<GlossaryResultItem>(matchesMap.values());
+        Collections.sort(results, COMPARATOR);
+        if (results.size() > MAX_RESULTS) {
+            results =
+                    new ArrayList<GlossaryResultItem>(results.subList(0,
+                            MAX_RESULTS));
+        }
 
+        log.debug("Returning {} Glossary matches for \"{}\"", results.size(),
+                abbrev);
+        return new GetGlossaryResult(action, results);
+    }
+
+    private void findTermsInText(
+            Map<GlossaryKey, GlossaryResultItem> matchesMap,
+            String searchText, LocaleId srcLocaleId, LocaleId localeID) {
+        List<TermPair> termPairs =
+                glossaryTermMatcherCache.getMatcher(srcLocaleId, localeID)
+                        .findAll(searchText);
+        for (TermPair termPair : termPairs) {
+            GlossaryResultItem item =
+                    getOrCreateGlossaryResultItem(matchesMap,
+                            termPair.getSrcContent(),
+                            termPair.getTargetContent(), TERM_MATCH_SCORE,
+                            searchText);
+            addSourceId(item, termPair.getSrcTermId());
+        }
+    }
+
+    private void searchIndex(Map<GlossaryKey, GlossaryResultItem> matchesMap,
+            String searchText, SearchType searchType, LocaleId srcLocaleId,
+            LocaleId localeID) {
         try {
             List<Object[]> matches =
                     glossaryDAO.getSearchResult(searchText, searchType,
-                            action.getSrcLocaleId(), MAX_RESULTS);
+                            srcLocaleId, MAX_RESULTS);
 
-            Map<GlossaryKey, GlossaryResultItem> matchesMap =
-                    new LinkedHashMap<GlossaryKey, GlossaryResultItem>();
             for (Object[] match : matches) {
                 HGlossaryTerm sourceTerm = (HGlossaryTerm) match[1];
                 HGlossaryTerm targetTerm = null;
@@ -105,9 +154,8 @@ public class GetGlossaryHandler extends
                         getOrCreateGlossaryResultItem(matchesMap,
                                 srcTermContent, targetTermContent,
                                 (Float) match[0], searchText);
-                item.addSourceId(sourceTerm.getId());
+                addSourceId(item, sourceTerm.getId());
             }
-            results = new ArrayList<GlossaryResultItem>(matchesMap.values());
         } catch (ParseException e) {
             if (searchType == SearchType.FUZZY) {
                 log.warn("Can't parse fuzzy query '" + searchText + "'");
@@ -115,14 +163,17 @@ public class GetGlossaryHandler extends
                 // escaping failed!
                 log.error("Can't parse query '" + searchText + "'", e);
             }
-            results = new ArrayList<GlossaryResultItem>(0);
         }
+    }
 
-        Collections.sort(results, COMPARATOR);
-
-        log.debug("Returning {} Glossary matches for \"{}\"", results.size(),
-                abbrev);
-        return new GetGlossaryResult(action, results);
+    /**
+     * Adds a source term to an item, unless the matcher and the index have
+     * both found it.
+     */
+    private static void addSourceId(GlossaryResultItem item, Long sourceId) {
+        if (!item.getSourceIdList().contains(sourceId)) {
+            item.addSourceId(sourceId);
+        }
     }
 
     private static GlossaryResultItem getOrCreateGlossaryResultItem(
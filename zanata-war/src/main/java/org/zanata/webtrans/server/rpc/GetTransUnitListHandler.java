@@ -20,12 +20,16 @@
  */
 package org.zanata.webtrans.server.rpc;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
 import net.customware.gwt.dispatch.server.ExecutionContext;
 import net.customware.gwt.dispatch.shared.ActionException;
 
+import javax.annotation.Nullable;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -33,15 +37,19 @@ import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.zanata.dao.TextFlowDAO;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.dao.TextFlowTargetReviewCommentsDAO;
 import org.zanata.exception.ZanataServiceException;
 import org.zanata.model.HLocale;
 import org.zanata.model.HTextFlow;
+import org.zanata.model.HTextFlowTarget;
 import org.zanata.search.FilterConstraints;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
 import org.zanata.service.ValidationService;
 import org.zanata.webtrans.server.ActionHandlerFor;
 import org.zanata.webtrans.shared.model.TransUnit;
+import org.zanata.webtrans.shared.model.TransUnitId;
 import org.zanata.webtrans.shared.rpc.EditorFilter;
 import org.zanata.webtrans.shared.rpc.GetTransUnitList;
 import org.zanata.webtrans.shared.rpc.GetTransUnitListResult;
@@ -49,10 +57,11 @@ import org.zanata.webtrans.shared.rpc.GetTransUnitsNavigation;
 import org.zanata.webtrans.shared.rpc.GetTransUnitsNavigationResult;
 import org.zanata.webtrans.shared.util.FindByTransUnitIdPredicate;
 
-import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 @Named("webtrans.gwt.GetTransUnitListHandler")
 @RequestScoped
@@ -66,6 +75,12 @@ public class GetTransUnitListHandler extends
     @Inject
     private TextFlowDAO textFlowDAO;
 
+    @Inject
+    private TextFlowTargetDAO textFlowTargetDAO;
+
+    @Inject
+    private TextFlowTargetReviewCommentsDAO textFlowTargetReviewCommentsDAO;
+
     @Inject
     private LocaleService localeServiceImpl;
 
@@ -139,8 +154,11 @@ public class GetTransUnitListHandler extends
             }
         }
 
+        TransUnitId firstTransUnitId =
+                getFirstTransUnitId(action, navigationResult, targetOffset);
         List<HTextFlow> textFlows =
-                getTextFlows(action, hLocale, targetOffset, constraints);
+                getTextFlows(action, hLocale, targetOffset, firstTransUnitId,
+                        constraints);
 
         GetTransUnitListResult result =
                 transformToTransUnits(action, hLocale, textFlows, targetOffset,
@@ -149,6 +167,36 @@ public class GetTransUnitListHandler extends
         return result;
     }
 
+    /**
+     * The first trans unit of the page comes from the navigation index, which
+     * is built with the same constraints and order as the page: the one just
+     * reloaded, or the client's current one.
+     */
+    @Nullable
+    private static TransUnitId getFirstTransUnitId(
+            GetTransUnitList action,
+            @Nullable GetTransUnitsNavigationResult navigationResult,
+            int offset) {
+        if (navigationResult == null) {
+            return action.getFirstTransUnitId();
+        }
+        List<TransUnitId> idIndexList = navigationResult.getIdIndexList();
+        return offset < idIndexList.size() ? idIndexList.get(offset) : null;
+    }
+
+    /**
+     * @return the position of the first text flow of the page, or absent if
+     *         it is unknown or no longer active in the document
+     */
+    private Optional<Integer> getFirstPos(GetTransUnitList action,
+            @Nullable TransUnitId firstTransUnitId) {
+        if (firstTransUnitId == null) {
+            return Optional.absent();
+        }
+        return textFlowDAO.getActiveTextFlowPos(action.getDocumentId()
+                .getId(), firstTransUnitId.getId());
+    }
+
     private DateTime parseDateIfPresent(String dateInString) {
         return Strings.isNullOrEmpty(dateInString) ? null :
                 dateFormatter.parseDateTime(dateInString);
@@ -161,17 +209,26 @@ public class GetTransUnitListHandler extends
     }
 
     private List<HTextFlow> getTextFlows(GetTransUnitList action,
-            HLocale hLocale, int offset, FilterConstraints constraints) {
+            HLocale hLocale, int offset,
+            @Nullable TransUnitId firstTransUnitId,
+            FilterConstraints constraints) {
         List<HTextFlow> textFlows;
         if (!hasStatusAndSearchFilter(action)) {
             log.debug("Fetch TransUnits:*");
             if (!hasValidationFilter(action)) {
-                // TODO debt: this should use a left join to fetch target (and
-                // possibly comments)
+                Long documentId = action.getDocumentId().getId();
+                Optional<Integer> firstPos =
+                        getFirstPos(action, firstTransUnitId);
+                if (!firstPos.isPresent()) {
+                    firstPos =
+                            textFlowDAO.getActiveTextFlowPosAtOffset(
+                                    documentId, offset);
+                }
                 textFlows =
-                        textFlowDAO.getTextFlowsByDocumentId(action
-                                .getDocumentId().getId(), offset,
-                                action.getCount());
+                        firstPos.isPresent() ? textFlowDAO
+                                .getTextFlowsByDocumentIdFromPos(documentId,
+                                        firstPos.get(), action.getCount())
+                                : Collections.<HTextFlow> emptyList();
             } else {
                 // TODO debt: this is not scalable. But we may not have other
                 // choice
@@ -190,10 +247,18 @@ public class GetTransUnitListHandler extends
             log.debug("Fetch TransUnits filtered by status and/or search: {}",
                     constraints);
             if (!hasValidationFilter(action)) {
+                Optional<Integer> firstPos =
+                        getFirstPos(action, firstTransUnitId);
                 textFlows =
-                        textFlowDAO.getTextFlowByDocumentIdWithConstraints(
-                                action.getDocumentId(), hLocale, constraints,
-                                offset, action.getCount());
+                        firstPos.isPresent() ? textFlowDAO
+                                .getTextFlowByDocumentIdWithConstraintsFromPos(
+                                        action.getDocumentId(), hLocale,
+                                        constraints, firstPos.get(),
+                                        action.getCount()) : textFlowDAO
+                                .getTextFlowByDocumentIdWithConstraints(
+                                        action.getDocumentId(), hLocale,
+                                        constraints, offset,
+                                        action.getCount());
             } else {
                 // has validation filter
                 textFlows =
@@ -235,9 +300,34 @@ public class GetTransUnitListHandler extends
     private GetTransUnitListResult transformToTransUnits(
             GetTransUnitList action, HLocale hLocale,
             List<HTextFlow> textFlows, int targetOffset, int targetPage) {
-        List<TransUnit> units =
-                Lists.transform(textFlows, new HTextFlowToTransUnitFunction(
-                        hLocale, transUnitTransformer));
+        // load the targets and comment counts of the whole page at once,
+        // instead of lazily for each text flow
+        List<Long> textFlowIds = Lists.newArrayList();
+        for (HTextFlow textFlow : textFlows) {
+            textFlowIds.add(textFlow.getId());
+        }
+        Map<Long, HTextFlowTarget> targets = Maps.newHashMap();
+        List<Long> targetIds = Lists.newArrayList();
+        for (HTextFlowTarget target : textFlowTargetDAO.findByTextFlowIdList(
+                textFlowIds, hLocale.getLocaleId())) {
+            targets.put(target.getTextFlow().getId(), target);
+            targetIds.add(target.getId());
+        }
+        Map<Long, Integer> commentCounts =
+                textFlowTargetReviewCommentsDAO
+                        .getReviewCommentCounts(targetIds);
+
+        // GWT RPC needs an ArrayList
+        ArrayList<TransUnit> units =
+                Lists.newArrayListWithCapacity(textFlows.size());
+        for (HTextFlow textFlow : textFlows) {
+            HTextFlowTarget target = targets.get(textFlow.getId());
+            int commentCount =
+                    target == null || !commentCounts.containsKey(target
+                            .getId()) ? 0 : commentCounts.get(target.getId());
+            units.add(transUnitTransformer.transform(textFlow, target,
+                    hLocale, commentCount));
+        }
 
         int gotoRow = 0;
         if (action.getTargetTransUnitId() != null) {
@@ -248,10 +338,8 @@ public class GetTransUnitListHandler extends
                 gotoRow = row;
             }
         }
-        // stupid GWT RPC can't handle
-        // com.google.common.collect.Lists$TransformingRandomAccessList
         return new GetTransUnitListResult(action.getDocumentId(),
-                Lists.newArrayList(units), gotoRow, targetOffset, targetPage);
+                units, gotoRow, targetOffset, targetPage);
     }
 
     @Override
@@ -259,21 +347,4 @@ public class GetTransUnitListHandler extends
             GetTransUnitListResult result, ExecutionContext context)
             throws ActionException {
     }
-
-    private static class HTextFlowToTransUnitFunction implements
-            Function<HTextFlow, TransUnit> {
-        private final HLocale hLocale;
-        private final TransUnitTransformer transformer;
-
-        public HTextFlowToTransUnitFunction(HLocale hLocale,
-                TransUnitTransformer transformer) {
-            this.hLocale = hLocale;
-            this.transformer = transformer;
-        }
-
-        @Override
-        public TransUnit apply(HTextFlow input) {
-            return transformer.transform(input, hLocale);
-        }
-    }
 }
@@ -58,6 +58,16 @@ public class TransUnitTransformer {
 
     public TransUnit transform(HTextFlow hTextFlow, HTextFlowTarget target,
             HLocale hLocale) {
+        return transform(hTextFlow, target, hLocale, getCommentCount(target));
+    }
+
+    /**
+     * @param commentCount
+     *            number of review comments of the target, when the caller has
+     *            counted them for many targets at once
+     */
+    public TransUnit transform(HTextFlow hTextFlow, HTextFlowTarget target,
+            HLocale hLocale, int commentCount) {
         HPotEntryData potEntryData = hTextFlow.getPotEntryData();
         String msgContext = null, refs = null, flags = null;
         if (potEntryData != null) {
@@ -95,7 +105,7 @@ public class TransUnitTransformer {
                     .setVerNum(
                         target == null ? NULL_TARGET_VERSION_NUM
                             : target.getVersionNum())
-                    .setCommentsCount(getCommentCount(target));
+                    .setCommentsCount(commentCount);
 
         if (target != null) {
             builder.setStatus(target.getState());
@@ -4,9 +4,11 @@ import net.customware.gwt.dispatch.server.ExecutionContext;
 import net.customware.gwt.dispatch.shared.ActionException;
 
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.zanata.dao.GlossaryDAO;
+import org.zanata.events.GlossaryChangedEvent;
 import org.zanata.exception.DuplicateGlossaryEntryException;
 import org.zanata.model.HGlossaryEntry;
 import org.zanata.model.HGlossaryTerm;
@@ -36,6 +38,9 @@ public class UpdateGlossaryTermHandler
     @Inject
     private LocaleService localeServiceImpl;
 
+    @Inject
+    private Event<GlossaryChangedEvent> glossaryChangedEvent;
+
     @Override
     public UpdateGlossaryTermResult execute(UpdateGlossaryTermAction action,
             ExecutionContext context) throws ActionException {
@@ -96,6 +101,8 @@ public class UpdateGlossaryTermHandler
 
             HGlossaryEntry entryResult = glossaryDAO.makePersistent(entry);
             glossaryDAO.flush();
+            glossaryChangedEvent.fire(new GlossaryChangedEvent(entryResult
+                    .getSrcLocale().getLocaleId()));
 
             srcTerm =
                     entryResult.getGlossaryTerms().get(
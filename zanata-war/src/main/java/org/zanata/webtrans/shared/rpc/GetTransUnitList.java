@@ -21,6 +21,7 @@ public class GetTransUnitList extends
     private List<ValidationId> validationIds;
     private TransUnitId targetTransUnitId;
     private boolean needReloadIndex = false;
+    private TransUnitId firstTransUnitId;
     private EditorFilter editorFilter;
 
     private GetTransUnitList() {
@@ -56,6 +57,20 @@ public class GetTransUnitList extends
         return this;
     }
 
+    /**
+     * @return the first trans unit of the requested page, if the client
+     *         knows it. The page can then be read from that trans unit's
+     *         position, instead of skipping offset trans units.
+     */
+    public TransUnitId getFirstTransUnitId() {
+        return firstTransUnitId;
+    }
+
+    public GetTransUnitList setFirstTransUnitId(TransUnitId firstTransUnitId) {
+        this.firstTransUnitId = firstTransUnitId;
+        return this;
+    }
+
     public int getOffset() {
         return offset;
     }
@@ -127,6 +142,7 @@ public class GetTransUnitList extends
             add("filterHasError", filterHasError).
             add("targetTransUnitId", targetTransUnitId).
             add("needReloadIndex", needReloadIndex).
+            add("firstTransUnitId", firstTransUnitId).
             add("editorFilter", editorFilter).
             toString();
       // @formatter:on
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncTaskLaneTest {
+    private AsyncTaskLane lane;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() {
+        lane = new AsyncTaskLane(AsyncTaskType.COPY_VERSION, 1, 1);
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        lane.shutdown();
+    }
+
+    @Test
+    public void rejectsTasksWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        lane.execute(() -> {
+            running.countDown();
+            awaitRelease();
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        // fills the queue
+        lane.execute(this::awaitRelease);
+
+        try {
+            lane.execute(this::awaitRelease);
+            throw new AssertionError("expected rejection");
+        } catch (AsyncTaskRejectedException e) {
+            assertThat(e.getHttpStatus()).isEqualTo(503);
+        }
+        assertThat(lane.getRejectedCount()).isEqualTo(1);
+        assertThat(lane.getQueueDepth()).isEqualTo(1);
+        assertThat(lane.getActiveCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordsCompletedTasks() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        release.countDown();
+        lane.execute(done::countDown);
+        lane.execute(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        lane.shutdown();
+        assertThat(lane.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lane.getCompletedCount()).isEqualTo(2);
+        assertThat(lane.getRejectedCount()).isEqualTo(0);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
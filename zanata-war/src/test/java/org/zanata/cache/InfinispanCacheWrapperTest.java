@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheLoader;
+
+public class InfinispanCacheWrapperTest {
+    private static final String CACHE_NAME = "nearCacheTest";
+
+    private InfinispanTestCacheContainer cacheContainer;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        cacheContainer = new InfinispanTestCacheContainer();
+    }
+
+    @After
+    public void tearDown() {
+        cacheContainer.stop();
+    }
+
+    private InfinispanCacheWrapper<String, String> wrapper(
+            CacheLoader<String, String> loader) {
+        cacheContainer.getCache(CACHE_NAME);
+        return new InfinispanCacheWrapper<>(CACHE_NAME, cacheContainer,
+                loader, 100, 60, refreshes::add, ticker);
+    }
+
+    private CacheLoader<String, String> countingLoader() {
+        return new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) {
+                return key + loads.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InfinispanCacheWrapper<String, String> cache =
+                wrapper(new CacheLoader<String, String>() {
+                    @Override
+                    public String load(String key) throws Exception {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        release.await(10, TimeUnit.SECONDS);
+                        return "value";
+                    }
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Callable<String> read = () -> cache.getWithLoader("key");
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(read));
+            loading.await(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(read));
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS))
+                        .isEqualTo("value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getCache().get("key")).isEqualTo("value");
+    }
+
+    @Test
+    public void usesValueAlreadyInInfinispan() {
+        InfinispanCacheWrapper<String, String> cache =
+                wrapper(countingLoader());
+        cache.getCache().put("key", "shared");
+
+        assertThat(cache.getWithLoader("key")).isEqualTo("shared");
+        assertThat(loads.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void servesStaleValueWhileRefreshing() {
+        InfinispanCacheWrapper<String, String> cache =
+                wrapper(countingLoader());
+        assertThat(cache.getWithLoader("key")).isEqualTo("key1");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertThat(cache.getWithLoader("key")).isEqualTo("key1");
+        assertThat(refreshes).hasSize(1);
+        refreshes.get(0).run();
+        assertThat(cache.getWithLoader("key")).isEqualTo("key2");
+        assertThat(cache.getCache().get("key")).isEqualTo("key2");
+    }
+
+    @Test
+    public void refreshDoesNotOverwriteConcurrentUpdate() {
+        AtomicReference<InfinispanCacheWrapper<String, String>> ref =
+                new AtomicReference<>();
+        InfinispanCacheWrapper<String, String> cache =
+                wrapper(new CacheLoader<String, String>() {
+                    @Override
+                    public String load(String key) {
+                        if (loads.incrementAndGet() > 1) {
+                            // another thread updates the entry meanwhile
+                            ref.get().getCache().put(key, "updated");
+                        }
+                        return key + loads.get();
+                    }
+                });
+        ref.set(cache);
+        assertThat(cache.getWithLoader("key")).isEqualTo("key1");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        cache.getWithLoader("key");
+        refreshes.get(0).run();
+
+        assertThat(cache.getCache().get("key")).isEqualTo("updated");
+        assertThat(cache.getWithLoader("key")).isEqualTo("updated");
+    }
+
+    @Test
+    public void nearCacheExpiresWithInfinispanLifespan() {
+        DefaultCacheManager cacheManager = new DefaultCacheManager(
+                new GlobalConfigurationBuilder().globalJmxStatistics()
+                        .allowDuplicateDomains(true).build(),
+                new ConfigurationBuilder().expiration()
+                        .lifespan(90, TimeUnit.SECONDS).build());
+        try {
+            InfinispanCacheWrapper<String, String> cache =
+                    new InfinispanCacheWrapper<>(CACHE_NAME, cacheManager,
+                            countingLoader(), 100, 60, refreshes::add,
+                            ticker);
+            cache.getWithLoader("key");
+
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(91));
+            cache.getWithLoader("key");
+
+            // expired rather than refreshed in the background
+            assertThat(refreshes).isEmpty();
+            assertThat(cache.getStats().missCount()).isEqualTo(2);
+        } finally {
+            cacheManager.stop();
+        }
+    }
+
+    @Test
+    public void failedRefreshKeepsOldValue() {
+        InfinispanCacheWrapper<String, String> cache =
+                new InfinispanCacheWrapper<>(CACHE_NAME, cacheContainer,
+                        countingLoader(), 100, 60, command -> {
+                            throw new RejectedExecutionException();
+                        }, ticker);
+        assertThat(cache.getWithLoader("key")).isEqualTo("key1");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertThat(cache.getWithLoader("key")).isEqualTo("key1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void writesGoToBothCaches() {
+        InfinispanCacheWrapper<String, String> cache =
+                wrapper(countingLoader());
+        cache.getWithLoader("key");
+
+        cache.put("key", "updated");
+        assertThat(cache.getWithLoader("key")).isEqualTo("updated");
+        assertThat(cache.getCache().get("key")).isEqualTo("updated");
+
+        assertThat(cache.remove("key")).isTrue();
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.getWithLoader("key")).isEqualTo("key2");
+    }
+
+    @Test
+    public void recordsStatistics() {
+        InfinispanCacheWrapper<String, String> cache =
+                wrapper(countingLoader());
+        cache.getWithLoader("a");
+        cache.getWithLoader("a");
+        cache.getWithLoader("b");
+
+        assertThat(cache.getStats().hitCount()).isEqualTo(1);
+        assertThat(cache.getStats().missCount()).isEqualTo(2);
+        assertThat(cache.getStats().loadSuccessCount()).isEqualTo(2);
+        assertThat(CacheStatisticsMonitor.getInstance().getFieldValueAsString(
+                CacheStatisticsMonitor.INTROSPECTABLE_FIELD_NEAR_CACHE_STATISTICS))
+                .contains(CACHE_NAME + "{hits=1, misses=2");
+    }
+}
@@ -29,6 +29,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.zanata.async.AsyncTaskType;
 
 /**
  * @author Carlos Munoz <a
@@ -62,4 +63,29 @@ public class AsyncConfigTest {
 
         assertThat(asyncConfig.getThreadPoolSize()).isEqualTo(10);
     }
+
+    @Test
+    public void testLaneDefaults() {
+        doReturn(THREAD_POOL_SIZE_VAL)
+                .when(configStore).get(AsyncConfig.THREAD_POOL_SIZE);
+
+        assertThat(asyncConfig.getLaneThreads(AsyncTaskType.DEFAULT))
+                .isEqualTo(15);
+        assertThat(asyncConfig.getLaneQueueSize(AsyncTaskType.DEFAULT))
+                .isEqualTo(0);
+        assertThat(asyncConfig.getLaneThreads(AsyncTaskType.COPY_VERSION))
+                .isEqualTo(AsyncTaskType.COPY_VERSION.getDefaultThreads());
+    }
+
+    @Test
+    public void testLaneOverrides() {
+        doReturn("3").when(configStore)
+                .get("async.lane.copy-version.threads");
+        doReturn("7").when(configStore).get("async.lane.copy-version.queue");
+
+        assertThat(asyncConfig.getLaneThreads(AsyncTaskType.COPY_VERSION))
+                .isEqualTo(3);
+        assertThat(asyncConfig.getLaneQueueSize(AsyncTaskType.COPY_VERSION))
+                .isEqualTo(7);
+    }
 }
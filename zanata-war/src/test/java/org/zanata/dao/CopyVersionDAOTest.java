@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.dbunit.operation.DatabaseOperation;
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.ZanataDbunitJpaTest;
+import org.zanata.common.LocaleId;
+import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
+import org.zanata.model.HTextFlow;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.model.HTextFlowTargetHistory;
+import org.zanata.model.HTextFlowTargetReviewComment;
+import org.zanata.model.type.TranslationSourceType;
+
+public class CopyVersionDAOTest extends ZanataDbunitJpaTest {
+    private static final String PROJECT_SLUG = "sample-project";
+    private static final String ITERATION_SLUG = "1.0";
+    private static final String DOC_ID = "my/path/document1.txt";
+    private static final String COPY_DOC_ID = "my/path/document1-copy.txt";
+
+    private CopyVersionDAO copyVersionDAO;
+    private DocumentDAO documentDAO;
+    private HLocale es;
+
+    @Override
+    protected void prepareDBUnitOperations() {
+        beforeTestOperations.add(new DataSetOperation(
+                "org/zanata/test/model/ClearAllTables.dbunit.xml",
+                DatabaseOperation.CLEAN_INSERT));
+        beforeTestOperations.add(new DataSetOperation(
+                "org/zanata/test/model/AccountData.dbunit.xml",
+                DatabaseOperation.CLEAN_INSERT));
+        beforeTestOperations.add(new DataSetOperation(
+                "org/zanata/test/model/LocalesData.dbunit.xml",
+                DatabaseOperation.CLEAN_INSERT));
+        beforeTestOperations.add(new DataSetOperation(
+                "org/zanata/test/model/CopyVersionData.dbunit.xml",
+                DatabaseOperation.CLEAN_INSERT));
+    }
+
+    @Before
+    public void setup() {
+        copyVersionDAO = new CopyVersionDAO(getSession());
+        documentDAO = new DocumentDAO(getSession());
+        es = new LocaleDAO(getSession()).findByLocaleId(new LocaleId("es"));
+    }
+
+    @Test
+    public void copiesTargetsWithHistoryAndComments() {
+        HDocument doc = getDocument(DOC_ID);
+        Long copyId = copyTextFlows(doc).getId();
+
+        int copied = copyVersionDAO.copyTargets(doc.getId(), copyId,
+                "copied");
+        getSession().clear();
+
+        doc = getDocument(DOC_ID);
+        HDocument copy = getDocument(COPY_DOC_ID);
+        assertThat(copied).isEqualTo(5);
+        assertThat(copy.getTextFlows()).hasSameSizeAs(doc.getTextFlows());
+        for (HTextFlow textFlow : doc.getTextFlows()) {
+            HTextFlow tfCopy = copy.getAllTextFlows().get(textFlow.getResId());
+            assertThat(tfCopy.getTargets().keySet())
+                    .isEqualTo(textFlow.getTargets().keySet());
+            for (Map.Entry<Long, HTextFlowTarget> entry : textFlow
+                    .getTargets().entrySet()) {
+                assertTargetCopy(entry.getValue(),
+                        tfCopy.getTargets().get(entry.getKey()));
+            }
+        }
+    }
+
+    private void assertTargetCopy(HTextFlowTarget target,
+            HTextFlowTarget copy) {
+        assertThat(copy.getId()).isNotEqualTo(target.getId());
+        assertThat(copy.getContents()).isEqualTo(target.getContents());
+        assertThat(copy.getState()).isEqualTo(target.getState());
+        assertThat(copy.getVersionNum()).isEqualTo(target.getVersionNum());
+        assertThat(copy.getTranslator()).isEqualTo(target.getTranslator());
+        assertThat(copy.getReviewer()).isEqualTo(target.getReviewer());
+        assertThat(copy.getRevisionComment()).startsWith("copied");
+        assertThat(copy.getSourceType())
+                .isEqualTo(TranslationSourceType.COPY_VERSION);
+        assertThat(copy.getCopiedEntityId()).isEqualTo(target.getId());
+
+        Map<Integer, HTextFlowTargetHistory> history = target.getHistory();
+        Map<Integer, HTextFlowTargetHistory> historyCopy = copy.getHistory();
+        assertThat(historyCopy.keySet()).isEqualTo(history.keySet());
+        for (Map.Entry<Integer, HTextFlowTargetHistory> entry : history
+                .entrySet()) {
+            HTextFlowTargetHistory old = entry.getValue();
+            HTextFlowTargetHistory copied = historyCopy.get(entry.getKey());
+            assertThat(copied.getId()).isNotEqualTo(old.getId());
+            assertThat(copied.getContents()).isEqualTo(old.getContents());
+            assertThat(copied.getState()).isEqualTo(old.getState());
+            assertThat(copied.getCopiedEntityId()).isEqualTo(old.getId());
+        }
+
+        List<HTextFlowTargetReviewComment> comments =
+                target.getReviewComments();
+        List<HTextFlowTargetReviewComment> commentsCopy =
+                copy.getReviewComments();
+        assertThat(commentsCopy).hasSameSizeAs(comments);
+        for (int i = 0; i < comments.size(); i++) {
+            assertThat(commentsCopy.get(i).getComment())
+                    .isEqualTo(comments.get(i).getComment());
+            assertThat(commentsCopy.get(i).getCommenter())
+                    .isEqualTo(comments.get(i).getCommenter());
+            assertThat(commentsCopy.get(i).getTargetVersion())
+                    .isEqualTo(copy.getVersionNum());
+        }
+
+        if (target.getComment() == null) {
+            assertThat(copy.getComment()).isNull();
+        } else {
+            // a new comment, rather than one shared with the old target
+            assertThat(copy.getComment().getId())
+                    .isNotEqualTo(target.getComment().getId());
+            assertThat(copy.getComment().getComment())
+                    .isEqualTo(target.getComment().getComment());
+        }
+    }
+
+    @Test
+    public void copyingTargetsChangesDocumentStateHash() {
+        HDocument doc = getDocument(DOC_ID);
+        HDocument copy = copyTextFlows(doc);
+        String hashBefore = documentDAO.getTranslatedDocumentStateHash(
+                PROJECT_SLUG, ITERATION_SLUG, COPY_DOC_ID, es);
+
+        copyVersionDAO.copyTargets(doc.getId(), copy.getId(), "copied");
+
+        assertThat(documentDAO.getTranslatedDocumentStateHash(PROJECT_SLUG,
+                ITERATION_SLUG, COPY_DOC_ID, es)).isNotEqualTo(hashBefore);
+        assertThat(documentDAO.getTranslationRevisions(PROJECT_SLUG,
+                ITERATION_SLUG, es).get(copy.getId())).isEqualTo(1L);
+    }
+
+    @Test
+    public void copyingTargetsIncrementsExistingRevision() {
+        HDocument doc = getDocument(DOC_ID);
+        HDocument copy = copyTextFlows(doc);
+        // eg from a PO target header copied with the document
+        getSession().createSQLQuery("insert into HDocumentLocaleState"
+                + " (document_id, locale_id, revision, lastChanged)"
+                + " values (:documentId, :localeId, 1, current_timestamp)")
+                .setParameter("documentId", copy.getId())
+                .setParameter("localeId", es.getId())
+                .executeUpdate();
+
+        copyVersionDAO.copyTargets(doc.getId(), copy.getId(), "copied");
+
+        assertThat(documentDAO.getTranslationRevisions(PROJECT_SLUG,
+                ITERATION_SLUG, es).get(copy.getId())).isEqualTo(2L);
+    }
+
+    private HDocument getDocument(String docId) {
+        return documentDAO.getByProjectIterationAndDocId(PROJECT_SLUG,
+                ITERATION_SLUG, docId);
+    }
+
+    /**
+     * Copies the document and its text flows within the same version, as
+     * CopyVersionServiceImpl does before copying the targets.
+     */
+    private HDocument copyTextFlows(HDocument doc) {
+        HDocument copy = new HDocument(COPY_DOC_ID, doc.getContentType(),
+                doc.getLocale());
+        copy.setProjectIteration(doc.getProjectIteration());
+        for (HTextFlow textFlow : doc.getTextFlows()) {
+            HTextFlow tfCopy = new HTextFlow(copy, textFlow.getResId(),
+                    textFlow.getContents().get(0));
+            copy.getTextFlows().add(tfCopy);
+        }
+        getSession().save(copy);
+        getSession().flush();
+        return copy;
+    }
+}
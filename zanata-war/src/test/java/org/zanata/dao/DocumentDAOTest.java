@@ -22,8 +22,13 @@ package org.zanata.dao;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import javax.annotation.Nullable;
 
 import org.dbunit.operation.DatabaseOperation;
@@ -36,6 +41,9 @@ import org.zanata.model.HLocale;
 import org.zanata.model.HSimpleComment;
 import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
+import org.zanata.rest.dto.stats.ContainerTranslationStatistics;
+import org.zanata.rest.dto.stats.TranslationStatistics;
+import org.zanata.rest.dto.stats.TranslationStatistics.StatUnit;
 
 import com.google.common.base.Function;
 
@@ -196,6 +204,74 @@ public class DocumentDAOTest extends ZanataDbunitJpaTest {
         }, true);
     }
 
+    @Test
+    public void translationChangesRevisionInLocaleOnly() throws Exception {
+        HDocument doc =
+                documentDAO.getByProjectIterationAndDocId(PROJECT_SLUG,
+                        ITERATION_SLUG, DOC_ID);
+        Map<Long, Long> asBefore =
+                documentDAO.getTranslationRevisions(PROJECT_SLUG,
+                        ITERATION_SLUG, as);
+        Map<Long, Long> deBefore =
+                documentDAO.getTranslationRevisions(PROJECT_SLUG,
+                        ITERATION_SLUG, de);
+
+        HTextFlowTarget tft =
+                doc.getTextFlows().get(0).getTargets().get(as.getId());
+        tft.setContent0("new Translation for as");
+        getSession().flush();
+
+        assertThat(revision(documentDAO.getTranslationRevisions(PROJECT_SLUG,
+                ITERATION_SLUG, as), doc), equalTo(revision(asBefore, doc) + 1));
+        assertThat(documentDAO.getTranslationRevisions(PROJECT_SLUG,
+                ITERATION_SLUG, de), equalTo(deBefore));
+    }
+
+    private static long revision(Map<Long, Long> revisions, HDocument doc) {
+        Long revision = revisions.get(doc.getId());
+        return revision == null ? 0 : revision;
+    }
+
+    @Test
+    public void iterationStatisticsMatchDocumentStatistics() throws Exception {
+        HDocument doc =
+                documentDAO.getByProjectIterationAndDocId(PROJECT_SLUG,
+                        ITERATION_SLUG, DOC_ID);
+        List<LocaleId> localeIds =
+                Arrays.asList(as.getLocaleId(), de.getLocaleId());
+
+        Map<Long, Map<LocaleId, ContainerTranslationStatistics>> allStats =
+                documentDAO.getStatisticsForIteration(doc
+                        .getProjectIteration().getId(), localeIds);
+
+        assertThat(allStats.keySet(), hasItem(doc.getId()));
+        for (Long docId : allStats.keySet()) {
+            for (LocaleId localeId : localeIds) {
+                ContainerTranslationStatistics expected =
+                        documentDAO.getStatistics(docId, localeId);
+                ContainerTranslationStatistics actual =
+                        allStats.get(docId).get(localeId);
+                for (StatUnit unit : StatUnit.values()) {
+                    assertSameCounts(
+                            expected.getStats(localeId.getId(), unit),
+                            actual.getStats(localeId.getId(), unit));
+                }
+            }
+        }
+    }
+
+    private static void assertSameCounts(TranslationStatistics expected,
+            TranslationStatistics actual) {
+        assertThat(actual.getTotal(), equalTo(expected.getTotal()));
+        assertThat(actual.getUntranslated(),
+                equalTo(expected.getUntranslated()));
+        assertThat(actual.getDraft(), equalTo(expected.getDraft()));
+        assertThat(actual.getTranslatedOnly(),
+                equalTo(expected.getTranslatedOnly()));
+        assertThat(actual.getApproved(), equalTo(expected.getApproved()));
+        assertThat(actual.getRejected(), equalTo(expected.getRejected()));
+    }
+
     // TODO set up the dbunit data with a pre-existing comment so that we can use this test
 //    @Test
 //    public void tftCommentChangesHash() throws Exception {
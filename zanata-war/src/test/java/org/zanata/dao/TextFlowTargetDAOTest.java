@@ -21,17 +21,25 @@
 
 package org.zanata.dao;
 
+import java.util.Map;
+
 import org.dbunit.operation.DatabaseOperation;
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.zanata.ZanataDbunitJpaTest;
+import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.model.HLocale;
+import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.HTextFlowTargetHistory;
 import org.zanata.model.type.EntityType;
 import org.zanata.model.type.TranslationSourceType;
 
+import com.google.common.collect.Lists;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -116,4 +124,42 @@ public class TextFlowTargetDAOTest extends ZanataDbunitJpaTest {
         assertThat(history1.getSourceType()).isEqualTo(sourceType1);
         assertThat(history1.getCopiedEntityId()).isEqualTo(copiedEntityId1);
     }
+
+    @Test
+    public void getTargetsWithHistoryLoadsOnlyOneLocale() {
+        HTextFlow textFlow = (HTextFlow) getSession().get(HTextFlow.class, 1L);
+        Statistics stats = getSession().getSessionFactory().getStatistics();
+        stats.setStatisticsEnabled(true);
+        stats.clear();
+
+        Map<Long, HTextFlowTarget> targets =
+                textFlowTargetDAO.getTargetsWithHistory(
+                        Lists.newArrayList(textFlow), de);
+
+        assertThat(targets.keySet()).containsOnly(1L);
+        HTextFlowTarget target = targets.get(1L);
+        assertThat(target.getId()).isEqualTo(2L);
+        assertThat(target.getHistory()).isEmpty();
+        // the history came with the target, and the text flow's targets in
+        // other locales were not loaded
+        assertThat(stats.getCollectionFetchCount()).isEqualTo(0);
+        assertThat(Hibernate.isInitialized(textFlow.getTargets())).isFalse();
+    }
+
+    @Test
+    public void makePersistentNewLeavesTextFlowTargetsUnloaded() {
+        HTextFlow textFlow = (HTextFlow) getSession().get(HTextFlow.class, 2L);
+        HTextFlowTarget target = new HTextFlowTarget(textFlow, de);
+        target.setContents("new translation");
+        target.setState(ContentState.Translated);
+
+        textFlowTargetDAO.makePersistentNew(target);
+        textFlowTargetDAO.flush();
+
+        assertThat(Hibernate.isInitialized(textFlow.getTargets())).isFalse();
+        getSession().clear();
+        textFlow = (HTextFlow) getSession().get(HTextFlow.class, 2L);
+        assertThat(textFlow.getTargets().get(de.getId()).getId())
+                .isEqualTo(target.getId());
+    }
 }
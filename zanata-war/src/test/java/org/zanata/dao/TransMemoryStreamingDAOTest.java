@@ -1,6 +1,7 @@
 package org.zanata.dao;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.zanata.model.tm.TransMemory.tm;
 import static org.zanata.model.tm.TransMemoryUnit.tu;
@@ -8,6 +9,7 @@ import static org.zanata.model.tm.TransMemoryUnitVariant.tuv;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 
 import lombok.Cleanup;
 
@@ -25,6 +27,7 @@ import org.zanata.util.CloseableIterator;
 import com.google.common.base.Optional;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
 
 public class TransMemoryStreamingDAOTest extends ZanataJpaTest {
     private TransMemoryStreamingDAO dao;
@@ -56,6 +59,31 @@ public class TransMemoryStreamingDAOTest extends ZanataJpaTest {
         deleteTMData();
     }
 
+    @Test
+    public void findTransUnitsInIdRange() throws Exception {
+        deleteTMData();
+        createTMData();
+
+        session = newSession();
+
+        TransMemory transMemory = transMemoryDAO.getBySlug("testTM").get();
+        Range<Long> ids = dao.findTransUnitIdRange(transMemory).get();
+        assertThat(ids.upperEndpoint() - ids.lowerEndpoint(), equalTo(3L));
+
+        @Cleanup
+        CloseableIterator<TransMemoryUnit> iter =
+                dao.findTransUnitsByTM(transMemory, Range.closedOpen(
+                        ids.lowerEndpoint() + 1, ids.upperEndpoint()));
+        List<Long> found = Lists.newArrayList();
+        while (iter.hasNext()) {
+            found.add(iter.next().getId());
+        }
+        assertThat(found, contains(ids.lowerEndpoint() + 1,
+                ids.lowerEndpoint() + 2));
+
+        deleteTMData();
+    }
+
     private void createTMData() {
         TransMemory tm = tm("testTM");
         session.save(tm);
@@ -1,10 +1,19 @@
 package org.zanata.database;
 
 import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
 
 // This class is a workaround for https://hibernate.atlassian.net/browse/HHH-7002
 public class CustomH2Dialect extends H2Dialect {
 
+    public CustomH2Dialect() {
+        // like is already case sensitive in H2, so binary() (which makes it
+        // case sensitive in MySQL, see HqlCriterion) has nothing to do
+        registerFunction("binary", new SQLFunctionTemplate(
+                StandardBasicTypes.STRING, "?1"));
+    }
+
     @Override
     public String getDropSequenceString(String sequenceName) {
         // Adding the "if exists" clause to avoid warnings
@@ -35,16 +35,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.sql.Blob;
-import java.sql.SQLException;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.deltaspike.core.spi.scope.window.WindowContext;
 import org.hibernate.Session;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.zanata.common.EntityStatus;
@@ -69,7 +65,7 @@ import javax.inject.Inject;
 public class DocumentUploadUtilTest extends DocumentUploadTest {
 
     private static final String HASH_OF_ABCDEFGHI =
-            "d41d8cd98f00b204e9800998ecf8427e";
+            "8aa99b1f439ff71293e95357bac6fd94";
     @Produces @Mock
     Session session;
     @Produces @Mock
@@ -85,14 +81,6 @@ public class DocumentUploadUtilTest extends DocumentUploadTest {
     @Produces @ServerPath String serverPath = "";
     @Produces @ContextPath String contextPath = "";
 
-    @Mock
-    Blob partBlob0;
-    @Mock
-    Blob partBlob1;
-
-    @Captor
-    private ArgumentCaptor<InputStream> persistedInputStreamCaptor;
-
     @Inject
     private DocumentUploadUtil util;
 
@@ -329,43 +317,41 @@ public class DocumentUploadUtilTest extends DocumentUploadTest {
     }
 
     @Test
-    public void canCombineUploadPartsInOrder() throws SQLException, IOException {
+    public void canCombineUploadParts() {
         HDocumentUpload upload = mockTwoPartUploadUsingHash(HASH_OF_ABCDEFGHI);
-
         InputStream finalPartStream =
                 new ByteArrayInputStream("ghi".getBytes());
-        File persistedFile = new File("test");
+        File combinedFile = new File("test");
+        when(uploadPartPersistService.combineWithFinalPart(upload,
+                finalPartStream)).thenReturn(
+                new CombinedUpload(combinedFile, HASH_OF_ABCDEFGHI));
 
         DocumentFileUploadForm uploadForm = new DocumentFileUploadForm();
         uploadForm.setFileStream(finalPartStream);
 
-        when(
-                translationFileService
-                        .persistToTempFile(persistedInputStreamCaptor.capture()))
-                .thenReturn(persistedFile);
-
         File returnedFile =
                 util.combineToTempFileAndDeleteUploadRecord(upload,
                         uploadForm);
 
-        assertThat(returnedFile, is(sameInstance(persistedFile)));
-        String persistedContents =
-                IOUtils.toString(persistedInputStreamCaptor.getValue(), "utf-8");
-        assertThat(persistedContents, is("abcdefghi"));
+        assertThat(returnedFile, is(sameInstance(combinedFile)));
         verify(session).delete(upload);
     }
 
     @Test
-    public void combineFailsOnHashMismatch() throws SQLException {
+    public void combineFailsOnHashMismatch() {
         HDocumentUpload upload = mockTwoPartUploadUsingHash("incorrect hash");
         InputStream finalPartStream =
                 new ByteArrayInputStream("ghi".getBytes());
+        when(uploadPartPersistService.combineWithFinalPart(upload,
+                finalPartStream)).thenReturn(
+                new CombinedUpload(new File("test"), HASH_OF_ABCDEFGHI));
 
         DocumentFileUploadForm uploadForm = new DocumentFileUploadForm();
         uploadForm.setFileStream(finalPartStream);
 
         try {
             util.combineToTempFileAndDeleteUploadRecord(upload, uploadForm);
+            fail("Should throw exception if hash does not match");
         } catch (ChunkUploadException e) {
             assertThat(e.getStatusCode(), is(CONFLICT));
             assertThat(
@@ -374,13 +360,18 @@ public class DocumentUploadUtilTest extends DocumentUploadTest {
                           "not match server-generated hash. Aborted upload " +
                           "operation."));
         }
+        verify(uploadPartPersistService).discard(upload);
+        verify(session).delete(upload);
     }
 
     @Test
-    public void combineSetsHashWhenNoHashProvided() throws SQLException {
+    public void combineSetsHashWhenNoHashProvided() {
         HDocumentUpload upload = mockTwoPartUploadUsingHash("");
         InputStream finalPartStream =
                 new ByteArrayInputStream("ghi".getBytes());
+        when(uploadPartPersistService.combineWithFinalPart(upload,
+                finalPartStream)).thenReturn(
+                new CombinedUpload(new File("test"), HASH_OF_ABCDEFGHI));
 
         DocumentFileUploadForm uploadForm = new DocumentFileUploadForm();
         uploadForm.setFileStream(finalPartStream);
@@ -389,21 +380,16 @@ public class DocumentUploadUtilTest extends DocumentUploadTest {
         assertThat(uploadForm.getHash(), is(HASH_OF_ABCDEFGHI));
     }
 
-    private HDocumentUpload mockTwoPartUploadUsingHash(String hash)
-            throws SQLException {
+    private HDocumentUpload mockTwoPartUploadUsingHash(String hash) {
         HDocumentUpload upload = new HDocumentUpload();
         upload.setContentHash(hash);
 
         HDocumentUploadPart part0 = new HDocumentUploadPart();
-        when(partBlob0.getBinaryStream()).thenReturn(
-                new ByteArrayInputStream("abc".getBytes()));
-        part0.setContent(partBlob0);
+        part0.setContentLength(3);
         upload.getParts().add(part0);
 
         HDocumentUploadPart part1 = new HDocumentUploadPart();
-        when(partBlob1.getBinaryStream()).thenReturn(
-                new ByteArrayInputStream("def".getBytes()));
-        part1.setContent(partBlob1);
+        part1.setContentLength(3);
         upload.getParts().add(part1);
         return upload;
     }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.zanata.ApplicationConfiguration;
+import org.zanata.exception.ChunkUploadException;
+import org.zanata.model.HDocumentUpload;
+import org.zanata.model.HDocumentUploadPart;
+import org.zanata.test.CdiUnitRunner;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+@RunWith(CdiUnitRunner.class)
+public class FilePartPersistServiceTest {
+    private static final String HASH_OF_ABCDEFGHI =
+            "8aa99b1f439ff71293e95357bac6fd94";
+
+    @Produces @Mock
+    ApplicationConfiguration appConfig;
+
+    @Inject
+    private FilePartPersistService service;
+
+    private File storageDir;
+    private HDocumentUpload upload;
+
+    @Before
+    public void setUp() {
+        storageDir = Files.createTempDir();
+        when(appConfig.getDocumentFileStorageLocation())
+                .thenReturn(storageDir.getAbsolutePath());
+        upload = new HDocumentUpload();
+        upload.setId(1L);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(storageDir);
+    }
+
+    private void addPart(String content) {
+        HDocumentUploadPart part =
+                service.newUploadPartFromStream(upload, stream(content),
+                        content.length());
+        upload.getParts().add(part);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(Charsets.UTF_8));
+    }
+
+    private static String contents(File file) throws IOException {
+        return Files.toString(file, Charsets.UTF_8);
+    }
+
+    @Test
+    public void combinesPartsInOrder() throws IOException {
+        addPart("abc");
+        addPart("def");
+
+        CombinedUpload combined =
+                service.combineWithFinalPart(upload, stream("ghi"));
+
+        assertThat(contents(combined.getFile())).isEqualTo("abcdefghi");
+        assertThat(combined.getMd5Hash()).isEqualTo(HASH_OF_ABCDEFGHI);
+        assertThat(upload.getParts()).extracting("contentLength")
+                .containsExactly(3L, 3L);
+    }
+
+    @Test
+    public void resentPartReplacesFailedAttempt() throws IOException {
+        addPart("abc");
+        // a part which was written but never recorded, so the cached digest
+        // no longer matches the recorded parts and they must be rehashed
+        service.newUploadPartFromStream(upload, stream("xxxxxx"), 6);
+        addPart("def");
+
+        CombinedUpload combined =
+                service.combineWithFinalPart(upload, stream("ghi"));
+
+        assertThat(contents(combined.getFile())).isEqualTo("abcdefghi");
+        assertThat(combined.getMd5Hash()).isEqualTo(HASH_OF_ABCDEFGHI);
+    }
+
+    @Test
+    public void failsIfEarlierPartsAreMissing() {
+        addPart("abc");
+        service.discard(upload);
+
+        try {
+            service.combineWithFinalPart(upload, stream("ghi"));
+            fail("Should throw exception if earlier parts are missing");
+        } catch (ChunkUploadException e) {
+            assertThat(e.getStatusCode()).isEqualTo(Status.CONFLICT);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.jglue.cdiunit.InRequestScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.zanata.ApplicationConfiguration;
+import org.zanata.common.ContentType;
+import org.zanata.common.LocaleId;
+import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.RawDocumentDAO;
+import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
+import org.zanata.model.HProject;
+import org.zanata.model.HProjectIteration;
+import org.zanata.model.HRawDocument;
+import org.zanata.rest.service.VirusScanner;
+import org.zanata.test.CdiUnitRunner;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+@RunWith(CdiUnitRunner.class)
+public class FileSystemPersistServiceTest {
+    private static final String HASH_OF_ABC =
+            "900150983cd24fb0d6963f7d28e17f72";
+
+    @Produces @Mock
+    ApplicationConfiguration appConfig;
+    @Produces @Mock
+    DocumentDAO documentDAO;
+    @Produces @Mock
+    RawDocumentDAO rawDocumentDAO;
+    @Produces @Mock
+    VirusScanner virusScanner;
+
+    @Inject
+    private FileSystemPersistService service;
+
+    private File storageDir;
+    private File docsDir;
+
+    @Before
+    public void setUp() {
+        storageDir = Files.createTempDir();
+        docsDir = new File(storageDir, "documents");
+        when(appConfig.getDocumentFileStorageLocation())
+                .thenReturn(storageDir.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(storageDir);
+    }
+
+    private static HRawDocument rawDocument(String docId, String hash) {
+        HProject project = new HProject();
+        project.setSlug("project");
+        HProjectIteration version = new HProjectIteration();
+        version.setSlug("version");
+        version.setProject(project);
+        HDocument document =
+                new HDocument(docId, ContentType.TextPlain, new HLocale(
+                        LocaleId.EN_US));
+        document.setProjectIteration(version);
+        HRawDocument rawDocument = new HRawDocument();
+        rawDocument.setDocument(document);
+        rawDocument.setContentHash(hash);
+        return rawDocument;
+    }
+
+    private File tempFileWith(String content) throws IOException {
+        File file = File.createTempFile("upload", ".tmp", storageDir);
+        Files.write(content, file, Charsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    @InRequestScope
+    public void storesSameContentOnce() throws IOException {
+        HRawDocument first = rawDocument("first.txt", HASH_OF_ABC);
+        HRawDocument second = rawDocument("second.txt", null);
+
+        service.persistRawDocumentContentFromTempFile(first,
+                tempFileWith("abc"), "txt");
+        service.persistRawDocumentContentFromFile(second,
+                tempFileWith("abc"), "txt");
+
+        assertThat(first.getFileId()).isEqualTo(HASH_OF_ABC + ".txt");
+        assertThat(second.getFileId()).isEqualTo(first.getFileId());
+        assertThat(docsDir.list()).containsOnly(HASH_OF_ABC + ".txt");
+    }
+
+    @Test
+    @InRequestScope
+    public void copySharesContent() throws IOException {
+        HRawDocument original = rawDocument("doc.txt", HASH_OF_ABC);
+        service.persistRawDocumentContentFromTempFile(original,
+                tempFileWith("abc"), "txt");
+        HRawDocument copy = rawDocument("doc.txt", HASH_OF_ABC);
+
+        service.copyAndPersistRawDocument(original, copy);
+
+        assertThat(copy.getFileId()).isEqualTo(original.getFileId());
+        assertThat(docsDir.list()).hasSize(1);
+    }
+
+    @Test
+    @InRequestScope
+    public void canReadContentThroughChannel() throws IOException {
+        HRawDocument rawDocument = rawDocument("doc.txt", HASH_OF_ABC);
+        service.persistRawDocumentContentFromTempFile(rawDocument,
+                tempFileWith("abc"), "txt");
+
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+        try (FileChannel channel =
+                service.openRawDocumentContent(rawDocument)) {
+            assertThat(channel.size()).isEqualTo(3);
+            channel.read(buffer);
+        }
+        buffer.flip();
+        assertThat(Charsets.UTF_8.decode(buffer).toString()).isEqualTo("abc");
+    }
+
+    @Test
+    @InRequestScope
+    public void releasedContentIsKeptWhileStillReferenced()
+            throws IOException {
+        HRawDocument rawDocument = rawDocument("doc.txt", HASH_OF_ABC);
+        service.persistRawDocumentContentFromTempFile(rawDocument,
+                tempFileWith("abc"), "txt");
+        when(rawDocumentDAO.countByFileId(rawDocument.getFileId()))
+                .thenReturn(1L);
+
+        service.releaseRawDocumentContent(rawDocument.getFileId());
+
+        assertThat(new File(docsDir, rawDocument.getFileId())).exists();
+    }
+
+    private void makeOlderThanGracePeriod(File... files) {
+        long twoDaysAgo = System.currentTimeMillis() - 2 * 24 * 3600 * 1000L;
+        for (File file : files) {
+            assertThat(file.setLastModified(twoDaysAgo)).isTrue();
+        }
+    }
+
+    @Test
+    @InRequestScope
+    public void releasedContentIsDeletedAfterGracePeriod() throws IOException {
+        HRawDocument rawDocument = rawDocument("doc.txt", HASH_OF_ABC);
+        service.persistRawDocumentContentFromTempFile(rawDocument,
+                tempFileWith("abc"), "txt");
+        when(rawDocumentDAO.countByFileId(rawDocument.getFileId()))
+                .thenReturn(0L);
+        File file = new File(docsDir, rawDocument.getFileId());
+        File marker =
+                new File(new File(storageDir, "released-documents"),
+                        rawDocument.getFileId());
+
+        // no transaction, so the release is not deferred
+        service.releaseRawDocumentContent(rawDocument.getFileId());
+        service.deleteReleasedContent();
+
+        assertThat(file).exists();
+
+        makeOlderThanGracePeriod(file, marker);
+        service.deleteReleasedContent();
+
+        assertThat(file).doesNotExist();
+        assertThat(marker).doesNotExist();
+        assertThat(docsDir.list()).isEmpty();
+    }
+
+    @Test
+    @InRequestScope
+    public void releasedContentIsKeptWhenSharedAgain() throws IOException {
+        HRawDocument rawDocument = rawDocument("doc.txt", HASH_OF_ABC);
+        service.persistRawDocumentContentFromTempFile(rawDocument,
+                tempFileWith("abc"), "txt");
+        // the raw document sharing it again has not been committed yet
+        when(rawDocumentDAO.countByFileId(rawDocument.getFileId()))
+                .thenReturn(0L);
+        File file = new File(docsDir, rawDocument.getFileId());
+        File marker =
+                new File(new File(storageDir, "released-documents"),
+                        rawDocument.getFileId());
+        service.releaseRawDocumentContent(rawDocument.getFileId());
+        makeOlderThanGracePeriod(file, marker);
+
+        service.persistRawDocumentContentFromFile(
+                rawDocument("other.txt", HASH_OF_ABC), tempFileWith("abc"),
+                "txt");
+        service.deleteReleasedContent();
+
+        assertThat(file).exists();
+        // checked again by the next run
+        assertThat(marker).exists();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.Files;
+
+public class TranslatedFileCacheTest {
+    private File cacheDir;
+    private TranslatedFileCache cache;
+    private AtomicInteger generated;
+
+    @Before
+    public void setUp() {
+        cacheDir = Files.createTempDir();
+        // room for two of the generated files
+        cache = new TranslatedFileCache(cacheDir, 4);
+        generated = new AtomicInteger();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(cacheDir);
+    }
+
+    private TranslatedFileCache.Generator generatorOf(int size) {
+        return output -> {
+            generated.incrementAndGet();
+            output.write(new byte[size]);
+        };
+    }
+
+    private static long sizeOf(FileChannel channel) throws IOException {
+        try (FileChannel c = channel) {
+            return c.size();
+        }
+    }
+
+    @Test
+    public void generatesFileOnlyOnce() throws IOException {
+        assertThat(sizeOf(cache.open("key", generatorOf(1500))))
+                .isEqualTo(1500);
+        assertThat(sizeOf(cache.open("key", generatorOf(1500))))
+                .isEqualTo(1500);
+
+        assertThat(generated.get()).isEqualTo(1);
+        assertThat(cacheDir.list()).hasSize(1);
+    }
+
+    @Test
+    public void warmedFileIsNotGeneratedAgain() throws IOException {
+        cache.warm("key", generatorOf(1500));
+
+        cache.open("key", generatorOf(1500)).close();
+
+        assertThat(generated.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void removesLeastRecentlyUsedFiles() throws IOException {
+        cache.warm("first", generatorOf(1500));
+        cache.warm("second", generatorOf(1500));
+        // use the first file again, so that the second is the oldest
+        cache.open("first", generatorOf(1500)).close();
+
+        cache.warm("third", generatorOf(1500));
+
+        assertThat(cacheDir.list()).hasSize(2);
+        cache.open("first", generatorOf(1500)).close();
+        assertThat(generated.get()).isEqualTo(3);
+        cache.open("second", generatorOf(1500)).close();
+        assertThat(generated.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void canReadFileTooLargeToCache() throws IOException {
+        try (FileChannel channel = cache.open("key", generatorOf(10000))) {
+            ByteBuffer buffer = ByteBuffer.allocate(20000);
+            while (channel.read(buffer) >= 0) {
+                // keep reading
+            }
+            assertThat(buffer.position()).isEqualTo(10000);
+        }
+    }
+
+    @Test
+    public void failedGenerationLeavesNoFile() {
+        try {
+            cache.open("key", output -> {
+                output.write(new byte[100]);
+                throw new IOException("failed");
+            });
+            fail("Should propagate generator exception");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).isEqualTo("failed");
+        }
+        assertThat(cacheDir.list()).isEmpty();
+    }
+}
@@ -20,7 +20,6 @@ import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -36,7 +35,7 @@ public class LeakyBucketTest {
     private final long timeOverRefillDuration = TimeUnit.NANOSECONDS.convert(
             refillDuration, refillTimeUnit);
     @Mock
-    private LeakyBucket.TimeTracker timeTracker;
+    private Ticker ticker;
 
     @Before
     public void beforeMethod() {
@@ -44,7 +43,7 @@ public class LeakyBucketTest {
         // .setLevel(Level.DEBUG);
         MockitoAnnotations.initMocks(this);
         bucket =
-                new LeakyBucket(1, refillDuration, refillTimeUnit, timeTracker);
+                new LeakyBucket(1, refillDuration, refillTimeUnit, ticker);
     }
 
     @Test
@@ -53,7 +52,7 @@ public class LeakyBucketTest {
         assertThat(bucket.tryAcquire(), Matchers.is(true));
         assertThat(bucket.tryAcquire(), Matchers.is(false));
 
-        when(timeTracker.timePassed()).thenReturn(timeOverRefillDuration);
+        when(ticker.read()).thenReturn(timeOverRefillDuration);
         assertThat(bucket.tryAcquire(), Matchers.is(true));
     }
 
@@ -77,8 +76,7 @@ public class LeakyBucketTest {
         assertThat(result, Matchers.containsInAnyOrder(true, false, false));
 
         // here we simulate that we have waited enough time and try again
-        when(timeTracker.timePassed()).thenReturn(timeOverRefillDuration, 0L,
-                0L);
+        when(ticker.read()).thenReturn(timeOverRefillDuration);
 
         List<Future<Boolean>> callAgain = executorService.invokeAll(callables);
         assertThat(getFutureResult(callAgain),
@@ -101,10 +99,8 @@ public class LeakyBucketTest {
 
     @Test
     public void willMakeUpTheRefillWhenTimePassed() throws InterruptedException {
-        Ticker ticker = mock(Ticker.class);
         LeakyBucket bucket =
-                new LeakyBucket(2, refillDuration, refillTimeUnit,
-                        new LeakyBucket.TimeTracker(ticker));
+                new LeakyBucket(2, refillDuration, refillTimeUnit, ticker);
 
         assertThat(bucket.tryAcquire(), Matchers.is(true));
         assertThat(bucket.tryAcquire(), Matchers.is(true));
@@ -116,4 +112,39 @@ public class LeakyBucketTest {
         assertThat(bucket.tryAcquire(), Matchers.is(true));
         assertThat(bucket.tryAcquire(), Matchers.is(true));
     }
+
+    @Test
+    public void refillWillNotExceedCapacity() {
+        LeakyBucket bucket =
+                new LeakyBucket(2, refillDuration, refillTimeUnit, ticker);
+        assertThat(bucket.tryAcquire(), Matchers.is(true));
+
+        when(ticker.read()).thenReturn(timeOverRefillDuration * 10);
+
+        assertThat(bucket.availablePermits(), Matchers.is(2L));
+        assertThat(bucket.tryAcquire(2), Matchers.is(true));
+        assertThat(bucket.tryAcquire(), Matchers.is(false));
+    }
+
+    @Test
+    public void manyThreadsWillNotOverdrawPermits() throws InterruptedException {
+        final LeakyBucket bucket =
+                new LeakyBucket(50, refillDuration, refillTimeUnit, ticker);
+        Callable<Boolean> callable = new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                return bucket.tryAcquire();
+            }
+        };
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> futures =
+                executorService.invokeAll(Collections.nCopies(200, callable));
+        executorService.shutdown();
+
+        assertThat(Collections.frequency(getFutureResult(futures), true),
+                Matchers.is(50));
+        assertThat(bucket.availablePermits(), Matchers.is(0L));
+    }
 }
@@ -148,6 +148,10 @@ public class RestCallLimiterTest {
         // accepted jobs should eventually finish
         awakenBlockedRunnables();
         execsFinished.awaitAndVerify(softly);
+        softly.assertThat(limiter.getAcceptedCount()).as("accepted count")
+                .isEqualTo(maxConcurrent);
+        softly.assertThat(limiter.getRejectedCount()).as("rejected count")
+                .isEqualTo(excessRequests);
         softly.assertAll();
     }
 
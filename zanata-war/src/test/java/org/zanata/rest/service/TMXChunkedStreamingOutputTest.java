@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import nu.xom.Attribute;
+import nu.xom.Element;
+
+import org.junit.After;
+import org.junit.Test;
+import org.zanata.util.CloseableIterator;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Range;
+
+public class TMXChunkedStreamingOutputTest {
+    private static final Pattern TUID = Pattern.compile("tuid=\"(\\d+)\"");
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final AtomicInteger openIterators = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void splitsIdsIntoHalfOpenChunks() {
+        assertThat(TMXChunkedStreamingOutput.splitIds(Range.closed(1L, 25L),
+                Long.MIN_VALUE, 10)).containsExactly(
+                Range.closedOpen(1L, 11L), Range.closedOpen(11L, 21L),
+                Range.closedOpen(21L, 26L));
+    }
+
+    @Test
+    public void splitSkipsIdsBeforeResumeToken() {
+        assertThat(TMXChunkedStreamingOutput.splitIds(Range.closed(1L, 25L),
+                15L, 10)).containsExactly(Range.closedOpen(15L, 25L),
+                Range.closedOpen(25L, 26L));
+        assertThat(TMXChunkedStreamingOutput.splitIds(Range.closed(1L, 25L),
+                30L, 10)).isEmpty();
+    }
+
+    @Test
+    public void writesChunksInIdOrder() throws Exception {
+        String tmx = write(chunked(Range.closed(1L, 100L), 7, executor::execute));
+
+        assertThat(tmx).startsWith("<?xml").contains("<header")
+                .contains("</tmx>");
+        assertThat(tuids(tmx)).isEqualTo(ids(1, 100));
+        assertThat(openIterators.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void writesResumeTokenBeforeEachChunk() throws Exception {
+        String tmx = write(chunked(Range.closed(1L, 25L), 10,
+                executor::execute));
+
+        assertThat(tmx).contains(
+                "<!--" + TMXChunkedStreamingOutput.RESUME_TOKEN_PREFIX + "1 -->",
+                "<!--" + TMXChunkedStreamingOutput.RESUME_TOKEN_PREFIX + "11 -->",
+                "<!--" + TMXChunkedStreamingOutput.RESUME_TOKEN_PREFIX + "21 -->");
+        int token = tmx.indexOf(TMXChunkedStreamingOutput.RESUME_TOKEN_PREFIX
+                + "11 ");
+        assertThat(tuids(tmx.substring(token))).isEqualTo(ids(11, 25));
+    }
+
+    @Test
+    public void resumedExportOmitsProlog() throws Exception {
+        TMXChunkedStreamingOutput<Long> output =
+                new TMXChunkedStreamingOutput<>("test",
+                        TMXChunkedStreamingOutput.splitIds(
+                                Range.closed(1L, 25L), 11L, 10),
+                        this::open, new IdExportStrategy(),
+                        executor::execute, 3, true);
+
+        String tmx = write(output);
+
+        assertThat(tmx).doesNotContain("<?xml").doesNotContain("<header");
+        assertThat(tuids(tmx)).isEqualTo(ids(11, 25));
+    }
+
+    @Test
+    public void serialisesOnWritingThreadWhenRejected() throws Exception {
+        String tmx = write(chunked(Range.closed(1L, 30L), 4, command -> {
+            throw new RejectedExecutionException();
+        }));
+
+        assertThat(tuids(tmx)).isEqualTo(ids(1, 30));
+        assertThat(openIterators.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void spoolsLargeChunksAndDeletesTheFiles() throws Exception {
+        // each unit is over 20 bytes, so every chunk exceeds the threshold
+        long chunkSize = TMXChunkedStreamingOutput.SPOOL_THRESHOLD / 20;
+        int spoolFiles = spoolFiles();
+
+        String tmx = write(chunked(Range.closed(1L, chunkSize * 3),
+                chunkSize, executor::execute));
+
+        assertThat(tuids(tmx)).isEqualTo(ids(1, chunkSize * 3));
+        assertThat(spoolFiles()).isEqualTo(spoolFiles);
+        assertThat(openIterators.get()).isEqualTo(0);
+    }
+
+    private static int spoolFiles() {
+        File[] files =
+                new File(System.getProperty("java.io.tmpdir"))
+                        .listFiles((dir, name) -> name
+                                .startsWith("zanata-tmx-"));
+        return files == null ? 0 : files.length;
+    }
+
+    private TMXChunkedStreamingOutput<Long> chunked(Range<Long> ids,
+            long chunkSize, Executor executor) {
+        return new TMXChunkedStreamingOutput<>("test",
+                TMXChunkedStreamingOutput.splitIds(ids, Long.MIN_VALUE,
+                        chunkSize), this::open, new IdExportStrategy(),
+                executor, 3, false);
+    }
+
+    private CloseableIterator<Long> open(Range<Long> idRange) {
+        openIterators.incrementAndGet();
+        Iterator<Long> ids =
+                LongStream.range(idRange.lowerEndpoint(),
+                        idRange.upperEndpoint()).boxed().iterator();
+        return new CloseableIterator<Long>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                return ids.next();
+            }
+
+            @Override
+            public void close() {
+                openIterators.decrementAndGet();
+            }
+        };
+    }
+
+    private static String write(TMXChunkedStreamingOutput<Long> output)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.write(bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<Long> tuids(String tmx) {
+        List<Long> tuids = new ArrayList<>();
+        Matcher matcher = TUID.matcher(tmx);
+        while (matcher.find()) {
+            tuids.add(Long.valueOf(matcher.group(1)));
+        }
+        return tuids;
+    }
+
+    private static List<Long> ids(long first, long last) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = first; id <= last; id++) {
+            ids.add(id);
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    private static class IdExportStrategy implements TMXExportStrategy<Long> {
+        @Override
+        public Element buildHeader() {
+            return new Element("header");
+        }
+
+        @Override
+        public Optional<Element> buildTU(Long id) {
+            Element tu = new Element("tu");
+            tu.addAttribute(new Attribute("tuid", String.valueOf(id)));
+            tu.appendChild(new Element("tuv"));
+            tu.appendChild(new Element("tuv"));
+            return Optional.of(tu);
+        }
+    }
+}
@@ -20,7 +20,7 @@ public class ContentCriterionTest {
 
         assertThat(
                 hql,
-                Matchers.equalTo("(tf.content0 like :SearchString OR tf.content1 like :SearchString)"));
+                Matchers.equalTo("(binary(tf.content0) like :SearchString OR binary(tf.content1) like :SearchString)"));
     }
 
     @Test
@@ -30,7 +30,7 @@ public class ContentCriterionTest {
 
         assertThat(
                 hql,
-                Matchers.equalTo("(content0 like :SearchString OR content1 like :SearchString)"));
+                Matchers.equalTo("(binary(content0) like :SearchString OR binary(content1) like :SearchString)"));
     }
 
     @Test
@@ -190,6 +190,21 @@ public class FilterConstraintToQueryTest {
                         + "WHERE (tf.obsolete=0 AND tf.document.id=:documentId) ORDER BY tf.pos"));
     }
 
+    @Test
+    public void testToHQLStartingAtPos() {
+        FilterConstraintToQuery constraintToQuery =
+                FilterConstraintToQuery.filterInSingleDocument(
+                        FilterConstraints.builder().keepAll().build(),
+                        documentId).startingAtPos(7);
+
+        String result = constraintToQuery.toEntityQuery();
+
+        assertThat(
+                result,
+                Matchers.equalToIgnoringCase(QUERY_BEFORE_WHERE
+                        + "WHERE (tf.obsolete=0 AND tf.document.id=:documentId AND tf.pos>=:firstPos) ORDER BY tf.pos"));
+    }
+
     @Test
     public void testToHQLWithNoConditionForMultipleDocuments() {
         FilterConstraintToQuery constraintToQuery =
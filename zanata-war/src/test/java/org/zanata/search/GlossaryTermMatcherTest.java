@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GlossaryTermMatcherTest {
+
+    private static GlossaryTermMatcher<String> matcher(String... terms) {
+        GlossaryTermMatcher.Builder<String> builder =
+                GlossaryTermMatcher.builder();
+        for (String term : terms) {
+            builder.add(term, term);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void findsEveryTermInOnePass() {
+        GlossaryTermMatcher<String> matcher =
+                matcher("file", "file manager", "manager", "open", "close");
+        List<String> found =
+                matcher.findAll("Open the file manager to close it");
+        assertThat(found).containsExactly("open", "file", "file manager",
+                "manager", "close");
+    }
+
+    @Test
+    public void findsOverlappingAndNestedTerms() {
+        GlossaryTermMatcher<String> matcher =
+                matcher("he", "she", "his", "hers");
+        assertThat(matcher.findAll("ushers his")).containsExactlyInAnyOrder(
+                "his");
+        assertThat(matcher.findAll("she he hers")).containsExactly("she",
+                "he", "hers");
+    }
+
+    @Test
+    public void ignoresCaseAndWhitespaceDifferences() {
+        GlossaryTermMatcher<String> matcher = matcher("Translation  Memory");
+        assertThat(matcher.findAll("Search the translation\n memory"))
+                .containsExactly("Translation  Memory");
+    }
+
+    @Test
+    public void onlyMatchesWholeWords() {
+        GlossaryTermMatcher<String> matcher = matcher("cat", "C++");
+        assertThat(matcher.findAll("concatenate the catalog")).isEmpty();
+        assertThat(matcher.findAll("a cat, written in C++.")).containsExactly(
+                "cat", "C++");
+    }
+
+    @Test
+    public void matchesInsideUnspacedScripts() {
+        GlossaryTermMatcher<String> matcher = matcher("翻译");
+        assertThat(matcher.findAll("请翻译这个文件")).containsExactly("翻译");
+    }
+
+    @Test
+    public void returnsEveryValueForTheSameTerm() {
+        GlossaryTermMatcher<String> matcher =
+                GlossaryTermMatcher.<String> builder().add("file", "noun")
+                        .add("File", "verb").add(" ", "blank").build();
+        assertThat(matcher.size()).isEqualTo(2);
+        assertThat(matcher.findAll("Save the file")).containsExactlyInAnyOrder(
+                "noun", "verb");
+    }
+
+    @Test
+    public void emptyMatcherFindsNothing() {
+        assertThat(matcher().findAll("anything")).isEmpty();
+    }
+}
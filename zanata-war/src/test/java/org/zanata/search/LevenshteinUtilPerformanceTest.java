@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.zanata.PerformanceProfiling;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the full-matrix Levenshtein distance with the bounded (banded)
+ * version on paragraph-sized strings, similar to the pairs TM scoring sees for
+ * long documents. Not run as part of the build; run it manually and compare
+ * the logged timings.
+ */
+@Slf4j
+public class LevenshteinUtilPerformanceTest {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int PAIRS = 50;
+    private static final String[] WORDS = { "the", "document", "translation",
+            "server", "project", "version", "locale", "string", "memory",
+            "editor", "a", "of", "with", "release", "approved", "review" };
+
+    @Ignore("performance profiling")
+    @Test
+    @PerformanceProfiling
+    public void compareFullAndBoundedDistance() {
+        Random random = new Random(42);
+        List<String[]> pairs = new ArrayList<String[]>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            String source = randomParagraph(random, 2000 + random.nextInt(3000));
+            pairs.add(new String[] { source, mutate(random, source, 0.05) });
+            pairs.add(new String[] { source, mutate(random, source, 0.5) });
+        }
+        // 80% is a typical editor/TM merge threshold
+        double minSimilarity = 0.8;
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runFull(pairs);
+            runBounded(pairs, minSimilarity);
+        }
+        long fullNanos = 0;
+        long boundedNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            runFull(pairs);
+            fullNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            runBounded(pairs, minSimilarity);
+            boundedNanos += System.nanoTime() - start;
+        }
+        log.info("full matrix: {} ms per round", fullNanos / MEASURED_ROUNDS
+                / 1000000);
+        log.info("bounded: {} ms per round", boundedNanos / MEASURED_ROUNDS
+                / 1000000);
+    }
+
+    private static double runFull(List<String[]> pairs) {
+        double total = 0;
+        for (String[] pair : pairs) {
+            total += LevenshteinUtil.getSimilarity(pair[0], pair[1]);
+        }
+        return total;
+    }
+
+    private static double runBounded(List<String[]> pairs,
+            double minSimilarity) {
+        double total = 0;
+        for (String[] pair : pairs) {
+            total +=
+                    LevenshteinUtil.getSimilarity(pair[0], pair[1],
+                            minSimilarity);
+        }
+        return total;
+    }
+
+    private static String randomParagraph(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length + 20);
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Replaces roughly the given fraction of characters, the way an edited
+     * paragraph differs from its previous translation source.
+     */
+    private static String mutate(Random random, String s, double fraction) {
+        StringBuilder sb = new StringBuilder(s);
+        int edits = (int) (s.length() * fraction);
+        for (int i = 0; i < edits; i++) {
+            int pos = random.nextInt(sb.length());
+            sb.setCharAt(pos, (char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
@@ -23,6 +23,7 @@ package org.zanata.search;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.assertj.core.data.Offset;
 import org.junit.Assert;
@@ -106,4 +107,71 @@ public class LevenshteinUtilTest {
         assertThat(similarity).isEqualTo(1.0, DELTA);
     }
 
+    @Test
+    public void boundedDistanceMatchesFullDistance() {
+        Random random = new Random(1234);
+        for (int k = 0; k < 500; k++) {
+            String s1 = randomString(random, random.nextInt(40));
+            String s2 = randomString(random, random.nextInt(40));
+            int expected = LevenshteinUtil.getLevenshteinDistance(s1, s2);
+            for (int threshold = 0; threshold <= 45; threshold += 3) {
+                int bounded =
+                        LevenshteinUtil.getLevenshteinDistance(s1, s2,
+                                threshold);
+                if (expected <= threshold) {
+                    assertThat(bounded).as(s1 + " / " + s2).isEqualTo(
+                            expected);
+                } else {
+                    assertThat(bounded).as(s1 + " / " + s2).isEqualTo(
+                            LevenshteinUtil.EXCEEDS_THRESHOLD);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void boundedDistanceStripsCommonAffixes() {
+        assertThat(LevenshteinUtil.getLevenshteinDistance("prefix-abc-suffix",
+                "prefix-axc-suffix", 1)).isEqualTo(1);
+        assertThat(LevenshteinUtil.getLevenshteinDistance("same", "same", 0))
+                .isEqualTo(0);
+        assertThat(LevenshteinUtil.getLevenshteinDistance("", "abc", 2))
+                .isEqualTo(LevenshteinUtil.EXCEEDS_THRESHOLD);
+    }
+
+    @Test
+    public void boundedSimilarityMatchesFullSimilarityAboveThreshold() {
+        String s1 = "one two three four five";
+        String s2 = "one two three four fives";
+        double full = LevenshteinUtil.getSimilarity(s1, s2);
+        assertThat(LevenshteinUtil.getSimilarity(s1, s2, 0.9)).isEqualTo(full,
+                DELTA);
+        assertThat(LevenshteinUtil.getSimilarity(s1, s2, 0.99)).isEqualTo(0.0,
+                DELTA);
+    }
+
+    @Test
+    public void boundedListSimilarityMatchesFullSimilarity() {
+        List<String> strings1 = Arrays.asList("1234567890", "abcdefghij");
+        List<String> strings2 = Arrays.asList("123456789", "bcdefghij");
+        assertThat(LevenshteinUtil.getSimilarity(strings1, strings2, 0.9))
+                .isEqualTo(0.9, DELTA);
+        assertThat(LevenshteinUtil.getSimilarity(strings1, strings2, 0.95))
+                .isEqualTo(0.0, DELTA);
+        assertThat(LevenshteinUtil.getSimilarity("123456789", strings1, 0.4))
+                .isEqualTo(LevenshteinUtil.getSimilarity("123456789",
+                        strings1), DELTA);
+        assertThat(LevenshteinUtil.getSimilarity("123456789", strings1, 0.5))
+                .isEqualTo(0.0, DELTA);
+    }
+
+    private static String randomString(Random random, int length) {
+        // small alphabet so that the strings have something in common
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
 }
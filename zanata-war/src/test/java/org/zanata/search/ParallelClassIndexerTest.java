@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.Query;
+import org.hibernate.ScrollableResults;
+import org.hibernate.search.FullTextSession;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zanata.async.AsyncTaskHandle;
+
+import com.google.common.collect.Range;
+
+public class ParallelClassIndexerTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final List<Range<Long>> indexedRanges =
+            new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void partitionsCoverTheWholeRange() {
+        assertThat(ParallelClassIndexer.partition(Range.closed(1L, 25L), 10))
+                .containsExactly(Range.closedOpen(1L, 11L),
+                        Range.closedOpen(11L, 21L),
+                        Range.closedOpen(21L, 26L));
+        assertThat(ParallelClassIndexer.partition(Range.closed(5L, 5L), 10))
+                .containsExactly(Range.closedOpen(5L, 6L));
+    }
+
+    @Test
+    public void workersIndexEveryPartitionOnce() {
+        AsyncTaskHandle<Void> handle = new AsyncTaskHandle<>();
+        ParallelClassIndexer<Object> indexer =
+                new ParallelClassIndexer<>(handle, Object.class,
+                        () -> new RecordingStrategy(false),
+                        () -> session(1L, 95L), executor, 3, 10, 4);
+
+        int indexed = indexer.index();
+
+        assertThat(indexed).isEqualTo(95);
+        assertThat(handle.getCurrentProgress()).isEqualTo(95);
+        assertThat(indexedRanges).hasSize(10).containsAll(
+                ParallelClassIndexer.partition(Range.closed(1L, 95L), 10));
+        assertThat(openSessions.get()).isZero();
+    }
+
+    @Test
+    public void emptyTableIndexesNothing() {
+        ParallelClassIndexer<Object> indexer =
+                new ParallelClassIndexer<>(null, Object.class,
+                        () -> new RecordingStrategy(false),
+                        () -> session(null, null), executor, 3, 10, 4);
+
+        assertThat(indexer.index()).isZero();
+        assertThat(indexedRanges).isEmpty();
+        assertThat(openSessions.get()).isZero();
+    }
+
+    @Test
+    public void failureStopsOtherWorkersAndIsRethrown() {
+        ParallelClassIndexer<Object> indexer =
+                new ParallelClassIndexer<>(null, Object.class,
+                        () -> new RecordingStrategy(true),
+                        () -> session(1L, 1000L), executor, 3, 10, 4);
+
+        try {
+            indexer.index();
+            throw new AssertionError("expected failure");
+        } catch (RuntimeException e) {
+            assertThat(e.getCause()).hasMessage("index failure");
+        }
+        // each worker gives up after at most one partition
+        assertThat(indexedRanges.size()).isLessThanOrEqualTo(3);
+        assertThat(openSessions.get()).isZero();
+    }
+
+    private FullTextSession session(Long minId, Long maxId) {
+        openSessions.incrementAndGet();
+        FullTextSession session = mock(FullTextSession.class);
+        Query query = mock(Query.class);
+        when(session.createQuery(anyString())).thenReturn(query);
+        when(query.uniqueResult()).thenReturn(new Object[] { minId, maxId });
+        Mockito.doAnswer(invocation -> {
+            openSessions.decrementAndGet();
+            return null;
+        }).when(session).close();
+        return session;
+    }
+
+    private class RecordingStrategy extends AbstractIndexingStrategy<Object> {
+        private final boolean fail;
+
+        RecordingStrategy(boolean fail) {
+            super(Object.class);
+            this.fail = fail;
+        }
+
+        @Override
+        public int invoke(AsyncTaskHandle handle, FullTextSession session,
+                Range<Long> idRange, int batchSize) {
+            indexedRanges.add(idRange);
+            if (fail) {
+                throw new IllegalStateException("index failure");
+            }
+            int count = (int) (idRange.upperEndpoint() - idRange
+                    .lowerEndpoint());
+            if (handle != null) {
+                handle.increaseProgress(count);
+            }
+            return count;
+        }
+
+        @Override
+        protected void onEntityIndexed(int n, FullTextSession session) {
+        }
+
+        @Override
+        protected ScrollableResults queryResults(int offset,
+                FullTextSession session) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
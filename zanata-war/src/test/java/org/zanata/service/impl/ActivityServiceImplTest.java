@@ -22,6 +22,7 @@ package org.zanata.service.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.when;
@@ -126,6 +127,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 new LocaleId("as"), textFlowTargetId, ContentState.Approved,
                 ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event);
+        activityService.flushPendingActivities();
         Activity activity =
                 activityService.findActivity(personId,
                         EntityType.HProjectIteration, projectVersionId,
@@ -143,6 +145,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 textFlowTargetId, ContentState.Approved,
                 ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event);
+        activityService.flushPendingActivities();
         List<Activity> activities =
                 activityService.findLatestActivitiesForContext(personId,
                         projectVersionId, 0, 10);
@@ -154,6 +157,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 textFlowTargetId, ContentState.Rejected,
                 ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event2);
+        activityService.flushPendingActivities();
 
         activities =
                 activityService.findLatestActivitiesForContext(personId,
@@ -176,6 +180,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 textFlowTargetId, ContentState.Translated,
                 ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event);
+        activityService.flushPendingActivities();
 
         Activity activity =
                 activityService.findActivity(personId,
@@ -190,6 +195,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 new LocaleId("as"), textFlowTargetId, ContentState.NeedReview,
                 ContentState.New);
         activityService.logTextFlowStateUpdate(event2);
+        activityService.flushPendingActivities();
         activity =
                 activityService.findActivity(personId,
                         EntityType.HProjectIteration, projectVersionId,
@@ -206,6 +212,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 textFlowTargetId, ContentState.Translated,
                 ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event);
+        activityService.flushPendingActivities();
 
         TextFlowTargetStateEvent event2 =
             buildEvent(personId, versionId, documentId, null,
@@ -213,6 +220,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
                 textFlowTargetId, ContentState.Approved,
                 ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event2);
+        activityService.flushPendingActivities();
 
         activityService.onDocumentUploaded(new DocumentUploadedEvent(personId,
                 documentId, false, new LocaleId("as")));
@@ -232,26 +240,31 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
             buildEvent(personId, versionId, documentId2, null, LocaleId.EN_US,
                 new Long(5), ContentState.Translated, ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event);
+        activityService.flushPendingActivities();
 
         TextFlowTargetStateEvent event2 =
             buildEvent(personId, versionId, documentId2, null, LocaleId.EN_US,
                 new Long(5), ContentState.Approved, ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event2);
+        activityService.flushPendingActivities();
 
         TextFlowTargetStateEvent event3 =
             buildEvent(personId, versionId, documentId2, null, LocaleId.EN_US,
                 new Long(5), ContentState.Approved, ContentState.NeedReview);
         activityService.logTextFlowStateUpdate(event3);
+        activityService.flushPendingActivities();
 
         TextFlowTargetStateEvent event4 =
             buildEvent(personId, versionId, documentId2, null, LocaleId.EN_US,
                 new Long(6), ContentState.Rejected, ContentState.Translated);
         activityService.logTextFlowStateUpdate(event4);
+        activityService.flushPendingActivities();
 
         TextFlowTargetStateEvent event5 =
             buildEvent(personId, versionId, documentId2, null, LocaleId.EN_US,
                 new Long(6), ContentState.NeedReview, ContentState.New);
         activityService.logTextFlowStateUpdate(event5);
+        activityService.flushPendingActivities();
 
         List<Activity> activities =
             activityService.findLatestActivitiesForContext(personId,
@@ -260,6 +273,55 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
         assertThat(activities.size(), equalTo(2));
     }
 
+    @Test
+    @InRequestScope
+    public void testActivityAggregatedUntilFlush() throws Exception {
+        activityService.logTextFlowStateUpdate(buildEvent(personId,
+                versionId, documentId, null, new LocaleId("as"),
+                textFlowTargetId, ContentState.Translated,
+                ContentState.NeedReview));
+        activityService.logTextFlowStateUpdate(buildEvent(personId,
+                versionId, documentId, null, new LocaleId("as"),
+                textFlowTargetId, ContentState.Translated,
+                ContentState.New));
+
+        assertThat(activityService.findActivity(personId,
+                EntityType.HProjectIteration, projectVersionId,
+                ActivityType.UPDATE_TRANSLATION, new Date()), nullValue());
+
+        activityService.flushPendingActivities();
+
+        Activity activity =
+                activityService.findActivity(personId,
+                        EntityType.HProjectIteration, projectVersionId,
+                        ActivityType.UPDATE_TRANSLATION, new Date());
+        assertThat(activity, not(nullValue()));
+        assertThat(activity.getEventCount(), equalTo(2));
+        assertThat(activity.getWordCount(), equalTo(6));
+    }
+
+    @Test
+    @InRequestScope
+    public void testAggregatedActivityKeepsLastActionTime() throws Exception {
+        activityService.logTextFlowStateUpdate(buildEvent(personId,
+                versionId, documentId, null, new LocaleId("as"),
+                textFlowTargetId, ContentState.Translated,
+                ContentState.NeedReview));
+        Thread.sleep(10);
+        activityService.logTextFlowStateUpdate(buildEvent(personId,
+                versionId, documentId, null, new LocaleId("as"),
+                textFlowTargetId, ContentState.Translated,
+                ContentState.New));
+        activityService.flushPendingActivities();
+
+        Activity activity =
+                activityService.findActivity(personId,
+                        EntityType.HProjectIteration, projectVersionId,
+                        ActivityType.UPDATE_TRANSLATION, new Date());
+        assertThat(activity.getEndOffsetMillis(),
+                greaterThanOrEqualTo(activity.getStartOffsetMillis() + 10));
+    }
+
     private TextFlowTargetStateEvent buildEvent(Long personId, Long versionId,
         Long documentId, Long tfIf, LocaleId localeId,
         Long tftId, ContentState newState, ContentState oldState) {
@@ -268,7 +330,7 @@ public class ActivityServiceImplTest extends ZanataDbunitJpaTest {
 
         TextFlowTargetStateEvent.TextFlowTargetStateChange state =
             new TextFlowTargetStateEvent.TextFlowTargetStateChange(tfIf,
-                tftId, newState, oldState);
+                tftId, newState, oldState, 3L);
 
         return new TextFlowTargetStateEvent(key, versionId, personId, state);
     }
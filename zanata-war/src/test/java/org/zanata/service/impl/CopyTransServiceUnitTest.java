@@ -38,6 +38,8 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.zanata.common.LocaleId;
+import org.zanata.config.CopyTransConfig;
+import org.zanata.config.SystemPropertyConfigStore;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.ProjectDAO;
 import org.zanata.dao.TextFlowDAO;
@@ -103,7 +105,8 @@ public class CopyTransServiceUnitTest {
                 new CopyTransServiceImpl(
                         localeServiceImpl, projectDAO, documentDAO,
                         copyTransWorkFactory, textFlowTargetDAO,
-                        translationStateCacheImpl, textFlowDAO);
+                        translationStateCacheImpl, textFlowDAO,
+                        new CopyTransConfig(new SystemPropertyConfigStore()));
 
         HCopyTransOptions projOptions = new HCopyTransOptions(IGNORE, IGNORE, IGNORE);
 
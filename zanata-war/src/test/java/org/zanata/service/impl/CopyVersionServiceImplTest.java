@@ -46,6 +46,7 @@ import org.zanata.async.handle.CopyVersionTaskHandle;
 import org.zanata.cache.InfinispanTestCacheContainer;
 import org.zanata.cdi.TestTransaction;
 import org.zanata.common.EntityStatus;
+import org.zanata.config.CopyVersionConfig;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.ProjectIterationDAO;
@@ -282,6 +283,17 @@ public class CopyVersionServiceImplTest extends ZanataDbunitJpaTest {
         runCopyVersion(projectSlug, versionSlug, newVersionSlug);
     }
 
+    @Test
+    @InRequestScope
+    public void testCopyVersionWithoutBulkCopy() {
+        System.setProperty(CopyVersionConfig.BULK_COPY, "false");
+        try {
+            runCopyVersion("sample-project", "1.0", "new-version");
+        } finally {
+            System.clearProperty(CopyVersionConfig.BULK_COPY);
+        }
+    }
+
     private void runCopyVersion(String projectSlug, String versionSlug,
             String newVersionSlug) {
         service.copyVersion(projectSlug, versionSlug, newVersionSlug,
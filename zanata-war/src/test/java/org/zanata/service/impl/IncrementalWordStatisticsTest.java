@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Test;
+import org.zanata.cache.CacheWrapper;
+import org.zanata.common.ContentState;
+import org.zanata.ui.model.statistic.WordStatistic;
+
+public class IncrementalWordStatisticsTest {
+    private static final String KEY = "key";
+
+    private final ConcurrentMap<String, WordStatistic> entries =
+            new ConcurrentHashMap<>();
+    // runs (once) just before the next replace, like a concurrent update
+    private Runnable beforeReplace;
+
+    private final CacheWrapper<String, WordStatistic> cache =
+            new CacheWrapper<String, WordStatistic>() {
+                @Override
+                public void put(String key, WordStatistic value) {
+                    entries.put(key, value);
+                }
+
+                @Override
+                public WordStatistic get(String key) {
+                    return entries.get(key);
+                }
+
+                @Override
+                public WordStatistic getWithLoader(String key) {
+                    return entries.get(key);
+                }
+
+                @Override
+                public boolean remove(String key) {
+                    return entries.remove(key) != null;
+                }
+
+                @Override
+                public boolean replace(String key, WordStatistic oldValue,
+                        WordStatistic newValue) {
+                    if (beforeReplace != null) {
+                        Runnable concurrentUpdate = beforeReplace;
+                        beforeReplace = null;
+                        concurrentUpdate.run();
+                    }
+                    return entries.replace(key, oldValue, newValue);
+                }
+            };
+
+    private final IncrementalWordStatistics<String> statistics =
+            new IncrementalWordStatistics<>(cache, 100);
+
+    private static Map<ContentState, Long> translated(long words) {
+        Map<ContentState, Long> deltas = new HashMap<>();
+        deltas.put(ContentState.New, -words);
+        deltas.put(ContentState.Translated, words);
+        return deltas;
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() {
+        entries.put(KEY, new WordStatistic(0, 0, 10, 0, 0));
+        beforeReplace = () -> statistics.applyDeltas(KEY, translated(2), 1L);
+
+        statistics.applyDeltas(KEY, translated(3), 1L);
+
+        WordStatistic result = entries.get(KEY);
+        assertThat(result.getUntranslated()).isEqualTo(5);
+        assertThat(result.get(ContentState.Translated)).isEqualTo(5);
+    }
+
+    @Test
+    public void keepsLoadTimeOfUpdatedEntry() {
+        WordStatistic loaded = new WordStatistic(0, 0, 10, 0, 0);
+        loaded.setLoadedAt(5L);
+        entries.put(KEY, loaded);
+
+        statistics.applyDeltas(KEY, translated(3), 10L);
+
+        assertThat(entries.get(KEY).getLoadedAt()).isEqualTo(5L);
+    }
+
+    @Test
+    public void evictsEntryLoadedAfterTheChange() {
+        WordStatistic loaded = new WordStatistic(0, 0, 10, 0, 0);
+        loaded.setLoadedAt(20L);
+        entries.put(KEY, loaded);
+
+        statistics.applyDeltas(KEY, translated(3), 10L);
+
+        assertThat(entries).doesNotContainKey(KEY);
+    }
+
+    @Test
+    public void doesNothingWithoutCachedEntry() {
+        statistics.applyDeltas(KEY, translated(3), 10L);
+
+        assertThat(entries).isEmpty();
+    }
+}
@@ -20,24 +20,39 @@
  */
 package org.zanata.service.impl;
 
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
 import org.jglue.cdiunit.deltaspike.SupportDeltaspikeCore;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.zanata.ZanataTest;
+import org.zanata.cache.InfinispanTestCacheContainer;
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
+import org.zanata.lock.LockLostException;
+import org.zanata.lock.LockNotAcquiredException;
 import org.zanata.model.HAccount;
 import org.zanata.security.annotations.Authenticated;
 import org.zanata.test.CdiUnitRunner;
 import org.zanata.util.IServiceLocator;
 import org.zanata.util.ServiceLocator;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
 
+import com.google.common.base.Optional;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
 
 /**
  * This service does not inject other components, so it can be tested without a
@@ -67,15 +82,15 @@ public class LockManagerServiceImplTest extends ZanataTest {
     public void simpleLock() {
         Lock l1 = new Lock("prop1", "prop2", "prop3");
 
-        boolean lockAquired = lockManagerService.checkAndAttain(l1);
+        Optional<LockLease> lease = lockManagerService.checkAndAttain(l1);
 
-        assertThat(lockAquired, is(true));
+        assertThat(lease.isPresent(), is(true));
 
-        lockManagerService.release(l1);
-        lockAquired = lockManagerService.checkAndAttain(l1);
+        lockManagerService.release(l1, lease.get());
+        lease = lockManagerService.checkAndAttain(l1);
 
-        assertThat(lockAquired, is(true));
-        lockManagerService.release(l1);
+        assertThat(lease.isPresent(), is(true));
+        lockManagerService.release(l1, lease.get());
     }
 
     @Test
@@ -86,22 +101,190 @@ public class LockManagerServiceImplTest extends ZanataTest {
 
         assertThat(l1, equalTo(l1Eq));
 
-        boolean lockAquired = lockManagerService.checkAndAttain(l1);
-        assertThat(lockAquired, is(true));
+        Optional<LockLease> lease1 = lockManagerService.checkAndAttain(l1);
+        assertThat(lease1.isPresent(), is(true));
 
         // Same lock, should not aquire
-        lockAquired = lockManagerService.checkAndAttain(l1Eq);
-        assertThat(lockAquired, is(false));
+        assertThat(lockManagerService.checkAndAttain(l1Eq).isPresent(),
+                is(false));
 
         // different lock
-        lockAquired = lockManagerService.checkAndAttain(l2);
-        assertThat(lockAquired, is(true));
+        Optional<LockLease> lease2 = lockManagerService.checkAndAttain(l2);
+        assertThat(lease2.isPresent(), is(true));
+
+        lockManagerService.release(l1Eq, lease1.get());
+        lease1 = lockManagerService.checkAndAttain(l1Eq);
+        assertThat(lease1.isPresent(), is(true));
+
+        lockManagerService.release(l1Eq, lease1.get());
+        lockManagerService.release(l2, lease2.get());
+    }
+
+    @Test
+    public void attainReportsOwner() {
+        Lock l1 = new Lock("prop1", "prop2");
+        LockLease lease = lockManagerService.attain(l1);
+        try {
+            lockManagerService.attain(l1);
+            fail("lock should not be attained twice");
+        } catch (LockNotAcquiredException e) {
+            assertThat(e.getOwner(), equalTo("admin"));
+        } finally {
+            lockManagerService.release(l1, lease);
+        }
+    }
+
+    @Test
+    public void staleLeaseDoesNotReleaseNewerLease()
+            throws InterruptedException {
+        InfinispanTestCacheContainer container =
+                new InfinispanTestCacheContainer();
+        try {
+            LockManagerServiceImpl shortLeases =
+                    new LockManagerServiceImpl(container, 10);
+            LockManagerServiceImpl longLeases =
+                    new LockManagerServiceImpl(container, 60000);
+            Lock l1 = new Lock("project", "version", "doc", "push");
+
+            LockLease stale = shortLeases.checkAndAttain(l1).get();
+            Thread.sleep(20);
+            Optional<LockLease> current = longLeases.checkAndAttain(l1);
+            assertThat(current.isPresent(), is(true));
+
+            // the first holder has been taken over, so can't release the lock
+            assertThat(shortLeases.isHeld(l1, stale), is(false));
+            try {
+                shortLeases.release(l1, stale);
+                fail("releasing a lost lease should fail");
+            } catch (LockLostException e) {
+                assertThat(e.getLease(), equalTo(stale));
+            }
+            assertThat(longLeases.checkAndAttain(l1).isPresent(), is(false));
+            assertThat(current.get().getFencingToken(),
+                    greaterThan(stale.getFencingToken()));
+
+            longLeases.release(l1, current.get());
+            assertThat(shortLeases.checkAndAttain(l1).isPresent(), is(true));
+        } finally {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void inMemoryLeasesDoNotExpire() {
+        Lock l1 = new Lock("prop1", "prop2");
+        LockLease lease = lockManagerService.attain(l1);
+        try {
+            assertThat(lease.getExpiresAt(), equalTo(Long.MAX_VALUE));
+            assertThat(lockManagerService.isHeld(l1, lease), is(true));
+        } finally {
+            lockManagerService.release(l1, lease);
+        }
+        assertThat(lockManagerService.isHeld(l1, lease), is(false));
+    }
+
+    @Test
+    public void renewedLeaseIsNotTakenOver() throws InterruptedException {
+        InfinispanTestCacheContainer container =
+                new InfinispanTestCacheContainer();
+        try {
+            LockManagerServiceImpl node1 =
+                    new LockManagerServiceImpl(container, 200);
+            LockManagerServiceImpl node2 =
+                    new LockManagerServiceImpl(container, 200);
+            Lock l1 = new Lock("project", "version", "doc", "push");
+
+            LockLease lease = node1.attain(l1);
+            for (int i = 0; i < 4; i++) {
+                Thread.sleep(100);
+                node1.renewLeases();
+            }
+            assertThat(node1.isHeld(l1, lease), is(true));
+            assertThat(node2.checkAndAttain(l1).isPresent(), is(false));
+
+            node1.release(l1, lease);
+            assertThat(node2.checkAndAttain(l1).isPresent(), is(true));
+        } finally {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void tryAttainWaitsForRelease() throws Exception {
+        Lock l1 = new Lock("prop1", "prop2", "wait");
+        LockLease lease = lockManagerService.attain(l1);
+        assertThat(lockManagerService.tryAttain(l1, 0, TimeUnit.SECONDS)
+                .isPresent(), is(false));
 
-        lockManagerService.release(l1Eq);
-        lockAquired = lockManagerService.checkAndAttain(l1Eq);
-        assertThat(lockAquired, is(true));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                Thread.sleep(50);
+                lockManagerService.release(l1, lease);
+                return null;
+            });
+            Optional<LockLease> next =
+                    lockManagerService.tryAttain(l1, 10, TimeUnit.SECONDS);
+            assertThat(next.isPresent(), is(true));
+            assertThat(next.get().getFencingToken(),
+                    greaterThan(lease.getFencingToken()));
+            lockManagerService.release(l1, next.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void locksAreSharedBetweenClusteredNodes() {
+        InfinispanTestCacheContainer container =
+                new InfinispanTestCacheContainer();
+        try {
+            LockManagerServiceImpl node1 =
+                    new LockManagerServiceImpl(container, 60000);
+            LockManagerServiceImpl node2 =
+                    new LockManagerServiceImpl(container, 60000);
+            Lock l1 = new Lock("project", "version", "doc", "push");
+
+            Optional<LockLease> lease = node1.checkAndAttain(l1);
+            assertThat(lease.isPresent(), is(true));
+            assertThat(node2.checkAndAttain(l1).isPresent(), is(false));
+
+            node1.release(l1, lease.get());
+            lease = node2.checkAndAttain(l1);
+            assertThat(lease.isPresent(), is(true));
+            node2.release(l1, lease.get());
+        } finally {
+            container.stop();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sharedCacheMustBeDefined() {
+        DefaultCacheManager container =
+                new DefaultCacheManager(new GlobalConfigurationBuilder()
+                        .globalJmxStatistics().allowDuplicateDomains(true)
+                        .build());
+        try {
+            LockManagerServiceImpl.getSharedCache(container,
+                    LockManagerServiceImpl.LEASE_CACHE_NAME);
+        } finally {
+            container.stop();
+        }
+    }
 
-        lockManagerService.release(l1Eq);
-        lockManagerService.release(l2);
+    @Test(expected = IllegalStateException.class)
+    public void sharedCacheMustBeClustered() {
+        DefaultCacheManager container =
+                new DefaultCacheManager(new GlobalConfigurationBuilder()
+                        .globalJmxStatistics().allowDuplicateDomains(true)
+                        .build());
+        container.defineConfiguration(LockManagerServiceImpl.LEASE_CACHE_NAME,
+                new ConfigurationBuilder().build());
+        try {
+            LockManagerServiceImpl.getSharedCache(container,
+                    LockManagerServiceImpl.LEASE_CACHE_NAME);
+        } finally {
+            container.stop();
+        }
     }
 }
@@ -92,4 +92,14 @@ public class TextFlowSearchServiceImplTest extends ZanataDbunitJpaTest {
 
         assertThat(result.size(), Matchers.equalTo(7));
     }
+
+    @Test
+    @InRequestScope
+    public void testFindTextFlowsCaseSensitive() throws Exception {
+        List<HTextFlow> result =
+                service.findTextFlows(workspaceId, FilterConstraints.builder()
+                        .filterBy("File").caseSensitive(true).build());
+
+        assertThat(result.size(), Matchers.equalTo(3));
+    }
 }
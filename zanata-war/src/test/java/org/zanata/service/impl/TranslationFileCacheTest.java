@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class TranslationFileCacheTest {
+    private final TranslationFileCache.Key key =
+            new TranslationFileCache.Key(1L, "de", true);
+    private final TranslationFileCache.Stamp stamp =
+            new TranslationFileCache.Stamp(2, 1000L, 5L);
+
+    @Test
+    public void returnsFileWhileStampMatches() {
+        TranslationFileCache cache = new TranslationFileCache(1024);
+        byte[] contents = "msgid \"a\"".getBytes();
+        cache.put(key, stamp, contents);
+
+        assertThat(cache.get(key,
+                new TranslationFileCache.Stamp(2, 1000L, 5L)).get())
+                .isSameAs(contents);
+    }
+
+    @Test
+    public void ignoresFileRenderedFromOlderState() {
+        TranslationFileCache cache = new TranslationFileCache(1024);
+        cache.put(key, stamp, "msgid \"a\"".getBytes());
+
+        assertThat(cache.get(key,
+                new TranslationFileCache.Stamp(3, 1000L, 5L))
+                .isPresent()).isFalse();
+        assertThat(cache.get(key,
+                new TranslationFileCache.Stamp(2, 1500L, 5L))
+                .isPresent()).isFalse();
+        assertThat(cache.get(key,
+                new TranslationFileCache.Stamp(2, 1000L, 6L))
+                .isPresent()).isFalse();
+        assertThat(cache.get(new TranslationFileCache.Key(1L, "de", false),
+                stamp).isPresent()).isFalse();
+    }
+
+    @Test
+    public void doesNotKeepFilesLargerThanTheCache() {
+        TranslationFileCache cache = new TranslationFileCache(10);
+        cache.put(key, stamp, new byte[100]);
+
+        assertThat(cache.get(key, stamp).isPresent()).isFalse();
+    }
+}
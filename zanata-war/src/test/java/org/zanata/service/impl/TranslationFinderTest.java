@@ -45,6 +45,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.util.Arrays.asList;
@@ -349,6 +350,49 @@ public class TranslationFinderTest {
             testMostRecentMatch(translationMemoryService);
         }
 
+        @Test
+        @InRequestScope
+        public void testTextFlowTargetDAOBatchedMostRecent() {
+            HProjectIteration version =
+                    projectIterationDAO.getBySlug("same-project", "same-version");
+            assert version != null;
+
+            HDocument hDoc = version.getDocuments().get("/same/document0");
+            HTextFlow textFlow = hDoc.getTextFlows().get(0);
+            Map<Long, HTextFlowTarget> matches =
+                    textFlowTargetDAO.searchBestMatchesTransMemory(
+                            hDoc.getTextFlows(), LocaleId.DE, true, true,
+                            true);
+            assertThat(matches).containsKey(textFlow.getId());
+            checkTargetContents(matches.get(textFlow.getId()),
+                    "most recent content");
+            assertThat(matches.get(textFlow.getId())).isEqualTo(
+                    textFlowTargetDAO.searchBestMatchTransMemory(textFlow,
+                            LocaleId.DE, hDoc.getSourceLocaleId(), true,
+                            true, true).get());
+        }
+
+        @Test
+        @InRequestScope
+        public void testTextFlowTargetDAOExactMatchesMostRecentFirst() {
+            HProjectIteration version =
+                    projectIterationDAO.getBySlug("same-project", "same-version");
+            assert version != null;
+
+            HDocument hDoc = version.getDocuments().get("/same/document0");
+            HTextFlow textFlow = hDoc.getTextFlows().get(0);
+            List<HTextFlowTarget> matches =
+                    textFlowTargetDAO.findExactMatches(textFlow, LocaleId.DE,
+                            true, true, true, 10);
+            assertThat(matches).isNotEmpty();
+            checkTargetContents(matches.get(0), "most recent content");
+            for (HTextFlowTarget match : matches) {
+                assertThat(match.getTextFlow().getContentHash()).isEqualTo(
+                        textFlow.getContentHash());
+                assertThat(match.getState().isTranslated()).isTrue();
+            }
+        }
+
         /**
          * Makes sure that given two equal results, it will reuse the most recent
          * translation.
@@ -30,11 +30,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.zanata.cache.InfinispanTestCacheContainer;
+import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.events.DocStatsEvent;
 import org.zanata.events.DocumentLocaleKey;
 import org.zanata.test.CdiUnitRunner;
 import org.zanata.ui.model.statistic.WordStatistic;
@@ -50,6 +52,7 @@ import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -151,4 +154,80 @@ public class TranslationStateCacheImplTest {
                                                        // once
         assertThat(result, equalTo(true));
     }
+
+    @Test
+    public void docStatsUpdatedAppliesDeltasToCachedStatistic()
+            throws Exception {
+        // Given:
+        Long documentId = 100L;
+        LocaleId localeId = LocaleId.DE;
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        when(docStatisticLoader.load(key)).thenReturn(
+                new WordStatistic(0, 0, 10, 5, 0));
+        tsCache.getDocumentStatistics(documentId, localeId);
+
+        Map<ContentState, Long> deltas = new HashMap<ContentState, Long>();
+        DocStatsEvent.updateContentStateDeltas(deltas,
+                ContentState.Translated, ContentState.New, 3);
+
+        // When:
+        tsCache.docStatsUpdated(new DocStatsEvent(key, 1L, deltas, 1000L));
+        WordStatistic result =
+                tsCache.getDocumentStatistics(documentId, localeId);
+
+        // Then:
+        verify(docStatisticLoader, times(1)).load(key); // no reload
+        assertThat(result.getUntranslated(), equalTo(7));
+        assertThat(result.get(ContentState.Translated), equalTo(8));
+        assertThat(result.getTotal(), equalTo(15));
+    }
+
+    @Test
+    public void docStatsUpdatedReloadsWhenStatisticHasDrifted()
+            throws Exception {
+        // Given:
+        Long documentId = 100L;
+        LocaleId localeId = LocaleId.DE;
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        when(docStatisticLoader.load(key)).thenReturn(
+                new WordStatistic(0, 0, 1, 0, 0));
+        tsCache.getDocumentStatistics(documentId, localeId);
+
+        Map<ContentState, Long> deltas = new HashMap<ContentState, Long>();
+        DocStatsEvent.updateContentStateDeltas(deltas,
+                ContentState.Translated, ContentState.New, 3);
+
+        // When:
+        tsCache.docStatsUpdated(new DocStatsEvent(key, 1L, deltas, 1000L));
+        tsCache.getDocumentStatistics(documentId, localeId);
+
+        // Then:
+        verify(docStatisticLoader, times(2)).load(key);
+    }
+
+    @Test
+    public void docStatsUpdatedReloadsStatisticLoadedAfterTheChange()
+            throws Exception {
+        // Given:
+        Long documentId = 100L;
+        LocaleId localeId = LocaleId.DE;
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        WordStatistic loaded = new WordStatistic(0, 0, 10, 5, 0);
+        loaded.setLoadedAt(2000L);
+        when(docStatisticLoader.load(key)).thenReturn(loaded);
+        tsCache.getDocumentStatistics(documentId, localeId);
+
+        Map<ContentState, Long> deltas = new HashMap<ContentState, Long>();
+        DocStatsEvent.updateContentStateDeltas(deltas,
+                ContentState.Translated, ContentState.New, 3);
+
+        // When: the change was made before the statistic was loaded, so the
+        // load may already include it
+        tsCache.docStatsUpdated(
+                new DocStatsEvent(key, 1L, deltas, 1000L, 1000L));
+        tsCache.getDocumentStatistics(documentId, localeId);
+
+        // Then:
+        verify(docStatisticLoader, times(2)).load(key);
+    }
 }
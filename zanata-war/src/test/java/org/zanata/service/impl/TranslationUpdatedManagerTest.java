@@ -48,6 +48,7 @@ import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.WebHook;
 import org.zanata.ui.model.statistic.WordStatistic;
 import org.zanata.util.StatisticsUtil;
+import org.zanata.webhook.WebhookDispatcher;
 
 import com.google.common.collect.Lists;
 
@@ -69,6 +70,9 @@ public class TranslationUpdatedManagerTest {
     @Mock
     private TextFlowTargetDAO textFlowTargetDAO;
 
+    @Mock
+    private WebhookDispatcher webhookDispatcher;
+
     TranslationUpdatedManager manager;
 
     List<WebHook> webHooks = Lists.newArrayList();
@@ -93,7 +97,7 @@ public class TranslationUpdatedManagerTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         manager = new TranslationUpdatedManager();
-        manager.init(documentDAO, textFlowTargetDAO);
+        manager.init(documentDAO, textFlowTargetDAO, webhookDispatcher);
 
         HProjectIteration version = Mockito.mock(HProjectIteration.class);
         HProject project = Mockito.mock(HProject.class);
@@ -155,5 +159,6 @@ public class TranslationUpdatedManagerTest {
         assertThat(captor.getValue().size(), is(1));
         assertThat(((WebHook) captor.getValue().get(0)).getWebhookType(),
                 is(WebhookType.DocumentStatsEvent));
+        verify(webhookDispatcher).dispatch(webHooks.get(1), webhookEvent);
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.tmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.model.tm.TransMemoryUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class TMXImportPipelineTest {
+    private ExecutorService executor;
+    private List<List<TransMemoryUnit>> written;
+    // unique id -> name of the thread which wrote it
+    private Map<String, String> writerThreads;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        written = Collections.synchronizedList(Lists.newArrayList());
+        writerThreads = Maps.newConcurrentMap();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void record(List<TransMemoryUnit> batch) {
+        written.add(batch);
+        for (TransMemoryUnit tu : batch) {
+            writerThreads.put(tu.getUniqueId() + "#" + tu.getPosition(),
+                    Thread.currentThread().getName());
+        }
+    }
+
+    private static TransMemoryUnit tu(String uniqueId, int position) {
+        TransMemoryUnit tu = new TransMemoryUnit(uniqueId);
+        tu.setPosition(position);
+        return tu;
+    }
+
+    @Test
+    public void writesEveryUnitInBatches() throws Exception {
+        TMXImportPipeline pipeline =
+                new TMXImportPipeline(3, 10, this::record, executor);
+        for (int i = 0; i < 95; i++) {
+            pipeline.submit(tu("id" + i, i));
+        }
+
+        assertThat(pipeline.finish()).isEqualTo(95);
+        int total = 0;
+        for (List<TransMemoryUnit> batch : written) {
+            assertThat(batch.size()).isLessThanOrEqualTo(10);
+            total += batch.size();
+        }
+        assertThat(total).isEqualTo(95);
+    }
+
+    @Test
+    public void keepsUnitsWithTheSameIdInFileOrder() throws Exception {
+        List<Integer> positionsOfDuplicate =
+                Collections.synchronizedList(Lists.newArrayList());
+        TMXImportPipeline pipeline =
+                new TMXImportPipeline(4, 2, batch -> {
+                    for (TransMemoryUnit tu : batch) {
+                        if (tu.getUniqueId().equals("dup")) {
+                            positionsOfDuplicate.add(tu.getPosition());
+                        }
+                    }
+                }, executor);
+        for (int i = 0; i < 50; i++) {
+            pipeline.submit(tu("dup", i));
+            pipeline.submit(tu("other" + i, i));
+        }
+        pipeline.finish();
+
+        assertThat(positionsOfDuplicate).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            assertThat(positionsOfDuplicate.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void writesOnSubmittingThreadWhenRejected() throws Exception {
+        TMXImportPipeline pipeline =
+                new TMXImportPipeline(2, 1, this::record, command -> {
+                    throw new RejectedExecutionException();
+                });
+        pipeline.submit(tu("a", 1));
+        pipeline.submit(tu("b", 2));
+        pipeline.finish();
+
+        assertThat(writerThreads.values()).containsOnly(
+                Thread.currentThread().getName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void reportsFailedBatch() throws Exception {
+        TMXImportPipeline pipeline =
+                new TMXImportPipeline(2, 5, batch -> {
+                    throw new IllegalStateException("write failed");
+                }, executor);
+        pipeline.submit(tu("a", 1));
+        pipeline.finish();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webhook;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WebhookEndpointTest {
+    private static final String URL = "http://example.com/hook";
+
+    private static QueuedDelivery delivery(String payload) {
+        return new QueuedDelivery(null, 1L, URL, null, payload, 0);
+    }
+
+    @Test
+    public void queueIsBounded() {
+        WebhookEndpoint endpoint = new WebhookEndpoint(URL, 2);
+        assertThat(endpoint.offer(delivery("1"))).isTrue();
+        assertThat(endpoint.offer(delivery("2"))).isTrue();
+        assertThat(endpoint.offer(delivery("3"))).isFalse();
+
+        assertThat(endpoint.getQueueLength()).isEqualTo(2);
+        assertThat(endpoint.getOverflowedCount()).isEqualTo(1);
+        assertThat(endpoint.poll().getPayload()).isEqualTo("1");
+        assertThat(endpoint.poll().getPayload()).isEqualTo("2");
+        assertThat(endpoint.poll()).isNull();
+    }
+
+    @Test
+    public void onlyOneDrainerAtATime() {
+        WebhookEndpoint endpoint = new WebhookEndpoint(URL, 10);
+        assertThat(endpoint.startDraining()).as("nothing to drain")
+                .isFalse();
+
+        endpoint.offer(delivery("1"));
+        assertThat(endpoint.startDraining()).isTrue();
+        assertThat(endpoint.startDraining()).as("already draining")
+                .isFalse();
+
+        endpoint.stopDraining();
+        assertThat(endpoint.startDraining()).isTrue();
+    }
+
+    @Test
+    public void recordsLatencyOfEveryPost() {
+        WebhookEndpoint endpoint = new WebhookEndpoint(URL, 10);
+        endpoint.recordDelivered(TimeUnit.MILLISECONDS.toNanos(100));
+        endpoint.recordFailed(TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertThat(endpoint.getDeliveredCount()).isEqualTo(1);
+        assertThat(endpoint.getFailedCount()).isEqualTo(1);
+        assertThat(endpoint.getAverageLatencyMillis()).isEqualTo(200);
+        assertThat(endpoint.getMaxLatencyMillis()).isEqualTo(300);
+    }
+
+    @Test
+    public void retryDelayDoublesUpToOneHour() {
+        assertThat(WebhookDispatcher.retryDelayMillis(1))
+                .isEqualTo(TimeUnit.SECONDS.toMillis(30));
+        assertThat(WebhookDispatcher.retryDelayMillis(2))
+                .isEqualTo(TimeUnit.SECONDS.toMillis(60));
+        assertThat(WebhookDispatcher.retryDelayMillis(4))
+                .isEqualTo(TimeUnit.MINUTES.toMillis(4));
+        assertThat(WebhookDispatcher.retryDelayMillis(100))
+                .isEqualTo(TimeUnit.HOURS.toMillis(1));
+    }
+}
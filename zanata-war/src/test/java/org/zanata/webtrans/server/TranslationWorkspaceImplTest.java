@@ -53,12 +53,14 @@ public class TranslationWorkspaceImplTest {
                         ProjectType.Podir), new LocaleId("en-US"));
         WorkspaceContext workspaceContext =
                 new WorkspaceContext(workspaceId, "workspaceName", "en-US");
-        translationWorkspace = new TranslationWorkspaceImpl(workspaceContext);
+        translationWorkspace =
+                new TranslationWorkspaceImpl(workspaceContext, Runnable::run);
     }
 
     @Test(expected = NullPointerException.class)
     public void willNotCreateTranslationWorkspaceWithNullContext() {
-        translationWorkspace = new TranslationWorkspaceImpl(null);
+        translationWorkspace =
+                new TranslationWorkspaceImpl(null, Runnable::run);
     }
 
     @Test
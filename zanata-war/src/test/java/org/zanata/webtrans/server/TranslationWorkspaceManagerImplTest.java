@@ -38,9 +38,12 @@ import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
@@ -279,7 +282,8 @@ public class TranslationWorkspaceManagerImplTest {
             when(localeServiceImpl.getByLocaleId(workspaceId.getLocaleId()))
                     .thenReturn(hLocale);
             TranslationWorkspaceManagerImpl spy = spy(manager);
-            when(translationWorkspaceFactory.createWorkspace(workspaceId))
+            when(translationWorkspaceFactory.createWorkspace(eq(workspaceId),
+                    any(Executor.class)))
                     .thenReturn(mockWorkspace);
             ArrayList<EditorClientId> editorClientIds =
                     Lists.newArrayList(new EditorClientId("sessionId", 1L),
@@ -333,7 +337,8 @@ public class TranslationWorkspaceManagerImplTest {
                     .thenReturn(new ArrayList<ValidationAction>());
 
             TranslationWorkspaceManagerImpl spy = spy(manager);
-            when(translationWorkspaceFactory.createWorkspace(workspaceId))
+            when(translationWorkspaceFactory.createWorkspace(eq(workspaceId),
+                    any(Executor.class)))
                     .thenReturn(mockWorkspace);
             spy.getOrRegisterWorkspace(workspaceId);
 
@@ -357,9 +362,15 @@ public class TranslationWorkspaceManagerImplTest {
 
             when(entityManager.find(HProject.class, project.getId()))
                     .thenReturn(project);
-            doReturn(mockWorkspaceMaster).when(translationWorkspaceFactory).createWorkspace(matchIteration("master"));
-            doReturn(mockWorkspace1).when(translationWorkspaceFactory).createWorkspace(matchIteration("1"));
-            doReturn(mockWorkspace2).when(translationWorkspaceFactory).createWorkspace(matchIteration("2"));
+            doReturn(mockWorkspaceMaster).when(translationWorkspaceFactory)
+                    .createWorkspace(matchIteration("master"),
+                            any(Executor.class));
+            doReturn(mockWorkspace1).when(translationWorkspaceFactory)
+                    .createWorkspace(matchIteration("1"),
+                            any(Executor.class));
+            doReturn(mockWorkspace2).when(translationWorkspaceFactory)
+                    .createWorkspace(matchIteration("2"),
+                            any(Executor.class));
 
             manager.getOrRegisterWorkspace(new WorkspaceId(new ProjectIterationId("oldProject", "master",
                     ProjectType.File), LocaleId.EN_US));
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.model.TestFixture;
+import org.zanata.webtrans.shared.auth.EditorClientId;
+import org.zanata.webtrans.shared.model.DocumentId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
+import org.zanata.webtrans.shared.rpc.ExitWorkspace;
+import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+
+import com.google.common.collect.Lists;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkspaceEventQueueTest {
+    private static final EditorClientId EDITOR =
+            new EditorClientId("sessionId", 1);
+    private List<Runnable> tasks;
+    private List<SessionEventData> sent;
+    private WorkspaceEventQueue queue;
+
+    @Before
+    public void setUp() {
+        tasks = Lists.newArrayList();
+        sent = Lists.newArrayList();
+        // tasks are held back until runTasks(), so events pile up
+        queue = new WorkspaceEventQueue(tasks::add, sent::add);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static TransUnitUpdated update(long id, int previousVersion,
+            ContentState previousState, ContentState newState,
+            EditorClientId editor) {
+        TransUnitUpdateInfo info =
+                new TransUnitUpdateInfo(true, true, new DocumentId(1L,
+                        "doc"), TestFixture.makeTransUnit(id, newState), 3,
+                        previousVersion, previousState);
+        return new TransUnitUpdated(info, editor,
+                TransUnitUpdated.UpdateType.WebEditorSave);
+    }
+
+    @Test
+    public void sendsEventsInOrder() {
+        ExitWorkspace exit = new ExitWorkspace(EDITOR, null);
+        TransUnitUpdated update =
+                update(1L, 0, ContentState.New, ContentState.NeedReview,
+                        EDITOR);
+
+        queue.publish(exit);
+        queue.publish(update);
+        runTasks();
+
+        assertThat(sent).containsExactly(exit, update);
+        assertThat(queue.getDepth()).isEqualTo(0);
+        assertThat(queue.getSentCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void mergesWaitingUpdatesOfSameTextFlow() {
+        queue.publish(update(1L, 0, ContentState.New, ContentState.NeedReview,
+                EDITOR));
+        ExitWorkspace exit = new ExitWorkspace(EDITOR, null);
+        queue.publish(exit);
+        queue.publish(update(1L, 1, ContentState.NeedReview,
+                ContentState.Translated, EDITOR));
+        assertThat(queue.getDepth()).isEqualTo(2);
+
+        runTasks();
+
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0)).isSameAs(exit);
+        TransUnitUpdateInfo info =
+                ((TransUnitUpdated) sent.get(1)).getUpdateInfo();
+        // from the state before the first update to the state after the last
+        assertThat(info.getPreviousState()).isEqualTo(ContentState.New);
+        assertThat(info.getPreviousVersionNum()).isEqualTo(0);
+        assertThat(info.getTransUnit().getStatus())
+                .isEqualTo(ContentState.Translated);
+        assertThat(queue.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void keepsUpdatesFromDifferentEditorsApart() {
+        queue.publish(update(1L, 0, ContentState.New, ContentState.NeedReview,
+                EDITOR));
+        queue.publish(update(1L, 1, ContentState.NeedReview,
+                ContentState.Translated, new EditorClientId("sessionId", 2)));
+
+        runTasks();
+
+        assertThat(sent).hasSize(2);
+        assertThat(queue.getCoalescedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void doesNotMergePastAnotherEditorsUpdate() {
+        EditorClientId otherEditor = new EditorClientId("sessionId", 2);
+        queue.publish(update(1L, 0, ContentState.New, ContentState.NeedReview,
+                EDITOR));
+        queue.publish(update(1L, 1, ContentState.NeedReview,
+                ContentState.Translated, otherEditor));
+        queue.publish(update(1L, 2, ContentState.Translated,
+                ContentState.Approved, EDITOR));
+
+        runTasks();
+
+        assertThat(sent).hasSize(3);
+        assertThat(((TransUnitUpdated) sent.get(1)).getEditorClientId())
+                .isEqualTo(otherEditor);
+        assertThat(((TransUnitUpdated) sent.get(2)).getUpdateInfo()
+                .getPreviousVersionNum()).isEqualTo(2);
+        assertThat(queue.getCoalescedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void keepsSendingAfterAFailure() {
+        queue = new WorkspaceEventQueue(Runnable::run, event -> {
+            if (event instanceof ExitWorkspace) {
+                throw new IllegalStateException("broken connection");
+            }
+            sent.add(event);
+        });
+        queue.publish(new ExitWorkspace(EDITOR, null));
+        queue.publish(update(1L, 0, ContentState.New, ContentState.NeedReview,
+                EDITOR));
+
+        assertThat(sent).hasSize(1);
+        assertThat(queue.getFailedCount()).isEqualTo(1);
+    }
+}
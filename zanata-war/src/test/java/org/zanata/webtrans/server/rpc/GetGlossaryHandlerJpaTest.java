@@ -21,6 +21,7 @@ import org.zanata.model.HLocale;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
 import org.zanata.test.CdiUnitRunner;
+import org.zanata.webtrans.shared.model.GlossaryResultItem;
 import org.zanata.webtrans.shared.rpc.GetGlossary;
 import org.zanata.webtrans.shared.rpc.GetGlossaryResult;
 import org.zanata.webtrans.shared.rpc.HasSearchType;
@@ -125,6 +126,35 @@ public class GetGlossaryHandlerJpaTest extends ZanataDbunitJpaTest {
                 Matchers.equalTo("Fedora 美工"));
     }
 
+    @Test
+    @InRequestScope
+    public void canGetGlossaryTermsInText() throws Exception {
+        String searchText = "Join the fedora  translation team";
+        GetGlossary action =
+                new GetGlossary(searchText, TARGET_LOCALE_ID, LocaleId.EN_US,
+                        HasSearchType.SearchType.FUZZY);
+        // the index finds the same term as the matcher, and a partial match
+        HGlossaryTerm termInText = getEm().find(HGlossaryTerm.class, 10L);
+        HGlossaryTerm partialMatch = getEm().find(HGlossaryTerm.class, 42L);
+        List<Object[]> matches =
+                Lists.newArrayList(new Object[] { 1.0F, termInText },
+                        new Object[] { 0.5F, partialMatch });
+        doReturn(matches).when(glossaryDAO).getSearchResult(searchText,
+                HasSearchType.SearchType.FUZZY, LocaleId.EN_US, 20);
+
+        GetGlossaryResult result = handler.execute(action, null);
+
+        assertThat(result.getGlossaries(), Matchers.hasSize(2));
+        GlossaryResultItem termItem = result.getGlossaries().stream()
+                .filter(item -> item.getSource().equals("Fedora Translation"))
+                .findFirst().get();
+        assertThat(termItem.getTarget(), Matchers.equalTo("Fedora 翻译"));
+        assertThat(termItem.getSourceIdList(), Matchers.contains(10L));
+        assertThat(result.getGlossaries(), Matchers.hasItem(
+                Matchers.hasProperty("source",
+                        Matchers.equalTo("Planet Fedora"))));
+    }
+
     @Test
     @InRequestScope
     public void testRollback() throws Exception {
@@ -143,6 +143,83 @@ public class GetTransUnitListHandlerTest extends ZanataDbunitJpaTest {
                 Matchers.contains(1, 2, 3, 4, 5));
     }
 
+    @Test
+    @InRequestScope
+    public void testExecuteToGetPageAtOffset() throws Exception {
+        GetTransUnitList action =
+                GetTransUnitList.newAction(new GetTransUnitActionContext(
+                        document).withOffset(7).withCount(5));
+        prepareActionAndMockLocaleService(action);
+
+        GetTransUnitListResult result = handler.execute(action, null);
+
+        // obsolete text flow 11 is left out of the last page
+        assertThat(TestFixture.asIds(result.getUnits()),
+                Matchers.contains(8, 9, 10));
+    }
+
+    @Test
+    @InRequestScope
+    public void testExecuteToGetPageFromFirstTransUnit() throws Exception {
+        GetTransUnitList action =
+                GetTransUnitList.newAction(
+                        new GetTransUnitActionContext(document).withOffset(7)
+                                .withCount(5)).setFirstTransUnitId(
+                        new TransUnitId(8));
+        prepareActionAndMockLocaleService(action);
+
+        GetTransUnitListResult result = handler.execute(action, null);
+
+        assertThat(TestFixture.asIds(result.getUnits()),
+                Matchers.contains(8, 9, 10));
+    }
+
+    @Test
+    @InRequestScope
+    public void testExecuteWithObsoleteFirstTransUnitUsesOffset()
+            throws Exception {
+        GetTransUnitList action =
+                GetTransUnitList.newAction(
+                        new GetTransUnitActionContext(document).withOffset(7)
+                                .withCount(5)).setFirstTransUnitId(
+                        new TransUnitId(11));
+        prepareActionAndMockLocaleService(action);
+
+        GetTransUnitListResult result = handler.execute(action, null);
+
+        assertThat(TestFixture.asIds(result.getUnits()),
+                Matchers.contains(8, 9, 10));
+    }
+
+    @Test
+    @InRequestScope
+    public void testExecuteWithStatusFilterStartsAtReloadedIndex()
+            throws Exception {
+        GetTransUnitsNavigationResult navigationResult =
+                mock(GetTransUnitsNavigationResult.class);
+        List<TransUnitId> idIndexList = new ArrayList<TransUnitId>();
+        for (long id : new long[] { 3, 5, 6, 7, 8 }) {
+            idIndexList.add(new TransUnitId(id));
+        }
+        GetTransUnitList action =
+                GetTransUnitList.newAction(new GetTransUnitActionContext(
+                        document).withFilterFuzzy(true)
+                        .withFilterUntranslated(true).withOffset(2)
+                        .withCount(2));
+        action.setNeedReloadIndex(true);
+        prepareActionAndMockLocaleService(action);
+        when(
+                getTransUnitsNavigationService.getNavigationIndexes(
+                        isA(GetTransUnitsNavigation.class), isA(HLocale.class)))
+                .thenReturn(navigationResult);
+        when(navigationResult.getIdIndexList()).thenReturn(idIndexList);
+
+        GetTransUnitListResult result = handler.execute(action, null);
+
+        assertThat(TestFixture.asIds(result.getUnits()),
+                Matchers.contains(6, 7));
+    }
+
     @Test
     @InRequestScope
     public void testExecuteWithStatusFilterOnly() throws Exception {